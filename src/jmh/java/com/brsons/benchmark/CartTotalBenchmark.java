@@ -0,0 +1,115 @@
+package com.brsons.benchmark;
+
+import com.brsons.model.TaxBreakdown;
+import com.brsons.model.TaxPlan;
+import com.brsons.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart subtotal plus intra-state GST (CGST + SGST) over a synthetic cart,
+ * computed the old way (double), with BigDecimal and with Money.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartTotalBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal[] GST_HALF_RATES = {
+        new BigDecimal("2.5"), new BigDecimal("6"), new BigDecimal("9"), new BigDecimal("14")
+    };
+
+    @Param({"500"})
+    public int lines;
+
+    private Double[] unitPrices;
+    private int[] quantities;
+    private BigDecimal[] halfRates;
+    private TaxPlan[] plans;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        unitPrices = new Double[lines];
+        quantities = new int[lines];
+        halfRates = new BigDecimal[lines];
+        plans = new TaxPlan[lines];
+        for (int i = 0; i < lines; i++) {
+            // Two-decimal rupee prices between 1.00 and 5000.00, as entered in the admin
+            unitPrices[i] = (100 + random.nextInt(499_900)) / 100.0;
+            quantities[i] = 1 + random.nextInt(12);
+            halfRates[i] = GST_HALF_RATES[random.nextInt(GST_HALF_RATES.length)];
+            plans[i] = TaxPlan.of(halfRates[i], halfRates[i], halfRates[i].add(halfRates[i]));
+        }
+    }
+
+    @Benchmark
+    public double doubleTotals() {
+        double grandTotal = 0.0;
+        double tax = 0.0;
+        for (int i = 0; i < lines; i++) {
+            double lineTotal = unitPrices[i] * quantities[i];
+            grandTotal += lineTotal;
+            double rate = halfRates[i].doubleValue() / 100.0;
+            tax += lineTotal * rate;
+            tax += lineTotal * rate;
+        }
+        return grandTotal + tax;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotals() {
+        BigDecimal grandTotal = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal lineTotal = BigDecimal.valueOf(unitPrices[i]).multiply(BigDecimal.valueOf(quantities[i]));
+            grandTotal = grandTotal.add(lineTotal);
+            BigDecimal half = lineTotal.multiply(halfRates[i]).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            tax = tax.add(half).add(half);
+        }
+        return grandTotal.add(tax);
+    }
+
+    @Benchmark
+    public long moneyTotals() {
+        Money grandTotal = Money.ZERO;
+        Money tax = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Money lineTotal = Money.of(unitPrices[i]).times(quantities[i]);
+            grandTotal = grandTotal.plus(lineTotal);
+            Money half = lineTotal.percentOf(halfRates[i]);
+            tax = tax.plus(half).plus(half);
+        }
+        return grandTotal.plus(tax).getPaise();
+    }
+
+    @Benchmark
+    public long moneyTaxBreakdown() {
+        TaxBreakdown breakdown = new TaxBreakdown();
+        Money grandTotal = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Money lineTotal = Money.of(unitPrices[i]).times(quantities[i]);
+            grandTotal = grandTotal.plus(lineTotal);
+            breakdown.addLine(plans[i], true, lineTotal);
+        }
+        return grandTotal.plus(breakdown.getTotalTax()).getPaise();
+    }
+}
@@ -0,0 +1,197 @@
+package com.brsons.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.brsons.model.CartItemDetails;
+import com.brsons.model.Product;
+import com.brsons.model.TaxBreakdown;
+import com.brsons.service.GstEngine;
+import com.brsons.service.TaxCalculationService;
+import com.brsons.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checkout throughput from 8 threads with the logging a checkout used to do:
+ * a dozen lines per request and five per cart line, around the cart's tax
+ * calculation.
+ *
+ * stdout is the old System.out.println with string concatenation (a
+ * PrintStream set up like the JVM's stdout, written to a file); sync and
+ * async log the same lines through SLF4J to a file, directly or through the
+ * AsyncAppender used by logback-spring.xml; async-info is the production
+ * default, where those lines are DEBUG and skipped. Log files are written
+ * under target/jmh-logging and deleted after each run (they reach gigabytes).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CheckoutLoggingBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutLoggingBenchmark.class);
+
+    private static final String[] REQUEST_LINES = {
+            "=== CHECKOUT ENDPOINT HIT === Session ID: ", "User from session: ", "Cart items: ",
+            "Buyer state: ", "Bill type: ", "Creating order for user: ", "Saved order ID: ",
+            "Creating outstanding item for new order ID: ", "Created outstanding item for new order ID: ",
+            "Customer ledger balance after invoice: ", "Invoice number: ", "Checkout completed for order: "};
+
+    private static final String[] ITEM_LINES = {
+            "Determining tax type for product: ", "Product CGST/SGST: ", "Product IGST: ",
+            "Buyer state matches business state: ", "Line total after tax: "};
+
+    @Param({"stdout", "sync", "async", "async-info"})
+    public String mode;
+
+    @Param({"10"})
+    public int cartLines;
+
+    private final TaxCalculationService taxCalculationService = new TaxCalculationService();
+    private final AtomicLong orderIds = new AtomicLong();
+    private List<CartItemDetails> cart;
+    private String[] requestFormats;
+    private String[] itemFormats;
+    private File logFile;
+    private PrintStream stdout;
+    private LoggerContext loggerContext;
+
+    @Setup
+    public void setUp() throws IOException {
+        ReflectionTestUtils.setField(taxCalculationService, "gstEngine", new GstEngine());
+        cart = new ArrayList<>();
+        for (int i = 0; i < cartLines; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setCgstPercentage(new BigDecimal("9"));
+            product.setSgstPercentage(new BigDecimal("9"));
+            product.setIgstPercentage(new BigDecimal("18"));
+            cart.add(new CartItemDetails(product.getId(), product, 1 + i % 3, Money.ofPaise(49_900L * (i + 1))));
+        }
+        requestFormats = formats(REQUEST_LINES);
+        itemFormats = formats(ITEM_LINES);
+
+        File dir = new File("target/jmh-logging");
+        dir.mkdirs();
+        File file = new File(dir, mode + ".log");
+        logFile = file;
+        if ("stdout".equals(mode)) {
+            // What System.out is: a PrintStream flushing on every println over a small buffer
+            stdout = new PrintStream(new BufferedOutputStream(new FileOutputStream(file), 128), true);
+            return;
+        }
+
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level [%15.15thread] %-40.40logger{39} "
+                + "requestId=%X{requestId:--} userPhone=%X{userPhone:--} orderId=%X{orderId:--} : %msg%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(loggerContext);
+        fileAppender.setFile(file.getPath());
+        fileAppender.setAppend(false);
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+        ch.qos.logback.classic.Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.addAppender(appender);
+        root.setLevel("async-info".equals(mode) ? Level.INFO : Level.DEBUG);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (stdout != null) {
+            stdout.close();
+        }
+        if (loggerContext != null) {
+            loggerContext.stop();
+        }
+        logFile.delete();
+    }
+
+    @Benchmark
+    public TaxBreakdown checkout() {
+        long orderId = orderIds.incrementAndGet();
+        MDC.put("requestId", Long.toHexString(orderId));
+        MDC.put("userPhone", "9000000203");
+        MDC.put("orderId", Long.toString(orderId));
+        try {
+            for (int i = 0; i < REQUEST_LINES.length / 2; i++) {
+                line(REQUEST_LINES[i], requestFormats[i], orderId);
+            }
+            for (CartItemDetails item : cart) {
+                for (int i = 0; i < ITEM_LINES.length; i++) {
+                    line(ITEM_LINES[i], itemFormats[i], item.getProduct().getId());
+                }
+            }
+            TaxBreakdown breakdown = taxCalculationService.calculateTaxForCart(cart, "Rajasthan");
+            for (int i = REQUEST_LINES.length / 2; i < REQUEST_LINES.length; i++) {
+                line(REQUEST_LINES[i], requestFormats[i], breakdown.getTotalTax());
+            }
+            return breakdown;
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private void line(String prefix, String format, Object value) {
+        if (stdout != null) {
+            stdout.println(prefix + value);
+        } else {
+            log.debug(format, value);
+        }
+    }
+
+    private static String[] formats(String[] prefixes) {
+        String[] formats = new String[prefixes.length];
+        for (int i = 0; i < prefixes.length; i++) {
+            formats[i] = prefixes[i] + "{}";
+        }
+        return formats;
+    }
+}
@@ -0,0 +1,73 @@
+package com.brsons.benchmark;
+
+import com.brsons.dto.DaybookEntryDto;
+import com.brsons.service.DaybookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daybook merge: seven per-source entry lists (vouchers, orders, POs, GRNs,
+ * payments, supplier and customer ledger) concatenated and sorted by date
+ * and time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaybookMergeBenchmark {
+
+    private static final String[] SOURCES = {
+        "VOUCHER", "ORDER", "PURCHASE_ORDER", "GRN", "OUTSTANDING_PAYMENT", "SUPPLIER_LEDGER", "CUSTOMER_LEDGER"
+    };
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private List<List<DaybookEntryDto>> sources;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2026, 4, 1, 0, 0);
+        sources = new ArrayList<>();
+        for (int s = 0; s < SOURCES.length; s++) {
+            sources.add(new ArrayList<>());
+        }
+        for (int i = 0; i < rows; i++) {
+            int s = random.nextInt(SOURCES.length);
+            // A month of activity at one-minute resolution, so times collide
+            LocalDateTime time = start.plusMinutes(random.nextInt(30 * 24 * 60));
+            DaybookEntryDto entry = new DaybookEntryDto();
+            entry.setDate(time.toLocalDate());
+            entry.setTime(time);
+            entry.setTransactionType(SOURCES[s]);
+            entry.setTransactionId(String.valueOf(i));
+            entry.setDebitAmount(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            entry.setCreditAmount(BigDecimal.ZERO);
+            sources.get(s).add(entry);
+        }
+    }
+
+    @Benchmark
+    public List<DaybookEntryDto> merge() {
+        return DaybookService.mergeEntries(sources);
+    }
+}
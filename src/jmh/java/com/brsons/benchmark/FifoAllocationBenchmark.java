@@ -0,0 +1,61 @@
+package com.brsons.benchmark;
+
+import com.brsons.util.FifoAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FIFO payment allocation over a party's open invoices, oldest first, for a
+ * payment that clears about half of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FifoAllocationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private List<BigDecimal> outstanding;
+    private BigDecimal payment;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        outstanding = new ArrayList<>(rows);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < rows; i++) {
+            // Every tenth invoice is already paid off
+            BigDecimal amount = i % 10 == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(100 + random.nextInt(5_000_000), 2);
+            outstanding.add(amount);
+            total = total.add(amount);
+        }
+        payment = total.divide(BigDecimal.valueOf(2));
+    }
+
+    @Benchmark
+    public BigDecimal allocate() {
+        BigDecimal[] applied = {BigDecimal.ZERO};
+        BigDecimal remaining = FifoAllocator.allocate(outstanding, amount -> amount, payment,
+                (amount, share) -> applied[0] = applied[0].add(share));
+        return applied[0].add(remaining);
+    }
+}
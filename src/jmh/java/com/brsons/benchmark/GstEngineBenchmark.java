@@ -0,0 +1,108 @@
+package com.brsons.benchmark;
+
+import com.brsons.model.CartItemDetails;
+import com.brsons.model.Product;
+import com.brsons.service.GstEngine;
+import com.brsons.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed-rate cart tax: the old per-item double loop, the old invoice rule
+ * (first product's rate on the BigDecimal subtotal) and the GST engine with
+ * cached tax plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GstEngineBenchmark {
+
+    private static final String[] SLAB_RATES = {"5", "12", "18", "28"};
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"500", "5000"})
+    public int lines;
+
+    @Param({"true", "false"})
+    public boolean intraState;
+
+    private final GstEngine engine = new GstEngine();
+    private List<CartItemDetails> cart;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            BigDecimal rate = new BigDecimal(SLAB_RATES[random.nextInt(SLAB_RATES.length)]);
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setCgstPercentage(rate.divide(BigDecimal.valueOf(2)));
+            product.setSgstPercentage(rate.divide(BigDecimal.valueOf(2)));
+            product.setIgstPercentage(rate);
+            products.add(product);
+        }
+        cart = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Product product = products.get(random.nextInt(products.size()));
+            int quantity = 1 + random.nextInt(6);
+            Money unitPrice = Money.ofPaise(100 + random.nextInt(499_900));
+            cart.add(new CartItemDetails(product.getId(), product, quantity, unitPrice.times(quantity)));
+        }
+    }
+
+    @Benchmark
+    public double legacyPerItemDouble() {
+        double tax = 0.0;
+        for (CartItemDetails item : cart) {
+            Product product = item.getProduct();
+            double total = item.getTotalPrice();
+            if (intraState) {
+                tax += total * (product.getCgstPercentage().doubleValue() / 100.0);
+                tax += total * (product.getSgstPercentage().doubleValue() / 100.0);
+            } else {
+                tax += total * (product.getIgstPercentage().doubleValue() / 100.0);
+            }
+        }
+        return tax;
+    }
+
+    @Benchmark
+    public BigDecimal legacyFirstProductRate() {
+        BigDecimal sub = BigDecimal.ZERO;
+        for (CartItemDetails item : cart) {
+            sub = sub.add(item.getLineTotal().toBigDecimal());
+        }
+        Product first = cart.get(0).getProduct();
+        if (intraState) {
+            BigDecimal cgst = sub.multiply(first.getCgstPercentage()).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            BigDecimal sgst = sub.multiply(first.getSgstPercentage()).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            return cgst.add(sgst);
+        }
+        return sub.multiply(first.getIgstPercentage()).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long engine() {
+        return engine.calculateCart(cart, intraState).getTotalTax().getPaise();
+    }
+}
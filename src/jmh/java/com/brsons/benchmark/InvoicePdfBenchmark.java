@@ -0,0 +1,133 @@
+package com.brsons.benchmark;
+
+import com.brsons.model.Order;
+import com.brsons.model.OrderItem;
+import com.brsons.model.Product;
+import com.brsons.repository.OrderItemRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.GstEngine;
+import com.brsons.service.InvoicePdfService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * InvoicePdfService.render for a CGST + SGST order with mixed rate slabs.
+ * Repositories are answered from memory, so this measures PDF layout and
+ * the per-slab tax rows, not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoicePdfBenchmark {
+
+    private static final String[] SLAB_RATES = {"5", "12", "18", "28"};
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"100", "1000"})
+    public int lines;
+
+    private InvoicePdfService invoicePdfService;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<Long, Product> products = new HashMap<>();
+        for (long id = 1; id <= 200; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setProductName("Cotton Kurta " + id);
+            products.put(id, product);
+        }
+
+        order = new Order();
+        order.setId(1L);
+        order.setName("Benchmark Customer");
+        order.setAddressLine1("12 Station Road");
+        order.setAddressLine2("Near Clock Tower");
+        order.setCity("Jaipur");
+        order.setState("Rajasthan");
+        order.setZipCode("302001");
+        order.setBillType("Pakka");
+        order.setTaxType("CGST_SGST");
+        order.setCreatedAt(LocalDateTime.of(2026, 4, 1, 11, 30));
+
+        List<OrderItem> items = new ArrayList<>(lines);
+        BigDecimal subTotal = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal rate = new BigDecimal(SLAB_RATES[random.nextInt(SLAB_RATES.length)]);
+            int quantity = 1 + random.nextInt(6);
+            BigDecimal unitPrice = BigDecimal.valueOf(100 + random.nextInt(499_900), 2);
+            BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            BigDecimal half = total.multiply(rate).divide(HUNDRED.add(HUNDRED), 2, RoundingMode.HALF_UP);
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProductId((long) 1 + random.nextInt(products.size()));
+            item.setQuantity(quantity);
+            item.setUnitPrice(unitPrice);
+            item.setTotalPrice(total);
+            item.setUserType("Retail");
+            item.setGstRate(rate);
+            item.setCgstAmount(half);
+            item.setSgstAmount(half);
+            item.setIgstAmount(BigDecimal.ZERO);
+            items.add(item);
+            subTotal = subTotal.add(total);
+            tax = tax.add(half).add(half);
+        }
+        order.setOrderItems(items);
+        order.setSubTotal(subTotal);
+        order.setGstAmount(tax);
+        order.setTotal(subTotal.add(tax));
+
+        ProductRepository productRepository = stub(ProductRepository.class, "findById",
+                args -> Optional.ofNullable(products.get((Long) args[0])));
+        OrderItemRepository orderItemRepository = stub(OrderItemRepository.class, "findByOrder", args -> items);
+        invoicePdfService = new InvoicePdfService(productRepository, orderItemRepository);
+        ReflectionTestUtils.setField(invoicePdfService, "gstEngine", new GstEngine());
+    }
+
+    @Benchmark
+    public byte[] render() {
+        return invoicePdfService.render(order);
+    }
+
+    // Repository answering only the one method render() calls
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String method, Function<Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, m, args) -> {
+            if (m.getName().equals(method)) {
+                return answer.apply(args);
+            }
+            throw new UnsupportedOperationException(m.getName());
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.brsons.benchmark;
+
+import com.brsons.model.CartItemDetails;
+import com.brsons.model.Product;
+import com.brsons.model.TaxBreakdown;
+import com.brsons.model.TaxPlan;
+import com.brsons.service.GstEngine;
+import com.brsons.service.TaxCalculationService;
+import com.brsons.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaxCalculationService.calculateTaxForCart for a buyer in the business
+ * state and one outside it, and raw TaxBreakdown accumulation over the same
+ * lines with their plans already resolved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxCalculationBenchmark {
+
+    private static final String[] SLAB_RATES = {"5", "12", "18", "28"};
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private final GstEngine engine = new GstEngine();
+    private final TaxCalculationService taxCalculationService = new TaxCalculationService();
+    private List<CartItemDetails> cart;
+    private TaxPlan[] plans;
+    private Money[] lineTotals;
+
+    @Setup
+    public void setUp() {
+        ReflectionTestUtils.setField(taxCalculationService, "gstEngine", engine);
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            BigDecimal rate = new BigDecimal(SLAB_RATES[random.nextInt(SLAB_RATES.length)]);
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setCgstPercentage(rate.divide(BigDecimal.valueOf(2)));
+            product.setSgstPercentage(rate.divide(BigDecimal.valueOf(2)));
+            product.setIgstPercentage(rate);
+            products.add(product);
+        }
+        cart = new ArrayList<>(rows);
+        plans = new TaxPlan[rows];
+        lineTotals = new Money[rows];
+        for (int i = 0; i < rows; i++) {
+            Product product = products.get(random.nextInt(products.size()));
+            int quantity = 1 + random.nextInt(6);
+            Money lineTotal = Money.ofPaise(100 + random.nextInt(499_900)).times(quantity);
+            cart.add(new CartItemDetails(product.getId(), product, quantity, lineTotal));
+            plans[i] = TaxPlan.of(product);
+            lineTotals[i] = lineTotal;
+        }
+    }
+
+    @Benchmark
+    public TaxBreakdown cartIntraState() {
+        return taxCalculationService.calculateTaxForCart(cart, "Rajasthan");
+    }
+
+    @Benchmark
+    public TaxBreakdown cartInterState() {
+        return taxCalculationService.calculateTaxForCart(cart, "Maharashtra");
+    }
+
+    @Benchmark
+    public long breakdownAccumulation() {
+        TaxBreakdown breakdown = new TaxBreakdown(engine.getRounding());
+        for (int i = 0; i < rows; i++) {
+            breakdown.addLine(plans[i], true, lineTotals[i]);
+        }
+        return breakdown.getTotalTax().getPaise();
+    }
+}
@@ -0,0 +1,64 @@
+package com.brsons.benchmark;
+
+import com.brsons.dto.HierarchicalTrialBalanceRow;
+import com.brsons.service.TrialBalanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchical trial balance roll-up (link, sort and total the account tree)
+ * over synthetic per-account net balances, as returned by its native query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrialBalanceRollupBenchmark {
+
+    private static final String[] ACCOUNT_TYPES = {"ASSET", "LIABILITY", "EQUITY", "INCOME", "EXPENSE"};
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private final TrialBalanceService trialBalanceService = new TrialBalanceService();
+    private List<Object[]> results;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        // One top-level group per 50 accounts; every other account hangs off an earlier one
+        int groups = Math.max(1, rows / 50);
+        results = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long id = i + 1;
+            Long parentId = i < groups ? null : (long) (1 + random.nextInt(i));
+            BigDecimal net = BigDecimal.valueOf(random.nextInt(10_000_000) - 5_000_000, 2);
+            results.add(new Object[] {
+                id, "Account " + id, String.format("%07d", id),
+                ACCOUNT_TYPES[random.nextInt(ACCOUNT_TYPES.length)], parentId, net
+            });
+        }
+    }
+
+    @Benchmark
+    public List<HierarchicalTrialBalanceRow> rollUp() {
+        return trialBalanceService.buildHierarchy(results);
+    }
+}
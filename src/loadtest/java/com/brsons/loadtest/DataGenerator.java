@@ -0,0 +1,636 @@
+package com.brsons.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * Fills a local PostgreSQL database with production-sized synthetic data for
+ * load testing. The tables must already exist: start the application against
+ * the database once so Hibernate creates them, stop it, then run
+ *
+ *   mvn -Ploadtest -DskipTests test-compile exec:java \
+ *       -Dexec.mainClass=com.brsons.loadtest.DataGenerator \
+ *       -Dexec.args="--url jdbc:postgresql://localhost:5432/brsons_load --scale 0.1"
+ *
+ * At --scale 1 this writes 100k products with 300k variants, 20k customers,
+ * 2k suppliers, 1M orders (about 2.5M items), 2.5M vouchers with 5M entries,
+ * customer and supplier ledgers and 200k outstanding items. Rows are streamed
+ * with COPY ... FROM STDIN; ids continue after the current maximum and the
+ * identity sequences are moved past them at the end, so it can be run on top
+ * of existing data. The same seed and end date give the same data.
+ *
+ * The id ranges and logins are written to a manifest for {@link LoadHarness}.
+ * Order status counters and the monthly GST summary are derived data: restart
+ * the application (counters are checked at startup) and POST
+ * /accounting/gst-summary/rebuild afterwards.
+ */
+public class DataGenerator {
+
+    public static final String PASSWORD = "loadtest";
+
+    private static final long CUSTOMER_PHONES = 9_000_000_000L;
+    private static final long SUPPLIER_PHONES = 8_000_000_000L;
+    private static final int FLUSH_BYTES = 1 << 20;
+    private static final String BUSINESS_STATE = "Rajasthan";
+    private static final String[] STATES = {
+        "Rajasthan", "Rajasthan", "Maharashtra", "Gujarat", "Delhi", "Karnataka", "Uttar Pradesh", "Tamil Nadu"
+    };
+    private static final String[] CITIES = {"Jaipur", "Jodhpur", "Mumbai", "Ahmedabad", "Delhi", "Bengaluru", "Lucknow", "Chennai"};
+    private static final String[] FABRICS = {"Cotton", "Silk", "Linen", "Rayon", "Georgette", "Chiffon", "Khadi", "Denim"};
+    private static final String[] GARMENTS = {"Kurta", "Saree", "Dupatta", "Shirt", "Lehenga", "Salwar Suit", "Palazzo", "Jacket"};
+    private static final String[] COLORS = {"Red", "Blue", "Green", "Black", "White", "Yellow", "Maroon", "Pink", "Beige"};
+    private static final String[] SIZES = {"S", "M", "L", "XL", "XXL", "Free"};
+    private static final String[] PATTERNS = {"Printed", "Solid", "Embroidered", "Block Print", "Bandhani", "Striped"};
+    private static final String[] GST_RATES = {"5", "5", "12", "12", "18"};
+    private static final String[] PHOTOS = {"/images/jacket.jpg", "/images/jeans.jpg", "/images/tshirt.jpg"};
+    private static final String[] ORDER_STATUSES = {
+        "Delivered", "Delivered", "Delivered", "Delivered", "Confirmed", "Confirmed", "Shipped", "Pending", "Cancelled"
+    };
+    private static final String[] VOUCHER_TYPES = {"SALES", "PURCHASE", "RECEIPT", "PAYMENT", "JOURNAL"};
+    private static final String[] OUTSTANDING_STATUSES = {"PENDING", "PENDING", "OVERDUE", "PARTIALLY_PAID", "SETTLED"};
+    private static final String[][] ACCOUNT_GROUPS = {
+        {"ASSET", "1000", "Assets"}, {"LIABILITY", "2000", "Liabilities"}, {"EQUITY", "3000", "Equity"},
+        {"INCOME", "4000", "Income"}, {"EXPENSE", "5000", "Expenses"}
+    };
+    private static final int ACCOUNTS_PER_GROUP = 40;
+
+    // Independent random streams, so one table's volume never shifts another's data
+    private static final int ORDERS = 1, VOUCHERS = 2, CUSTOMER_LEDGERS = 3, SUPPLIER_LEDGERS = 4;
+
+    private final Connection connection;
+    private final long seed;
+    private final double scale;
+    private final LocalDate endDate;
+    private final Map<String, Object> manifest = new LinkedHashMap<>();
+
+    private int categoryCount;
+    private long categoryBase;
+    private int productCount;
+    private long productBase;
+    private double[] retailPrices;
+    private BigDecimal[] gstRates;
+    private int customerCount;
+    private long userBase;
+    private boolean[] b2b;
+    private int supplierCount;
+    private long supplierBase;
+    private long accountBase;
+    private int orderCount;
+    private long orderBase;
+
+    public DataGenerator(Connection connection, long seed, double scale, LocalDate endDate) {
+        this.connection = connection;
+        this.seed = seed;
+        this.scale = scale;
+        this.endDate = endDate;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/postgres");
+        double scale = Double.parseDouble(options.getOrDefault("scale", "1"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        LocalDate endDate = options.containsKey("end-date") ? LocalDate.parse(options.get("end-date")) : LocalDate.now();
+        Path manifestPath = Paths.get(options.getOrDefault("manifest", "target/loadtest/manifest.properties"));
+
+        try (Connection connection = DriverManager.getConnection(url,
+                options.getOrDefault("user", "postgres"), options.getOrDefault("password", ""))) {
+            connection.setAutoCommit(false);
+            DataGenerator generator = new DataGenerator(connection, seed, scale, endDate);
+            long started = System.currentTimeMillis();
+            generator.generate();
+            generator.writeManifest(manifestPath);
+            System.out.println("Data generated in " + (System.currentTimeMillis() - started) / 1000 + "s, manifest: " + manifestPath);
+        }
+    }
+
+    public void generate() throws SQLException, IOException {
+        categoryCount = scaled(50, 5);
+        productCount = scaled(100_000, 100);
+        customerCount = scaled(20_000, 50);
+        supplierCount = scaled(2_000, 10);
+        orderCount = scaled(1_000_000, 500);
+
+        writeCategories();
+        writeAccounts();
+        writeProducts();
+        writeUsers();
+        writeSuppliers();
+        writeOrders();
+        writeVouchers(scaled(2_500_000, 1000));
+        writeCustomerLedgers(scaled(300_000, 200));
+        writeSupplierLedgers(scaled(100_000, 100));
+        writeOutstandings(scaled(200_000, 100));
+        resetSequences();
+    }
+
+    private void writeCategories() throws SQLException, IOException {
+        categoryBase = maxId("categories");
+        try (CopyWriter out = copy("categories", "id, category_name, creation_date, image, status")) {
+            for (int i = 1; i <= categoryCount; i++) {
+                out.row(categoryBase + i, FABRICS[i % FABRICS.length] + " " + GARMENTS[i % GARMENTS.length] + " " + i,
+                        endDate.minusYears(2).atStartOfDay(), null, "Active");
+            }
+        }
+    }
+
+    private void writeAccounts() throws SQLException, IOException {
+        accountBase = maxId("account");
+        try (CopyWriter out = copy("account", "id, code, description, is_active, name, type, parent_id")) {
+            long id = accountBase;
+            for (String[] group : ACCOUNT_GROUPS) {
+                long parentId = ++id;
+                String code = group[1] + "-LT" + parentId;
+                out.row(parentId, code, "Load test group", true, group[2], group[0], null);
+                for (int i = 1; i <= ACCOUNTS_PER_GROUP; i++) {
+                    out.row(++id, code + "-" + String.format("%03d", i), null, true,
+                            group[2] + " " + i, group[0], parentId);
+                }
+            }
+        }
+    }
+
+    private void writeProducts() throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        productBase = maxId("products");
+        retailPrices = new double[productCount];
+        gstRates = new BigDecimal[productCount];
+        try (CopyWriter out = copy("products", "id, b2b_min_quantity, b2b_price, cgst_percentage, created_at, description, "
+                + "discount, hsn_code, igst_percentage, image1, main_photo, price, product_name, purchase_price, reserved_quantity, retail_price, "
+                + "sgst_percentage, sku, status, stock_quantity, category_id")) {
+            for (int i = 0; i < productCount; i++) {
+                long id = productBase + i + 1;
+                String fabric = FABRICS[random.nextInt(FABRICS.length)];
+                String garment = GARMENTS[random.nextInt(GARMENTS.length)];
+                String color = COLORS[random.nextInt(COLORS.length)];
+                double retail = (199 + random.nextInt(5_000)) + 0.0;
+                BigDecimal rate = new BigDecimal(GST_RATES[random.nextInt(GST_RATES.length)]);
+                retailPrices[i] = retail;
+                gstRates[i] = rate;
+                BigDecimal half = rate.divide(BigDecimal.valueOf(2));
+                out.row(id, 5, round(retail * 0.8), half, endDate.minusDays(random.nextInt(730)).atStartOfDay(),
+                        color + " " + fabric.toLowerCase() + " " + garment.toLowerCase() + " with " + PATTERNS[random.nextInt(PATTERNS.length)].toLowerCase() + " work",
+                        0.0, "62" + (11 + random.nextInt(80)), rate, PHOTOS[i % PHOTOS.length], PHOTOS[i % PHOTOS.length],
+                        BigDecimal.valueOf(retail), color + " " + fabric + " " + garment + " " + id,
+                        round(retail * 0.55), 0, retail, half, "LT-" + String.format("%07d", id),
+                        random.nextInt(20) == 0 ? "Inactive" : "Active", 100 + random.nextInt(5_000),
+                        categoryBase + 1 + random.nextInt(categoryCount));
+            }
+        }
+
+        long variantBase = maxId("product_variants");
+        try (CopyWriter out = copy("product_variants", "id, b2b_price, color, created_at, fabric, pattern, retail_price, "
+                + "size, sku, status, stock_quantity, product_id")) {
+            long id = variantBase;
+            for (int i = 0; i < productCount; i++) {
+                long productId = productBase + i + 1;
+                int first = random.nextInt(SIZES.length - 2);
+                for (int v = 0; v < 3; v++) {
+                    out.row(++id, round(retailPrices[i] * 0.8), COLORS[random.nextInt(COLORS.length)], endDate.atStartOfDay(),
+                            FABRICS[random.nextInt(FABRICS.length)], PATTERNS[random.nextInt(PATTERNS.length)], retailPrices[i],
+                            SIZES[first + v], "LT-" + String.format("%07d", productId) + "-" + SIZES[first + v], "Active",
+                            random.nextInt(400), productId);
+                }
+            }
+        }
+        manifest.put("products.first", productBase + 1);
+        manifest.put("products.last", productBase + productCount);
+    }
+
+    private void writeUsers() throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        userBase = maxId("users");
+        b2b = new boolean[customerCount];
+        try (CopyWriter out = copy("users", "id, address_line1, address_line2, city, email, gstin, name, password, phone, "
+                + "state, status, type, zip_code")) {
+            out.row(userBase + 1, "1 Admin Lane", "Head Office", "Jaipur", "admin" + (userBase + 1) + "@loadtest.local", null,
+                    "Load Test Admin", PASSWORD, adminPhone(), BUSINESS_STATE, "ACTIVE", "Admin", "302001");
+            for (int i = 0; i < customerCount; i++) {
+                long id = userBase + 2 + i;
+                b2b[i] = random.nextInt(5) == 0;
+                int place = i % STATES.length;
+                out.row(id, (1 + random.nextInt(300)) + " Market Road", "Ward " + (1 + random.nextInt(40)), CITIES[place],
+                        "customer" + id + "@loadtest.local", b2b[i] ? "08LT" + String.format("%010d", i) : null,
+                        (b2b[i] ? "Trader " : "Customer ") + i, PASSWORD, customerPhone(i), STATES[place], "ACTIVE",
+                        b2b[i] ? "B2B" : "Retail", String.valueOf(300_000 + random.nextInt(500_000)));
+            }
+        }
+        manifest.put("admin.phone", adminPhone());
+        manifest.put("customers.firstPhone", customerPhone(0));
+        manifest.put("customers.count", customerCount);
+        manifest.put("password", PASSWORD);
+    }
+
+    private void writeSuppliers() throws SQLException, IOException {
+        supplierBase = maxId("suppliers");
+        try (CopyWriter out = copy("suppliers", "id, company_name, contact_person, country, created_at, credit_limit, "
+                + "current_balance, phone, state, status, supplier_code")) {
+            for (int i = 0; i < supplierCount; i++) {
+                out.row(supplierBase + i + 1, "Mill " + i + " Textiles", "Contact " + i, "India", endDate.minusYears(1).atStartOfDay(),
+                        500_000.0, 0.0, supplierPhone(i), STATES[i % STATES.length], "ACTIVE", supplierCode(i));
+            }
+        }
+    }
+
+    /**
+     * Orders first, then their items in a second pass: each order's lines come
+     * from its own random stream, so both passes see the same lines.
+     */
+    private void writeOrders() throws SQLException, IOException {
+        orderBase = maxId("orders");
+        try (CopyWriter out = copy("orders", "id, address_line1, address_line2, bill_type, cgst_amount, city, created_at, "
+                + "gst_amount, igst_amount, invoice_number, name, order_status, sgst_amount, state, status, sub_total, "
+                + "tax_summary_posted, tax_type, total, user_phone, zip_code")) {
+            for (int i = 0; i < orderCount; i++) {
+                long id = orderBase + i + 1;
+                SplittableRandom random = stream(ORDERS, id);
+                int customer = random.nextInt(customerCount);
+                String state = STATES[customer % STATES.length];
+                boolean intraState = BUSINESS_STATE.equals(state);
+                LocalDateTime createdAt = endDate.atTime(20, 0).minusMinutes(random.nextInt(365 * 24 * 60));
+                String status = ORDER_STATUSES[random.nextInt(ORDER_STATUSES.length)];
+
+                BigDecimal subTotal = BigDecimal.ZERO;
+                BigDecimal tax = BigDecimal.ZERO;
+                for (OrderLine line = new OrderLine(random, b2b[customer]); line.next(); ) {
+                    subTotal = subTotal.add(line.total);
+                    tax = tax.add(line.halfTax).add(line.halfTax);
+                }
+                BigDecimal half = tax.divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
+                out.row(id, "Shop " + (customer % 300), "Ward " + (customer % 40), b2b[customer] ? "Kaccha" : "Pakka",
+                        intraState ? half : BigDecimal.ZERO, CITIES[customer % CITIES.length], createdAt, tax,
+                        intraState ? BigDecimal.ZERO : tax, "LT-INV-" + id, (b2b[customer] ? "Trader " : "Customer ") + customer,
+                        status, intraState ? half : BigDecimal.ZERO, state, "Active", subTotal, false,
+                        intraState ? "CGST_SGST" : "IGST", subTotal.add(tax), customerPhone(customer), "302001");
+            }
+        }
+
+        long itemBase = maxId("order_item");
+        long itemCount = 0;
+        try (CopyWriter out = copy("order_item", "id, cgst_amount, gst_rate, igst_amount, is_custom_product, price_type, "
+                + "product_id, quantity, sgst_amount, total_price, unit_price, user_type, order_id")) {
+            for (int i = 0; i < orderCount; i++) {
+                long id = orderBase + i + 1;
+                SplittableRandom random = stream(ORDERS, id);
+                int customer = random.nextInt(customerCount);
+                boolean intraState = BUSINESS_STATE.equals(STATES[customer % STATES.length]);
+                random.nextInt(365 * 24 * 60);
+                random.nextInt(ORDER_STATUSES.length);
+                for (OrderLine line = new OrderLine(random, b2b[customer]); line.next(); ) {
+                    out.row(itemBase + ++itemCount, intraState ? line.halfTax : BigDecimal.ZERO, line.rate,
+                            intraState ? BigDecimal.ZERO : line.halfTax.add(line.halfTax), false, b2b[customer] ? "B2B" : "Retail",
+                            line.productId, line.quantity, intraState ? line.halfTax : BigDecimal.ZERO, line.total, line.unitPrice,
+                            b2b[customer] ? "B2B" : "Retail", id);
+                }
+            }
+        }
+        manifest.put("orders.first", orderBase + 1);
+        manifest.put("orders.last", orderBase + orderCount);
+    }
+
+    /**
+     * Balanced two-line vouchers spread over the last year.
+     */
+    private void writeVouchers(int voucherCount) throws SQLException, IOException {
+        long voucherBase = maxId("voucher");
+        try (CopyWriter out = copy("voucher", "id, date, narration, type")) {
+            for (int i = 0; i < voucherCount; i++) {
+                long id = voucherBase + i + 1;
+                SplittableRandom random = stream(VOUCHERS, id);
+                String type = VOUCHER_TYPES[random.nextInt(VOUCHER_TYPES.length)];
+                out.row(id, endDate.minusDays(random.nextInt(365)), type + " LT-" + id, type);
+            }
+        }
+
+        long entryBase = maxId("voucher_entry");
+        try (CopyWriter out = copy("voucher_entry", "id, credit, debit, description, account_id, voucher_id")) {
+            long entryId = entryBase;
+            for (int i = 0; i < voucherCount; i++) {
+                long id = voucherBase + i + 1;
+                SplittableRandom random = stream(VOUCHERS, id);
+                random.nextInt(VOUCHER_TYPES.length);
+                random.nextInt(365);
+                BigDecimal amount = BigDecimal.valueOf(1_000 + random.nextInt(5_000_000), 2);
+                out.row(++entryId, BigDecimal.ZERO, amount, "Debit", leafAccount(random), id);
+                out.row(++entryId, amount, BigDecimal.ZERO, "Credit", leafAccount(random), id);
+            }
+        }
+    }
+
+    private void writeCustomerLedgers(int entryCount) throws SQLException, IOException {
+        long ledgerBase = maxId("customer_ledger");
+        int[] ledgerCustomers = new int[customerCount];
+        int ledgers = 0;
+        for (int i = 0; i < customerCount; i++) {
+            if (b2b[i]) {
+                ledgerCustomers[ledgers++] = i;
+            }
+        }
+        if (ledgers == 0) {
+            return;
+        }
+        int perLedger = Math.max(1, entryCount / ledgers);
+
+        try (CopyWriter out = copy("customer_ledger", "id, address_line1, city, created_at, current_balance, customer_name, "
+                + "customer_phone, opening_balance, state, status, total_credits, total_debits, updated_at")) {
+            for (int l = 0; l < ledgers; l++) {
+                int customer = ledgerCustomers[l];
+                LedgerTotals totals = ledgerTotals(CUSTOMER_LEDGERS, ledgerBase + l + 1, perLedger);
+                out.row(ledgerBase + l + 1, "Shop " + (customer % 300), CITIES[customer % CITIES.length],
+                        endDate.minusYears(1).atStartOfDay(), totals.debits.subtract(totals.credits), "Trader " + customer,
+                        customerPhone(customer), BigDecimal.ZERO, STATES[customer % STATES.length], "ACTIVE",
+                        totals.credits, totals.debits, endDate.atStartOfDay());
+            }
+        }
+        writeLedgerEntries("customer_ledger_entry", "customer_ledger_id", CUSTOMER_LEDGERS, ledgerBase, ledgers, perLedger);
+        manifest.put("customerLedgers.first", ledgerBase + 1);
+        manifest.put("customerLedgers.last", ledgerBase + ledgers);
+    }
+
+    private void writeSupplierLedgers(int entryCount) throws SQLException, IOException {
+        long ledgerBase = maxId("supplier_ledger");
+        int perLedger = Math.max(1, entryCount / supplierCount);
+        try (CopyWriter out = copy("supplier_ledger", "id, created_at, credit_limit, current_balance, opening_balance, status, "
+                + "supplier_code, supplier_name, supplier_phone, total_credits, total_debits, updated_at")) {
+            for (int i = 0; i < supplierCount; i++) {
+                LedgerTotals totals = ledgerTotals(SUPPLIER_LEDGERS, ledgerBase + i + 1, perLedger);
+                out.row(ledgerBase + i + 1, endDate.minusYears(1).atStartOfDay(), BigDecimal.valueOf(500_000),
+                        totals.debits.subtract(totals.credits), BigDecimal.ZERO, "ACTIVE", supplierCode(i),
+                        "Mill " + i + " Textiles", supplierPhone(i), totals.credits, totals.debits, endDate.atStartOfDay());
+            }
+        }
+        writeLedgerEntries("supplier_ledger_entry", "supplier_ledger_id", SUPPLIER_LEDGERS, ledgerBase, supplierCount, perLedger);
+    }
+
+    /**
+     * Alternating invoice (debit) and payment (credit) entries, oldest first,
+     * with a running balance.
+     */
+    private void writeLedgerEntries(String table, String ledgerColumn, int streamId, long ledgerBase,
+                                    int ledgers, int perLedger) throws SQLException, IOException {
+        long entryBase = maxId(table);
+        try (CopyWriter out = copy(table, "id, balance_after, created_at, credit_amount, debit_amount, entry_date, particulars, "
+                + "payment_method, reference_number, reference_type, " + ledgerColumn)) {
+            long entryId = entryBase;
+            for (int l = 0; l < ledgers; l++) {
+                long ledgerId = ledgerBase + l + 1;
+                SplittableRandom random = stream(streamId, ledgerId);
+                LocalDateTime date = endDate.minusYears(1).atTime(10, 0);
+                BigDecimal balance = BigDecimal.ZERO;
+                for (int e = 0; e < perLedger; e++) {
+                    boolean invoice = e % 2 == 0;
+                    BigDecimal amount = BigDecimal.valueOf(10_000 + random.nextInt(2_000_000), 2);
+                    date = date.plusMinutes(random.nextInt(365 * 24 * 60 / perLedger + 1));
+                    balance = invoice ? balance.add(amount) : balance.subtract(amount);
+                    out.row(++entryId, balance, date, invoice ? BigDecimal.ZERO : amount, invoice ? amount : BigDecimal.ZERO,
+                            date, invoice ? "Invoice LT-" + entryId : "Payment received", invoice ? null : "cash",
+                            "LT-" + entryId, invoice ? "ORDER" : "PAYMENT", ledgerId);
+                }
+            }
+        }
+    }
+
+    private LedgerTotals ledgerTotals(int streamId, long ledgerId, int perLedger) {
+        SplittableRandom random = stream(streamId, ledgerId);
+        LedgerTotals totals = new LedgerTotals();
+        for (int e = 0; e < perLedger; e++) {
+            BigDecimal amount = BigDecimal.valueOf(10_000 + random.nextInt(2_000_000), 2);
+            random.nextInt(365 * 24 * 60 / perLedger + 1);
+            if (e % 2 == 0) {
+                totals.debits = totals.debits.add(amount);
+            } else {
+                totals.credits = totals.credits.add(amount);
+            }
+        }
+        return totals;
+    }
+
+    private void writeOutstandings(int count) throws SQLException, IOException {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        long base = maxId("outstanding_items");
+        try (CopyWriter out = copy("outstanding_items", "id, amount, contact_info, created_at, customer_supplier_name, "
+                + "days_overdue, description, due_date, order_type, reference_id, reference_number, reference_type, status, "
+                + "outstanding_type, updated_at")) {
+            for (int i = 0; i < count; i++) {
+                long id = base + i + 1;
+                LocalDateTime createdAt = endDate.atTime(12, 0).minusHours(random.nextInt(365 * 24));
+                String status = OUTSTANDING_STATUSES[random.nextInt(OUTSTANDING_STATUSES.length)];
+                BigDecimal amount = "SETTLED".equals(status) ? BigDecimal.ZERO : BigDecimal.valueOf(10_000 + random.nextInt(5_000_000), 2);
+                if (i % 2 == 0) {
+                    int customer = random.nextInt(customerCount);
+                    long orderId = orderBase + 1 + random.nextInt(orderCount);
+                    out.row(id, amount, customerPhone(customer), createdAt, "Trader " + customer, 0, "Invoice for order " + orderId,
+                            createdAt.plusDays(30), "Kaccha", orderId, "LT-INV-" + orderId, "ORDER", status,
+                            "INVOICE_RECEIVABLE", createdAt);
+                } else {
+                    int supplier = random.nextInt(supplierCount);
+                    out.row(id, amount, supplierPhone(supplier), createdAt, "Mill " + supplier + " Textiles", 0, "Supplier invoice",
+                            createdAt.plusDays(45), null, id, "LT-PO-" + id, "PURCHASE_ORDER", status,
+                            "INVOICE_PAYABLE", createdAt);
+                }
+            }
+        }
+    }
+
+    private void resetSequences() throws SQLException {
+        String[] tables = {
+            "categories", "account", "products", "product_variants", "users", "suppliers", "orders", "order_item", "voucher",
+            "voucher_entry", "customer_ledger", "customer_ledger_entry", "supplier_ledger", "supplier_ledger_entry", "outstanding_items"
+        };
+        try (Statement statement = connection.createStatement()) {
+            for (String table : tables) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                        + "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + "), false)");
+                statement.execute("ANALYZE " + table);
+            }
+        }
+        connection.commit();
+    }
+
+    public void writeManifest(Path path) throws IOException {
+        Properties properties = new Properties();
+        manifest.forEach((key, value) -> properties.setProperty(key, String.valueOf(value)));
+        properties.setProperty("seed", String.valueOf(seed));
+        properties.setProperty("scale", String.valueOf(scale));
+        properties.setProperty("endDate", endDate.toString());
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Synthetic data written by DataGenerator");
+        }
+    }
+
+    private long leafAccount(SplittableRandom random) {
+        int group = random.nextInt(ACCOUNT_GROUPS.length);
+        return accountBase + group * (ACCOUNTS_PER_GROUP + 1) + 2 + random.nextInt(ACCOUNTS_PER_GROUP);
+    }
+
+    private SplittableRandom stream(int streamId, long id) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L ^ streamId * 0xBF58476D1CE4E5B9L ^ id * 0x94D049BB133111EBL);
+    }
+
+    private int scaled(int full, int minimum) {
+        return Math.max(minimum, (int) Math.round(full * scale));
+    }
+
+    // Phones and codes follow the row ids, so repeated runs never collide
+    private String adminPhone() {
+        return String.valueOf(CUSTOMER_PHONES + userBase + 1);
+    }
+
+    private String customerPhone(int customer) {
+        return String.valueOf(CUSTOMER_PHONES + userBase + 2 + customer);
+    }
+
+    private String supplierPhone(int supplier) {
+        return String.valueOf(SUPPLIER_PHONES + supplierBase + 1 + supplier);
+    }
+
+    private String supplierCode(int supplier) {
+        return "LTS" + String.format("%07d", supplierBase + 1 + supplier);
+    }
+
+    private long maxId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private CopyWriter copy(String table, String columns) throws SQLException {
+        System.out.println("Writing " + table + "...");
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+        return new CopyWriter(table, copyIn);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * The lines of one order: one to four products, quantities scaled up for
+     * B2B buyers, tax at the product's GST rate.
+     */
+    private final class OrderLine {
+        private final SplittableRandom random;
+        private final boolean b2bBuyer;
+        private int remaining;
+        long productId;
+        int quantity;
+        BigDecimal rate;
+        BigDecimal unitPrice;
+        BigDecimal total;
+        BigDecimal halfTax;
+
+        OrderLine(SplittableRandom random, boolean b2bBuyer) {
+            this.random = random;
+            this.b2bBuyer = b2bBuyer;
+            this.remaining = 1 + random.nextInt(4);
+        }
+
+        boolean next() {
+            if (remaining-- == 0) {
+                return false;
+            }
+            int product = random.nextInt(productCount);
+            productId = productBase + product + 1;
+            quantity = b2bBuyer ? 5 + random.nextInt(20) : 1 + random.nextInt(3);
+            rate = gstRates[product];
+            unitPrice = BigDecimal.valueOf(b2bBuyer ? round(retailPrices[product] * 0.8) : retailPrices[product]).setScale(2);
+            total = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            halfTax = total.multiply(rate).divide(BigDecimal.valueOf(200), 2, RoundingMode.HALF_UP);
+            return true;
+        }
+    }
+
+    private static final class LedgerTotals {
+        BigDecimal debits = BigDecimal.ZERO;
+        BigDecimal credits = BigDecimal.ZERO;
+    }
+
+    /**
+     * CSV rows streamed into one COPY, committed when closed.
+     */
+    private final class CopyWriter implements AutoCloseable {
+        private final String table;
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 4096);
+        private final long started = System.currentTimeMillis();
+        private long rows;
+
+        CopyWriter(String table, CopyIn copyIn) {
+            this.table = table;
+            this.copyIn = copyIn;
+        }
+
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                Object value = values[i];
+                if (value == null) {
+                    continue; // unquoted empty field is NULL
+                }
+                if (value instanceof String) {
+                    buffer.append('"').append(((String) value).replace("\"", "\"\"")).append('"');
+                } else if (value instanceof BigDecimal) {
+                    buffer.append(((BigDecimal) value).toPlainString());
+                } else {
+                    buffer.append(value);
+                }
+            }
+            buffer.append('\n');
+            rows++;
+            if (buffer.length() >= FLUSH_BYTES) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+            connection.commit();
+            System.out.println("  " + rows + " rows into " + table + " in " + (System.currentTimeMillis() - started) + "ms");
+        }
+    }
+}
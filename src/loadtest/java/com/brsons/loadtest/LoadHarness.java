@@ -0,0 +1,288 @@
+package com.brsons.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a running instance loaded by {@link DataGenerator} with simulated
+ * users and reports latency percentiles and throughput per endpoint:
+ *
+ *   mvn -Ploadtest -DskipTests test-compile exec:java \
+ *       -Dexec.mainClass=com.brsons.loadtest.LoadHarness \
+ *       -Dexec.args="--base-url http://localhost:8080 --users 50 --duration 120"
+ *
+ * Every tenth user is an admin who records customer payments and pulls the
+ * trial balance, P&L, daybook and business dashboard; the rest browse the
+ * shop, add to cart and check out. Each user has its own session and runs
+ * on its own thread. Requests made during the warm-up are not counted.
+ * Results are printed and written as JSON next to the manifest so runs can
+ * be compared across commits.
+ */
+public class LoadHarness {
+
+    private static final String[] SEARCH_TERMS = {"cotton", "silk kurta", "red saree", "linen", "printed", "dupatta", "khadi"};
+
+    private final String baseUrl;
+    private final Properties manifest;
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private volatile long recordFrom;
+    private volatile long stopAt;
+
+    public LoadHarness(String baseUrl, Properties manifest) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.manifest = manifest;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new TreeMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        Path manifestPath = Paths.get(options.getOrDefault("manifest", "target/loadtest/manifest.properties"));
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(manifestPath)) {
+            manifest.load(in);
+        }
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+
+        LoadHarness harness = new LoadHarness(options.getOrDefault("base-url", "http://localhost:8080"), manifest);
+        harness.run(users, warmupSeconds, durationSeconds);
+        harness.printSummary(durationSeconds);
+        Path result = manifestPath.resolveSibling("result-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        harness.writeJson(result, users, durationSeconds);
+        System.out.println("Results written to " + result);
+    }
+
+    public void run(int users, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        long now = System.nanoTime();
+        recordFrom = now + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        stopAt = recordFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            int user = i;
+            executor.submit(() -> {
+                try {
+                    if (user % 10 == 0) {
+                        runAdmin(user);
+                    } else {
+                        runCustomer(user);
+                    }
+                } catch (Exception e) {
+                    System.err.println("User " + user + " stopped: " + e);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(warmupSeconds + durationSeconds + 120, TimeUnit.SECONDS);
+    }
+
+    private void runCustomer(int user) throws Exception {
+        SplittableRandom random = new SplittableRandom(user);
+        HttpClient client = newClient();
+        int customers = Integer.parseInt(manifest.getProperty("customers.count"));
+        long phone = Long.parseLong(manifest.getProperty("customers.firstPhone")) + random.nextInt(customers);
+        login(client, String.valueOf(phone));
+
+        long firstProduct = Long.parseLong(manifest.getProperty("products.first"));
+        int products = (int) (Long.parseLong(manifest.getProperty("products.last")) - firstProduct + 1);
+        for (int iteration = 0; System.nanoTime() < stopAt; iteration++) {
+            long productId = firstProduct + random.nextInt(products);
+            call(client, "GET /shop", get("/shop"));
+            call(client, "GET /shop/search", get("/shop/search?q=" + encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)])));
+            call(client, "GET /product/{id}", get("/product/" + productId));
+            call(client, "POST /add-to-cart/{id}", post("/add-to-cart/" + productId, ""));
+            call(client, "GET /cart", get("/cart"));
+            if (iteration % 3 == 2) {
+                call(client, "POST /checkout", post("/checkout", form(
+                        "name", "Load Test " + phone, "addressLine1", "1 Market Road", "addressLine2", "Ward 1",
+                        "city", "Jaipur", "state", "Rajasthan", "zipCode", "302001")));
+            }
+        }
+    }
+
+    private void runAdmin(int user) throws Exception {
+        SplittableRandom random = new SplittableRandom(user);
+        HttpClient client = newClient();
+        login(client, manifest.getProperty("admin.phone"));
+
+        LocalDate end = LocalDate.parse(manifest.getProperty("endDate"));
+        String month = "startDate=" + end.withDayOfMonth(1) + "&endDate=" + end;
+        String year = "startDate=" + end.minusYears(1) + "&endDate=" + end;
+        long firstLedger = Long.parseLong(manifest.getProperty("customerLedgers.first", "0"));
+        int ledgers = (int) (Long.parseLong(manifest.getProperty("customerLedgers.last", "0")) - firstLedger + 1);
+        while (System.nanoTime() < stopAt) {
+            if (ledgers > 0) {
+                call(client, "POST /admin/customer-ledger/{id}/payment", post(
+                        "/admin/customer-ledger/" + (firstLedger + random.nextInt(ledgers)) + "/payment",
+                        form("amount", String.valueOf(100 + random.nextInt(5000)), "paymentMethod", "cash",
+                                "paymentReference", "LT-" + random.nextInt(1_000_000))));
+            }
+            call(client, "GET /accounting/hierarchical-trial-balance", get("/accounting/hierarchical-trial-balance?" + year));
+            call(client, "GET /accounting/pnl-with-stock", get("/accounting/pnl-with-stock?" + month));
+            call(client, "GET /admin/daybook", get("/admin/daybook?startDate=" + end.minusDays(6) + "&endDate=" + end));
+            call(client, "GET /admin/business/dashboard", get("/admin/business/dashboard"));
+        }
+    }
+
+    private void login(HttpClient client, String phone) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(post("/login", form("emailOrPhone", phone,
+                "password", manifest.getProperty("password"))), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 302) {
+            throw new IllegalStateException("Login failed for " + phone + ": HTTP " + response.statusCode());
+        }
+    }
+
+    /**
+     * Send one request and record its latency under the endpoint name.
+     * Redirects are not followed; 2xx and 3xx count as success.
+     */
+    private void call(HttpClient client, String endpoint, HttpRequest request) {
+        long started = System.nanoTime();
+        boolean ok;
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            ok = status < 400;
+        } catch (Exception e) {
+            ok = false;
+        }
+        long finished = System.nanoTime();
+        if (started >= recordFrom && finished <= stopAt) {
+            recorders.computeIfAbsent(endpoint, name -> new Recorder()).record(finished - started, ok);
+        }
+    }
+
+    private HttpClient newClient() {
+        return HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private HttpRequest post(String path, String form) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build();
+    }
+
+    private static String form(String... pairs) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(encode(pairs[i])).append('=').append(encode(pairs[i + 1]));
+        }
+        return body.toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    public void printSummary(int durationSeconds) {
+        System.out.println();
+        System.out.println(String.format("%-45s %8s %7s %9s %9s %9s %9s %9s",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "Max ms"));
+        new TreeMap<>(recorders).forEach((endpoint, recorder) -> {
+            long[] sorted = recorder.sorted();
+            System.out.println(String.format("%-45s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f",
+                    endpoint, sorted.length, recorder.errors(), sorted.length / (double) durationSeconds,
+                    millis(percentile(sorted, 50)), millis(percentile(sorted, 95)),
+                    millis(percentile(sorted, 99)), millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+        });
+    }
+
+    public void writeJson(Path path, int users, int durationSeconds) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("{\n  \"users\": " + users + ",\n  \"durationSeconds\": " + durationSeconds
+                    + ",\n  \"scale\": \"" + manifest.getProperty("scale") + "\",\n  \"endpoints\": [");
+            boolean first = true;
+            for (Map.Entry<String, Recorder> entry : new TreeMap<>(recorders).entrySet()) {
+                long[] sorted = entry.getValue().sorted();
+                out.write((first ? "" : ",") + "\n    {\"endpoint\": \"" + entry.getKey() + "\", \"requests\": " + sorted.length
+                        + ", \"errors\": " + entry.getValue().errors()
+                        + ", \"throughput\": " + String.format("%.2f", sorted.length / (double) durationSeconds)
+                        + ", \"p50\": " + String.format("%.2f", millis(percentile(sorted, 50)))
+                        + ", \"p95\": " + String.format("%.2f", millis(percentile(sorted, 95)))
+                        + ", \"p99\": " + String.format("%.2f", millis(percentile(sorted, 99))) + "}");
+                first = false;
+            }
+            out.write("\n  ]\n}\n");
+        }
+    }
+
+    // Nearest-rank percentile of sorted latencies
+    static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Latencies of one endpoint, in nanoseconds.
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        synchronized int errors() {
+            return errors;
+        }
+    }
+}
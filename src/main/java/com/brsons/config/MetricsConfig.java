@@ -0,0 +1,155 @@
+package com.brsons.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Micrometer setup: a MeterRegistry (unless one is already defined, e.g. a
+ * Prometheus registry), the TimedAspect behind @Timed, and the Hibernate and
+ * connection pool meters. SQL is counted per request through
+ * QueryCountInspector, Hibernate's own statistics
+ * (spring.jpa.properties.hibernate.generate_statistics) become hibernate.*
+ * counters, and every Hikari pool gets hikari.connections.* gauges tagged
+ * with its pool name.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /** Timer bucket bounds in seconds. */
+    static final double[] SECONDS_BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    /** Distribution bucket bounds for counts such as queries per request. */
+    static final double[] COUNT_BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    // Looked up on startup: the customizer below is needed to build it
+    @Autowired
+    private ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public static MeterRegistry meterRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(distributionDefaults());
+        return registry;
+    }
+
+    @Bean
+    public static TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public static HibernatePropertiesCustomizer queryCountCustomizer() {
+        return properties -> properties.put("hibernate.session_factory.statement_inspector", new QueryCountInspector());
+    }
+
+    /**
+     * Fixed histogram buckets and p50/p95/p99 for every timer and
+     * distribution summary. Nothing rolls over, so bucket counts only grow
+     * like _count does and the percentiles cover the whole uptime.
+     */
+    static MeterFilter distributionDefaults() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                double[] buckets;
+                if (id.getType() == Meter.Type.TIMER) {
+                    buckets = Arrays.stream(SECONDS_BUCKETS).map(seconds -> seconds * 1e9).toArray();
+                } else if (id.getType() == Meter.Type.DISTRIBUTION_SUMMARY) {
+                    buckets = COUNT_BUCKETS;
+                } else {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(buckets)
+                        .percentiles(0.5, 0.95, 0.99)
+                        .expiry(Duration.ofDays(36500))
+                        .bufferLength(1)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindGauges() {
+        applicationContext.getBeansOfType(HikariDataSource.class).values().forEach(this::bindPool);
+
+        Statistics statistics = entityManagerFactory.getObject().unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        counter("hibernate.statements", statistics, Statistics::getPrepareStatementCount);
+        counter("hibernate.query.executions", statistics, Statistics::getQueryExecutionCount);
+        counter("hibernate.sessions.open", statistics, Statistics::getSessionOpenCount);
+        counter("hibernate.transactions", statistics, Statistics::getSuccessfulTransactionCount, "result", "success");
+        counter("hibernate.transactions", statistics, s -> s.getTransactionCount() - s.getSuccessfulTransactionCount(), "result", "failure");
+        counter("hibernate.flushes", statistics, Statistics::getFlushCount);
+        counter("hibernate.entities", statistics, Statistics::getEntityLoadCount, "operation", "load");
+        counter("hibernate.entities", statistics, Statistics::getEntityFetchCount, "operation", "fetch");
+        counter("hibernate.entities", statistics, Statistics::getEntityInsertCount, "operation", "insert");
+        counter("hibernate.entities", statistics, Statistics::getEntityUpdateCount, "operation", "update");
+        counter("hibernate.entities", statistics, Statistics::getEntityDeleteCount, "operation", "delete");
+        counter("hibernate.collections", statistics, Statistics::getCollectionLoadCount, "operation", "load");
+        counter("hibernate.collections", statistics, Statistics::getCollectionFetchCount, "operation", "fetch");
+        counter("hibernate.optimistic.failures", statistics, Statistics::getOptimisticFailureCount);
+        Gauge.builder("hibernate.query.executions.max.ms", statistics, Statistics::getQueryExecutionMaxTime)
+                .register(meterRegistry);
+    }
+
+    private void counter(String name, Statistics statistics, ToDoubleFunction<Statistics> value, String... tags) {
+        FunctionCounter.builder(name, statistics, value).tags(tags).register(meterRegistry);
+    }
+
+    private void bindPool(HikariDataSource pool) {
+        String name = pool.getPoolName() != null ? pool.getPoolName() : "default";
+        poolGauge("hikari.connections.active", name, pool, HikariPoolMXBean::getActiveConnections);
+        poolGauge("hikari.connections.idle", name, pool, HikariPoolMXBean::getIdleConnections);
+        poolGauge("hikari.connections.pending", name, pool, HikariPoolMXBean::getThreadsAwaitingConnection);
+        poolGauge("hikari.connections", name, pool, HikariPoolMXBean::getTotalConnections);
+        Gauge.builder("hikari.connections.max", pool, HikariDataSource::getMaximumPoolSize)
+                .tag("pool", name)
+                .register(meterRegistry);
+    }
+
+    // The MX bean only exists once the pool has started
+    private void poolGauge(String metric, String name, HikariDataSource pool, ToIntFunction<HikariPoolMXBean> value) {
+        Gauge.builder(metric, pool, p -> {
+                    HikariPoolMXBean bean = p.getHikariPoolMXBean();
+                    return bean != null ? value.applyAsInt(bean) : 0;
+                })
+                .tag("pool", name)
+                .register(meterRegistry);
+    }
+}
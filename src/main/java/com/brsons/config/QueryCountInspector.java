@@ -0,0 +1,37 @@
+package com.brsons.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL Hibernate prepares on the current thread while a request is
+ * being measured (see RequestMetricsFilter), per distinct statement, so a
+ * statement repeated once per row of an earlier result (N+1) stands out.
+ * Statements from report worker threads are not attributed to the request.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<Map<String, Integer>> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Map<String, Integer> counts = CURRENT.get();
+        if (counts != null) {
+            counts.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    /** Starts counting on this thread; returns the live per-statement counts. */
+    public static Map<String, Integer> start() {
+        Map<String, Integer> counts = new HashMap<>();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+}
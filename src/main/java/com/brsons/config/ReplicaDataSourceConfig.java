@@ -0,0 +1,97 @@
+package com.brsons.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica for reports and exports, switched on by setting
+ * datasource.replica.jdbc-url (with .username, .password and any Hikari
+ * pool setting under the same prefix).
+ *
+ * The primary keeps the usual spring.datasource settings. GET requests
+ * under datasource.replica.paths are marked for the replica, and their
+ * read-only transactions run there while its lag is within
+ * datasource.replica.max-lag-seconds. Each route has its own pool
+ * ("primary", "replica"), so checkout writes never wait behind month-end
+ * reporting for a connection.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "datasource.replica.jdbc-url")
+public class ReplicaDataSourceConfig implements WebMvcConfigurer {
+
+    @Value("${datasource.replica.paths:/accounting/**,/admin/daybook/**,/admin/inventory/valuation/**,/admin/inventory/reports,/admin/inventory/export,/admin/business/dashboard}")
+    private String[] replicaPaths;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return pool;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica")
+    public HikariDataSource replicaPool() {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(ReplicaRoutingDataSource.REPLICA);
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaPool") HikariDataSource replicaPool,
+                                               @Value("${datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${datasource.replica.max-lag-seconds:5}") double maxLagSeconds) {
+        return new ReplicaLagMonitor(replicaPool, lagQuery.isEmpty() ? ReplicaLagMonitor.POSTGRES_LAG_QUERY : lagQuery, maxLagSeconds);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryPool") HikariDataSource primaryPool,
+                                                             @Qualifier("replicaPool") HikariDataSource replicaPool,
+                                                             ReplicaLagMonitor replicaLagMonitor) {
+        return new ReplicaRoutingDataSource(primaryPool, replicaPool, replicaLagMonitor);
+    }
+
+    // What JPA, JdbcTemplate and transactions see
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if ("GET".equals(request.getMethod())) {
+                    ReplicaRoute.request();
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                ReplicaRoute.clear();
+            }
+        }).addPathPatterns(replicaPaths);
+    }
+}
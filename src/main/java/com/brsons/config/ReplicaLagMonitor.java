@@ -0,0 +1,79 @@
+package com.brsons.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica for its replication lag. The replica is only used while
+ * the last check succeeded and the lag is within datasource.replica.max-lag-seconds;
+ * until the first check, and whenever the replica is unreachable, reports
+ * read from the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /** PostgreSQL standby lag in seconds; 0 when caught up or when the server is not a standby. */
+    public static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean reachable;
+    private volatile long lastCheckMillis;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, double maxLagSeconds) {
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(5);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-ms:5000}")
+    public void refresh() {
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            recordLag(lag != null ? lag : 0);
+        } catch (Exception e) {
+            if (reachable) {
+                log.warn("Replica lag check failed, reports fall back to the primary: {}", e.getMessage());
+            }
+            reachable = false;
+            lastCheckMillis = System.currentTimeMillis();
+        }
+    }
+
+    public void recordLag(double seconds) {
+        lagSeconds = seconds;
+        reachable = true;
+        lastCheckMillis = System.currentTimeMillis();
+    }
+
+    public boolean isReplicaUsable() {
+        return reachable && lagSeconds <= maxLagSeconds;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    public long getLastCheckMillis() {
+        return lastCheckMillis;
+    }
+
+    public double getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+}
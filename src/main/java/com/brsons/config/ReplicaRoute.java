@@ -0,0 +1,50 @@
+package com.brsons.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread's work as a report or export that may read from
+ * the replica. Only read-only transactions started while the mark is set
+ * are routed there (see ReplicaRoutingDataSource); everything else uses
+ * the primary.
+ */
+public final class ReplicaRoute {
+
+    private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+    private ReplicaRoute() {
+    }
+
+    public static boolean isRequested() {
+        return Boolean.TRUE.equals(REQUESTED.get());
+    }
+
+    public static void request() {
+        REQUESTED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        REQUESTED.remove();
+    }
+
+    /**
+     * Run body with the mark set or cleared, restoring the previous state after
+     */
+    public static <T> T callWith(boolean requested, Supplier<T> body) {
+        Boolean previous = REQUESTED.get();
+        if (requested) {
+            REQUESTED.set(Boolean.TRUE);
+        } else {
+            REQUESTED.remove();
+        }
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) {
+                REQUESTED.set(previous);
+            } else {
+                REQUESTED.remove();
+            }
+        }
+    }
+}
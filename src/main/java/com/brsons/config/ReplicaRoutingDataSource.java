@@ -0,0 +1,87 @@
+package com.brsons.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out replica connections to read-only transactions of report and
+ * export work (ReplicaRoute) while the replica is within its lag limit, and
+ * primary connections to everything else. Sits behind a
+ * LazyConnectionDataSourceProxy so the choice is made at the first
+ * statement, when the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong lagFallbacks = new AtomicLong();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReplicaRoute.isRequested() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.isReplicaUsable()) {
+                replicaConnections.incrementAndGet();
+                return REPLICA;
+            }
+            lagFallbacks.incrementAndGet();
+        }
+        primaryConnections.incrementAndGet();
+        return PRIMARY;
+    }
+
+    public ReplicaLagMonitor getLagMonitor() {
+        return lagMonitor;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put(PRIMARY, poolStats(primary, primaryConnections.get()));
+        stats.put(REPLICA, poolStats(replica, replicaConnections.get()));
+        stats.put("replicaUsable", lagMonitor.isReplicaUsable());
+        stats.put("replicaReachable", lagMonitor.isReachable());
+        stats.put("replicaLagSeconds", lagMonitor.getLagSeconds());
+        stats.put("maxLagSeconds", lagMonitor.getMaxLagSeconds());
+        stats.put("lagFallbacks", lagFallbacks.get());
+        return stats;
+    }
+
+    private Map<String, Object> poolStats(HikariDataSource pool, long routed) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pool", pool.getPoolName());
+        stats.put("connectionsRouted", routed);
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        if (bean != null) {
+            stats.put("active", bean.getActiveConnections());
+            stats.put("idle", bean.getIdleConnections());
+            stats.put("total", bean.getTotalConnections());
+            stats.put("waiting", bean.getThreadsAwaitingConnection());
+        }
+        stats.put("maxPoolSize", pool.getMaximumPoolSize());
+        return stats;
+    }
+}
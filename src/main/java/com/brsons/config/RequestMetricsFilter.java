@@ -0,0 +1,82 @@
+package com.brsons.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every request into "http.server.requests" (tagged with method, the
+ * matched URI pattern and status) and records how many SQL statements it
+ * issued. A statement run metrics.n-plus-one.threshold times or more in one
+ * request is counted as a suspected N+1 and logged once per URI and statement.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private static final int MAX_REPORTED = 1000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${metrics.n-plus-one.threshold:10}")
+    private int nPlusOneThreshold;
+
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Map<String, Integer> queries = QueryCountInspector.start();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            QueryCountInspector.stop();
+            String uri = uriTag(request, response);
+            Timer.builder("http.server.requests")
+                    .tags("method", request.getMethod(), "uri", uri, "status", Integer.toString(response.getStatus()))
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            int total = 0;
+            for (Map.Entry<String, Integer> query : queries.entrySet()) {
+                total += query.getValue();
+                if (query.getValue() >= nPlusOneThreshold) {
+                    meterRegistry.counter("hibernate.n_plus_one.suspected", "uri", uri).increment();
+                    if (reported.size() < MAX_REPORTED && reported.add(uri + " " + query.getKey())) {
+                        log.warn("Suspected N+1 on {} {}: {}x {}",
+                                request.getMethod(), uri, query.getValue(), query.getKey());
+                    }
+                }
+            }
+            meterRegistry.summary("hibernate.queries.per_request", "uri", uri).record(total);
+        }
+    }
+
+    // The mapping pattern keeps path variables out of the tag (/product/{id}, not /product/42)
+    private String uriTag(HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return pattern.toString();
+        }
+        return response.getStatus() == 404 ? "NOT_FOUND" : "UNKNOWN";
+    }
+}
@@ -0,0 +1,36 @@
+package com.brsons.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every @Scheduled job as "scheduled.job" tagged with the job's class
+ * and method. A failing job also bumps "scheduled.job.failures". Service
+ * methods are timed with Micrometer's @Timed (see MetricsConfig).
+ */
+@Aspect
+@Component
+public class ScheduledJobAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("@annotation(org.springframework.scheduling.annotation.Scheduled)")
+    public Object timeScheduledJob(ProceedingJoinPoint joinPoint) throws Throwable {
+        String job = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            meterRegistry.counter("scheduled.job.failures", "job", job).increment();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("scheduled.job", "job", job));
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package com.brsons.controller;
 
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.brsons.dto.BalanceSheetRow;
+import com.brsons.dto.Gstr3bSummary;
 import com.brsons.dto.PnLRow;
 import com.brsons.model.User;
 import com.brsons.service.AccountingReportService;
+import com.brsons.service.TaxSummaryService;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -24,9 +36,11 @@ import jakarta.servlet.http.HttpSession;
 public class AccountingReportController {
 
     private final AccountingReportService reportService;
+    private final TaxSummaryService taxSummaryService;
 
-    public AccountingReportController(AccountingReportService reportService) {
+    public AccountingReportController(AccountingReportService reportService, TaxSummaryService taxSummaryService) {
         this.reportService = reportService;
+        this.taxSummaryService = taxSummaryService;
     }
 
     @GetMapping("/balance-sheet-ui")
@@ -89,5 +103,51 @@ public class AccountingReportController {
         
         return result;
     }
-}
 
+    /**
+     * Month's GST buckets (rate slab x B2B/B2C x CGST_SGST/IGST x HSN), streamed as JSON or CSV
+     */
+    @GetMapping("/gst-summary")
+    public ResponseEntity<StreamingResponseBody> getGstSummary(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+                                                               @RequestParam(defaultValue = "json") String format,
+                                                               HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                taxSummaryService.writeCsv(month, writer);
+            };
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=gst-summary-" + month + ".csv")
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .body(body);
+        }
+        StreamingResponseBody body = out -> taxSummaryService.writeJson(month, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/gstr3b")
+    @ResponseBody
+    public ResponseEntity<Gstr3bSummary> getGstr3b(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+                                                   HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(taxSummaryService.getGstr3b(month));
+    }
+
+    @PostMapping("/gst-summary/rebuild")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> rebuildGstSummary(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+                                                                 HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("period", month.toString());
+        result.put("invoices", taxSummaryService.rebuild(month));
+        return ResponseEntity.ok(result);
+    }
+}
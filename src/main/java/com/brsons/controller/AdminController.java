@@ -7,6 +7,7 @@ import com.brsons.model.User;
 import com.brsons.model.Order;
 import com.brsons.model.OrderItem;
 import com.brsons.model.Invoice;
+import com.brsons.model.TaxPlan;
 import com.brsons.repository.CategoryRepository;
 import com.brsons.repository.ProductRepository;
 import com.brsons.repository.ProductVariantRepository;
@@ -16,9 +17,27 @@ import com.brsons.repository.OrderItemRepository;
 import com.brsons.service.OutstandingService;
 import com.brsons.service.AdminOrderService;
 import com.brsons.service.OrderService;
-
+import com.brsons.service.TaxSummaryService;
+import com.brsons.service.CartSummaryService;
+import com.brsons.service.CatalogCacheService;
+import com.brsons.service.ImageStorageService;
+import com.brsons.service.FileServingService;
+import com.brsons.service.OrderStatsService;
+import com.brsons.service.ReportExecutor;
+import com.brsons.service.ProductQueryService;
+import com.brsons.service.ProductSearchService;
+import com.brsons.service.PickerIndexService;
+import com.brsons.service.OrderAccountingService;
+import com.brsons.service.StockLedgerService;
+import com.brsons.util.Money;
+
+import com.brsons.config.ReplicaRoutingDataSource;
+import com.brsons.config.RequestMdcFilter;
 import com.brsons.dto.OrderDisplayDto;
 import com.brsons.dto.ProductDropdownDto;
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.ProductFilter;
+import com.brsons.dto.StockChange;
 import com.brsons.repository.InvoiceRepository;
 
 import jakarta.servlet.http.HttpSession;
@@ -35,9 +54,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
 import java.time.ZoneId;
 import java.util.Date;
@@ -56,10 +76,16 @@ import com.lowagie.text.pdf.PdfWriter;
 
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -75,6 +101,8 @@ import org.springframework.beans.factory.annotation.Value;
 
 @Controller
 public class AdminController {
+
+	private static final Logger log = LoggerFactory.getLogger(AdminController.class);
 	
 	
 	@Autowired
@@ -92,6 +120,48 @@ public class AdminController {
 	@Autowired
     private ProductVariantRepository productVariantRepository;
 	
+	@Autowired
+    private CatalogCacheService catalogCacheService;
+	
+	@Autowired
+    private ProductQueryService productQueryService;
+	
+	@Autowired
+    private ProductSearchService productSearchService;
+	
+	@Autowired
+    private PickerIndexService pickerIndexService;
+	
+	@Autowired
+    private OrderAccountingService orderAccountingService;
+	
+	@Autowired
+    private TaxSummaryService taxSummaryService;
+	
+	@Autowired
+    private CartSummaryService cartSummaryService;
+	
+	@Autowired
+    private ImageStorageService imageStorageService;
+	
+	@Autowired
+    private FileServingService fileServingService;
+	
+	@Autowired
+    private OrderStatsService orderStatsService;
+	
+	@Autowired
+    private ReportExecutor reportExecutor;
+	
+	@Autowired
+    private ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+	
+	@Autowired
+    private MeterRegistry meterRegistry;
+
+	@Autowired
+    private StockLedgerService stockLedgerService;
+	
 	private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
@@ -296,18 +366,22 @@ public class AdminController {
     }
 
     @GetMapping("/admin/orders")
-    public String ordersPage(HttpSession session, Model model) {
+    public String ordersPage(@RequestParam(required = false) Long after,
+                             @RequestParam(required = false) Integer size,
+                             HttpSession session, Model model) {
         if (isAdmin(session)) {
-            List<OrderDisplayDto> allOrders = adminOrderService.getAllOrders();
+            KeysetPage<OrderDisplayDto> orderPage = adminOrderService.getOrders(null, after, size);
             AdminOrderService.OrderStatistics stats = adminOrderService.getOrderStatistics();
             
-            // Add modification status for each order
-            for (OrderDisplayDto order : allOrders) {
+            // Add modification status for each order on this page
+            for (OrderDisplayDto order : orderPage.getItems()) {
                 boolean canModify = outstandingService.canModifyOrder(order.getId());
                 order.setCanModify(canModify);
             }
             
-            model.addAttribute("orders", allOrders);
+            model.addAttribute("orders", orderPage.getItems());
+            model.addAttribute("orderPage", orderPage);
+            model.addAttribute("pagePath", "/admin/orders");
             model.addAttribute("stats", stats);
             return "admin-orders";
         }
@@ -315,18 +389,22 @@ public class AdminController {
     }
     
     @GetMapping("/admin/orders/b2b")
-    public String b2bOrdersPage(HttpSession session, Model model) {
+    public String b2bOrdersPage(@RequestParam(required = false) Long after,
+                                @RequestParam(required = false) Integer size,
+                                HttpSession session, Model model) {
         if (isAdmin(session)) {
-            List<OrderDisplayDto> b2bOrders = adminOrderService.getB2BOrders();
+            KeysetPage<OrderDisplayDto> orderPage = adminOrderService.getB2BOrders(after, size);
             AdminOrderService.OrderStatistics stats = adminOrderService.getB2BOrderStatistics();
             
-            // Add modification status for each order
-            for (OrderDisplayDto order : b2bOrders) {
+            // Add modification status for each order on this page
+            for (OrderDisplayDto order : orderPage.getItems()) {
                 boolean canModify = outstandingService.canModifyOrder(order.getId());
                 order.setCanModify(canModify);
             }
             
-            model.addAttribute("orders", b2bOrders);
+            model.addAttribute("orders", orderPage.getItems());
+            model.addAttribute("orderPage", orderPage);
+            model.addAttribute("pagePath", "/admin/orders/b2b");
             model.addAttribute("stats", stats);
             model.addAttribute("isB2BPage", true); // Flag to identify this is B2B page
             return "admin-orders";
@@ -383,22 +461,23 @@ public class AdminController {
 
     
     @GetMapping("/admin/orders/filter")
-    public String filterOrders(@RequestParam(required = false) String status, HttpSession session, Model model) {
+    public String filterOrders(@RequestParam(required = false) String status,
+                               @RequestParam(required = false) Long after,
+                               @RequestParam(required = false) Integer size,
+                               HttpSession session, Model model) {
         if (isAdmin(session)) {
-            List<OrderDisplayDto> orders;
-            if (status != null && !status.isEmpty()) {
-                orders = adminOrderService.getOrdersByStatus(status);
-            } else {
-                orders = adminOrderService.getAllOrders();
-            }
+            // Status is filtered in SQL; empty means all retail orders
+            KeysetPage<OrderDisplayDto> orderPage = adminOrderService.getOrders(status, after, size);
             
-            // Add modification status for each order
-            for (OrderDisplayDto order : orders) {
+            // Add modification status for each order on this page
+            for (OrderDisplayDto order : orderPage.getItems()) {
                 boolean canModify = outstandingService.canModifyOrder(order.getId());
                 order.setCanModify(canModify);
             }
             
-            model.addAttribute("orders", orders);
+            model.addAttribute("orders", orderPage.getItems());
+            model.addAttribute("orderPage", orderPage);
+            model.addAttribute("pagePath", "/admin/orders/filter");
             model.addAttribute("selectedStatus", status);
             return "admin-orders";
         }
@@ -450,7 +529,8 @@ public class AdminController {
             @RequestParam(value = "variantSizes", required = false) String[] variantSizes,
             @RequestParam(value = "variantPatterns", required = false) String[] variantPatterns,
             @RequestParam(value = "variantCareInstructions", required = false) String[] variantCareInstructions,
-            @RequestParam(value = "variantOccasions", required = false) String[] variantOccasions
+            @RequestParam(value = "variantOccasions", required = false) String[] variantOccasions,
+            @RequestParam(value = "variantStocks", required = false) String[] variantStocks
     ) throws IOException {
 
         // 1. Handle category
@@ -464,10 +544,7 @@ public class AdminController {
             category = categoryRepository.findById(Long.parseLong(selectedCategory)).orElse(null);
         }
 
-        // 2. Save files and store file paths
-        String uploadDir = "src/main/resources/static/uploads/";
-        Files.createDirectories(Paths.get(uploadDir));
-
+        // 2. Save files and store variant paths
         Product product = new Product();
         product.setProductName(productName);
         product.setDescription(description);
@@ -476,7 +553,7 @@ public class AdminController {
         product.setB2bPrice(b2bPrice != null ? b2bPrice : retailPrice * 0.8); // Default B2B price
         product.setB2bMinQuantity(b2bMinQuantity != null ? b2bMinQuantity : 1); // Default B2B minimum quantity
         product.setDiscount(discount != null ? discount : 0.0);
-        product.setStockQuantity(stockQuantity != null ? stockQuantity : 0);
+        product.setStockQuantity(0); // opening stock is posted to the stock ledger once saved
     product.setStatus(status != null ? status : "Active");
     product.setHsnCode(hsnCode);
         
@@ -486,33 +563,23 @@ public class AdminController {
         product.setIgstPercentage(igstPercentage != null ? igstPercentage : java.math.BigDecimal.ZERO);
 
         if (!imageFile1.isEmpty()) {
-            String fileName = UUID.randomUUID() + "_" + imageFile1.getOriginalFilename();
-            imageFile1.transferTo(Paths.get(uploadDir + fileName));
-            product.setImage1("/uploads/" + fileName);
+            product.setImage1(imageStorageService.store(imageFile1, null));
         }
 
         if (imageFile2 != null && !imageFile2.isEmpty()) {
-            String fileName = UUID.randomUUID() + "_" + imageFile2.getOriginalFilename();
-            imageFile2.transferTo(Paths.get(uploadDir + fileName));
-            product.setImage2("/uploads/" + fileName);
+            product.setImage2(imageStorageService.store(imageFile2, null));
         }
 
         if (imageFile3 != null && !imageFile3.isEmpty()) {
-            String fileName = UUID.randomUUID() + "_" + imageFile3.getOriginalFilename();
-            imageFile3.transferTo(Paths.get(uploadDir + fileName));
-            product.setImage3("/uploads/" + fileName);
+            product.setImage3(imageStorageService.store(imageFile3, null));
         }
 
         if (imageFile4 != null && !imageFile4.isEmpty()) {
-            String fileName = UUID.randomUUID() + "_" + imageFile4.getOriginalFilename();
-            imageFile4.transferTo(Paths.get(uploadDir + fileName));
-            product.setImage4("/uploads/" + fileName);
+            product.setImage4(imageStorageService.store(imageFile4, null));
         }
 
         if (imageFile5 != null && !imageFile5.isEmpty()) {
-            String fileName = UUID.randomUUID() + "_" + imageFile5.getOriginalFilename();
-            imageFile5.transferTo(Paths.get(uploadDir + fileName));
-            product.setImage5("/uploads/" + fileName);
+            product.setImage5(imageStorageService.store(imageFile5, null));
         }
 
         // 3. Set main photo
@@ -548,7 +615,9 @@ public class AdminController {
         product.setCategory(category);
         productRepository.save(product);
 
-        // 5. Create variants if provided
+        // 5. Create variants if provided; prices left unset use the product's,
+        // and a variant without its own stock sells from the product's
+        List<StockChange> variantOpeningStock = new ArrayList<>();
         int variantCount = getMaxArrayLength(variantSizes, variantFabrics, variantStyles, variantPatterns, variantCareInstructions, variantOccasions);
         if (variantCount > 0) {
             for (int i = 0; i < variantCount; i++) {
@@ -572,14 +641,18 @@ public class AdminController {
                 variant.setCareInstruction(careValue);
                 variant.setOccasion(occasionValue);
                 variant.setColor(hasText(fabricValue) ? fabricValue : "Default");
-                variant.setStockQuantity(stockQuantity != null ? stockQuantity : 0);
-                variant.setRetailPrice(retailPrice);
-                variant.setB2bPrice(product.getB2bPrice());
-                variant.setVariantDiscount(discount != null ? discount : 0.0);
                 variant.setSku(generateSKU(product, variant.getSize(), hasText(fabricValue) ? fabricValue : "Default"));
                 variant.setStatus("Active");
 
                 productVariantRepository.save(variant);
+
+                Integer variantStock = parseStock(getArrayValue(variantStocks, i));
+                if (variantStock != null) {
+                    variantOpeningStock.add(StockChange.setTo(product.getId(), variantStock, "Opening stock")
+                        .variant(variant.getId())
+                        .reference("PRODUCT", product.getId())
+                        .product(product));
+                }
             }
         } else {
             // Create default variant if no variants provided
@@ -592,16 +665,20 @@ public class AdminController {
             defaultVariant.setPattern(null);
             defaultVariant.setCareInstruction(null);
             defaultVariant.setOccasion(null);
-            defaultVariant.setStockQuantity(stockQuantity != null ? stockQuantity : 0);
-            defaultVariant.setRetailPrice(retailPrice);
-            defaultVariant.setB2bPrice(product.getB2bPrice());
-            defaultVariant.setVariantDiscount(discount != null ? discount : 0.0);
             defaultVariant.setSku(generateSKU(product, "Default", "Default"));
             defaultVariant.setStatus("Active");
             
             productVariantRepository.save(defaultVariant);
         }
 
+        // Variants given their own stock make up the product's; otherwise the product's figure is booked
+        if (variantOpeningStock.isEmpty()) {
+            stockLedgerService.openingStock(product, stockQuantity);
+        } else {
+            stockLedgerService.post(variantOpeningStock);
+        }
+
+        catalogCacheService.refreshProduct(product.getId());
         return "redirect:/admin?success=Product+Added+Successfully";
     }
     
@@ -638,6 +715,18 @@ public class AdminController {
         return value != null ? value.trim() : null;
     }
 
+    // Blank means the variant has no stock of its own
+    private Integer parseStock(String value) {
+        if (!hasText(value)) {
+            return null;
+        }
+        int stock = Integer.parseInt(value.trim());
+        if (stock < 0) {
+            throw new IllegalArgumentException("Variant stock cannot be negative: " + stock);
+        }
+        return stock;
+    }
+
     private String getListValue(List<String> values, int index) {
         if (values == null || index < 0 || index >= values.size()) {
             return null;
@@ -669,16 +758,11 @@ public class AdminController {
 
         // Handle image file upload
         if (!imageFile.isEmpty()) {
-            String uploadDir = "src/main/resources/static/uploads/categories/";
-            Files.createDirectories(Paths.get(uploadDir));
-
-            String fileName = UUID.randomUUID() + "_" + imageFile.getOriginalFilename();
-            imageFile.transferTo(Paths.get(uploadDir + fileName));
-
-            category.setImage("/uploads/categories/" + fileName);
+            category.setImage(imageStorageService.store(imageFile, "categories"));
         }
 
         categoryRepository.save(category);
+        catalogCacheService.refreshCategory(category.getId());
         return "redirect:/admin?success=Category+Added+Successfully";
     }
     @GetMapping("/admin/add-category")
@@ -693,36 +777,17 @@ public class AdminController {
 
     // Inventory Management Endpoints
     @GetMapping("/admin/inventory")
-    public String showInventory(Model model, HttpSession session) {
+    public String showInventory(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
+            Model model, HttpSession session) {
         User user = (User) session.getAttribute("user");
         if (user == null || !"Admin".equalsIgnoreCase(user.getType())) {
             return "redirect:/login";
         }
 
-        // Get all products with categories for inventory view
-        List<Product> products = productRepository.findAllWithCategory();
-        
-        // Get categories for filter dropdown
-        List<Category> categories = categoryRepository.findAll();
-        
-        // Calculate inventory statistics
-        long totalProducts = products.size();
-        long lowStockProducts = products.stream()
-            .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() <= 10)
-            .count();
-        long outOfStockProducts = products.stream()
-            .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() <= 0)
-            .count();
-        long activeProducts = products.stream()
-            .filter(p -> "Active".equalsIgnoreCase(p.getStatus()))
-            .count();
-
-        model.addAttribute("products", products);
-        model.addAttribute("categories", categories);
-        model.addAttribute("totalProducts", totalProducts);
-        model.addAttribute("lowStockProducts", lowStockProducts);
-        model.addAttribute("outOfStockProducts", outOfStockProducts);
-        model.addAttribute("activeProducts", activeProducts);
+        // One keyset page of products; statistics are counted in the database
+        addInventoryPage(model, new ProductFilter(), after, size);
         
         return "admin-inventory";
     }
@@ -734,6 +799,8 @@ public class AdminController {
             @RequestParam(required = false) String productStatus,
             @RequestParam(required = false) String stockFilter,
             @RequestParam(required = false) String searchQuery,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size,
             Model model, 
             HttpSession session) {
         
@@ -742,78 +809,11 @@ public class AdminController {
             return "redirect:/login";
         }
 
-        List<Product> filteredProducts = productRepository.findAllWithCategory();
-        
-        // Apply filters
-        if (categoryId != null) {
-            filteredProducts = filteredProducts.stream()
-                .filter(p -> p.getCategory() != null && p.getCategory().getId().equals(categoryId))
-                .collect(Collectors.toList());
-        }
-        
-        if (categoryStatus != null && !categoryStatus.isEmpty()) {
-            filteredProducts = filteredProducts.stream()
-                .filter(p -> p.getCategory() != null && categoryStatus.equalsIgnoreCase(p.getCategory().getStatus()))
-                .collect(Collectors.toList());
-        }
-        
-        if (productStatus != null && !productStatus.isEmpty()) {
-            filteredProducts = filteredProducts.stream()
-                .filter(p -> productStatus.equalsIgnoreCase(p.getStatus()))
-                .collect(Collectors.toList());
-        }
-        
-        if (stockFilter != null && !stockFilter.isEmpty()) {
-            switch (stockFilter.toLowerCase()) {
-                case "out_of_stock":
-                    filteredProducts = filteredProducts.stream()
-                        .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() <= 0)
-                        .collect(Collectors.toList());
-                    break;
-                case "low_stock":
-                    filteredProducts = filteredProducts.stream()
-                        .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() > 0 && p.getStockQuantity() <= 10)
-                        .collect(Collectors.toList());
-                    break;
-                case "in_stock":
-                    filteredProducts = filteredProducts.stream()
-                        .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() > 10)
-                        .collect(Collectors.toList());
-                    break;
-            }
-        }
-        
-        if (searchQuery != null && !searchQuery.trim().isEmpty()) {
-            String query = searchQuery.toLowerCase().trim();
-            filteredProducts = filteredProducts.stream()
-                .filter(p -> p.getProductName().toLowerCase().contains(query) ||
-                           (p.getDescription() != null && p.getDescription().toLowerCase().contains(query)))
-                .collect(Collectors.toList());
-        }
-
-        // Get categories for filter dropdown
-        List<Category> categories = categoryRepository.findAll();
-        
-        // Calculate filtered statistics
-        long totalProducts = filteredProducts.size();
-        long lowStockProducts = filteredProducts.stream()
-            .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() <= 10)
-            .count();
-        long outOfStockProducts = filteredProducts.stream()
-            .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() <= 0)
-            .count();
-        long activeProducts = filteredProducts.stream()
-            .filter(p -> "Active".equalsIgnoreCase(p.getStatus()))
-            .count();
-
-        model.addAttribute("products", filteredProducts);
-        model.addAttribute("categories", categories);
-        model.addAttribute("totalProducts", totalProducts);
-        model.addAttribute("lowStockProducts", lowStockProducts);
-        model.addAttribute("outOfStockProducts", outOfStockProducts);
-        model.addAttribute("activeProducts", activeProducts);
+        ProductFilter filter = new ProductFilter(categoryId, categoryStatus, productStatus, stockFilter, searchQuery);
+        addInventoryPage(model, filter, after, size);
         
         // Add filter values for form persistence
+        model.addAttribute("filterApplied", true);
         model.addAttribute("selectedCategoryId", categoryId);
         model.addAttribute("selectedCategoryStatus", categoryStatus);
         model.addAttribute("selectedProductStatus", productStatus);
@@ -823,6 +823,20 @@ public class AdminController {
         return "admin-inventory";
     }
 
+    private void addInventoryPage(Model model, ProductFilter filter, Long after, Integer size) {
+        KeysetPage<Product> page = productQueryService.findPage(filter, after, size);
+        Map<String, Long> stats = productQueryService.getInventoryStats(filter);
+
+        model.addAttribute("products", page.getItems());
+        model.addAttribute("productPage", page);
+        model.addAttribute("categories", categoryRepository.findAll());
+        model.addAttribute("totalProducts", page.getTotalCount());
+        model.addAttribute("lowStockProducts", stats.get("lowStockProducts"));
+        model.addAttribute("lowStockThreshold", productQueryService.getLowStockThreshold());
+        model.addAttribute("outOfStockProducts", stats.get("outOfStockProducts"));
+        model.addAttribute("activeProducts", stats.get("activeProducts"));
+    }
+
     @GetMapping("/admin/inventory/export")
     public ResponseEntity<byte[]> exportInventoryToExcel(
             @RequestParam(required = false) Long categoryId,
@@ -838,54 +852,9 @@ public class AdminController {
         }
 
         try {
-            List<Product> products = productRepository.findAllWithCategory();
-            
-            // Apply the same filters as the view
-            if (categoryId != null) {
-                products = products.stream()
-                    .filter(p -> p.getCategory() != null && p.getCategory().getId().equals(categoryId))
-                    .collect(Collectors.toList());
-            }
-            
-            if (categoryStatus != null && !categoryStatus.isEmpty()) {
-                products = products.stream()
-                    .filter(p -> p.getCategory() != null && categoryStatus.equalsIgnoreCase(p.getCategory().getStatus()))
-                    .collect(Collectors.toList());
-            }
-            
-            if (productStatus != null && !productStatus.isEmpty()) {
-                products = products.stream()
-                    .filter(p -> productStatus.equalsIgnoreCase(p.getStatus()))
-                    .collect(Collectors.toList());
-            }
-            
-            if (stockFilter != null && !stockFilter.isEmpty()) {
-                switch (stockFilter.toLowerCase()) {
-                    case "out_of_stock":
-                        products = products.stream()
-                            .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() <= 0)
-                            .collect(Collectors.toList());
-                        break;
-                    case "low_stock":
-                        products = products.stream()
-                            .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() > 0 && p.getStockQuantity() <= 10)
-                            .collect(Collectors.toList());
-                        break;
-                    case "in_stock":
-                        products = products.stream()
-                            .filter(p -> p.getStockQuantity() != null && p.getStockQuantity() > 10)
-                            .collect(Collectors.toList());
-                        break;
-                }
-            }
-            
-            if (searchQuery != null && !searchQuery.trim().isEmpty()) {
-                String query = searchQuery.toLowerCase().trim();
-                products = products.stream()
-                    .filter(p -> p.getProductName().toLowerCase().contains(query) ||
-                               (p.getDescription() != null && p.getDescription().toLowerCase().contains(query)))
-                    .collect(Collectors.toList());
-            }
+            // Apply the same filters as the view, in SQL
+            List<Product> products = productQueryService.findAll(
+                new ProductFilter(categoryId, categoryStatus, productStatus, stockFilter, searchQuery));
 
             // Generate Excel file
             byte[] excelContent = generateInventoryExcel(products);
@@ -1045,6 +1014,7 @@ public class AdminController {
                                @RequestParam(required = false) List<String> variantCareInstructions,
                                @RequestParam(required = false) List<String> variantOccasions,
                                @RequestParam(required = false) List<Long> variantIds,
+                               @RequestParam(required = false) List<String> variantStocks,
                                HttpSession session,
                                Model model) {
         
@@ -1068,7 +1038,6 @@ public class AdminController {
             product.setB2bPrice(b2bPrice);
             product.setB2bMinQuantity(b2bMinQuantity != null ? b2bMinQuantity : 1);
             product.setDiscount(discount);
-            product.setStockQuantity(stockQuantity);
             product.setStatus(status);
             product.setCategory(category);
             product.setUpdatedAt(LocalDateTime.now());
@@ -1076,7 +1045,8 @@ public class AdminController {
             // Save the updated product
             productRepository.save(product);
             
-            // Handle product variants
+            // Handle product variants; a changed stock figure is booked as an adjustment against what is on hand now
+            List<StockChange> stockChanges = new ArrayList<>();
             if (variantIds != null && !variantIds.isEmpty()) {
                 for (int i = 0; i < variantIds.size(); i++) {
                     Long variantId = variantIds.get(i);
@@ -1099,11 +1069,8 @@ public class AdminController {
                     }
 
                     if (variant.getProduct() == null) {
+                        // Prices and stock left unset follow the product's
                         variant.setProduct(product);
-                        variant.setStockQuantity(product.getStockQuantity() != null ? product.getStockQuantity() : 0);
-                        variant.setRetailPrice(product.getRetailPrice());
-                        variant.setB2bPrice(product.getB2bPrice());
-                        variant.setVariantDiscount(product.getDiscount());
                         variant.setStatus("Active");
                     }
 
@@ -1118,9 +1085,30 @@ public class AdminController {
                     variant.setSku(generateSKU(product, variant.getSize(), colorSeed));
 
                     productVariantRepository.save(variant);
+
+                    Integer variantStock = parseStock(getListValue(variantStocks, i));
+                    if (variantStock != null) {
+                        stockChanges.add(StockChange.setTo(product.getId(), variantStock, "Product edited")
+                            .variant(variant.getId())
+                            .reference("PRODUCT", product.getId())
+                            .createdBy(user.getPhone())
+                            .product(product));
+                    }
                 }
             }
             
+            // The product's own figure only counts when no variant keeps stock of its own
+            boolean variantStock = !stockChanges.isEmpty() || productVariantRepository.findStockQuantities(List.of(product.getId()))
+                .stream().anyMatch(row -> row[1] != null);
+            if (stockQuantity != null && !variantStock) {
+                stockChanges.add(StockChange.setTo(product.getId(), stockQuantity, "Product edited")
+                    .reference("PRODUCT", product.getId())
+                    .createdBy(user.getPhone())
+                    .product(product));
+            }
+            stockLedgerService.post(stockChanges);
+            
+            catalogCacheService.refreshProduct(product.getId());
             model.addAttribute("success", "Product updated successfully!");
             return "redirect:/admin/inventory";
             
@@ -1146,6 +1134,83 @@ public class AdminController {
         }
     }
 
+    /**
+     * Ranked product search for the open-sale and PO/GRN product pickers
+     */
+    @GetMapping("/admin/products/search")
+    @ResponseBody
+    public ResponseEntity<?> searchProducts(@RequestParam("q") String query,
+                                            @RequestParam(required = false) String status,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer size,
+                                            HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Unauthorized"));
+        }
+        String statusFilter = status != null && !status.trim().isEmpty() ? status.trim() : null;
+        return ResponseEntity.ok(productSearchService.search(query, statusFilter, after, size));
+    }
+
+    /**
+     * Typeahead for product pickers: compact rows whose name words or SKU start with q
+     */
+    @GetMapping("/admin/products/picker")
+    @ResponseBody
+    public ResponseEntity<?> pickProducts(@RequestParam(required = false) String q,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(defaultValue = "false") boolean activeOnly,
+                                          HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Unauthorized"));
+        }
+        return ResponseEntity.ok(pickerIndexService.searchProducts(q, limit, activeOnly));
+    }
+
+    @GetMapping("/admin/catalog-cache/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats(HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Unauthorized"));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>(catalogCacheService.getStats());
+        stats.put("cartSummaries", cartSummaryService.getStats());
+        stats.put("images", imageStorageService.getStats());
+        stats.put("files", fileServingService.getStats());
+        stats.put("orderStats", orderStatsService.getStats());
+        stats.put("reports", reportExecutor.getStats());
+        replicaRoutingDataSource.ifAvailable(routing -> stats.put("dataSources", routing.getStats()));
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * One-off: move uploads saved before the image pipeline into the variant
+     * layout. Runs in the background; progress shows in the cache stats.
+     */
+    @PostMapping("/admin/images/backfill")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> backfillImages(HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Unauthorized"));
+        }
+        boolean started = imageStorageService.startBackfill();
+        return ResponseEntity.ok(Map.of("success", started,
+                "message", started ? "Image backfill started" : "Image backfill already running"));
+    }
+
+    /**
+     * Recount the order dashboard counters from the orders table (after a
+     * bulk import or a manual fix-up in the database).
+     */
+    @PostMapping("/admin/orders/stats/rebuild")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> rebuildOrderStats(HttpSession session) {
+        if (!isAdmin(session)) {
+            return ResponseEntity.status(401).body(Map.of("success", false, "message", "Unauthorized"));
+        }
+        int rows = orderStatsService.rebuildCounters();
+        return ResponseEntity.ok(Map.of("success", true, "message", "Rebuilt " + rows + " order status counters"));
+    }
+
     // ===== ORDER EDITING (Re-added minimal) =====
     @GetMapping("/admin/orders/edit/{orderId}")
     public String editOrderForm(@PathVariable Long orderId, HttpSession session, Model model) {
@@ -1186,6 +1251,7 @@ public class AdminController {
                               @RequestParam(required = false) String buyerGstin,
                               @RequestParam(required = false) List<Long> productIds,
                               @RequestParam(required = false) List<Integer> quantities,
+                              @RequestParam(required = false) List<Long> customItemIds,
                               HttpSession session,
                               RedirectAttributes redirectAttributes) {
         if (!isAdmin(session)) {
@@ -1215,6 +1281,9 @@ public class AdminController {
         // Handle billType - if not provided, use existing order's bill type
         String finalBillType = (billType != null && !billType.trim().isEmpty()) ? billType : order.getBillType();
 
+        // Edited lines are re-posted to the GST summary after saving
+        taxSummaryService.reverseInvoice(order);
+
         // Update order fields
         order.setName(name);
         order.setUserPhone(userPhone);
@@ -1226,6 +1295,27 @@ public class AdminController {
         order.setBillType(finalBillType);
         order.setBuyerGstin(buyerGstin);
 
+        // Custom lines have no product to pick again; the form sends back the ids of those kept,
+        // and they are carried over with their price and recorded GST rate
+        List<OrderItem> keptCustomItems = new ArrayList<>();
+        for (OrderItem old : order.getOrderItems()) {
+            if (old.getProductId() == null && customItemIds != null && customItemIds.contains(old.getId())) {
+                OrderItem kept = new OrderItem();
+                kept.setOrder(order);
+                kept.setIsCustomProduct(true);
+                kept.setCustomProductName(old.getCustomProductName());
+                kept.setCustomProductSku(old.getCustomProductSku());
+                kept.setCustomProductDescription(old.getCustomProductDescription());
+                kept.setQuantity(old.getQuantity());
+                kept.setUnitPrice(old.getUnitPrice());
+                kept.setTotalPrice(old.getTotalPrice());
+                kept.setUserType(old.getUserType());
+                kept.setPriceType(old.getPriceType());
+                kept.setGstRate(old.getGstRate());
+                keptCustomItems.add(kept);
+            }
+        }
+
         // Replace items
         order.getOrderItems().clear();
         BigDecimal subTotal = BigDecimal.ZERO;
@@ -1237,8 +1327,8 @@ public class AdminController {
                 Product p = productRepository.findById(pid).orElse(null);
                 if (p == null) continue;
                 BigDecimal unitPrice = "Kaccha".equalsIgnoreCase(finalBillType)
-                        ? BigDecimal.valueOf(p.getB2bPrice() != null ? p.getB2bPrice() : 0.0)
-                        : BigDecimal.valueOf(p.getRetailPrice() != null ? p.getRetailPrice() : 0.0);
+                        ? Money.of(p.getB2bPrice()).toBigDecimal()
+                        : Money.of(p.getRetailPrice()).toBigDecimal();
                 OrderItem item = new OrderItem();
                 item.setOrder(order);
                 item.setProductId(pid);
@@ -1251,15 +1341,30 @@ public class AdminController {
                 subTotal = subTotal.add(item.getTotalPrice());
             }
         }
+        for (OrderItem kept : keptCustomItems) {
+            order.getOrderItems().add(kept);
+            subTotal = subTotal.add(kept.getTotalPrice() != null ? kept.getTotalPrice() : BigDecimal.ZERO);
+        }
 
         BigDecimal gstRate = order.getGstRate() != null ? order.getGstRate() : new BigDecimal("18.00");
-        BigDecimal gstAmount = subTotal.multiply(gstRate).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+        BigDecimal gstAmount;
+        if ("CGST_SGST".equals(order.getTaxType()) || "IGST".equals(order.getTaxType())) {
+            // Re-tax product lines at each product's own rate; custom lines keep their recorded rate,
+            // so the order-level rate (null on mixed-rate orders) only covers lines never taxed before
+            gstAmount = orderAccountingService.applyLineTax(order, "CGST_SGST".equals(order.getTaxType()),
+                    TaxPlan.ofCombinedRate(gstRate)).getTotalTax().toBigDecimal();
+        } else {
+            gstAmount = subTotal.multiply(gstRate).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+        }
         BigDecimal total = subTotal.add(gstAmount);
         order.setSubTotal(subTotal);
         order.setGstAmount(gstAmount);
         order.setTotal(total);
 
         orderRepository.save(order);
+        if (!"Cancelled".equals(order.getOrderStatus())) {
+            taxSummaryService.recordInvoice(order);
+        }
         
         // Handle outstanding and customer ledger updates
         try {
@@ -1289,7 +1394,10 @@ public class AdminController {
      */
     private void regenerateInvoiceForOrder(Order order) throws IOException {
         // Generate new PDF invoice
+        Timer.Sample render = Timer.start(meterRegistry);
         byte[] pdfContent = generatePdfInvoice(order);
+        render.stop(meterRegistry.timer("invoice.render", "class", AdminController.class.getName(),
+                "method", "regenerateInvoiceForOrder", "source", "admin_regenerate", "exception", "none"));
         
         // Save to disk and update database
         Invoice updatedInvoice = savePdfToDiskAndDb(order, pdfContent);
@@ -1457,25 +1565,9 @@ public class AdminController {
             
             // Restore stock quantities for all items in the order
             List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-            for (OrderItem item : orderItems) {
-                Product product = productRepository.findById(item.getProductId()).orElse(null);
-                if (product != null) {
-                    // Restore the quantity that was ordered
-                    int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-                    int restoredStock = currentStock + item.getQuantity();
-                    product.setStockQuantity(restoredStock);
-                    
-                    // Update product status if it was "Out of Stock" and now has stock
-                    if ("Out of Stock".equals(product.getStatus()) && restoredStock > 0) {
-                        product.setStatus("Active");
-                    }
-                    
-                    // Save updated product
-                    productRepository.save(product);
-                }
-            }
+            stockLedgerService.restock(orderId, orderItems);
             
-            // Update order status to cancelled
+            // Update order status to cancelled (also takes the invoice out of the GST summary)
             order.setOrderStatus("Cancelled");
             orderService.updateOrder(order);
             
@@ -1549,41 +1641,7 @@ public class AdminController {
             return "redirect:/";
         }
         
-        // Get all active products for selection
-        List<Product> products = productRepository.findByStatus("Active");
-        System.out.println("Found " + products.size() + " active products for open sale");
-        
-        // Debug: Print first few products
-        if (!products.isEmpty()) {
-            System.out.println("First product: " + products.get(0).getProductName() + " - " + products.get(0).getRetailPrice());
-        } else {
-            System.out.println("No active products found in database");
-            // Try to get all products regardless of status
-            List<Product> allProducts = productRepository.findAll();
-            System.out.println("Total products in database: " + allProducts.size());
-            if (!allProducts.isEmpty()) {
-                System.out.println("First product status: " + allProducts.get(0).getStatus());
-            }
-        }
-        
-        // Convert to DTOs for better JSON serialization
-        List<ProductDropdownDto> productDtos = products.stream()
-            .map(p -> new ProductDropdownDto(
-                p.getId(),
-                p.getProductName(),
-                p.getRetailPrice(),
-                p.getStockQuantity(),
-                p.getSku()
-            ))
-            .collect(java.util.stream.Collectors.toList());
-        
-        System.out.println("Converted " + productDtos.size() + " products to DTOs");
-        if (!productDtos.isEmpty()) {
-            System.out.println("First DTO: " + productDtos.get(0).getProductName() + " - " + productDtos.get(0).getRetailPrice());
-        }
-        
-        model.addAttribute("products", productDtos);
-        
+        // Product rows fetch their options from /admin/open-sale/products as the user types
         return "admin-open-sale";
     }
     
@@ -1626,6 +1684,7 @@ public class AdminController {
             // Calculate total
             BigDecimal total = BigDecimal.ZERO;
             List<OrderItem> orderItems = new ArrayList<>();
+            List<StockChange> stockChanges = new ArrayList<>();
             
             for (int i = 0; i < productIds.length; i++) {
                 if (productIds[i] != null && !productIds[i].isEmpty()) {
@@ -1654,7 +1713,7 @@ public class AdminController {
                         item.setCustomProductDescription(customDesc);
                         item.setIsCustomProduct(true);
                         
-                        System.out.println("Added custom product: " + customName + " - " + unitPrice);
+                        log.debug("Added custom product: {} - {}", customName, unitPrice);
                     } else {
                         // Handle regular product from database
                         Long productId = Long.parseLong(productIds[i]);
@@ -1663,14 +1722,12 @@ public class AdminController {
                             item.setProductId(productId);
                             item.setIsCustomProduct(false);
                             
-                            // Update stock only for regular products
-                            int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-                            product.setStockQuantity(currentStock - quantity);
-                            productRepository.save(product);
+                            // Update stock only for regular products (posted once the order is saved)
+                            stockChanges.add(StockChange.out(productId, quantity, "Open sale").product(product));
                             
-                            System.out.println("Added regular product: " + product.getProductName() + " - " + unitPrice);
+                            log.debug("Added regular product: {} - {}", product.getProductName(), unitPrice);
                         } else {
-                            System.out.println("Product not found for ID: " + productId);
+                            log.warn("Product not found for ID: {}", productId);
                             continue; // Skip this item
                         }
                     }
@@ -1685,6 +1742,7 @@ public class AdminController {
             
             // Save order
             Order savedOrder = orderRepository.save(order);
+            MDC.put(RequestMdcFilter.MDC_ORDER_ID, String.valueOf(savedOrder.getId()));
             
             // Save order items
             for (OrderItem item : orderItems) {
@@ -1692,6 +1750,11 @@ public class AdminController {
                 orderItemRepository.save(item);
             }
             
+            for (StockChange change : stockChanges) {
+                change.reference("ORDER", savedOrder.getId());
+            }
+            stockLedgerService.post(stockChanges);
+            
             // Create voucher entries for both payment modes
             try {
                 if (amount1 != null && amount1.compareTo(BigDecimal.ZERO) > 0 && paymentMethod1 != null && !paymentMethod1.isEmpty()) {
@@ -1701,16 +1764,15 @@ public class AdminController {
                     adminOrderService.createVoucherEntryForRetailOrder(savedOrder, paymentMethod2, amount2);
                 }
             } catch (Exception e) {
-                System.err.println("Error creating voucher for open sale: " + e.getMessage());
+                log.error("Error creating voucher for open sale: {}", e.getMessage());
             }
             
             // Generate invoice for open sale
             try {
                 generateInvoiceForOpenSale(savedOrder);
-                System.out.println("Invoice generated for open sale order ID: " + savedOrder.getId());
+                log.info("Invoice generated for open sale order ID: {}", savedOrder.getId());
             } catch (Exception e) {
-                System.err.println("Error generating invoice for open sale: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error generating invoice for open sale", e);
             }
             
             return "success:" + savedOrder.getId();
@@ -1741,44 +1803,41 @@ public class AdminController {
     }
     
     /**
-     * Get all active products as JSON for open sale dropdown
+     * Active products whose name or SKU start with q, for the open sale
+     * dropdown, with their current stock read alongside
      */
     @GetMapping("/admin/open-sale/products")
     @ResponseBody
-    public List<ProductDropdownDto> getProductsForOpenSale() {
+    public List<ProductDropdownDto> getProductsForOpenSale(@RequestParam(required = false) String q,
+                                                           @RequestParam(required = false) Integer limit) {
         try {
-            List<Product> products = productRepository.findByStatus("Active");
-            System.out.println("AJAX: Found " + products.size() + " active products");
-            
-            // If no products found, try to insert sample products
-            if (products.isEmpty()) {
-                System.out.println("No active products found, checking if any products exist...");
-                List<Product> allProducts = productRepository.findAll();
-                System.out.println("Total products in database: " + allProducts.size());
-                
-                if (allProducts.isEmpty()) {
-                    System.out.println("No products in database, inserting sample products...");
-                    insertSampleProducts();
-                    products = productRepository.findByStatus("Active");
-                    System.out.println("After inserting samples, found " + products.size() + " active products");
-                }
+            // If no products exist yet, insert sample products
+            if (pickerIndexService.productCount() == 0) {
+                log.info("No products in database, inserting sample products...");
+                insertSampleProducts();
             }
             
-            List<ProductDropdownDto> productDtos = products.stream()
-                .map(p -> new ProductDropdownDto(
-                    p.getId(),
-                    p.getProductName(),
-                    p.getRetailPrice(),
-                    p.getStockQuantity(),
-                    p.getSku()
-                ))
-                .collect(java.util.stream.Collectors.toList());
+            List<ProductDropdownDto> matches = pickerIndexService.searchProducts(q, limit, true);
+            if (matches.isEmpty()) {
+                return matches;
+            }
             
-            System.out.println("AJAX: Converted to " + productDtos.size() + " DTOs");
+            // The index leaves stock out; one query for just these rows
+            Map<Long, Integer> stock = new HashMap<>();
+            for (Object[] row : productRepository.findStockQuantities(
+                    matches.stream().map(ProductDropdownDto::getId).collect(Collectors.toList()))) {
+                stock.put((Long) row[0], (Integer) row[1]);
+            }
+            List<ProductDropdownDto> productDtos = new ArrayList<>(matches.size());
+            for (ProductDropdownDto match : matches) {
+                ProductDropdownDto dto = new ProductDropdownDto(match.getId(), match.getProductName(),
+                        match.getRetailPrice(), match.getSku(), match.getPrice(), match.getStatus());
+                dto.setStockQuantity(stock.getOrDefault(match.getId(), 0));
+                productDtos.add(dto);
+            }
             return productDtos;
         } catch (Exception e) {
-            System.err.println("Error loading products for open sale: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading products for open sale", e);
             return new ArrayList<>();
         }
     }
@@ -1788,13 +1847,15 @@ public class AdminController {
      */
     private void generateInvoiceForOpenSale(Order order) throws IOException {
         // Generate new PDF invoice
+        Timer.Sample render = Timer.start(meterRegistry);
         byte[] pdfContent = generatePdfInvoiceForOpenSale(order);
+        render.stop(meterRegistry.timer("invoice.render", "class", AdminController.class.getName(),
+                "method", "generateInvoiceForOpenSale", "source", "open_sale", "exception", "none"));
         
         // Save to disk and update database
         Invoice invoice = savePdfToDiskAndDb(order, pdfContent);
         
-        System.out.println("Invoice generated for open sale order " + order.getId() + 
-                          " with file path: " + invoice.getFilePath());
+        log.info("Invoice generated for open sale order {} with file path: {}", order.getId(), invoice.getFilePath());
     }
     
     /**
@@ -1920,18 +1981,18 @@ public class AdminController {
                 product.setPurchasePrice(product.getRetailPrice() * 0.6);
                 product.setB2bMinQuantity(5);
                 product.setDiscount(0.0);
-                product.setStockQuantity(Integer.parseInt(productData[4]));
+                product.setStockQuantity(0);
                 product.setReservedQuantity(0);
                 product.setStatus("Active");
                 product.setCategory(category);
                 product.setSku(productData[0].substring(0, 3).toUpperCase() + "-001");
                 productRepository.save(product);
+                stockLedgerService.openingStock(product, Integer.parseInt(productData[4]));
             }
             
-            System.out.println("Sample products inserted successfully");
+            log.info("Sample products inserted successfully");
         } catch (Exception e) {
-            System.err.println("Error inserting sample products: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error inserting sample products", e);
         }
     }
 
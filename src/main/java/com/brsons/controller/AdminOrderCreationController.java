@@ -1,8 +1,13 @@
 package com.brsons.controller;
 
+import com.brsons.config.RequestMdcFilter;
+import com.brsons.dto.StockChange;
 import com.brsons.model.*;
 import com.brsons.repository.*;
 import com.brsons.service.OrderService;
+import com.brsons.service.StockLedgerService;
+import com.brsons.util.Money;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 // Password encoding handled by plain text storage
 import org.springframework.stereotype.Controller;
@@ -35,6 +40,9 @@ public class AdminOrderCreationController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
     // Password stored as plain text in current system
     
     /**
@@ -219,8 +227,9 @@ public class AdminOrderCreationController {
             }
             
             // Calculate total and create order items
-            BigDecimal total = BigDecimal.ZERO;
+            Money total = Money.ZERO;
             List<OrderItem> orderItems = new ArrayList<>();
+            List<StockChange> stockChanges = new ArrayList<>();
             
             for (Map.Entry<String, String> entry : productQuantities.entrySet()) {
                 if (entry.getKey().startsWith("product_")) {
@@ -231,24 +240,20 @@ public class AdminOrderCreationController {
                         Product product = productRepository.findById(productId).orElse(null);
                         if (product != null) {
                             // Use appropriate price based on user type
-                            double unitPrice = "B2B".equals(orderForUser.getType()) ? 
-                                (product.getB2bPrice() != null ? product.getB2bPrice() : 0.0) :
-                                (product.getRetailPrice() != null ? product.getRetailPrice() : 0.0);
+                            Money unitPrice = Money.of("B2B".equals(orderForUser.getType()) ? 
+                                product.getB2bPrice() : product.getRetailPrice());
                             
                             OrderItem orderItem = new OrderItem();
                             orderItem.setProductId(productId);
                             orderItem.setQuantity(quantity);
-                            orderItem.setUnitPrice(BigDecimal.valueOf(unitPrice));
+                            orderItem.setUnitPrice(unitPrice.toBigDecimal());
                             orderItem.setOrder(order);
                             
                             orderItems.add(orderItem);
-                            total = total.add(BigDecimal.valueOf(unitPrice * quantity));
+                            total = total.plus(unitPrice.times(quantity));
                             
-                            // Update stock
-                            if (product.getStockQuantity() != null) {
-                                product.setStockQuantity(product.getStockQuantity() - quantity);
-                                productRepository.save(product);
-                            }
+                            // Stock is taken through the stock ledger once the order is saved
+                            stockChanges.add(StockChange.out(productId, quantity, "Sale").product(product));
                         }
                     }
                 }
@@ -259,11 +264,12 @@ public class AdminOrderCreationController {
                 return "redirect:/admin/order-creation/select-products";
             }
             
-            order.setTotal(total);
+            order.setTotal(total.toBigDecimal());
             order.setOrderItems(orderItems);
             
             // Save order
             Order savedOrder = orderRepository.save(order);
+            MDC.put(RequestMdcFilter.MDC_ORDER_ID, String.valueOf(savedOrder.getId()));
             
             // Save order items
             for (OrderItem item : orderItems) {
@@ -271,6 +277,12 @@ public class AdminOrderCreationController {
                 orderItemRepository.save(item);
             }
             
+            // Update stock
+            for (StockChange change : stockChanges) {
+                change.reference("ORDER", savedOrder.getId());
+            }
+            stockLedgerService.post(stockChanges);
+            
             // Clear session data
             session.removeAttribute("orderForUser");
             session.removeAttribute("orderAddress");
@@ -8,6 +8,9 @@ import com.brsons.service.SupplierService;
 import com.brsons.service.PurchaseOrderService;
 import com.brsons.service.GRNService;
 import com.brsons.service.CreditNoteService;
+import com.brsons.service.PickerIndexService;
+import com.brsons.service.ReportExecutor;
+import com.brsons.dto.ProductDropdownDto;
 import com.brsons.repository.ProductRepository;
 import com.brsons.repository.SupplierRepository;
 
@@ -41,6 +44,9 @@ public class BusinessManagementController {
     @Autowired
     private PurchaseOrderService purchaseOrderService;
     
+    @Autowired
+    private PickerIndexService pickerIndexService;
+    
     @Autowired
     private ProductRepository productRepository;
     
@@ -56,6 +62,9 @@ public class BusinessManagementController {
     @Autowired
     private CreditNoteService creditNoteService;
     
+    @Autowired
+    private ReportExecutor reportExecutor;
+    
     // ==================== AJAX ENDPOINTS ====================
     
     @GetMapping("/api/purchase-orders/{poId}/products")
@@ -381,30 +390,11 @@ public class BusinessManagementController {
             return "redirect:/login";
         }
         
+        // Products are picked through /admin/products/picker as the user types
         List<Supplier> suppliers = supplierService.getActiveSuppliers();
-        List<Product> products = productRepository.findAll();
-        
-        // Convert products to JSON for JavaScript
-        ObjectMapper objectMapper = new ObjectMapper();
-        String productsJson = "[]";
-        try {
-            List<Map<String, Object>> productsData = new ArrayList<>();
-            for (Product product : products) {
-                Map<String, Object> productMap = new HashMap<>();
-                productMap.put("id", product.getId());
-                productMap.put("name", product.getProductName());
-                productsData.add(productMap);
-            }
-            productsJson = objectMapper.writeValueAsString(productsData);
-        } catch (Exception e) {
-            // If JSON conversion fails, use empty array
-            productsJson = "[]";
-        }
         
         model.addAttribute("purchaseOrder", new PurchaseOrder());
         model.addAttribute("suppliers", suppliers);
-        model.addAttribute("products", products);
-        model.addAttribute("productsJson", productsJson);
         model.addAttribute("user", user);
         model.addAttribute("poStatuses", PurchaseOrder.POStatus.values());
         
@@ -527,11 +517,9 @@ public class BusinessManagementController {
         Optional<PurchaseOrder> purchaseOrder = purchaseOrderService.getPurchaseOrderById(id);
         if (purchaseOrder.isPresent()) {
             List<Supplier> suppliers = supplierService.getActiveSuppliers();
-            List<Product> products = productRepository.findAll();
             
             model.addAttribute("purchaseOrder", purchaseOrder.get());
             model.addAttribute("suppliers", suppliers);
-            model.addAttribute("products", products);
             model.addAttribute("user", user);
             model.addAttribute("poStatuses", PurchaseOrder.POStatus.values());
             return "admin-edit-purchase-order";
@@ -793,11 +781,12 @@ public class BusinessManagementController {
         return "admin-add-grn";
     }
     
-    // Endpoint to fetch all products for direct GRN creation
+    // Endpoint to fetch products for direct GRN creation (prefix matches of q, first by name when empty)
     @GetMapping("/grn/products")
     @ResponseBody
-    public List<Map<String, Object>> getAllProductsForGRN() {
-        List<Product> products = productRepository.findAll();
+    public List<Map<String, Object>> getAllProductsForGRN(@RequestParam(required = false) String q,
+                                                          @RequestParam(required = false) Integer limit) {
+        List<ProductDropdownDto> products = pickerIndexService.searchProducts(q, limit, false);
         return products.stream()
                 .map(product -> {
                     Map<String, Object> productMap = new HashMap<>();
@@ -1057,12 +1046,10 @@ public class BusinessManagementController {
         
         List<PurchaseOrder> orders = purchaseOrderService.getAllPurchaseOrders();
         List<Supplier> suppliers = supplierService.getAllSuppliers();
-        List<Product> products = productRepository.findAll();
         
         model.addAttribute("creditNote", new CreditNote());
         model.addAttribute("orders", orders);
         model.addAttribute("suppliers", suppliers);
-        model.addAttribute("products", products);
         model.addAttribute("user", user);
         
         return "admin-add-credit-note";
@@ -1177,12 +1164,10 @@ public class BusinessManagementController {
         
         List<PurchaseOrder> orders = purchaseOrderService.getAllPurchaseOrders();
         List<Supplier> suppliers = supplierService.getAllSuppliers();
-        List<Product> products = productRepository.findAll();
         
         model.addAttribute("creditNote", creditNote);
         model.addAttribute("orders", orders);
         model.addAttribute("suppliers", suppliers);
-        model.addAttribute("products", products);
         model.addAttribute("user", user);
         
         return "admin-edit-credit-note";
@@ -1323,23 +1308,21 @@ public class BusinessManagementController {
             return "redirect:/login";
         }
         
-        // Get supplier statistics
-        SupplierService.SupplierStatistics supplierStats = supplierService.getSupplierStatistics();
-        
-        // Get purchase order statistics
-        PurchaseOrderService.PurchaseOrderStatistics poStats = purchaseOrderService.getPurchaseOrderStatistics();
-        
-        // Get GRN statistics
-        GRNService.GRNStatistics grnStats = grnService.getGRNStatistics();
-        
-        // Get Credit Note statistics
-        CreditNoteService.CreditNoteStatistics creditNoteStats = creditNoteService.getCreditNoteStatistics();
+        // Supplier, purchase order, GRN and credit note statistics are independent; read them in parallel
+        ReportExecutor.Source<SupplierService.SupplierStatistics> supplierStats =
+                reportExecutor.fork("dashboard-suppliers", supplierService::getSupplierStatistics);
+        ReportExecutor.Source<PurchaseOrderService.PurchaseOrderStatistics> poStats =
+                reportExecutor.fork("dashboard-purchase-orders", purchaseOrderService::getPurchaseOrderStatistics);
+        ReportExecutor.Source<GRNService.GRNStatistics> grnStats =
+                reportExecutor.fork("dashboard-grns", grnService::getGRNStatistics);
+        ReportExecutor.Source<CreditNoteService.CreditNoteStatistics> creditNoteStats =
+                reportExecutor.fork("dashboard-credit-notes", creditNoteService::getCreditNoteStatistics);
         
         model.addAttribute("user", user);
-        model.addAttribute("supplierStats", supplierStats);
-        model.addAttribute("poStats", poStats);
-        model.addAttribute("grnStats", grnStats);
-        model.addAttribute("creditNoteStats", creditNoteStats);
+        model.addAttribute("supplierStats", supplierStats.join());
+        model.addAttribute("poStats", poStats.join());
+        model.addAttribute("grnStats", grnStats.join());
+        model.addAttribute("creditNoteStats", creditNoteStats.join());
         
         return "admin-business-dashboard";
     }
@@ -1,5 +1,6 @@
 package com.brsons.controller;
 
+import io.micrometer.core.annotation.Timed;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -7,6 +8,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -16,18 +20,25 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestBody;
 
-import com.brsons.model.CartProductEntry1;
+import com.brsons.config.RequestMdcFilter;
+import com.brsons.dto.ResolvedPrice;
+import com.brsons.dto.StockChange;
+import com.brsons.model.CartProductEntry;
 import com.brsons.model.Order;
 import com.brsons.model.OrderItem;
 import com.brsons.model.Product;
+import com.brsons.model.ProductVariant;
 import com.brsons.model.User;
-import com.brsons.repository.CartProductEntryRepo;
 import com.brsons.repository.OrderItemRepository;
 import com.brsons.repository.OrderRepository;
 import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductVariantRepository;
+import com.brsons.service.CartService;
 import com.brsons.service.CheckoutService;
 // import com.brsons.service.EnhancedInvoiceService;
 import com.brsons.service.OrderAccountingService;
+import com.brsons.service.PricingService;
+import com.brsons.service.StockLedgerService;
 
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
@@ -35,6 +46,8 @@ import jakarta.servlet.http.HttpSession;
 @Controller
 public class CheckoutController {
 
+	private static final Logger log = LoggerFactory.getLogger(CheckoutController.class);
+
 	@Autowired
     private CheckoutService checkoutService;
     @Autowired
@@ -45,6 +58,12 @@ public class CheckoutController {
     OrderAccountingService orderAccountingService;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+    @Autowired
+    private PricingService pricingService;
     // Temporarily disabled EnhancedInvoiceService to fix database issues
     // @Autowired
     // EnhancedInvoiceService enhancedInvoiceService;
@@ -60,7 +79,7 @@ public class CheckoutController {
         if ("Admin".equals(user.getType())) {
             Boolean adminOrderMode = (Boolean) session.getAttribute("adminOrderMode");
             if (adminOrderMode == null || !adminOrderMode) {
-                System.out.println("Admin user attempting to access checkout directly, redirecting to order creation");
+                log.debug("Admin user attempting to access checkout directly, redirecting to order creation");
                 return "redirect:/admin/order-creation";
             }
         }
@@ -91,9 +110,8 @@ public class CheckoutController {
                 model.addAttribute("userAltPhone", orderAddress.get("altPhone"));
             } else {
                 // Try to get address from most recent order for this user
-                List<Order> recentOrders = orderRepository.findByUserPhoneOrderByCreatedAtDesc(orderForUser.getPhone());
-                if (!recentOrders.isEmpty()) {
-                    Order lastOrder = recentOrders.get(0);
+                Order lastOrder = orderRepository.findFirstByUserPhoneOrderByCreatedAtDescIdDesc(orderForUser.getPhone()).orElse(null);
+                if (lastOrder != null) {
                     model.addAttribute("userAddressLine1", lastOrder.getAddressLine1());
                     model.addAttribute("userAddressLine2", lastOrder.getAddressLine2());
                     model.addAttribute("userCity", lastOrder.getCity());
@@ -110,9 +128,8 @@ public class CheckoutController {
             model.addAttribute("userEmail", user.getEmail());
             
             // Try to get address from most recent order for this user
-            List<Order> recentOrders = orderRepository.findByUserPhoneOrderByCreatedAtDesc(user.getPhone());
-            if (!recentOrders.isEmpty()) {
-                Order lastOrder = recentOrders.get(0);
+            Order lastOrder = orderRepository.findFirstByUserPhoneOrderByCreatedAtDescIdDesc(user.getPhone()).orElse(null);
+            if (lastOrder != null) {
                 model.addAttribute("userAddressLine1", lastOrder.getAddressLine1());
                 model.addAttribute("userAddressLine2", lastOrder.getAddressLine2());
                 model.addAttribute("userCity", lastOrder.getCity());
@@ -127,10 +144,11 @@ public class CheckoutController {
     }
     
     @Autowired
-    private CartProductEntryRepo cartRepo;
+    private CartService cartService;
 
     // New AJAX endpoint for processing checkout
     @PostMapping("/checkout/ajax")
+    @Timed(value = "checkout", extraTags = {"channel", "ajax"})
     public ResponseEntity<Map<String, Object>> processCheckoutAjax(@RequestBody Map<String, String> requestData, HttpSession session) {
         Map<String, Object> response = new HashMap<>();
         
@@ -155,7 +173,7 @@ public class CheckoutController {
 
         try {
             // Fetch cart from DB using phone number
-            List<CartProductEntry1> cartItems = cartRepo.findByUserPhone(user.getPhone());
+            List<CartProductEntry> cartItems = cartService.getEntries(user.getId());
             if (cartItems == null || cartItems.isEmpty()) {
                 response.put("success", false);
                 response.put("message", "Cart is empty");
@@ -165,14 +183,15 @@ public class CheckoutController {
 
             // Check stock availability for all items
             List<Map<String, Object>> stockIssues = new ArrayList<>();
-            for (CartProductEntry1 cartItem : cartItems) {
+            for (CartProductEntry cartItem : cartItems) {
                 Product product = productRepository.findById(cartItem.getProductId()).orElse(null);
                 if (product != null) {
-                    if (product.getStockQuantity() == null || product.getStockQuantity() < cartItem.getQuantity()) {
+                    int available = availableStock(product, variantOf(cartItem));
+                    if (available < cartItem.getQuantity()) {
                         Map<String, Object> issue = new HashMap<>();
                         issue.put("productName", product.getProductName());
                         issue.put("requestedQuantity", cartItem.getQuantity());
-                        issue.put("availableStock", product.getStockQuantity() != null ? product.getStockQuantity() : 0);
+                        issue.put("availableStock", available);
                         stockIssues.add(issue);
                     }
                 }
@@ -246,17 +265,18 @@ public class CheckoutController {
 
             // Create Order Items with price information and stock management
             List<OrderItem> orderItems = new ArrayList<>();
-            for (CartProductEntry1 cartItem : cartItems) {
+            List<StockChange> stockChanges = new ArrayList<>();
+            for (CartProductEntry cartItem : cartItems) {
                 Product product = productRepository.findById(cartItem.getProductId()).orElse(null);
                 if (product != null) {
+                    ProductVariant variant = variantOf(cartItem);
+                    Long variantId = variant != null ? variant.getId() : null;
                     OrderItem item = new OrderItem();
                     item.setProductId(cartItem.getProductId());
+                    item.setVariantId(variantId);
                     item.setQuantity(cartItem.getQuantity());
                     item.setOrder(order);
                     
-                    // Store the actual price at order time based on user type
-                    BigDecimal unitPrice;
-                    String priceType;
                     String userTypeForPricing;
                     
                     // Determine which user type to use for pricing
@@ -266,33 +286,19 @@ public class CheckoutController {
                         userTypeForPricing = user.getType();
                     }
                     
-                    if ("B2B".equalsIgnoreCase(userTypeForPricing) && product.getB2bPrice() != null) {
-                        unitPrice = BigDecimal.valueOf(product.getB2bPrice());
-                        priceType = "b2b";
-                    } else {
-                        // Use retail price for retail users and admin users
-                        unitPrice = BigDecimal.valueOf(product.getRetailPrice() != null ? product.getRetailPrice() : 0.0);
-                        priceType = "retail";
-                    }
-                    
-                    item.setUnitPrice(unitPrice);
+                    // Store the actual price at order time: B2B or retail, from the variant if it sets one
+                    ResolvedPrice price = pricingService.resolve(product, variantId, userTypeForPricing);
+                    item.setUnitPrice(price.getUnitPrice().toBigDecimal());
                     item.setUserType(userTypeForPricing);
-                    item.setPriceType(priceType);
+                    item.setPriceType(price.getPriceType());
                     item.calculateTotalPrice();
                     
                     orderItems.add(item);
                     
-                    // Reduce stock quantity
-                    int newStockQuantity = product.getStockQuantity() - cartItem.getQuantity();
-                    product.setStockQuantity(newStockQuantity);
-                    
-                    // Update product status to "Out of Stock" if stock becomes 0
-                    if (newStockQuantity <= 0) {
-                        product.setStatus("Out of Stock");
-                    }
-                    
-                    // Save updated product
-                    productRepository.save(product);
+                    // Stock is taken through the stock ledger once the order has an id
+                    stockChanges.add(StockChange.out(product.getId(), cartItem.getQuantity(), "Sale")
+                        .variant(variantId)
+                        .product(product));
                 }
             }
            
@@ -302,6 +308,8 @@ public class CheckoutController {
             
             // Save order with items
             orderRepository.save(order);
+            MDC.put(RequestMdcFilter.MDC_ORDER_ID, String.valueOf(order.getId()));
+            takeStock(stockChanges, order);
             
             // Finalize GST + invoice + ledger with dynamic pricing based on user type
             String userTypeForFinalization = (adminOrderMode != null && adminOrderMode && orderForUser != null) ? 
@@ -311,7 +319,7 @@ public class CheckoutController {
             orderAccountingService.finalizeTotalsAndInvoice(order, new BigDecimal("18.00"), order.getBillType(), userTypeForFinalization, userStateForFinalization);
             
             // Clear cart
-            checkoutService.clearCart(user.getPhone());
+            checkoutService.clearCart(user.getId());
             
             // Clear admin order mode session data if this was an admin order
             if (adminOrderMode != null && adminOrderMode) {
@@ -334,6 +342,7 @@ public class CheckoutController {
 
     // Keep the original method for backward compatibility
     @PostMapping("/checkout")
+    @Timed(value = "checkout", extraTags = {"channel", "form"})
     public String processCheckout(@RequestParam String name,
                                   @RequestParam(required = false) String altPhone,
                                   @RequestParam String addressLine1,
@@ -351,7 +360,7 @@ public class CheckoutController {
         }
 
         // ✅ Fetch cart from DB using phone number
-        List<CartProductEntry1> cartItems = cartRepo.findByUserPhone(user.getPhone());
+        List<CartProductEntry> cartItems = cartService.getEntries(user.getId());
         if (cartItems == null || cartItems.isEmpty()) {
             return "redirect:/cart";
         }
@@ -373,52 +382,38 @@ public class CheckoutController {
 
         // ✅ Create Order Items with price information and stock management
         List<OrderItem> orderItems = new ArrayList<>();
-        for (CartProductEntry1 cartItem : cartItems) {
+        List<StockChange> stockChanges = new ArrayList<>();
+        for (CartProductEntry cartItem : cartItems) {
             // Get product to determine pricing and check stock
             Product product = productRepository.findById(cartItem.getProductId()).orElse(null);
             if (product != null) {
-                // Check if product has sufficient stock
-                if (product.getStockQuantity() == null || product.getStockQuantity() < cartItem.getQuantity()) {
+                // Check if product (or the chosen variant) has sufficient stock
+                ProductVariant variant = variantOf(cartItem);
+                if (availableStock(product, variant) < cartItem.getQuantity()) {
                     // Insufficient stock - redirect back with error
                     return "redirect:/cart?error=Insufficient+stock+for+product+" + product.getProductName();
                 }
+                Long variantId = variant != null ? variant.getId() : null;
                 
                 OrderItem item = new OrderItem();
                 item.setProductId(cartItem.getProductId());
+                item.setVariantId(variantId);
                 item.setQuantity(cartItem.getQuantity());
                 item.setOrder(order);
                 
-                // Store the actual price at order time based on user type
-                BigDecimal unitPrice;
-                String priceType;
-                
-                if ("B2B".equalsIgnoreCase(user.getType()) && product.getB2bPrice() != null) {
-                    unitPrice = BigDecimal.valueOf(product.getB2bPrice());
-                    priceType = "b2b";
-                } else {
-                    // Use retail price for retail users and admin users
-                    unitPrice = BigDecimal.valueOf(product.getRetailPrice() != null ? product.getRetailPrice() : 0.0);
-                    priceType = "retail";
-                }
-                
-                item.setUnitPrice(unitPrice);
+                // Store the actual price at order time: B2B or retail, from the variant if it sets one
+                ResolvedPrice price = pricingService.resolve(product, variantId, user.getType());
+                item.setUnitPrice(price.getUnitPrice().toBigDecimal());
                 item.setUserType(user.getType());
-                item.setPriceType(priceType);
+                item.setPriceType(price.getPriceType());
                 item.calculateTotalPrice(); // Calculate total price
                 
                 orderItems.add(item);
                 
-                // Reduce stock quantity
-                int newStockQuantity = product.getStockQuantity() - cartItem.getQuantity();
-                product.setStockQuantity(newStockQuantity);
-                
-                // Update product status to "Out of Stock" if stock becomes 0
-                if (newStockQuantity <= 0) {
-                    product.setStatus("Out of Stock");
-                }
-                
-                // Save updated product
-                productRepository.save(product);
+                // Stock is taken through the stock ledger once the order has an id
+                stockChanges.add(StockChange.out(product.getId(), cartItem.getQuantity(), "Sale")
+                    .variant(variantId)
+                    .product(product));
             }
         }
        
@@ -427,6 +422,8 @@ public class CheckoutController {
         order.setBuyerGstin(buyerGstin);
         // ✅ Save order with items
         orderRepository.save(order);
+        MDC.put(RequestMdcFilter.MDC_ORDER_ID, String.valueOf(order.getId()));
+        takeStock(stockChanges, order);
         
         // ✅ Finalize GST + invoice + ledger with dynamic pricing based on user type
         orderAccountingService.finalizeTotalsAndInvoice(order, new BigDecimal("20.00"), order.getBillType(), user.getType(), user.getState());
@@ -441,11 +438,49 @@ public class CheckoutController {
        // cartRepo.deleteAll(cartItems);
         
         // ✅ Clear cart and redirect
-        checkoutService.clearCart(user.getPhone());
+        checkoutService.clearCart(user.getId());
         return "redirect:/orders/" + order.getId() + "/invoice";
 
         //return "redirect:/?success=Order+placed+successfully!+Invoice+has+been+generated.";
     }
 
+    /**
+     * The cart line's variant, or null when none was chosen or it has since been deleted
+     */
+    private ProductVariant variantOf(CartProductEntry cartItem) {
+        if (cartItem.getVariantId() == null) {
+            return null;
+        }
+        return productVariantRepository.findById(cartItem.getVariantId())
+            .filter(variant -> variant.getProduct().getId().equals(cartItem.getProductId()))
+            .orElse(null);
+    }
+
+    /**
+     * Stock a line can sell from: the variant's own, or the product's when the variant has none
+     */
+    private int availableStock(Product product, ProductVariant variant) {
+        Integer stock = variant != null && variant.getStockQuantity() != null
+            ? variant.getStockQuantity() : product.getStockQuantity();
+        return stock != null ? stock : 0;
+    }
+
+    /**
+     * Post the order's sales to the stock ledger and mark products that sold out
+     */
+    private void takeStock(List<StockChange> stockChanges, Order order) {
+        for (StockChange change : stockChanges) {
+            change.reference("ORDER", order.getId());
+        }
+        Map<Long, Integer> onHand = stockLedgerService.post(stockChanges);
+        for (StockChange change : stockChanges) {
+            Product product = change.getProduct();
+            if (onHand.get(product.getId()) <= 0 && !"Out of Stock".equals(product.getStatus())) {
+                product.setStatus("Out of Stock");
+                productRepository.save(product);
+            }
+        }
+    }
+
 }
 
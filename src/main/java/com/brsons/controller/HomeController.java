@@ -2,10 +2,8 @@ package com.brsons.controller;
 
 import com.brsons.model.Product;
 import com.brsons.model.User;
-import com.brsons.model.AddToCart;
-import com.brsons.model.CartProductEntry;
 import com.brsons.repository.UserRepository;
-import com.brsons.repository.AddToCartRepository;
+import com.brsons.service.CartSummaryService;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -21,11 +19,11 @@ import java.util.Arrays;
 @Controller
 public class HomeController {
 	private final UserRepository userRepository;
-	private final AddToCartRepository addToCartRepository;
+	private final CartSummaryService cartSummaryService;
 
-    public HomeController(UserRepository userRepository, AddToCartRepository addToCartRepository) {
+    public HomeController(UserRepository userRepository, CartSummaryService cartSummaryService) {
         this.userRepository = userRepository;
-        this.addToCartRepository = addToCartRepository;
+        this.cartSummaryService = cartSummaryService;
     }
 	  @GetMapping("/")
 	public String home(HttpSession session, Model model) {
@@ -41,17 +39,9 @@ public class HomeController {
 			model.addAttribute("currentUser", sessionUser);
 			
 			// Set cart count in session for navbar display
-			AddToCart cart = addToCartRepository.findByUserId(sessionUser.getId()).orElse(null);
-			if (cart != null && !cart.getProductQuantities().isEmpty()) {
-				int totalItems = cart.getProductQuantities().stream()
-						.mapToInt(CartProductEntry::getQuantity)
-						.sum();
-				session.setAttribute("cartCount", totalItems);
-			} else {
-				session.setAttribute("cartCount", 0);
-			}
+			session.setAttribute("cartCount", cartSummaryService.getItemCount(sessionUser.getId()));
 		}
 		
 		return "home";
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
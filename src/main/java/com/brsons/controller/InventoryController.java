@@ -1,18 +1,24 @@
 package com.brsons.controller;
 
+import com.brsons.dto.KeysetPage;
 import com.brsons.service.InventoryService;
 import com.brsons.repository.ProductRepository;
 import com.brsons.model.Product;
+import com.brsons.model.ProductVariant;
 import com.brsons.model.StockMovement;
+import com.brsons.util.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpSession;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -40,6 +46,12 @@ public class InventoryController {
     @Autowired
     private ProductRepository productRepository;
     
+    @Value("${inventory.stock.low-threshold:10}")
+    private int lowStockThreshold;
+    
+    @Value("${inventory.stock.critical-threshold:5}")
+    private int criticalStockThreshold;
+    
     // ==================== INVENTORY DASHBOARD ====================
     
     @GetMapping("/dashboard")
@@ -52,7 +64,7 @@ public class InventoryController {
         
         // Get inventory statistics
         BigDecimal totalStockValue = inventoryService.calculateTotalStockValue();
-        List<Product> lowStockProducts = inventoryService.getLowStockProducts(10); // Below 10 units
+        List<Product> lowStockProducts = inventoryService.getLowStockProducts(lowStockThreshold);
         List<Product> outOfStockProducts = inventoryService.getOutOfStockProducts();
         
         // Get recent stock movements (last 30 days)
@@ -75,6 +87,8 @@ public class InventoryController {
                                 @RequestParam(required = false) String movementType,
                                 @RequestParam(required = false) String startDate,
                                 @RequestParam(required = false) String endDate,
+                                @RequestParam(required = false) Long after,
+                                @RequestParam(required = false) Integer size,
                                 Model model, HttpSession session) {
         // Check if user is logged in and is admin
         Object user = session.getAttribute("user");
@@ -82,19 +96,19 @@ public class InventoryController {
             return "redirect:/login";
         }
         
-        List<StockMovement> movements;
-        
-        if (productId != null) {
-            movements = inventoryService.getStockMovements(productId);
-        } else {
-            // Get all movements or filtered by date
-            movements = inventoryService.getStockMovements(null); // Will need to implement this
-        }
+        // Filters go to SQL; the end date is inclusive
+        StockMovement.MovementType type = parseMovementType(movementType);
+        LocalDate from = parseDate(startDate);
+        LocalDate to = parseDate(endDate);
+        KeysetPage<StockMovement> movementPage = inventoryService.getStockMovements(productId, type,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null, after, size);
         
         // Get all products for filter dropdown
         List<Product> products = productRepository.findAll();
         
-        model.addAttribute("movements", movements);
+        model.addAttribute("movements", movementPage.getItems());
+        model.addAttribute("movementPage", movementPage);
         model.addAttribute("products", products);
         model.addAttribute("selectedProductId", productId);
         model.addAttribute("selectedMovementType", movementType);
@@ -108,7 +122,7 @@ public class InventoryController {
     // ==================== LOW STOCK ALERTS ====================
     
     @GetMapping("/low-stock")
-    public String lowStockAlerts(@RequestParam(defaultValue = "10") int threshold,
+    public String lowStockAlerts(@RequestParam(required = false) Integer threshold,
                                 Model model, HttpSession session) {
         // Check if user is logged in and is admin
         Object user = session.getAttribute("user");
@@ -116,18 +130,27 @@ public class InventoryController {
             return "redirect:/login";
         }
         
+        if (threshold == null) {
+            threshold = lowStockThreshold;
+        }
         List<Product> lowStockProducts = inventoryService.getLowStockProducts(threshold);
         List<Product> outOfStockProducts = inventoryService.getOutOfStockProducts();
-        List<Product> criticalStockProducts = inventoryService.getLowStockProducts(5); // Below 5 units
+        List<Product> criticalStockProducts = inventoryService.getLowStockProducts(criticalStockThreshold + 1);
         List<Product> allLowStockProducts = new ArrayList<>();
         allLowStockProducts.addAll(outOfStockProducts);
         allLowStockProducts.addAll(lowStockProducts);
         
+        // Variants with stock of their own, same threshold
+        List<ProductVariant> allLowStockVariants = new ArrayList<>(inventoryService.getOutOfStockVariants());
+        allLowStockVariants.addAll(inventoryService.getLowStockVariants(threshold));
+        
         model.addAttribute("lowStockProducts", lowStockProducts);
         model.addAttribute("outOfStockProducts", outOfStockProducts);
         model.addAttribute("criticalStockProducts", criticalStockProducts);
         model.addAttribute("allLowStockProducts", allLowStockProducts);
+        model.addAttribute("allLowStockVariants", allLowStockVariants);
         model.addAttribute("threshold", threshold);
+        model.addAttribute("criticalThreshold", criticalStockThreshold);
         model.addAttribute("user", user);
         
         return "admin-low-stock-alerts";
@@ -395,6 +418,28 @@ public class InventoryController {
     
     // ==================== HELPER METHODS ====================
     
+    private StockMovement.MovementType parseMovementType(String movementType) {
+        if (movementType == null || movementType.isBlank()) {
+            return null;
+        }
+        try {
+            return StockMovement.MovementType.valueOf(movementType.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private LocalDate parseDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
     private BigDecimal getProductValue(Product product) {
         int stock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
         BigDecimal price = getProductPrice(product);
@@ -409,17 +454,17 @@ public class InventoryController {
         
         // Fallback to purchase price
         if (product.getPurchasePrice() != null && product.getPurchasePrice() > 0) {
-            return BigDecimal.valueOf(product.getPurchasePrice());
+            return Money.of(product.getPurchasePrice()).toBigDecimal();
         }
         
         // Fallback to retail price
         if (product.getRetailPrice() != null && product.getRetailPrice() > 0) {
-            return BigDecimal.valueOf(product.getRetailPrice());
+            return Money.of(product.getRetailPrice()).toBigDecimal();
         }
         
         // Fallback to b2b price
         if (product.getB2bPrice() != null && product.getB2bPrice() > 0) {
-            return BigDecimal.valueOf(product.getB2bPrice());
+            return Money.of(product.getB2bPrice()).toBigDecimal();
         }
         
         // Default to 0 if no price is available
@@ -0,0 +1,69 @@
+package com.brsons.controller;
+
+import com.brsons.model.User;
+import com.brsons.service.MetricsExporter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Plain-text views of the MeterRegistry: /admin/metrics is a readable
+ * summary (count, mean, p50/p95/p99, max per timer), /admin/metrics/prometheus
+ * the Prometheus scrape format. Open to admin sessions only; a scraper
+ * without a session sends {@code Authorization: Bearer <metrics.scrape-token>},
+ * which is accepted only when that property is set (off by default).
+ */
+@RestController
+public class MetricsController {
+
+    private static final MediaType PROMETHEUS = MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+    @Autowired
+    private MetricsExporter metricsExporter;
+
+    @Value("${metrics.scrape-token:}")
+    private String scrapeToken;
+
+    @GetMapping("/admin/metrics")
+    public ResponseEntity<String> summary(HttpServletRequest request, HttpSession session) {
+        if (!isAllowed(request, session)) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(metricsExporter.summary());
+    }
+
+    @GetMapping("/admin/metrics/prometheus")
+    public ResponseEntity<String> prometheus(HttpServletRequest request, HttpSession session) {
+        if (!isAllowed(request, session)) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        return ResponseEntity.ok().contentType(PROMETHEUS).body(metricsExporter.scrape());
+    }
+
+    private boolean isAllowed(HttpServletRequest request, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user != null && "Admin".equalsIgnoreCase(user.getType())) {
+            return true;
+        }
+        return hasScrapeToken(request);
+    }
+
+    private boolean hasScrapeToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (scrapeToken.isBlank() || header == null || !header.startsWith("Bearer ")) {
+            return false;
+        }
+        // Constant-time comparison, so response timing does not reveal the token
+        return MessageDigest.isEqual(scrapeToken.getBytes(StandardCharsets.UTF_8),
+                header.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -13,11 +13,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -26,6 +25,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.OrderDisplayDto;
 import com.brsons.model.User;
 import com.brsons.repository.InvoiceRepository;
 import com.brsons.repository.OrderRepository;
@@ -35,11 +36,16 @@ import com.brsons.model.Invoice;
 import com.brsons.model.Order;
 import com.brsons.model.OrderItem;
 import com.brsons.model.Product;
+import com.brsons.service.FileServingService;
+import com.brsons.service.GstEngine;
+import com.brsons.service.OrderQueryService;
 import com.brsons.service.OrderService;
 import com.brsons.service.OutstandingService;
+import com.brsons.service.StockLedgerService;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
@@ -87,12 +93,20 @@ private ProductRepository productRepository;
 @Autowired private InvoiceRepository invoiceRepository;
 @Autowired private OrderRepository orderRepository;
 @Autowired private OrderItemRepository orderItemRepository;
+@Autowired private GstEngine gstEngine;
+@Autowired private FileServingService fileServingService;
+@Autowired private OrderQueryService orderQueryService;
+@Autowired private MeterRegistry meterRegistry;
+@Autowired private StockLedgerService stockLedgerService;
 
 @Value("${invoice.storage.dir:/opt/brsons/invoices}")
 private String invoiceStorageDir;
 	
 	@GetMapping("/orders")
-	public String viewOrders(HttpSession session, Model model) {
+	public String viewOrders(@RequestParam(required = false) Long after,
+	                         @RequestParam(required = false) Integer size,
+	                         @RequestParam(required = false) Long total,
+	                         HttpSession session, Model model) {
 	    try {
 	        User user = (User) session.getAttribute("user");
 	        
@@ -100,8 +114,9 @@ private String invoiceStorageDir;
 	            return "redirect:/login";
 	        }
 	        
-	        List<com.brsons.model.Order> orders = orderService.getOrdersByUserPhone(user.getPhone());
-	        model.addAttribute("orders", orders);
+	        KeysetPage<OrderDisplayDto> orderPage = orderQueryService.findByUserPhone(user.getPhone(), after, size, total);
+	        model.addAttribute("orders", orderPage.getItems());
+	        model.addAttribute("orderPage", orderPage);
 	        return "orders";
 	    } catch (Exception e) {
 	        System.err.println("Error in viewOrders: " + e.getMessage());
@@ -176,23 +191,7 @@ private String invoiceStorageDir;
 	        
 	        // Restore stock quantities for all items in the order
 	        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-	        for (OrderItem item : orderItems) {
-	            Product product = productRepository.findById(item.getProductId()).orElse(null);
-	            if (product != null) {
-	                // Restore the quantity that was ordered
-	                int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-	                int restoredStock = currentStock + item.getQuantity();
-	                product.setStockQuantity(restoredStock);
-	                
-	                // Update product status if it was "Out of Stock" and now has stock
-	                if ("Out of Stock".equals(product.getStatus()) && restoredStock > 0) {
-	                product.setStatus("Active");
-	                }
-	                
-	                // Save updated product
-	                productRepository.save(product);
-	            }
-	        }
+	        stockLedgerService.restock(orderId, orderItems);
 	        
 	        // Update order status to cancelled
 	        order.setOrderStatus("Cancelled");
@@ -206,7 +205,7 @@ private String invoiceStorageDir;
 	    }
 	}
 	@GetMapping("/invoices/{orderId}/download")
-	public void downloadInvoice(@PathVariable Long orderId, HttpServletResponse response) throws IOException {
+	public void downloadInvoice(@PathVariable Long orderId, HttpServletRequest request, HttpServletResponse response) throws IOException {
 	    Invoice invoice = invoiceRepository.findByOrder_Id(orderId)
 	        .orElseThrow(() -> new RuntimeException("Invoice not found"));
 
@@ -215,51 +214,49 @@ private String invoiceStorageDir;
 	        throw new RuntimeException("File not found");
 	    }
 
-	    response.setContentType("application/pdf");
-	    response.setHeader("Content-Disposition", "inline; filename=" + invoice.getFileName());
-	    Files.copy(filePath, response.getOutputStream());
+	    fileServingService.serve(filePath, "application/pdf", "inline; filename=" + invoice.getFileName(),
+	            FileServingService.CACHE_PRIVATE, request, response);
 	}
 	@GetMapping("/orders/{orderId}/invoice")
-	public ResponseEntity<ByteArrayResource> downloadInvoice(@PathVariable Long orderId, HttpSession session) {
+	public void downloadInvoice(@PathVariable Long orderId, HttpSession session,
+	                            HttpServletRequest request, HttpServletResponse response) throws IOException {
 	    try {
 	        User user = (User) session.getAttribute("user");
-	        if (user == null) return ResponseEntity.status(401).build();
+	        if (user == null) {
+	            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+	            return;
+	        }
 
 	        Order order = orderService.getOrderById(orderId);
 	        if (order == null || !order.getUserPhone().equals(user.getPhone())) {
-	            return ResponseEntity.status(404).build();
+	            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+	            return;
 	        }
 
 	        // 1) If we already have an invoice record & file, stream it
 	        Optional<Invoice> existing = invoiceRepository.findByOrder_Id(orderId);
-	        if (existing.isPresent()) {
-	            Path path = Paths.get(existing.get().getFilePath());
-	            if (Files.exists(path)) {
-	                byte[] bytes = Files.readAllBytes(path);
-	                HttpHeaders headers = new HttpHeaders();
-	                headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + existing.get().getFileName());
-	                return ResponseEntity.ok()
-	                        .headers(headers)
-	                        .contentType(MediaType.APPLICATION_PDF)
-	                        .body(new ByteArrayResource(bytes));
-	            }
-	            // falls through to regenerate if file missing
+	        Invoice invoice = null;
+	        if (existing.isPresent() && Files.exists(Paths.get(existing.get().getFilePath()))) {
+	            invoice = existing.get();
 	        }
 
-	        // 2) Otherwise, generate now, save to disk & DB, and stream
-	        byte[] pdfContent = generatePdfInvoice(order); // your existing generator
-	        Invoice saved = savePdfToDiskAndDb(order, pdfContent);
+	        // 2) Otherwise (or if the file is missing), generate now and save to disk & DB
+	        if (invoice == null) {
+	            Timer.Sample render = Timer.start(meterRegistry);
+	            byte[] pdfContent = generatePdfInvoice(order); // your existing generator
+	            render.stop(meterRegistry.timer("invoice.render", "class", OrderController.class.getName(),
+	                    "method", "downloadInvoice", "source", "order_download", "exception", "none"));
+	            invoice = savePdfToDiskAndDb(order, pdfContent);
+	        }
 
-	        HttpHeaders headers = new HttpHeaders();
-	        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + saved.getFileName());
-	        return ResponseEntity.ok()
-	                .headers(headers)
-	                .contentType(MediaType.APPLICATION_PDF)
-	                .body(new ByteArrayResource(pdfContent));
+	        fileServingService.serve(Paths.get(invoice.getFilePath()), "application/pdf",
+	                "attachment; filename=" + invoice.getFileName(), FileServingService.CACHE_PRIVATE, request, response);
 
 	    } catch (Exception e) {
 	        e.printStackTrace();
-	        return ResponseEntity.status(500).build();
+	        if (!response.isCommitted()) {
+	            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+	        }
 	    }
 	}
 
@@ -374,38 +371,11 @@ private String invoiceStorageDir;
 
 	    // Only show tax for non-B2B orders
 	    if (!isB2BOrder) {
-	        // Show proper tax breakdown based on tax type
-	        String taxType = order.getTaxType();
-	        
-	        if ("CGST_SGST".equals(taxType)) {
-	            // Show CGST and SGST separately
-	            if (order.getCgstAmount() != null && order.getCgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-	                productTable.addCell(emptyCell);
-	                productTable.addCell(new PdfPCell(new Phrase("CGST (" + (order.getCgstRate() != null ? order.getCgstRate().toString() : "0") + "%):", headerFont)));
-	                productTable.addCell(new PdfPCell(new Phrase("₹" + order.getCgstAmount().toString(), normalFont)));
-	            }
-	            
-	            if (order.getSgstAmount() != null && order.getSgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-	                productTable.addCell(emptyCell);
-	                productTable.addCell(new PdfPCell(new Phrase("SGST (" + (order.getSgstRate() != null ? order.getSgstRate().toString() : "0") + "%):", headerFont)));
-	                productTable.addCell(new PdfPCell(new Phrase("₹" + order.getSgstAmount().toString(), normalFont)));
-	            }
-	        } else if ("IGST".equals(taxType)) {
-	            // Show IGST
-	            if (order.getIgstAmount() != null && order.getIgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-	                productTable.addCell(emptyCell);
-	                productTable.addCell(new PdfPCell(new Phrase("IGST (" + (order.getIgstRate() != null ? order.getIgstRate().toString() : "0") + "%):", headerFont)));
-	                productTable.addCell(new PdfPCell(new Phrase("₹" + order.getIgstAmount().toString(), normalFont)));
-	            }
-	        } else {
-	            // Fallback to generic GST display
-	            productTable.addCell(emptyCell);
-	            productTable.addCell(new PdfPCell(new Phrase("GST Rate:", headerFont)));
-	            productTable.addCell(new PdfPCell(new Phrase((order.getGstRate() != null ? order.getGstRate().toString() : "0") + "%", normalFont)));
-
+	        // One row per tax head and GST rate slab
+	        for (String[] row : gstEngine.invoiceTaxRows(order)) {
 	            productTable.addCell(emptyCell);
-	            productTable.addCell(new PdfPCell(new Phrase("GST Amount:", headerFont)));
-	            productTable.addCell(new PdfPCell(new Phrase("₹" + (order.getGstAmount() != null ? order.getGstAmount().toString() : "0.00"), normalFont)));
+	            productTable.addCell(new PdfPCell(new Phrase(row[0] + ":", headerFont)));
+	            productTable.addCell(new PdfPCell(new Phrase("₹" + row[1], normalFont)));
 	        }
 	    }
 
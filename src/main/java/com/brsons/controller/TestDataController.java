@@ -8,6 +8,7 @@ import com.brsons.repository.OrderRepository;
 import com.brsons.repository.ProductRepository;
 import com.brsons.repository.CategoryRepository;
 import com.brsons.service.EnhancedInvoiceService;
+import com.brsons.service.StockLedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -32,6 +33,9 @@ public class TestDataController {
     @Autowired
     private EnhancedInvoiceService enhancedInvoiceService;
     
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
     @GetMapping("/test/add-sample-orders")
     @ResponseBody
     public String addSampleOrders() {
@@ -49,10 +53,11 @@ public class TestDataController {
             product.setB2bPrice(450.0);
             product.setDescription("A test t-shirt for testing purposes");
             product.setDiscount(0.0);
-            product.setStockQuantity(100);
+            product.setStockQuantity(0);
             product.setCategory(category);
             product.setStatus("Active");
             productRepository.save(product);
+            stockLedgerService.openingStock(product, 100);
             
             // Sample Order 1 with product
             Order order1 = new Order();
@@ -164,7 +169,7 @@ public class TestDataController {
                     product.setPurchasePrice(retailPrices[i] * 0.5); // 50% of retail price
                     product.setB2bMinQuantity(5);
                     product.setDiscount(0.0);
-                    product.setStockQuantity(stockQuantities[i]);
+                    product.setStockQuantity(0);
                     product.setReservedQuantity(0);
                     product.setStatus("Active");
                     product.setCategory(category);
@@ -176,6 +181,7 @@ public class TestDataController {
                     product.setIgstPercentage(new java.math.BigDecimal("18.00")); // 18% IGST
                     
                     productRepository.save(product);
+                    stockLedgerService.openingStock(product, stockQuantities[i]);
                     productsCreated++;
                 }
             }
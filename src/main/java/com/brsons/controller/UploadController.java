@@ -0,0 +1,50 @@
+package com.brsons.controller;
+
+import com.brsons.service.FileServingService;
+import com.brsons.service.ImageStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves product and category images from image storage.
+ *
+ * Every upload lives under its own random folder and is never rewritten, so
+ * these URLs are cached as immutable. The one exception is a variant that
+ * is still being generated: the original is sent in its place and must be
+ * revalidated so the browser picks up the variant once it exists.
+ */
+@Controller
+public class UploadController {
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private FileServingService fileServingService;
+
+    @GetMapping("/uploads/**")
+    public void serveUpload(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String relative = UriUtils.decode(path.substring("/uploads/".length()), StandardCharsets.UTF_8);
+
+        ImageStorageService.ResolvedUpload upload = imageStorageService.resolveUpload(relative);
+        if (upload == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String fileName = upload.getPath().getFileName().toString();
+        MediaType contentType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        fileServingService.serve(upload.getPath(), contentType.toString(), null,
+                upload.isProvisional() ? FileServingService.CACHE_REVALIDATE : FileServingService.CACHE_IMMUTABLE,
+                request, response);
+    }
+}
@@ -17,11 +17,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.brsons.dto.AccountPickerDto;
 import com.brsons.dto.VoucherEntryDto;
 import com.brsons.model.Account;
 import com.brsons.model.User;
 import com.brsons.repository.AccountRepository;
 import com.brsons.service.AccountingService;
+import com.brsons.service.PickerIndexService;
 
 import jakarta.servlet.http.HttpSession;
 
@@ -35,14 +37,17 @@ public class VoucherController {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private PickerIndexService pickerIndexService;
+
     @GetMapping("/new")
     public String newVoucherForm(Model model,  HttpSession session) {
     	if (isAdmin(session)) {
-        // First try to get all accounts, then filter active ones
-        List<Account> allAccounts = accountRepository.findAll();
-        System.out.println("Total accounts in database: " + allAccounts.size());
-        
-        List<Account> accounts = accountRepository.findByIsActiveTrue();
+        // Active accounts from the in-memory picker index
+        List<AccountPickerDto> allAccounts = pickerIndexService.getAllAccounts();
+        List<AccountPickerDto> accounts = allAccounts.stream()
+            .filter(AccountPickerDto::isActive)
+            .collect(java.util.stream.Collectors.toList());
         System.out.println("Found " + accounts.size() + " active accounts for voucher form");
         
         // If no active accounts, use all accounts
@@ -50,10 +55,6 @@ public class VoucherController {
             accounts = allAccounts;
             System.out.println("No active accounts found, using all accounts: " + accounts.size());
         }
-        
-        for (Account acc : accounts) {
-            System.out.println("Account: " + acc.getName() + " (ID: " + acc.getId() + ", Type: " + acc.getType() + ", Active: " + acc.isActive() + ")");
-        }
         model.addAttribute("accounts", accounts);
         return "voucher_form";
     	}
@@ -189,31 +190,18 @@ public class VoucherController {
     
     @GetMapping("/simple-accounts")
     @ResponseBody
-    public List<SimpleAccount> getSimpleAccounts(HttpSession session) {
+    public List<AccountPickerDto> getSimpleAccounts(@RequestParam(required = false) String q,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    HttpSession session) {
         if (!isAdmin(session)) {
             return List.of();
         }
         
-        List<Account> allAccounts = accountRepository.findAll();
-        return allAccounts.stream()
-            .map(acc -> new SimpleAccount(acc.getId(), acc.getName(), acc.getType(), 
-                acc.getParent() != null ? acc.getParent().getName() : null))
-            .collect(java.util.stream.Collectors.toList());
-    }
-    
-    // Simple DTO for account display
-    public static class SimpleAccount {
-        public Long id;
-        public String name;
-        public String type;
-        public String parentName;
-        
-        public SimpleAccount(Long id, String name, String type, String parentName) {
-            this.id = id;
-            this.name = name;
-            this.type = type;
-            this.parentName = parentName;
+        // All accounts, or a typeahead on name / parent name / code
+        if (q == null || q.trim().isEmpty()) {
+            return pickerIndexService.getAllAccounts();
         }
+        return pickerIndexService.searchAccounts(q, limit, false);
     }
 }
 
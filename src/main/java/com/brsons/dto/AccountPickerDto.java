@@ -0,0 +1,43 @@
+package com.brsons.dto;
+
+/**
+ * Compact account row for voucher account pickers
+ */
+public class AccountPickerDto {
+    private Long id;
+    private String code;
+    private String name;
+    private String type;
+    private String parentName;
+    private boolean active;
+
+    public AccountPickerDto() {}
+
+    public AccountPickerDto(Long id, String code, String name, String type, String parentName, Boolean active) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+        this.type = type;
+        this.parentName = parentName;
+        this.active = active != null && active;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getParentName() { return parentName; }
+    public void setParentName(String parentName) { this.parentName = parentName; }
+
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+}
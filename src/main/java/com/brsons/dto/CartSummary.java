@@ -0,0 +1,91 @@
+package com.brsons.dto;
+
+import com.brsons.model.CartItemDetails;
+import com.brsons.model.CartProductEntry;
+import com.brsons.model.TaxBreakdown;
+import com.brsons.util.Money;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cached view of one user's cart at a given cart revision: the lines and
+ * item count, plus (once the cart page has been shown) the priced lines,
+ * subtotal and tax breakdown for the user type and state they were priced for.
+ */
+public class CartSummary {
+    private final long revision;
+    private final int itemCount;
+    private final List<CartProductEntry> entries;
+
+    private final boolean priced;
+    private final String pricedForUserType;
+    private final String pricedForState;
+    private final List<CartItemDetails> items;
+    private final Money subtotal;
+    private final TaxBreakdown taxBreakdown;
+    private final String taxType;
+
+    public CartSummary(long revision, List<CartProductEntry> entries) {
+        this(revision, entries, false, null, null, List.of(), Money.ZERO, null, "UNKNOWN");
+    }
+
+    private CartSummary(long revision, List<CartProductEntry> entries, boolean priced, String pricedForUserType,
+                        String pricedForState, List<CartItemDetails> items, Money subtotal,
+                        TaxBreakdown taxBreakdown, String taxType) {
+        this.revision = revision;
+        this.entries = List.copyOf(entries);
+        int count = 0;
+        for (CartProductEntry entry : entries) {
+            count += entry.getQuantity();
+        }
+        this.itemCount = count;
+        this.priced = priced;
+        this.pricedForUserType = pricedForUserType;
+        this.pricedForState = pricedForState;
+        this.items = List.copyOf(items);
+        this.subtotal = subtotal;
+        this.taxBreakdown = taxBreakdown;
+        this.taxType = taxType;
+    }
+
+    /** Same cart revision with prices and tax for a user type and state. */
+    public CartSummary withPricing(String userType, String state, List<CartItemDetails> items, Money subtotal,
+                                   TaxBreakdown taxBreakdown, String taxType) {
+        return new CartSummary(revision, entries, true, userType, state, items, subtotal, taxBreakdown, taxType);
+    }
+
+    /** True when the priced part was computed for this user type and state. */
+    public boolean isPricedFor(String userType, String state) {
+        return priced && Objects.equals(pricedForUserType, userType) && Objects.equals(pricedForState, state);
+    }
+
+    public boolean containsProduct(Long productId) {
+        return getQuantity(productId) > 0;
+    }
+
+    /** Quantity of a product across all its variant lines. */
+    public int getQuantity(Long productId) {
+        int quantity = 0;
+        for (CartProductEntry entry : entries) {
+            if (entry.getProductId().equals(productId)) {
+                quantity += entry.getQuantity();
+            }
+        }
+        return quantity;
+    }
+
+    public long getRevision() { return revision; }
+    public int getItemCount() { return itemCount; }
+    public List<CartProductEntry> getEntries() { return entries; }
+    public boolean isEmpty() { return entries.isEmpty(); }
+    public List<CartItemDetails> getItems() { return items; }
+    public Money getSubtotal() { return subtotal; }
+    public TaxBreakdown getTaxBreakdown() { return taxBreakdown; }
+    public String getTaxType() { return taxType; }
+
+    /** Subtotal plus tax. */
+    public Money getPayableTotal() {
+        return taxBreakdown != null ? subtotal.plus(taxBreakdown.getTotalTax()) : subtotal;
+    }
+}
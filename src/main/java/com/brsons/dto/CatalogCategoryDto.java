@@ -0,0 +1,32 @@
+package com.brsons.dto;
+
+import com.brsons.model.Category;
+import com.brsons.util.ImageVariants;
+
+/**
+ * Immutable storefront snapshot of a category.
+ */
+public final class CatalogCategoryDto {
+    private final Long id;
+    private final String categoryName;
+    private final String status;
+    private final String image;
+
+    private CatalogCategoryDto(Category category) {
+        this.id = category.getId();
+        this.categoryName = category.getCategoryName();
+        this.status = category.getStatus();
+        this.image = category.getImage();
+    }
+
+    public static CatalogCategoryDto from(Category category) {
+        return new CatalogCategoryDto(category);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getCategoryName() { return categoryName; }
+    public String getStatus() { return status; }
+    public String getImage() { return image; }
+    public String getImageCard() { return ImageVariants.url(image, ImageVariants.CARD); }
+}
@@ -0,0 +1,101 @@
+package com.brsons.dto;
+
+import com.brsons.model.Product;
+import com.brsons.model.ProductVariant;
+import com.brsons.util.ImageVariants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable storefront snapshot of a product and its variants, shared
+ * between requests by the catalog cache.
+ */
+public final class CatalogProductDto {
+    private final Long id;
+    private final String productName;
+    private final String description;
+    private final Double retailPrice;
+    private final Double b2bPrice;
+    private final Integer b2bMinQuantity;
+    private final Double discount;
+    private final Integer stockQuantity;
+    private final String status;
+    private final String sku;
+    private final String hsnCode;
+    private final String mainPhoto;
+    private final List<String> images;
+    private final Long categoryId;
+    private final List<CatalogVariantDto> variants;
+    private final Map<Long, CatalogVariantDto> variantsById;
+
+    private CatalogProductDto(Product product) {
+        this.id = product.getId();
+        this.productName = product.getProductName();
+        this.description = product.getDescription();
+        this.retailPrice = product.getRetailPrice();
+        this.b2bPrice = product.getB2bPrice();
+        this.b2bMinQuantity = product.getB2bMinQuantity();
+        this.discount = product.getDiscount();
+        this.stockQuantity = product.getStockQuantity();
+        this.status = product.getStatus();
+        this.sku = product.getSku();
+        this.hsnCode = product.getHsnCode();
+        this.mainPhoto = product.getMainPhoto();
+        this.categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+
+        List<String> imageList = new ArrayList<>(5);
+        if (product.getImage1() != null) imageList.add(product.getImage1());
+        if (product.getImage2() != null) imageList.add(product.getImage2());
+        if (product.getImage3() != null) imageList.add(product.getImage3());
+        if (product.getImage4() != null) imageList.add(product.getImage4());
+        if (product.getImage5() != null) imageList.add(product.getImage5());
+        this.images = Collections.unmodifiableList(imageList);
+
+        List<CatalogVariantDto> variantList = new ArrayList<>();
+        Map<Long, CatalogVariantDto> byId = new HashMap<>();
+        if (product.getVariants() != null) {
+            for (ProductVariant variant : product.getVariants()) {
+                CatalogVariantDto dto = CatalogVariantDto.from(id, variant);
+                variantList.add(dto);
+                byId.put(dto.getId(), dto);
+            }
+        }
+        this.variants = Collections.unmodifiableList(variantList);
+        this.variantsById = Collections.unmodifiableMap(byId);
+    }
+
+    /**
+     * Build a snapshot; the product's category and variants must already be loaded
+     */
+    public static CatalogProductDto from(Product product) {
+        return new CatalogProductDto(product);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getProductName() { return productName; }
+    public String getDescription() { return description; }
+    public Double getRetailPrice() { return retailPrice; }
+    public Double getB2bPrice() { return b2bPrice; }
+    public Integer getB2bMinQuantity() { return b2bMinQuantity; }
+    public Double getDiscount() { return discount; }
+    public Integer getStockQuantity() { return stockQuantity; }
+    public String getStatus() { return status; }
+    public String getSku() { return sku; }
+    public String getHsnCode() { return hsnCode; }
+    public String getMainPhoto() { return mainPhoto; }
+    public String getMainPhotoCard() { return ImageVariants.url(mainPhoto, ImageVariants.CARD); }
+    public String getMainPhotoSrcset() { return ImageVariants.srcset(mainPhoto); }
+    public List<String> getImages() { return images; }
+    public Long getCategoryId() { return categoryId; }
+    public List<CatalogVariantDto> getVariants() { return variants; }
+
+    /**
+     * One of this product's variants, or null
+     */
+    public CatalogVariantDto getVariant(Long variantId) { return variantsById.get(variantId); }
+}
@@ -0,0 +1,68 @@
+package com.brsons.dto;
+
+import com.brsons.model.ProductVariant;
+
+/**
+ * Immutable storefront snapshot of a product variant. The price overrides
+ * are kept as set on the variant (null when it uses the product's price) for
+ * PricingService; the effective prices resolve them against the product.
+ */
+public final class CatalogVariantDto {
+    private final Long id;
+    private final Long productId;
+    private final String size;
+    private final String color;
+    private final String fabric;
+    private final String style;
+    private final String pattern;
+    private final String occasion;
+    private final Integer stockQuantity;
+    private final Double retailPrice;
+    private final Double b2bPrice;
+    private final Double effectiveRetailPrice;
+    private final Double effectiveB2bPrice;
+    private final Double effectiveDiscount;
+    private final String sku;
+    private final String status;
+
+    private CatalogVariantDto(Long productId, ProductVariant variant) {
+        this.id = variant.getId();
+        this.productId = productId;
+        this.size = variant.getSize();
+        this.color = variant.getColor();
+        this.fabric = variant.getFabric();
+        this.style = variant.getStyle();
+        this.pattern = variant.getPattern();
+        this.occasion = variant.getOccasion();
+        this.stockQuantity = variant.getStockQuantity();
+        this.retailPrice = variant.getRetailPrice();
+        this.b2bPrice = variant.getB2bPrice();
+        this.effectiveRetailPrice = variant.getEffectiveRetailPrice();
+        this.effectiveB2bPrice = variant.getEffectiveB2bPrice();
+        this.effectiveDiscount = variant.getEffectiveDiscount();
+        this.sku = variant.getSku();
+        this.status = variant.getStatus();
+    }
+
+    public static CatalogVariantDto from(Long productId, ProductVariant variant) {
+        return new CatalogVariantDto(productId, variant);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public Long getProductId() { return productId; }
+    public String getSize() { return size; }
+    public String getColor() { return color; }
+    public String getFabric() { return fabric; }
+    public String getStyle() { return style; }
+    public String getPattern() { return pattern; }
+    public String getOccasion() { return occasion; }
+    public Integer getStockQuantity() { return stockQuantity; }
+    public Double getRetailPrice() { return retailPrice; }
+    public Double getB2bPrice() { return b2bPrice; }
+    public Double getEffectiveRetailPrice() { return effectiveRetailPrice; }
+    public Double getEffectiveB2bPrice() { return effectiveB2bPrice; }
+    public Double getEffectiveDiscount() { return effectiveDiscount; }
+    public String getSku() { return sku; }
+    public String getStatus() { return status; }
+}
@@ -0,0 +1,42 @@
+package com.brsons.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One customer ledger as listed on the ledger dashboard, read straight from
+ * the ledger table (no entity, no entries).
+ */
+public class CustomerLedgerRow {
+    private final Long id;
+    private final String customerName;
+    private final String customerPhone;
+    private final String customerEmail;
+    private final BigDecimal currentBalance;
+    private final BigDecimal totalDebits;
+    private final BigDecimal totalCredits;
+    private final LocalDateTime updatedAt;
+
+    public CustomerLedgerRow(Long id, String customerName, String customerPhone, String customerEmail,
+                             BigDecimal currentBalance, BigDecimal totalDebits, BigDecimal totalCredits,
+                             LocalDateTime updatedAt) {
+        this.id = id;
+        this.customerName = customerName;
+        this.customerPhone = customerPhone;
+        this.customerEmail = customerEmail;
+        this.currentBalance = currentBalance != null ? currentBalance : BigDecimal.ZERO;
+        this.totalDebits = totalDebits != null ? totalDebits : BigDecimal.ZERO;
+        this.totalCredits = totalCredits != null ? totalCredits : BigDecimal.ZERO;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getCustomerName() { return customerName; }
+    public String getCustomerPhone() { return customerPhone; }
+    public String getCustomerEmail() { return customerEmail; }
+    public BigDecimal getCurrentBalance() { return currentBalance; }
+    public BigDecimal getTotalDebits() { return totalDebits; }
+    public BigDecimal getTotalCredits() { return totalCredits; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
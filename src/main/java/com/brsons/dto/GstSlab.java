@@ -0,0 +1,55 @@
+package com.brsons.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Tax totals of one GST rate slab (e.g. 5%, 12%, 18%) on a cart or invoice.
+ */
+public class GstSlab {
+    private BigDecimal rate;
+    private BigDecimal taxableValue;
+    private BigDecimal cgstAmount;
+    private BigDecimal sgstAmount;
+    private BigDecimal igstAmount;
+
+    public GstSlab(BigDecimal rate, BigDecimal taxableValue, BigDecimal cgstAmount, BigDecimal sgstAmount, BigDecimal igstAmount) {
+        this.rate = rate;
+        this.taxableValue = taxableValue;
+        this.cgstAmount = cgstAmount;
+        this.sgstAmount = sgstAmount;
+        this.igstAmount = igstAmount;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    /** CGST and SGST are each half of the slab rate. */
+    public BigDecimal getHalfRate() {
+        return rate.divide(BigDecimal.valueOf(2));
+    }
+
+    public BigDecimal getTaxableValue() {
+        return taxableValue;
+    }
+
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public BigDecimal getTotalTax() {
+        return cgstAmount.add(sgstAmount).add(igstAmount);
+    }
+
+    public boolean isIntraState() {
+        return cgstAmount.signum() != 0 || sgstAmount.signum() != 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.brsons.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * GSTR-3B style month summary: outward tax from the monthly aggregates
+ * (table 3.1 / 3.2) and input tax credit from received goods (table 4).
+ */
+public class Gstr3bSummary {
+    private String period;
+    private BigDecimal outwardTaxableValue = BigDecimal.ZERO;
+    private BigDecimal outwardCgst = BigDecimal.ZERO;
+    private BigDecimal outwardSgst = BigDecimal.ZERO;
+    private BigDecimal outwardIgst = BigDecimal.ZERO;
+    private BigDecimal interStateB2cTaxableValue = BigDecimal.ZERO;
+    private BigDecimal interStateB2cIgst = BigDecimal.ZERO;
+    private BigDecimal itcCgst = BigDecimal.ZERO;
+    private BigDecimal itcSgst = BigDecimal.ZERO;
+    private BigDecimal itcIgst = BigDecimal.ZERO;
+
+    public Gstr3bSummary(String period) {
+        this.period = period;
+    }
+
+    public String getPeriod() { return period; }
+
+    public BigDecimal getOutwardTaxableValue() { return outwardTaxableValue; }
+    public void setOutwardTaxableValue(BigDecimal outwardTaxableValue) { this.outwardTaxableValue = outwardTaxableValue; }
+
+    public BigDecimal getOutwardCgst() { return outwardCgst; }
+    public void setOutwardCgst(BigDecimal outwardCgst) { this.outwardCgst = outwardCgst; }
+
+    public BigDecimal getOutwardSgst() { return outwardSgst; }
+    public void setOutwardSgst(BigDecimal outwardSgst) { this.outwardSgst = outwardSgst; }
+
+    public BigDecimal getOutwardIgst() { return outwardIgst; }
+    public void setOutwardIgst(BigDecimal outwardIgst) { this.outwardIgst = outwardIgst; }
+
+    public BigDecimal getInterStateB2cTaxableValue() { return interStateB2cTaxableValue; }
+    public void setInterStateB2cTaxableValue(BigDecimal interStateB2cTaxableValue) { this.interStateB2cTaxableValue = interStateB2cTaxableValue; }
+
+    public BigDecimal getInterStateB2cIgst() { return interStateB2cIgst; }
+    public void setInterStateB2cIgst(BigDecimal interStateB2cIgst) { this.interStateB2cIgst = interStateB2cIgst; }
+
+    public BigDecimal getItcCgst() { return itcCgst; }
+    public void setItcCgst(BigDecimal itcCgst) { this.itcCgst = itcCgst; }
+
+    public BigDecimal getItcSgst() { return itcSgst; }
+    public void setItcSgst(BigDecimal itcSgst) { this.itcSgst = itcSgst; }
+
+    public BigDecimal getItcIgst() { return itcIgst; }
+    public void setItcIgst(BigDecimal itcIgst) { this.itcIgst = itcIgst; }
+
+    // Net tax per head after credit (negative means credit carried forward)
+    public BigDecimal getNetCgst() { return outwardCgst.subtract(itcCgst); }
+    public BigDecimal getNetSgst() { return outwardSgst.subtract(itcSgst); }
+    public BigDecimal getNetIgst() { return outwardIgst.subtract(itcIgst); }
+
+    public BigDecimal getOutwardTax() {
+        return outwardCgst.add(outwardSgst).add(outwardIgst);
+    }
+}
@@ -0,0 +1,45 @@
+package com.brsons.dto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (seek) paginated listing ordered by id.
+ * The next page is requested with {@code after = nextCursor}.
+ */
+public class KeysetPage<T> {
+    private final List<T> items;
+    private final Long nextCursor;
+    private final int pageSize;
+    private final long totalCount;
+    private final boolean totalEstimated;
+
+    public KeysetPage(List<T> items, Long nextCursor, int pageSize, long totalCount, boolean totalEstimated) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+        this.pageSize = pageSize;
+        this.totalCount = totalCount;
+        this.totalEstimated = totalEstimated;
+    }
+
+    /**
+     * Build a page from a result fetched with {@code pageSize + 1} rows; the
+     * extra row only tells us whether another page exists.
+     */
+    public static <T> KeysetPage<T> fromOverfetch(List<T> rows, int pageSize, Function<T, Long> idOf,
+                                                  long totalCount, boolean totalEstimated) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> items = hasNext ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasNext ? idOf.apply(items.get(items.size() - 1)) : null;
+        return new KeysetPage<>(items, nextCursor, pageSize, totalCount, totalEstimated);
+    }
+
+    // Getters
+    public List<T> getItems() { return items; }
+    public Long getNextCursor() { return nextCursor; }
+    public boolean isHasNext() { return nextCursor != null; }
+    public int getPageSize() { return pageSize; }
+    public long getTotalCount() { return totalCount; }
+    public boolean isTotalEstimated() { return totalEstimated; }
+}
@@ -0,0 +1,56 @@
+package com.brsons.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregate totals for the customer and supplier ledger dashboards,
+ * produced by a single query over the ledger table.
+ */
+public class LedgerDashboardSummary {
+    private long totalLedgers;
+    private long activeLedgers;
+    private long activeLedgersWithOutstanding;
+    private BigDecimal totalOutstanding;
+    private BigDecimal totalDebits;
+    private BigDecimal totalCredits;
+
+    // Constructors
+    public LedgerDashboardSummary() {
+        this(0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    public LedgerDashboardSummary(Long totalLedgers, Long activeLedgers, Long activeLedgersWithOutstanding,
+                                  BigDecimal totalOutstanding, BigDecimal totalDebits, BigDecimal totalCredits) {
+        this.totalLedgers = totalLedgers != null ? totalLedgers : 0L;
+        this.activeLedgers = activeLedgers != null ? activeLedgers : 0L;
+        this.activeLedgersWithOutstanding = activeLedgersWithOutstanding != null ? activeLedgersWithOutstanding : 0L;
+        this.totalOutstanding = totalOutstanding != null ? totalOutstanding : BigDecimal.ZERO;
+        this.totalDebits = totalDebits != null ? totalDebits : BigDecimal.ZERO;
+        this.totalCredits = totalCredits != null ? totalCredits : BigDecimal.ZERO;
+    }
+
+    // Getters
+    public long getTotalLedgers() {
+        return totalLedgers;
+    }
+
+    public long getActiveLedgers() {
+        return activeLedgers;
+    }
+
+    public long getActiveLedgersWithOutstanding() {
+        return activeLedgersWithOutstanding;
+    }
+
+    public BigDecimal getTotalOutstanding() {
+        return totalOutstanding;
+    }
+
+    public BigDecimal getTotalDebits() {
+        return totalDebits;
+    }
+
+    public BigDecimal getTotalCredits() {
+        return totalCredits;
+    }
+}
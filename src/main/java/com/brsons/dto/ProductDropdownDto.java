@@ -1,11 +1,15 @@
 package com.brsons.dto;
 
+import java.math.BigDecimal;
+
 public class ProductDropdownDto {
     private Long id;
     private String productName;
     private Double retailPrice;
     private Integer stockQuantity;
     private String sku;
+    private BigDecimal price;
+    private String status;
     
     public ProductDropdownDto() {}
     
@@ -17,6 +21,14 @@ public class ProductDropdownDto {
         this.sku = sku;
     }
     
+    // Used by the picker index, which leaves stock out (it changes on every sale)
+    public ProductDropdownDto(Long id, String productName, Double retailPrice, String sku,
+                              BigDecimal price, String status) {
+        this(id, productName, retailPrice, null, sku);
+        this.price = price;
+        this.status = status;
+    }
+    
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -32,4 +44,10 @@ public class ProductDropdownDto {
     
     public String getSku() { return sku; }
     public void setSku(String sku) { this.sku = sku; }
+    
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
 }
@@ -0,0 +1,52 @@
+package com.brsons.dto;
+
+/**
+ * Optional criteria for product listings (admin inventory, export).
+ * Blank values mean "no filter".
+ */
+public class ProductFilter {
+    private Long categoryId;
+    private String categoryStatus;
+    private String productStatus;
+    private String stockFilter;
+    private String searchQuery;
+
+    public ProductFilter() {}
+
+    public ProductFilter(Long categoryId, String categoryStatus, String productStatus,
+                         String stockFilter, String searchQuery) {
+        this.categoryId = categoryId;
+        this.categoryStatus = categoryStatus;
+        this.productStatus = productStatus;
+        this.stockFilter = stockFilter;
+        this.searchQuery = searchQuery;
+    }
+
+    /**
+     * True when no criterion is set, i.e. the whole products table is listed
+     */
+    public boolean isEmpty() {
+        return categoryId == null && isBlank(categoryStatus) && isBlank(productStatus)
+            && isBlank(stockFilter) && isBlank(searchQuery);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    // Getters and Setters
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public String getCategoryStatus() { return categoryStatus; }
+    public void setCategoryStatus(String categoryStatus) { this.categoryStatus = categoryStatus; }
+
+    public String getProductStatus() { return productStatus; }
+    public void setProductStatus(String productStatus) { this.productStatus = productStatus; }
+
+    public String getStockFilter() { return stockFilter; }
+    public void setStockFilter(String stockFilter) { this.stockFilter = stockFilter; }
+
+    public String getSearchQuery() { return searchQuery; }
+    public void setSearchQuery(String searchQuery) { this.searchQuery = searchQuery; }
+}
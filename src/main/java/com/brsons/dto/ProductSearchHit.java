@@ -0,0 +1,71 @@
+package com.brsons.dto;
+
+/**
+ * One ranked product search result, read straight from SQL without loading
+ * the Product entity.
+ */
+public class ProductSearchHit {
+    private Long id;
+    private String productName;
+    private String sku;
+    private String hsnCode;
+    private Double retailPrice;
+    private Double b2bPrice;
+    private Integer stockQuantity;
+    private String mainPhoto;
+    private String status;
+    private String categoryName;
+    private double score;
+
+    public ProductSearchHit() {}
+
+    public ProductSearchHit(Long id, String productName, String sku, String hsnCode, Double retailPrice,
+                            Double b2bPrice, Integer stockQuantity, String mainPhoto, String status,
+                            String categoryName, double score) {
+        this.id = id;
+        this.productName = productName;
+        this.sku = sku;
+        this.hsnCode = hsnCode;
+        this.retailPrice = retailPrice;
+        this.b2bPrice = b2bPrice;
+        this.stockQuantity = stockQuantity;
+        this.mainPhoto = mainPhoto;
+        this.status = status;
+        this.categoryName = categoryName;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public String getHsnCode() { return hsnCode; }
+    public void setHsnCode(String hsnCode) { this.hsnCode = hsnCode; }
+
+    public Double getRetailPrice() { return retailPrice; }
+    public void setRetailPrice(Double retailPrice) { this.retailPrice = retailPrice; }
+
+    public Double getB2bPrice() { return b2bPrice; }
+    public void setB2bPrice(Double b2bPrice) { this.b2bPrice = b2bPrice; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+
+    public String getMainPhoto() { return mainPhoto; }
+    public void setMainPhoto(String mainPhoto) { this.mainPhoto = mainPhoto; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getCategoryName() { return categoryName; }
+    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+}
@@ -0,0 +1,32 @@
+package com.brsons.dto;
+
+import java.util.List;
+
+/**
+ * One page of ranked product search hits; the next page is requested with
+ * {@code after = nextCursor}
+ */
+public class ProductSearchResult {
+    private final String query;
+    private final List<ProductSearchHit> hits;
+    private final int size;
+    private final String nextCursor;
+    private final boolean fullText;
+
+    public ProductSearchResult(String query, List<ProductSearchHit> hits, int size,
+                               String nextCursor, boolean fullText) {
+        this.query = query;
+        this.hits = hits;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.fullText = fullText;
+    }
+
+    // Getters
+    public String getQuery() { return query; }
+    public List<ProductSearchHit> getHits() { return hits; }
+    public int getSize() { return size; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasNext() { return nextCursor != null; }
+    public boolean isFullText() { return fullText; }
+}
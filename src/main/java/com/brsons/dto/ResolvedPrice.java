@@ -0,0 +1,21 @@
+package com.brsons.dto;
+
+import com.brsons.util.Money;
+
+/**
+ * Unit price for a cart or order line, and the price list it came from
+ * ("retail" or "b2b", as stored on OrderItem.priceType).
+ */
+public final class ResolvedPrice {
+    private final Money unitPrice;
+    private final String priceType;
+
+    public ResolvedPrice(Money unitPrice, String priceType) {
+        this.unitPrice = unitPrice;
+        this.priceType = priceType;
+    }
+
+    // Getters
+    public Money getUnitPrice() { return unitPrice; }
+    public String getPriceType() { return priceType; }
+}
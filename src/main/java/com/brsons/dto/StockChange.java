@@ -0,0 +1,129 @@
+package com.brsons.dto;
+
+import com.brsons.model.Product;
+import com.brsons.model.StockMovement.MovementType;
+
+/**
+ * One stock change to post through StockLedgerService: a movement type and
+ * quantity (or a target on-hand for stock takes and edits), why it happened
+ * and what caused it. A change for a variant moves the variant's own stock
+ * and the product's aggregate together; a target is then the variant's.
+ */
+public class StockChange {
+    private final Long productId;
+    private final MovementType movementType;
+    private final int quantity;
+    private final Integer targetQuantity;
+    private final String reason;
+    private Long variantId;
+    private String referenceType;
+    private Long referenceId;
+    private String createdBy;
+    private Product product;
+    private boolean requireStock;
+
+    private StockChange(Long productId, MovementType movementType, int quantity, Integer targetQuantity, String reason) {
+        if (quantity < 0 && movementType != MovementType.ADJUSTMENT) {
+            throw new IllegalArgumentException("Quantity must not be negative for " + movementType + ": " + quantity);
+        }
+        this.productId = productId;
+        this.movementType = movementType;
+        this.quantity = quantity;
+        this.targetQuantity = targetQuantity;
+        this.reason = reason;
+    }
+
+    /**
+     * Goods coming in (purchase, GRN, cancelled order restored)
+     */
+    public static StockChange in(Long productId, int quantity, String reason) {
+        return new StockChange(productId, MovementType.IN, quantity, null, reason);
+    }
+
+    /**
+     * Goods going out (sale, return to supplier)
+     */
+    public static StockChange out(Long productId, int quantity, String reason) {
+        return new StockChange(productId, MovementType.OUT, quantity, null, reason);
+    }
+
+    /**
+     * Signed correction to on-hand
+     */
+    public static StockChange adjust(Long productId, int delta, String reason) {
+        return new StockChange(productId, MovementType.ADJUSTMENT, delta, null, reason);
+    }
+
+    /**
+     * Set on-hand to an absolute figure (product edit, import, stock take);
+     * recorded as an adjustment of the difference
+     */
+    public static StockChange setTo(Long productId, int targetQuantity, String reason) {
+        return new StockChange(productId, MovementType.ADJUSTMENT, 0, targetQuantity, reason);
+    }
+
+    /**
+     * Variant (size/colour) of the product the change is for
+     */
+    public StockChange variant(Long variantId) {
+        this.variantId = variantId;
+        return this;
+    }
+
+    public StockChange reference(String referenceType, Long referenceId) {
+        this.referenceType = referenceType;
+        this.referenceId = referenceId;
+        return this;
+    }
+
+    /**
+     * Product instance to keep in step with the posted on-hand
+     */
+    public StockChange product(Product product) {
+        this.product = product;
+        return this;
+    }
+
+    public StockChange createdBy(String createdBy) {
+        this.createdBy = createdBy;
+        return this;
+    }
+
+    /**
+     * Reject the posting instead of letting on-hand go below zero
+     */
+    public StockChange requireStock() {
+        this.requireStock = true;
+        return this;
+    }
+
+    /**
+     * Signed effect of this change on on-hand (absolute changes are resolved by the ledger)
+     */
+    public int getDelta() {
+        switch (movementType) {
+            case IN:
+            case ADJUSTMENT:
+                return quantity;
+            case OUT:
+            case DAMAGED:
+            case EXPIRED:
+                return -quantity;
+            default:
+                return 0;
+        }
+    }
+
+    // Getters
+    public Long getProductId() { return productId; }
+    public Long getVariantId() { return variantId; }
+    public MovementType getMovementType() { return movementType; }
+    public int getQuantity() { return quantity; }
+    public Integer getTargetQuantity() { return targetQuantity; }
+    public String getReason() { return reason; }
+    public String getReferenceType() { return referenceType; }
+    public Long getReferenceId() { return referenceId; }
+    public String getCreatedBy() { return createdBy; }
+    public Product getProduct() { return product; }
+    public boolean isRequireStock() { return requireStock; }
+}
@@ -2,41 +2,54 @@ package com.brsons.model;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.MapKeyColumn;
 import jakarta.persistence.Table;
-import jakarta.persistence.JoinColumn;
-
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * A user's cart as one row: the lines are packed into a single column as
+ * "productId:quantity" pairs (or "productId/variantId:quantity" for a chosen
+ * size/colour) in the order they were added, with the total quantity kept
+ * alongside for the navbar count.
+ */
 @Entity
-@Table(name = "add_to_cart")
+@Table(name = "add_to_cart", uniqueConstraints = @UniqueConstraint(name = "uk_add_to_cart_user", columnNames = "user_id"))
 public class AddToCart {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "user_id")
     private Long userId;
     private String userName;
     private String userEmail;
     private String userPhone;
 
-    @ElementCollection
-    @CollectionTable(name = "add_to_cart_product_quantities", 
-        joinColumns = @JoinColumn(name = "add_to_cart_id"))
-    private List<CartProductEntry> productQuantities = new ArrayList<>();
+    // Packed lines, e.g. "12:3,40/7:1"
+    @Column(name = "items", length = 8000)
+    private String items = "";
+
+    // Sum of quantities across all lines
+    @Column(name = "item_count")
+    private Integer itemCount = 0;
+
+    // Bumped on every write; updates only apply to the revision they read
+    @Column(name = "revision")
+    private Long revision = 0L;
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    private LocalDateTime updatedAt;
+
 	public Long getId() {
 		return id;
 	}
@@ -77,24 +90,129 @@ public class AddToCart {
 		this.userPhone = userPhone;
 	}
 
-	
-	
+	public String getItems() {
+		return items;
+	}
+
+	public void setItems(String items) {
+		this.items = items;
+	}
+
+	public Integer getItemCount() {
+		return itemCount;
+	}
+
+	public void setItemCount(Integer itemCount) {
+		this.itemCount = itemCount;
+	}
+
+	public Long getRevision() {
+		return revision;
+	}
+
+	public void setRevision(Long revision) {
+		this.revision = revision;
+	}
 
 	public LocalDateTime getCreatedAt() {
 		return createdAt;
 	}
 
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	/**
+	 * Cart lines decoded from the packed items.
+	 */
 	public List<CartProductEntry> getProductQuantities() {
-		return productQuantities;
+		return entries(items);
 	}
 
-	public void setProductQuantities(List<CartProductEntry> productQuantities) {
-		this.productQuantities = productQuantities;
+	/**
+	 * Cart lines decoded from packed items, keeping line order.
+	 */
+	public static List<CartProductEntry> entries(String items) {
+		List<CartProductEntry> entries = new ArrayList<>();
+		decodeLines(items).forEach((line, quantity) -> {
+			int slash = line.indexOf('/');
+			entries.add(slash < 0
+					? new CartProductEntry(Long.parseLong(line), quantity)
+					: new CartProductEntry(Long.parseLong(line, 0, slash, 10),
+							Long.parseLong(line, slash + 1, line.length(), 10), quantity));
+		});
+		return entries;
 	}
 
-	public void setCreatedAt(LocalDateTime createdAt) {
-		this.createdAt = createdAt;
+	/**
+	 * Parse packed items into productId -> quantity, keeping line order; the
+	 * lines for a product's variants are added together.
+	 */
+	public static Map<Long, Integer> decode(String items) {
+		Map<Long, Integer> quantities = new LinkedHashMap<>();
+		for (CartProductEntry entry : entries(items)) {
+			quantities.merge(entry.getProductId(), entry.getQuantity(), Integer::sum);
+		}
+		return quantities;
+	}
+
+	/**
+	 * Parse packed items into line key (see {@link #lineKey}) -> quantity, keeping line order.
+	 */
+	public static Map<String, Integer> decodeLines(String items) {
+		Map<String, Integer> quantities = new LinkedHashMap<>();
+		if (items == null || items.isEmpty()) {
+			return quantities;
+		}
+		int start = 0;
+		while (start < items.length()) {
+			int end = items.indexOf(',', start);
+			if (end < 0) {
+				end = items.length();
+			}
+			int colon = items.indexOf(':', start);
+			if (colon > start && colon < end) {
+				quantities.put(items.substring(start, colon), Integer.parseInt(items, colon + 1, end, 10));
+			}
+			start = end + 1;
+		}
+		return quantities;
+	}
+
+	/**
+	 * Key of a cart line: "productId", or "productId/variantId" for a variant.
+	 */
+	public static String lineKey(Long productId, Long variantId) {
+		return variantId == null ? String.valueOf(productId) : productId + "/" + variantId;
+	}
+
+	public static String encode(Map<?, Integer> quantities) {
+		StringBuilder packed = new StringBuilder(quantities.size() * 8);
+		for (Map.Entry<?, Integer> line : quantities.entrySet()) {
+			if (line.getValue() == null || line.getValue() <= 0) {
+				continue;
+			}
+			if (packed.length() > 0) {
+				packed.append(',');
+			}
+			packed.append(line.getKey()).append(':').append(line.getValue());
+		}
+		return packed.toString();
 	}
 
-    // Getters & Setters
+	public static int count(Map<?, Integer> quantities) {
+		int total = 0;
+		for (Integer quantity : quantities.values()) {
+			total += quantity != null && quantity > 0 ? quantity : 0;
+		}
+		return total;
+	}
 }
@@ -1,16 +1,25 @@
 package com.brsons.model;
 
+import com.brsons.util.Money;
+
 public class CartItemDetails {
     private Long id; // Product ID (used for cart operations)
     private Product product;
+    private Long variantId; // Variant on this line, if one was chosen
+    private String variantLabel;
     private int quantity;
-    private double totalPrice;
+    private Money unitPrice;
+    private Money lineTotal;
 
-    public CartItemDetails(Long id, Product product, int quantity, double totalPrice) {
+    public CartItemDetails(Long id, Product product, int quantity, Money lineTotal) {
         this.id = id;
         this.product = product;
         this.quantity = quantity;
-        this.totalPrice = totalPrice;
+        this.lineTotal = lineTotal;
+    }
+
+    public CartItemDetails(Long id, Product product, int quantity, double totalPrice) {
+        this(id, product, quantity, Money.of(totalPrice));
     }
 
     public Long getId() {
@@ -29,6 +38,22 @@ public class CartItemDetails {
         this.product = product;
     }
 
+    public Long getVariantId() {
+        return variantId;
+    }
+
+    public void setVariantId(Long variantId) {
+        this.variantId = variantId;
+    }
+
+    public String getVariantLabel() {
+        return variantLabel;
+    }
+
+    public void setVariantLabel(String variantLabel) {
+        this.variantLabel = variantLabel;
+    }
+
     public int getQuantity() {
         return quantity;
     }
@@ -37,12 +62,28 @@ public class CartItemDetails {
         this.quantity = quantity;
     }
 
+    public Money getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(Money unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    public Money getLineTotal() {
+        return lineTotal;
+    }
+
+    public void setLineTotal(Money lineTotal) {
+        this.lineTotal = lineTotal;
+    }
+
     public double getTotalPrice() {
-        return totalPrice;
+        return lineTotal.toDouble();
     }
 
     public void setTotalPrice(double totalPrice) {
-        this.totalPrice = totalPrice;
+        this.lineTotal = Money.of(totalPrice);
     }
 }
 
@@ -1,20 +1,26 @@
 package com.brsons.model;
 
-import jakarta.persistence.Embeddable;
-
-@Embeddable
+/**
+ * One product (or product variant) line of a cart, decoded from the cart
+ * row's packed items.
+ */
 public class CartProductEntry {
 
     private Long productId;
+    private Long variantId;
     private Integer quantity;
-    private String userPhone;
 
     public CartProductEntry() {}
 
-    public CartProductEntry(Long productId, Integer quantity, String userPhone) {
+    public CartProductEntry(Long productId, Integer quantity) {
         this.productId = productId;
         this.quantity = quantity;
-        this.userPhone = userPhone;
+    }
+
+    public CartProductEntry(Long productId, Long variantId, Integer quantity) {
+        this.productId = productId;
+        this.variantId = variantId;
+        this.quantity = quantity;
     }
 
     // Getters & Setters
@@ -26,19 +32,19 @@ public class CartProductEntry {
         this.productId = productId;
     }
 
-    public Integer getQuantity() {
-        return quantity;
+    public Long getVariantId() {
+        return variantId;
     }
 
-    public void setQuantity(Integer quantity) {
-        this.quantity = quantity;
+    public void setVariantId(Long variantId) {
+        this.variantId = variantId;
     }
 
-    public String getUserPhone() {
-        return userPhone;
+    public Integer getQuantity() {
+        return quantity;
     }
 
-    public void setUserPhone(String userPhone) {
-        this.userPhone = userPhone;
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
     }
 }
@@ -6,6 +6,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "categories")
+@EntityListeners(com.brsons.service.CatalogCacheListener.class)
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
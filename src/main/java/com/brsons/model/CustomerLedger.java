@@ -86,13 +86,15 @@ public class CustomerLedger {
     @Column(name = "opening_balance", precision = 19, scale = 2)
     private BigDecimal openingBalance = BigDecimal.ZERO;
     
-    @Column(name = "current_balance", precision = 19, scale = 2)
+    // Running totals are only changed through LedgerPostingService (atomic deltas),
+    // never by flushing this entity, so a stale instance cannot overwrite them.
+    @Column(name = "current_balance", precision = 19, scale = 2, updatable = false)
     private BigDecimal currentBalance = BigDecimal.ZERO;
     
-    @Column(name = "total_debits", precision = 19, scale = 2)
+    @Column(name = "total_debits", precision = 19, scale = 2, updatable = false)
     private BigDecimal totalDebits = BigDecimal.ZERO;
     
-    @Column(name = "total_credits", precision = 19, scale = 2)
+    @Column(name = "total_credits", precision = 19, scale = 2, updatable = false)
     private BigDecimal totalCredits = BigDecimal.ZERO;
     
     @Column(name = "status")
@@ -234,18 +236,6 @@ public class CustomerLedger {
     public void setGstin(String gstin) { this.gstin = gstin; }
     
     // Business methods
-    public void addDebit(BigDecimal amount) {
-        this.totalDebits = this.totalDebits.add(amount);
-        this.currentBalance = this.currentBalance.add(amount);
-        this.updatedAt = LocalDateTime.now();
-    }
-    
-    public void addCredit(BigDecimal amount) {
-        this.totalCredits = this.totalCredits.add(amount);
-        this.currentBalance = this.currentBalance.subtract(amount);
-        this.updatedAt = LocalDateTime.now();
-    }
-    
     public boolean hasOutstandingBalance() {
         return this.currentBalance.compareTo(BigDecimal.ZERO) > 0;
     }
@@ -7,16 +7,24 @@ import java.util.List;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_bill_type_status_created", columnList = "bill_type, order_status, created_at, id"),
+    @Index(name = "idx_orders_bill_type_created", columnList = "bill_type, created_at, id"),
+    @Index(name = "idx_orders_user_phone_created", columnList = "user_phone, created_at, id")
+})
+@EntityListeners(com.brsons.service.OrderStatsListener.class)
 public class Order {
 
     public Long getId() {
@@ -189,6 +197,14 @@ public class Order {
     
     @Column(name = "igst_amount", precision = 10, scale = 2)
     private BigDecimal igstAmount; // IGST amount
+    
+    // Whether this invoice is currently counted in the monthly tax summary
+    @Column(name = "tax_summary_posted")
+    private Boolean taxSummaryPosted = false;
+    
+    // Bill type, status and total this order is currently counted under in order_status_counters
+    @Transient
+    private com.brsons.service.OrderStatsListener.CountedAs countedAs;
 
     private LocalDateTime createdAt;
 
@@ -330,6 +346,22 @@ public class Order {
 		this.igstAmount = igstAmount;
 	}
 
+	public Boolean getTaxSummaryPosted() {
+		return taxSummaryPosted;
+	}
+
+	public void setTaxSummaryPosted(Boolean taxSummaryPosted) {
+		this.taxSummaryPosted = taxSummaryPosted;
+	}
+
+	public com.brsons.service.OrderStatsListener.CountedAs getCountedAs() {
+		return countedAs;
+	}
+
+	public void setCountedAs(com.brsons.service.OrderStatsListener.CountedAs countedAs) {
+		this.countedAs = countedAs;
+	}
+
 	public List<OrderItem> getOrderItems() {
 		return orderItems;
 	}
@@ -13,6 +13,10 @@ public class OrderItem {
 
     private Long productId;
 
+    // Size/colour variant sold, when one was chosen
+    @Column(name = "variant_id")
+    private Long variantId;
+
     private int quantity;
 
     // Store the actual price at the time of order placement
@@ -30,6 +34,23 @@ public class OrderItem {
     @Column(length = 20)
     private String priceType; // "retail", "b2b", or "admin"
     
+    // GST charged on this line at invoicing (slab rate = CGST + SGST, or IGST)
+    @Column(name = "gst_rate", precision = 5, scale = 2)
+    private BigDecimal gstRate;
+    
+    @Column(name = "cgst_amount", precision = 10, scale = 2)
+    private BigDecimal cgstAmount;
+    
+    @Column(name = "sgst_amount", precision = 10, scale = 2)
+    private BigDecimal sgstAmount;
+    
+    @Column(name = "igst_amount", precision = 10, scale = 2)
+    private BigDecimal igstAmount;
+    
+    // Product HSN code as of invoicing, so the GST summary buckets the line the same way when it is reversed
+    @Column(name = "hsn_code", length = 20)
+    private String hsnCode;
+    
     // Custom product fields for products not in database
     @Column(name = "is_custom_product")
     private Boolean isCustomProduct = false;
@@ -60,6 +81,10 @@ public class OrderItem {
         this.priceType = priceType;
     }
 
+    public Long getId() {
+        return id;
+    }
+
     public Long getProductId() {
         return productId;
     }
@@ -68,6 +93,14 @@ public class OrderItem {
         this.productId = productId;
     }
 
+    public Long getVariantId() {
+        return variantId;
+    }
+
+    public void setVariantId(Long variantId) {
+        this.variantId = variantId;
+    }
+
     public int getQuantity() {
         return quantity;
     }
@@ -131,6 +164,47 @@ public class OrderItem {
         }
     }
 
+    // Line tax getters and setters
+    public BigDecimal getGstRate() {
+        return gstRate;
+    }
+
+    public void setGstRate(BigDecimal gstRate) {
+        this.gstRate = gstRate;
+    }
+
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public void setCgstAmount(BigDecimal cgstAmount) {
+        this.cgstAmount = cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public void setSgstAmount(BigDecimal sgstAmount) {
+        this.sgstAmount = sgstAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public void setIgstAmount(BigDecimal igstAmount) {
+        this.igstAmount = igstAmount;
+    }
+
+    public String getHsnCode() {
+        return hsnCode;
+    }
+
+    public void setHsnCode(String hsnCode) {
+        this.hsnCode = hsnCode;
+    }
+
     // Custom product getters and setters
     public Boolean getIsCustomProduct() {
         return isCustomProduct;
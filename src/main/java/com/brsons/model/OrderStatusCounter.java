@@ -0,0 +1,50 @@
+package com.brsons.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Running order count and order total per bill type and status, so the admin
+ * order dashboards read a handful of rows instead of scanning orders.
+ * Rows are only changed through signed deltas when an order is created,
+ * changes status or total, or is deleted (see OrderStatsListener).
+ */
+@Entity
+@Table(name = "order_status_counters", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_status_counter", columnNames = {"bill_type", "order_status"})
+})
+public class OrderStatusCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bill_type", length = 50, nullable = false)
+    private String billType = ""; // empty when the order has none
+
+    @Column(name = "order_status", length = 100, nullable = false)
+    private String orderStatus = ""; // empty when the order has none
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "total_amount", precision = 16, scale = 2, nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    public OrderStatusCounter() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getBillType() { return billType; }
+    public void setBillType(String billType) { this.billType = billType; }
+
+    public String getOrderStatus() { return orderStatus; }
+    public void setOrderStatus(String orderStatus) { this.orderStatus = orderStatus; }
+
+    public Long getOrderCount() { return orderCount; }
+    public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+}
@@ -1,10 +1,18 @@
 package com.brsons.model;
 import jakarta.persistence.*;
+import com.brsons.util.ImageVariants;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_category_status", columnList = "category_id, status"),
+    @Index(name = "idx_products_stock_quantity", columnList = "stock_quantity")
+})
+@EntityListeners({com.brsons.service.CatalogCacheListener.class, com.brsons.service.PickerIndexListener.class})
+// Only changed columns are written, so saving an edited product never puts back a stale stock_quantity
+@DynamicUpdate
 public class Product {
     @Column(name = "hsn_code")
     private String hsnCode;
@@ -183,6 +191,7 @@ public class Product {
 
     public String getMainPhoto() { return mainPhoto; }
     public void setMainPhoto(String mainPhoto) { this.mainPhoto = mainPhoto; }
+    public String getMainPhotoThumb() { return ImageVariants.url(mainPhoto, ImageVariants.THUMB); }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
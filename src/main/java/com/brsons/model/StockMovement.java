@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_movements")
+@Table(name = "stock_movements", indexes = {
+    @Index(name = "idx_stock_movements_product_date", columnList = "product_id, movement_date, id"),
+    @Index(name = "idx_stock_movements_date", columnList = "movement_date, id")
+})
 public class StockMovement {
     
     @Id
@@ -15,6 +18,10 @@ public class StockMovement {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
     
+    // Variant the movement was for; quantities and before/after are the product's
+    @Column(name = "variant_id")
+    private Long variantId;
+    
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
     
@@ -70,6 +77,9 @@ public class StockMovement {
     public Product getProduct() { return product; }
     public void setProduct(Product product) { this.product = product; }
     
+    public Long getVariantId() { return variantId; }
+    public void setVariantId(Long variantId) { this.variantId = variantId; }
+    
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
     
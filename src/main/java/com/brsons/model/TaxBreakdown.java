@@ -1,84 +1,160 @@
 package com.brsons.model;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.brsons.dto.GstSlab;
+import com.brsons.util.GstRounding;
+import com.brsons.util.Money;
 
 /**
  * TaxBreakdown class to handle tax calculations for cart and orders
  * Supports both CGST+SGST (intra-state) and IGST (inter-state) tax structures
+ *
+ * Lines are added with their precompiled {@link TaxPlan} and accumulated per
+ * rate slab in parallel long arrays (exact tax units, paise x basis points),
+ * so a cart of any size is one pass without per-line allocation. Each tax
+ * head of a slab is rounded to paise per line or once per invoice depending
+ * on the {@link GstRounding} rule; the head totals are the sum of the slabs.
  */
 public class TaxBreakdown {
     
-    private double cgstAmount = 0.0;
-    private double sgstAmount = 0.0;
-    private double igstAmount = 0.0;
-    private double totalTaxAmount = 0.0;
+    private final GstRounding rounding;
+    
+    private int slabCount = 0;
+    private long[] slabBp = new long[4];
+    private long[] taxablePaise = new long[4];
+    private long[] cgstUnits = new long[4];
+    private long[] sgstUnits = new long[4];
+    private long[] igstUnits = new long[4];
     
-    // Tax percentages (for display purposes)
-    private double cgstPercentage = 0.0;
-    private double sgstPercentage = 0.0;
-    private double igstPercentage = 0.0;
+    // Highest rates seen, in basis points (for display purposes)
+    private long maxCgstBp = 0L;
+    private long maxSgstBp = 0L;
+    private long maxIgstBp = 0L;
     
     public TaxBreakdown() {
-        // Default constructor
+        this(GstRounding.PER_LINE);
+    }
+    
+    public TaxBreakdown(GstRounding rounding) {
+        this.rounding = rounding;
+    }
+    
+    /**
+     * Add one line: CGST + SGST when intra-state, IGST otherwise.
+     */
+    public void addLine(TaxPlan plan, boolean intraState, Money lineTotal) {
+        int slab = slabIndex(plan.slabBasisPoints(intraState));
+        long paise = lineTotal.getPaise();
+        taxablePaise[slab] += paise;
+        if (intraState) {
+            cgstUnits[slab] += lineUnits(paise, plan.getCgstBp());
+            sgstUnits[slab] += lineUnits(paise, plan.getSgstBp());
+            maxCgstBp = Math.max(maxCgstBp, plan.getCgstBp());
+            maxSgstBp = Math.max(maxSgstBp, plan.getSgstBp());
+        } else {
+            igstUnits[slab] += lineUnits(paise, plan.getIgstBp());
+            maxIgstBp = Math.max(maxIgstBp, plan.getIgstBp());
+        }
     }
     
-    // Add CGST amount
-    public void addCGST(BigDecimal percentage, double itemTotal) {
-        if (percentage != null && percentage.compareTo(BigDecimal.ZERO) > 0) {
-            double cgst = itemTotal * (percentage.doubleValue() / 100.0);
-            this.cgstAmount += cgst;
-            this.totalTaxAmount += cgst;
-            this.cgstPercentage = Math.max(this.cgstPercentage, percentage.doubleValue());
+    private long lineUnits(long paise, long basisPoints) {
+        long units = Math.multiplyExact(paise, basisPoints);
+        if (rounding == GstRounding.PER_LINE) {
+            return Money.roundTaxUnits(units) * Money.TAX_UNITS_PER_PAISA;
         }
+        return units;
     }
     
-    // Add SGST amount
-    public void addSGST(BigDecimal percentage, double itemTotal) {
-        if (percentage != null && percentage.compareTo(BigDecimal.ZERO) > 0) {
-            double sgst = itemTotal * (percentage.doubleValue() / 100.0);
-            this.sgstAmount += sgst;
-            this.totalTaxAmount += sgst;
-            this.sgstPercentage = Math.max(this.sgstPercentage, percentage.doubleValue());
+    private int slabIndex(long basisPoints) {
+        for (int i = 0; i < slabCount; i++) {
+            if (slabBp[i] == basisPoints) {
+                return i;
+            }
         }
+        if (slabCount == slabBp.length) {
+            int size = slabCount * 2;
+            slabBp = Arrays.copyOf(slabBp, size);
+            taxablePaise = Arrays.copyOf(taxablePaise, size);
+            cgstUnits = Arrays.copyOf(cgstUnits, size);
+            sgstUnits = Arrays.copyOf(sgstUnits, size);
+            igstUnits = Arrays.copyOf(igstUnits, size);
+        }
+        slabBp[slabCount] = basisPoints;
+        return slabCount++;
     }
     
-    // Add IGST amount
-    public void addIGST(BigDecimal percentage, double itemTotal) {
-        if (percentage != null && percentage.compareTo(BigDecimal.ZERO) > 0) {
-            double igst = itemTotal * (percentage.doubleValue() / 100.0);
-            this.igstAmount += igst;
-            this.totalTaxAmount += igst;
-            this.igstPercentage = Math.max(this.igstPercentage, percentage.doubleValue());
+    private static Money sumRounded(long[] units, int count) {
+        long paise = 0L;
+        for (int i = 0; i < count; i++) {
+            paise += Money.roundTaxUnits(units[i]);
         }
+        return Money.ofPaise(paise);
     }
     
-    // Getters
-    public double getCgstAmount() { return cgstAmount; }
-    public double getSgstAmount() { return sgstAmount; }
-    public double getIgstAmount() { return igstAmount; }
-    public double getTotalTaxAmount() { return totalTaxAmount; }
+    /**
+     * Slab totals ordered by rate, for invoices and GSTR-style summaries.
+     */
+    public List<GstSlab> getSlabs() {
+        Integer[] order = new Integer[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(slabBp[a], slabBp[b]));
+        List<GstSlab> slabs = new ArrayList<>(slabCount);
+        for (int i : order) {
+            slabs.add(new GstSlab(BigDecimal.valueOf(slabBp[i], 2),
+                    Money.ofPaise(taxablePaise[i]).toBigDecimal(),
+                    Money.ofTaxUnits(cgstUnits[i]).toBigDecimal(),
+                    Money.ofTaxUnits(sgstUnits[i]).toBigDecimal(),
+                    Money.ofTaxUnits(igstUnits[i]).toBigDecimal()));
+        }
+        return slabs;
+    }
+    
+    // Rounded amounts
+    public GstRounding getRounding() { return rounding; }
+    public Money getTaxableValue() {
+        long paise = 0L;
+        for (int i = 0; i < slabCount; i++) {
+            paise += taxablePaise[i];
+        }
+        return Money.ofPaise(paise);
+    }
+    public Money getCgst() { return sumRounded(cgstUnits, slabCount); }
+    public Money getSgst() { return sumRounded(sgstUnits, slabCount); }
+    public Money getIgst() { return sumRounded(igstUnits, slabCount); }
+    public Money getTotalTax() { return getCgst().plus(getSgst()).plus(getIgst()); }
     
-    public double getCgstPercentage() { return cgstPercentage; }
-    public double getSgstPercentage() { return sgstPercentage; }
-    public double getIgstPercentage() { return igstPercentage; }
+    /** Single slab rate when every line shares it, otherwise null (mixed-rate). */
+    public BigDecimal getUniformRate() {
+        return slabCount == 1 ? BigDecimal.valueOf(slabBp[0], 2) : null;
+    }
     
-    // Setters
-    public void setCgstAmount(double cgstAmount) { this.cgstAmount = cgstAmount; }
-    public void setSgstAmount(double sgstAmount) { this.sgstAmount = sgstAmount; }
-    public void setIgstAmount(double igstAmount) { this.igstAmount = igstAmount; }
-    public void setTotalTaxAmount(double totalTaxAmount) { this.totalTaxAmount = totalTaxAmount; }
+    public boolean isMixedRate() {
+        return slabCount > 1;
+    }
+    
+    // Getters
+    public double getCgstAmount() { return getCgst().toDouble(); }
+    public double getSgstAmount() { return getSgst().toDouble(); }
+    public double getIgstAmount() { return getIgst().toDouble(); }
+    public double getTotalTaxAmount() { return getTotalTax().toDouble(); }
     
-    public void setCgstPercentage(double cgstPercentage) { this.cgstPercentage = cgstPercentage; }
-    public void setSgstPercentage(double sgstPercentage) { this.sgstPercentage = sgstPercentage; }
-    public void setIgstPercentage(double igstPercentage) { this.igstPercentage = igstPercentage; }
+    public double getCgstPercentage() { return maxCgstBp / 100.0; }
+    public double getSgstPercentage() { return maxSgstBp / 100.0; }
+    public double getIgstPercentage() { return maxIgstBp / 100.0; }
     
     // Helper methods
     public boolean isIntraState() {
-        return cgstAmount > 0 || sgstAmount > 0;
+        return getCgst().isPositive() || getSgst().isPositive();
     }
     
     public boolean isInterState() {
-        return igstAmount > 0;
+        return getIgst().isPositive();
     }
     
     public String getTaxType() {
@@ -93,7 +169,7 @@ public class TaxBreakdown {
     
     @Override
     public String toString() {
-        return String.format("TaxBreakdown{CGST: ₹%.2f, SGST: ₹%.2f, IGST: ₹%.2f, Total: ₹%.2f}", 
-                           cgstAmount, sgstAmount, igstAmount, totalTaxAmount);
+        return "TaxBreakdown{CGST: ₹" + getCgst() + ", SGST: ₹" + getSgst() + 
+               ", IGST: ₹" + getIgst() + ", Total: ₹" + getTotalTax() + ", Slabs: " + slabCount + "}";
     }
 }
@@ -0,0 +1,87 @@
+package com.brsons.model;
+
+import java.math.BigDecimal;
+
+import com.brsons.util.Money;
+
+/**
+ * Immutable GST configuration of a product, compiled once into basis points
+ * (9% = 900 bp) so per-line tax is plain long arithmetic.
+ *
+ * The source percentages are kept so a cached plan can be checked against the
+ * product's current rates without allocating.
+ */
+public final class TaxPlan {
+
+    public static final TaxPlan NONE = of(null, null, null);
+
+    private final BigDecimal cgstRate;
+    private final BigDecimal sgstRate;
+    private final BigDecimal igstRate;
+    private final long cgstBp;
+    private final long sgstBp;
+    private final long igstBp;
+
+    private TaxPlan(BigDecimal cgstRate, BigDecimal sgstRate, BigDecimal igstRate) {
+        this.cgstRate = cgstRate;
+        this.sgstRate = sgstRate;
+        this.igstRate = igstRate;
+        this.cgstBp = Money.basisPoints(cgstRate);
+        this.sgstBp = Money.basisPoints(sgstRate);
+        this.igstBp = Money.basisPoints(igstRate);
+    }
+
+    public static TaxPlan of(BigDecimal cgstRate, BigDecimal sgstRate, BigDecimal igstRate) {
+        return new TaxPlan(positiveOrZero(cgstRate), positiveOrZero(sgstRate), positiveOrZero(igstRate));
+    }
+
+    public static TaxPlan of(Product product) {
+        return of(product.getCgstPercentage(), product.getSgstPercentage(), product.getIgstPercentage());
+    }
+
+    /** Plan for a single combined GST rate: half CGST + half SGST, or all IGST. */
+    public static TaxPlan ofCombinedRate(BigDecimal gstRate) {
+        BigDecimal rate = positiveOrZero(gstRate);
+        BigDecimal half = rate.divide(BigDecimal.valueOf(2));
+        return of(half, half, rate);
+    }
+
+    /** True when the product still has the rates this plan was compiled from. */
+    public boolean matches(Product product) {
+        return same(cgstRate, product.getCgstPercentage())
+                && same(sgstRate, product.getSgstPercentage())
+                && same(igstRate, product.getIgstPercentage());
+    }
+
+    /** Slab key: CGST + SGST for intra-state supplies, IGST for inter-state. */
+    public long slabBasisPoints(boolean intraState) {
+        return intraState ? cgstBp + sgstBp : igstBp;
+    }
+
+    public long getCgstBp() { return cgstBp; }
+    public long getSgstBp() { return sgstBp; }
+    public long getIgstBp() { return igstBp; }
+
+    public BigDecimal getCgstRate() { return cgstRate; }
+    public BigDecimal getSgstRate() { return sgstRate; }
+    public BigDecimal getIgstRate() { return igstRate; }
+
+    private static BigDecimal positiveOrZero(BigDecimal rate) {
+        return rate != null && rate.signum() > 0 ? rate : BigDecimal.ZERO;
+    }
+
+    private static boolean same(BigDecimal compiled, BigDecimal current) {
+        if (compiled == current) {
+            return true;
+        }
+        if (current == null || current.signum() <= 0) {
+            return compiled.signum() == 0;
+        }
+        return compiled.compareTo(current) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TaxPlan{CGST " + cgstRate + "%, SGST " + sgstRate + "%, IGST " + igstRate + "%}";
+    }
+}
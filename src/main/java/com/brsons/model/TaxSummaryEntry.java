@@ -0,0 +1,113 @@
+package com.brsons.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Monthly outward-supply tax aggregate for GSTR-1 / GSTR-3B style returns.
+ * One row per period, supply type (B2B with buyer GSTIN, else B2C), tax type
+ * (intra-state CGST_SGST or inter-state IGST), rate slab and HSN code.
+ * Rows are only changed through signed deltas when invoices are finalized,
+ * edited or cancelled.
+ */
+@Entity
+@Table(name = "tax_summary_monthly", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_tax_summary_bucket", columnNames = {"period", "supply_type", "tax_type", "gst_rate", "hsn_code"})
+})
+public class TaxSummaryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period", length = 7, nullable = false)
+    private String period; // yyyy-MM
+
+    @Column(name = "supply_type", length = 3, nullable = false)
+    private String supplyType; // B2B or B2C
+
+    @Column(name = "tax_type", length = 20, nullable = false)
+    private String taxType; // CGST_SGST or IGST
+
+    @Column(name = "gst_rate", precision = 5, scale = 2, nullable = false)
+    private BigDecimal gstRate;
+
+    @Column(name = "hsn_code", length = 20, nullable = false)
+    private String hsnCode = ""; // empty when the product has none
+
+    @Column(name = "invoice_count", nullable = false)
+    private Long invoiceCount = 0L;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity = 0L;
+
+    @Column(name = "taxable_value", precision = 14, scale = 2, nullable = false)
+    private BigDecimal taxableValue = BigDecimal.ZERO;
+
+    @Column(name = "cgst_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal cgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "sgst_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal sgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "igst_amount", precision = 14, scale = 2, nullable = false)
+    private BigDecimal igstAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public TaxSummaryEntry() {}
+
+    public TaxSummaryEntry(String period, String supplyType, String taxType, BigDecimal gstRate, String hsnCode) {
+        this.period = period;
+        this.supplyType = supplyType;
+        this.taxType = taxType;
+        this.gstRate = gstRate;
+        this.hsnCode = hsnCode;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public String getSupplyType() { return supplyType; }
+    public void setSupplyType(String supplyType) { this.supplyType = supplyType; }
+
+    public String getTaxType() { return taxType; }
+    public void setTaxType(String taxType) { this.taxType = taxType; }
+
+    public BigDecimal getGstRate() { return gstRate; }
+    public void setGstRate(BigDecimal gstRate) { this.gstRate = gstRate; }
+
+    public String getHsnCode() { return hsnCode; }
+    public void setHsnCode(String hsnCode) { this.hsnCode = hsnCode; }
+
+    public Long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(Long invoiceCount) { this.invoiceCount = invoiceCount; }
+
+    public Long getQuantity() { return quantity; }
+    public void setQuantity(Long quantity) { this.quantity = quantity; }
+
+    public BigDecimal getTaxableValue() { return taxableValue; }
+    public void setTaxableValue(BigDecimal taxableValue) { this.taxableValue = taxableValue; }
+
+    public BigDecimal getCgstAmount() { return cgstAmount; }
+    public void setCgstAmount(BigDecimal cgstAmount) { this.cgstAmount = cgstAmount; }
+
+    public BigDecimal getSgstAmount() { return sgstAmount; }
+    public void setSgstAmount(BigDecimal sgstAmount) { this.sgstAmount = sgstAmount; }
+
+    public BigDecimal getIgstAmount() { return igstAmount; }
+    public void setIgstAmount(BigDecimal igstAmount) { this.igstAmount = igstAmount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public BigDecimal getTotalTax() {
+        return cgstAmount.add(sgstAmount).add(igstAmount);
+    }
+}
@@ -5,12 +5,14 @@ import java.util.List;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 
 @Entity
+@EntityListeners(com.brsons.service.VoucherMetricsListener.class)
 public class Voucher {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
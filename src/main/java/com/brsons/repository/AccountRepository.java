@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.brsons.dto.AccountPickerDto;
 import com.brsons.dto.TrialBalanceRow;
 import com.brsons.model.Account;
 
@@ -29,6 +30,11 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 		List<TrialBalanceRow> findTrialBalance(@Param("startDate") LocalDate startDate,
 		                                       @Param("endDate") LocalDate endDate);
 	
+	// Compact rows for the voucher account picker index
+	@Query("SELECT new com.brsons.dto.AccountPickerDto(a.id, a.code, a.name, a.type, p.name, a.isActive) "
+		 + "FROM Account a LEFT JOIN a.parent p")
+	List<AccountPickerDto> findAllForPicker();
+	
 	// Find accounts by name containing the given text (case insensitive)
 	List<Account> findByNameContainingIgnoreCase(String name);
 	
@@ -46,4 +52,4 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 	
 	// Find account by code
 	Account findByCode(String code);
-}
\ No newline at end of file
+}
\ No newline at end of file
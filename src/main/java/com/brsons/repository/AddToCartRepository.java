@@ -1,14 +1,50 @@
 package com.brsons.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.brsons.model.AddToCart;
 
 public interface AddToCartRepository extends JpaRepository<AddToCart, Long> {
     Optional<AddToCart> findByUserId(Long userId);
     List<AddToCart> findByUserPhone(String userPhone);
-    
+
+    // Current [items, revision] of a user's cart, read as values so retries never see a cached entity
+    @Query("SELECT c.items, c.revision FROM AddToCart c WHERE c.userId = :userId")
+    List<Object[]> findItemsAndRevision(@Param("userId") Long userId);
+
+    // Same, holding the row lock until commit (fallback when optimistic writes keep losing)
+    @Query(value = "SELECT items, revision FROM add_to_cart WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockItemsAndRevision(@Param("userId") Long userId);
+
+    @Query("SELECT c.itemCount FROM AddToCart c WHERE c.userId = :userId")
+    Optional<Integer> findItemCountByUserId(@Param("userId") Long userId);
+
+    // Create the user's cart row; a concurrent creator wins and this inserts nothing
+    @Modifying
+    @Query(value = "INSERT INTO add_to_cart (user_id, user_name, user_email, user_phone, items, item_count, revision, created_at, updated_at) " +
+                   "VALUES (:userId, :userName, :userEmail, :userPhone, :items, :itemCount, 0, :now, :now) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("userName") String userName,
+                       @Param("userEmail") String userEmail, @Param("userPhone") String userPhone,
+                       @Param("items") String items, @Param("itemCount") int itemCount,
+                       @Param("now") LocalDateTime now);
+
+    // Replace the lines only if nobody wrote since they were read (a NULL revision on an old row reads as 0)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AddToCart c SET c.items = :items, c.itemCount = :itemCount, c.revision = COALESCE(c.revision, 0) + 1, c.updatedAt = :now " +
+           "WHERE c.userId = :userId AND COALESCE(c.revision, 0) = :revision")
+    int updateItems(@Param("userId") Long userId, @Param("revision") Long revision,
+                    @Param("items") String items, @Param("itemCount") int itemCount,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE AddToCart c SET c.items = '', c.itemCount = 0, c.revision = COALESCE(c.revision, 0) + 1, c.updatedAt = :now WHERE c.userId = :userId")
+    int clearItems(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 }
@@ -64,4 +64,11 @@ public interface CustomerLedgerEntryRepository extends JpaRepository<CustomerLed
      * Find entries with specific particulars
      */
     List<CustomerLedgerEntry> findByParticularsContainingIgnoreCase(String particulars);
+
+    /**
+     * Daybook: entries dated strictly between from and to, with their ledger
+     */
+    @Query("SELECT e FROM CustomerLedgerEntry e JOIN FETCH e.customerLedger " +
+           "WHERE e.entryDate > :from AND e.entryDate < :to ORDER BY e.id")
+    List<CustomerLedgerEntry> findForDaybook(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
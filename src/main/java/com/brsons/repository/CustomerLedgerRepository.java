@@ -1,12 +1,17 @@
 package com.brsons.repository;
 
+import com.brsons.dto.CustomerLedgerRow;
+import com.brsons.dto.LedgerDashboardSummary;
 import com.brsons.model.CustomerLedger;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -65,4 +70,55 @@ public interface CustomerLedgerRepository extends JpaRepository<CustomerLedger,
      */
     @Query("SELECT cl FROM CustomerLedger cl WHERE cl.currentBalance > :amount AND cl.status = 'ACTIVE'")
     List<CustomerLedger> findByBalanceGreaterThan(@Param("amount") BigDecimal amount);
+    
+    /**
+     * Apply a debit/credit delta to the running totals in a single statement.
+     * The row lock taken by the UPDATE serialises concurrent postings.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CustomerLedger cl SET " +
+           "cl.totalDebits = COALESCE(cl.totalDebits, 0) + :debit, " +
+           "cl.totalCredits = COALESCE(cl.totalCredits, 0) + :credit, " +
+           "cl.currentBalance = COALESCE(cl.currentBalance, 0) + :debit - :credit, " +
+           "cl.updatedAt = :updatedAt " +
+           "WHERE cl.id = :id")
+    int applyBalanceDelta(@Param("id") Long id, @Param("debit") BigDecimal debit,
+                          @Param("credit") BigDecimal credit, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Read back current balance, total debits and total credits
+     */
+    @Query("SELECT cl.currentBalance, cl.totalDebits, cl.totalCredits FROM CustomerLedger cl WHERE cl.id = :id")
+    List<Object[]> findBalanceTotals(@Param("id") Long id);
+    
+    /**
+     * Dashboard totals in one pass: all ledgers, active ledgers, active ledgers
+     * with outstanding balance, and active balance/debit/credit sums
+     */
+    @Query("SELECT new com.brsons.dto.LedgerDashboardSummary(" +
+           "COUNT(cl), " +
+           "SUM(CASE WHEN cl.status = 'ACTIVE' THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN cl.status = 'ACTIVE' AND cl.currentBalance > 0 THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN cl.status = 'ACTIVE' THEN cl.currentBalance END), " +
+           "SUM(CASE WHEN cl.status = 'ACTIVE' THEN cl.totalDebits END), " +
+           "SUM(CASE WHEN cl.status = 'ACTIVE' THEN cl.totalCredits END)) " +
+           "FROM CustomerLedger cl")
+    LedgerDashboardSummary summarizeDashboard();
+    
+    /**
+     * Most recently updated ledgers of a status, as dashboard rows (limited by the pageable)
+     */
+    @Query("SELECT new com.brsons.dto.CustomerLedgerRow(cl.id, cl.customerName, cl.customerPhone, cl.customerEmail, " +
+           "cl.currentBalance, cl.totalDebits, cl.totalCredits, cl.updatedAt) FROM CustomerLedger cl " +
+           "WHERE cl.status = :status ORDER BY cl.updatedAt DESC, cl.id DESC")
+    List<CustomerLedgerRow> findRecentRows(@Param("status") String status, Pageable pageable);
+    
+    /**
+     * Ledgers of a status with the highest balances above the given amount, as dashboard rows
+     */
+    @Query("SELECT new com.brsons.dto.CustomerLedgerRow(cl.id, cl.customerName, cl.customerPhone, cl.customerEmail, " +
+           "cl.currentBalance, cl.totalDebits, cl.totalCredits, cl.updatedAt) FROM CustomerLedger cl " +
+           "WHERE cl.status = :status AND cl.currentBalance > :amount ORDER BY cl.currentBalance DESC, cl.id")
+    List<CustomerLedgerRow> findTopOutstandingRows(@Param("status") String status, @Param("amount") BigDecimal amount,
+                                                   Pageable pageable);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -15,6 +16,14 @@ import java.util.Optional;
 @Repository
 public interface GRNRepository extends JpaRepository<GoodsReceivedNote, Long> {
     
+    /**
+     * Input tax on goods received in a date range (GSTR-3B eligible ITC): CGST, SGST, IGST
+     */
+    @Query("SELECT COALESCE(SUM(i.cgstAmount), 0), COALESCE(SUM(i.sgstAmount), 0), COALESCE(SUM(i.igstAmount), 0) " +
+           "FROM GRNItem i WHERE i.grn.receivedDate BETWEEN :fromDate AND :toDate AND i.grn.status IN :statuses")
+    List<Object[]> sumInputTax(@Param("fromDate") java.time.LocalDate fromDate, @Param("toDate") java.time.LocalDate toDate,
+                               @Param("statuses") List<GoodsReceivedNote.GRNStatus> statuses);
+    
     // Find by GRN number
     Optional<GoodsReceivedNote> findByGrnNumber(String grnNumber);
     
@@ -87,12 +96,26 @@ public interface GRNRepository extends JpaRepository<GoodsReceivedNote, Long> {
     // Count GRNs by status
     long countByStatus(GoodsReceivedNote.GRNStatus status);
     
+    // GRN count per status in one pass: [status, count]
+    @Query("SELECT grn.status, COUNT(grn) FROM GoodsReceivedNote grn GROUP BY grn.status")
+    List<Object[]> countGroupedByStatus();
+    
     // Count GRNs by supplier
     long countBySupplier(Supplier supplier);
     
     // Count GRNs by purchase order
     long countByPurchaseOrder(PurchaseOrder purchaseOrder);
     
+    // Count GRNs by purchase order ID
+    long countByPurchaseOrderId(Long purchaseOrderId);
+    
+    // Accepted quantity per product across a PO's GRNs in the given statuses, as [productId, quantity] rows
+    @Query("SELECT item.product.id, COALESCE(SUM(item.acceptedQuantity), 0) FROM GoodsReceivedNote grn JOIN grn.grnItems item " +
+           "WHERE grn.purchaseOrder.id = :purchaseOrderId AND grn.status IN :statuses " +
+           "GROUP BY item.product.id")
+    List<Object[]> sumAcceptedQuantityByProduct(@Param("purchaseOrderId") Long purchaseOrderId,
+                                                @Param("statuses") List<GoodsReceivedNote.GRNStatus> statuses);
+    
     // Find GRNs with items
     @Query("SELECT DISTINCT grn FROM GoodsReceivedNote grn LEFT JOIN FETCH grn.grnItems WHERE grn.id = :grnId")
     Optional<GoodsReceivedNote> findByIdWithItems(@Param("grnId") Long grnId);
@@ -129,4 +152,10 @@ public interface GRNRepository extends JpaRepository<GoodsReceivedNote, Long> {
     // Find GRNs by quality status
     @Query("SELECT grn FROM GoodsReceivedNote grn JOIN grn.grnItems item WHERE item.qualityStatus = :qualityStatus")
     List<GoodsReceivedNote> findByQualityStatus(@Param("qualityStatus") String qualityStatus);
+
+    // Daybook: approved GRNs received within [startDate, endDate], with their supplier
+    @Query("SELECT grn FROM GoodsReceivedNote grn JOIN FETCH grn.supplier WHERE grn.status = 'APPROVED' " +
+           "AND grn.totalAmount IS NOT NULL AND grn.receivedDate BETWEEN :startDate AND :endDate ORDER BY grn.id")
+    List<GoodsReceivedNote> findApprovedForDaybook(@Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
 }
@@ -1,6 +1,7 @@
 package com.brsons.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,14 +14,12 @@ import com.brsons.model.Order;
 public interface OrderRepository extends JpaRepository<Order, Long> {
 	List<Order> findByUserPhone(String userPhone);
 	Optional<Order> findTopByUserPhoneOrderByIdDesc(String userPhone);
-	List<Order> findByUserPhoneOrderByCreatedAtDesc(String userPhone);
+	Optional<Order> findFirstByUserPhoneOrderByCreatedAtDescIdDesc(String userPhone);
 	
 	@Query("SELECT o FROM Order o WHERE DATE(o.createdAt) = :date")
 	List<Order> findOrdersByDate(@Param("date") LocalDate date);
 
 	// New methods for admin order management
-	List<Order> findAllByOrderByCreatedAtDesc();
-	
 	List<Order> findByOrderStatusOrderByCreatedAtDesc(String orderStatus);
 	
 	@Query("SELECT o FROM Order o WHERE o.orderStatus = :status ORDER BY o.createdAt DESC")
@@ -29,4 +28,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 	// Filter orders by bill type (Pakka only)
 	List<Order> findByBillTypeOrderByCreatedAtDesc(String billType);
 	
+	// Order count and total per status for one bill type: [orderStatus, count, sum(total)]
+	@Query("SELECT o.orderStatus, COUNT(o), COALESCE(SUM(o.total), 0) FROM Order o WHERE o.billType = :billType GROUP BY o.orderStatus")
+	List<Object[]> countAndSumByStatus(@Param("billType") String billType);
+	
+	// Taxed invoices (not cancelled) created in [from, to), with items, for rebuilding the tax summary
+	@Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.createdAt >= :from AND o.createdAt < :to " +
+	       "AND o.taxType IN ('CGST_SGST', 'IGST') AND o.invoiceNumber IS NOT NULL AND o.orderStatus <> 'Cancelled'")
+	List<Order> findTaxedInvoicesBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	// Daybook: confirmed orders created strictly between from and to
+	@Query("SELECT o FROM Order o WHERE o.orderStatus = 'Confirmed' AND o.total IS NOT NULL " +
+		   "AND o.createdAt > :from AND o.createdAt < :to ORDER BY o.id")
+	List<Order> findConfirmedForDaybook(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
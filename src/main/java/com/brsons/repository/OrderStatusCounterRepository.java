@@ -0,0 +1,28 @@
+package com.brsons.repository;
+
+import com.brsons.model.OrderStatusCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderStatusCounterRepository extends JpaRepository<OrderStatusCounter, Long> {
+
+    List<OrderStatusCounter> findByBillType(String billType);
+
+    /**
+     * Recount every bill type and status from the orders table (after a bulk import or with counters re-enabled)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_status_counters (bill_type, order_status, order_count, total_amount) " +
+                   "SELECT COALESCE(bill_type, ''), COALESCE(order_status, ''), COUNT(*), COALESCE(SUM(total), 0) " +
+                   "FROM orders GROUP BY COALESCE(bill_type, ''), COALESCE(order_status, '')", nativeQuery = true)
+    int insertFromOrders();
+
+    @Modifying
+    @Query("DELETE FROM OrderStatusCounter c")
+    int deleteAllCounters();
+}
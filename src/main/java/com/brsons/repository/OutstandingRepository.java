@@ -104,4 +104,9 @@ public interface OutstandingRepository extends JpaRepository<Outstanding, Long>
     // Find all non-settled payables for a supplier, oldest first
     @Query("SELECT o FROM Outstanding o WHERE o.contactInfo = :contactInfo AND (o.type = 'INVOICE_PAYABLE' OR o.type = 'PURCHASE_ORDER') AND o.status IN ('PENDING', 'OVERDUE', 'PARTIALLY_PAID') ORDER BY o.createdAt ASC")
     List<Outstanding> findPayablesForSupplierOldestFirst(@Param("contactInfo") String contactInfo);
+
+    // Daybook: settled items created strictly between from and to
+    @Query("SELECT o FROM Outstanding o WHERE o.status = 'SETTLED' AND o.amount IS NOT NULL " +
+           "AND o.createdAt > :from AND o.createdAt < :to ORDER BY o.id")
+    List<Outstanding> findSettledForDaybook(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -1,26 +1,54 @@
 package com.brsons.repository;
 
+import com.brsons.dto.ProductDropdownDto;
 import com.brsons.model.Product;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
     List<Product> findByCategoryIdAndStatus(Long categoryId, String status);
     
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id = :id")
     Optional<Product> findByIdWithCategory(@Param("id") Long id);
     
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllByIdWithCategory(@Param("ids") Collection<Long> ids);
+    
     // Find products by category ID only (without status filter)
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.category.id = :categoryId")
     List<Product> findByCategoryId(@Param("categoryId") Long categoryId);
     
+    // Find products of a category with category and variants loaded (storefront catalog snapshots)
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.category LEFT JOIN FETCH p.variants WHERE p.category.id = :categoryId ORDER BY p.id")
+    List<Product> findByCategoryIdWithVariants(@Param("categoryId") Long categoryId);
+    
+    // Find a product with category and variants loaded (storefront catalog snapshots)
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category LEFT JOIN FETCH p.variants WHERE p.id = :id")
+    Optional<Product> findByIdWithVariants(@Param("id") Long id);
+    
+    // Compact rows for the product picker index (no entity or category loading)
+    @Query("SELECT new com.brsons.dto.ProductDropdownDto(p.id, p.productName, p.retailPrice, p.sku, p.price, p.status) FROM Product p")
+    List<ProductDropdownDto> findAllForPicker();
+    
+    // The same rows for a few products, to refresh them after a bulk update
+    @Query("SELECT new com.brsons.dto.ProductDropdownDto(p.id, p.productName, p.retailPrice, p.sku, p.price, p.status) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductDropdownDto> findForPickerByIds(@Param("ids") Collection<Long> ids);
+    
     // Find all products with categories for inventory management
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category")
     List<Product> findAllWithCategory();
@@ -51,4 +79,42 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     // Count products by status
     long countByStatus(String status);
+    
+    /**
+     * Add a signed delta to on-hand stock in a single statement (StockLedgerService only).
+     * The row lock taken by the UPDATE serialises concurrent stock postings.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = COALESCE(p.stockQuantity, 0) + :delta, p.lastUpdated = :now " +
+           "WHERE p.id = :id")
+    int applyStockDelta(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
+    
+    /**
+     * As applyStockDelta, but leaves the row alone (returns 0) when on-hand would go below zero
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = COALESCE(p.stockQuantity, 0) + :delta, p.lastUpdated = :now " +
+           "WHERE p.id = :id AND COALESCE(p.stockQuantity, 0) + :delta >= 0")
+    int applyStockDeltaIfAvailable(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
+    
+    /**
+     * Move products from one status to another (e.g. "Out of Stock" back to "Active" after a restock)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Product p SET p.status = :status WHERE p.id IN :ids AND p.status = :currentStatus")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("currentStatus") String currentStatus,
+                     @Param("status") String status);
+    
+    /**
+     * Lock product rows (in id order) before reading stock that is about to be changed
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Long> lockForStockUpdate(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Read back product id and on-hand stock
+     */
+    @Query("SELECT p.id, p.stockQuantity FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockQuantities(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,135 @@
+package com.brsons.repository;
+
+import com.brsons.dto.ProductFilter;
+import com.brsons.model.Product;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Product predicates for dynamic listings, evaluated in SQL.
+ * Stock levels take the low-stock threshold of the caller
+ * ({@code inventory.stock.low-threshold}): out of stock is {@code <= 0},
+ * low stock is {@code 1..threshold}, in stock is {@code > threshold}.
+ */
+public final class ProductSpecifications {
+
+    private static final String[] STATUSES = {"Active", "Inactive", "Out of Stock", "Draft"};
+
+    private ProductSpecifications() {}
+
+    /**
+     * All criteria of a filter combined with AND
+     */
+    public static Specification<Product> matching(ProductFilter filter, int lowStockThreshold) {
+        Specification<Product> spec = (root, query, cb) -> null;
+        if (filter == null) {
+            return spec;
+        }
+        if (filter.getCategoryId() != null) {
+            spec = spec.and(inCategory(filter.getCategoryId()));
+        }
+        if (hasText(filter.getCategoryStatus())) {
+            spec = spec.and(categoryStatus(filter.getCategoryStatus()));
+        }
+        if (hasText(filter.getProductStatus())) {
+            spec = spec.and(status(filter.getProductStatus()));
+        }
+        if (hasText(filter.getStockFilter())) {
+            spec = spec.and(stockLevel(filter.getStockFilter(), lowStockThreshold));
+        }
+        if (hasText(filter.getSearchQuery())) {
+            spec = spec.and(nameOrDescriptionContains(filter.getSearchQuery()));
+        }
+        return spec;
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId);
+    }
+
+    public static Specification<Product> categoryStatus(String status) {
+        String stored = canonicalStatus(status);
+        return (root, query, cb) -> cb.equal(root.join("category", JoinType.INNER).get("status"), stored);
+    }
+
+    /**
+     * Compared with the stored value as is, so the (category_id, status) index applies
+     */
+    public static Specification<Product> status(String status) {
+        String stored = canonicalStatus(status);
+        return (root, query, cb) -> cb.equal(root.get("status"), stored);
+    }
+
+    /**
+     * The spelling statuses are stored with ("active" -> "Active"); unknown values pass through trimmed
+     */
+    private static String canonicalStatus(String status) {
+        String trimmed = status.trim();
+        for (String stored : STATUSES) {
+            if (stored.equalsIgnoreCase(trimmed)) {
+                return stored;
+            }
+        }
+        return trimmed;
+    }
+
+    public static Specification<Product> stockAtMost(int quantity) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("stockQuantity"), quantity);
+    }
+
+    public static Specification<Product> stockLevel(String stockFilter, int lowStockThreshold) {
+        switch (stockFilter.toLowerCase()) {
+            case "out_of_stock":
+                return stockAtMost(0);
+            case "low_stock":
+                return (root, query, cb) -> cb.between(root.get("stockQuantity"), 1, lowStockThreshold);
+            case "in_stock":
+                return (root, query, cb) -> cb.greaterThan(root.get("stockQuantity"), lowStockThreshold);
+            default:
+                return (root, query, cb) -> null;
+        }
+    }
+
+    public static Specification<Product> nameOrDescriptionContains(String text) {
+        String pattern = "%" + escapeLike(text.trim().toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+            cb.like(cb.lower(root.get("productName")), pattern, '\\'),
+            cb.like(cb.lower(root.get("description")), pattern, '\\'));
+    }
+
+    public static Specification<Product> anyTextContains(String text) {
+        String pattern = "%" + escapeLike(text.trim().toLowerCase()) + "%";
+        return (root, query, cb) -> cb.or(
+            cb.like(cb.lower(root.get("productName")), pattern, '\\'),
+            cb.like(cb.lower(root.get("description")), pattern, '\\'),
+            cb.like(cb.lower(root.get("sku")), pattern, '\\'),
+            cb.like(cb.lower(root.get("hsnCode")), pattern, '\\'));
+    }
+
+    /**
+     * Keyset cursor: rows after the last id of the previous page
+     */
+    public static Specification<Product> idAfter(Long afterId) {
+        return (root, query, cb) -> afterId == null ? null : cb.greaterThan(root.get("id"), afterId);
+    }
+
+    /**
+     * Load the category in the same select; skipped for count queries
+     */
+    public static Specification<Product> fetchCategory() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("category", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
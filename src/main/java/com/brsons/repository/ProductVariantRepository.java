@@ -2,10 +2,13 @@ package com.brsons.repository;
 
 import com.brsons.model.ProductVariant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,12 +24,13 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     // Find variants by size and color for a specific product
     Optional<ProductVariant> findByProductIdAndSizeAndColor(Long productId, String size, String color);
     
-    // Find variants with low stock (quantity <= 5)
-    @Query("SELECT pv FROM ProductVariant pv WHERE pv.stockQuantity <= 5 AND pv.stockQuantity > 0")
-    List<ProductVariant> findLowStockVariants();
+    // Find variants with their own stock below the threshold (variants without stock share the product's)
+    @Query("SELECT pv FROM ProductVariant pv JOIN FETCH pv.product " +
+           "WHERE pv.stockQuantity < :threshold AND pv.stockQuantity > 0 ORDER BY pv.stockQuantity, pv.id")
+    List<ProductVariant> findLowStockVariants(@Param("threshold") int threshold);
     
-    // Find out of stock variants
-    @Query("SELECT pv FROM ProductVariant pv WHERE pv.stockQuantity <= 0 OR pv.stockQuantity IS NULL")
+    // Find out of stock variants (only variants that track their own stock)
+    @Query("SELECT pv FROM ProductVariant pv JOIN FETCH pv.product WHERE pv.stockQuantity <= 0 ORDER BY pv.id")
     List<ProductVariant> findOutOfStockVariants();
     
     // Find variants by SKU
@@ -55,4 +59,46 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     
     // Count active variants by product ID
     long countByProductIdAndStatus(Long productId, String status);
+    
+    /**
+     * Add a signed delta to a variant's own stock (StockLedgerService only). A
+     * variant without stock of its own stays that way. Returns 0 when the
+     * variant does not belong to the product.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductVariant pv SET pv.stockQuantity = pv.stockQuantity + :delta, pv.updatedAt = :now " +
+           "WHERE pv.id = :id AND pv.product.id = :productId")
+    int applyStockDelta(@Param("id") Long id, @Param("productId") Long productId, @Param("delta") int delta,
+                        @Param("now") LocalDateTime now);
+    
+    /**
+     * As applyStockDelta, but leaves the row alone (returns 0) when the variant's own stock would go below zero
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductVariant pv SET pv.stockQuantity = pv.stockQuantity + :delta, pv.updatedAt = :now " +
+           "WHERE pv.id = :id AND pv.product.id = :productId " +
+           "AND (pv.stockQuantity IS NULL OR pv.stockQuantity + :delta >= 0)")
+    int applyStockDeltaIfAvailable(@Param("id") Long id, @Param("productId") Long productId, @Param("delta") int delta,
+                                   @Param("now") LocalDateTime now);
+    
+    /**
+     * As applyStockDelta, but starts tracking stock for a variant that had none (stock takes, opening stock)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductVariant pv SET pv.stockQuantity = COALESCE(pv.stockQuantity, 0) + :delta, pv.updatedAt = :now " +
+           "WHERE pv.id = :id AND pv.product.id = :productId")
+    int trackStockDelta(@Param("id") Long id, @Param("productId") Long productId, @Param("delta") int delta,
+                        @Param("now") LocalDateTime now);
+    
+    /**
+     * Variant id and own stock (null when it shares the product's) for the given products
+     */
+    @Query("SELECT pv.id, pv.stockQuantity FROM ProductVariant pv WHERE pv.product.id IN :productIds")
+    List<Object[]> findStockQuantities(@Param("productIds") Collection<Long> productIds);
+    
+    /**
+     * Product a variant belongs to
+     */
+    @Query("SELECT pv.product.id FROM ProductVariant pv WHERE pv.id = :id")
+    Optional<Long> findProductIdById(@Param("id") Long id);
 }
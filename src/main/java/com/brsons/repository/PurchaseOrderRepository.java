@@ -75,6 +75,10 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
     // Count POs by status
     long countByStatus(PurchaseOrder.POStatus status);
     
+    // PO count per status in one pass: [status, count]
+    @Query("SELECT po.status, COUNT(po) FROM PurchaseOrder po GROUP BY po.status")
+    List<Object[]> countGroupedByStatus();
+    
     // Count POs by supplier
     long countBySupplier(Supplier supplier);
     
@@ -95,6 +99,14 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
             "left join fetch po.supplier s")
      List<PurchaseOrder> findAllWithItems();
     
+    // Find POs with items, excluding the given statuses
+    @Query("select distinct po from PurchaseOrder po " +
+            "left join fetch po.orderItems oi " +
+            "left join fetch oi.product p " +
+            "left join fetch po.supplier s " +
+            "where po.status not in :excludedStatuses")
+     List<PurchaseOrder> findAllWithItemsByStatusNotIn(@Param("excludedStatuses") List<PurchaseOrder.POStatus> excludedStatuses);
+    
     // Find all POs with items and supplier
     @Query("SELECT DISTINCT po FROM PurchaseOrder po LEFT JOIN FETCH po.orderItems LEFT JOIN FETCH po.supplier")
     List<PurchaseOrder> findAllWithItemsAndSupplier();
@@ -115,4 +127,9 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Lo
     
     // Find POs with specific delivery address
     List<PurchaseOrder> findByDeliveryAddressContaining(String deliveryAddress);
+
+    // Daybook: approved purchase orders created strictly between from and to, with their supplier
+    @Query("SELECT po FROM PurchaseOrder po JOIN FETCH po.supplier WHERE po.status = 'APPROVED' " +
+           "AND po.totalAmount IS NOT NULL AND po.createdAt > :from AND po.createdAt < :to ORDER BY po.id")
+    List<PurchaseOrder> findApprovedForDaybook(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
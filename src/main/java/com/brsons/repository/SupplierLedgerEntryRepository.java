@@ -85,4 +85,11 @@ public interface SupplierLedgerEntryRepository extends JpaRepository<SupplierLed
      * Find entries by payment reference
      */
     List<SupplierLedgerEntry> findByPaymentReference(String paymentReference);
+
+    /**
+     * Daybook: entries dated strictly between from and to, with their ledger
+     */
+    @Query("SELECT e FROM SupplierLedgerEntry e JOIN FETCH e.supplierLedger " +
+           "WHERE e.entryDate > :from AND e.entryDate < :to ORDER BY e.id")
+    List<SupplierLedgerEntry> findForDaybook(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
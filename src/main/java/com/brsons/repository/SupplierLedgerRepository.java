@@ -1,12 +1,15 @@
 package com.brsons.repository;
 
+import com.brsons.dto.LedgerDashboardSummary;
 import com.brsons.model.SupplierLedger;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -72,4 +75,37 @@ public interface SupplierLedgerRepository extends JpaRepository<SupplierLedger,
     @Query("SELECT sl FROM SupplierLedger sl WHERE sl.creditLimit > 0 AND sl.currentBalance >= (sl.creditLimit * 0.8) AND sl.status = 'ACTIVE'")
     List<SupplierLedger> findLedgersWithLowCredit();
     
+    /**
+     * Apply a debit/credit delta to the running totals in a single statement.
+     * The row lock taken by the UPDATE serialises concurrent postings.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE SupplierLedger sl SET " +
+           "sl.totalDebits = COALESCE(sl.totalDebits, 0) + :debit, " +
+           "sl.totalCredits = COALESCE(sl.totalCredits, 0) + :credit, " +
+           "sl.currentBalance = COALESCE(sl.currentBalance, 0) + :debit - :credit, " +
+           "sl.updatedAt = :updatedAt " +
+           "WHERE sl.id = :id")
+    int applyBalanceDelta(@Param("id") Long id, @Param("debit") BigDecimal debit,
+                          @Param("credit") BigDecimal credit, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Read back current balance, total debits and total credits
+     */
+    @Query("SELECT sl.currentBalance, sl.totalDebits, sl.totalCredits FROM SupplierLedger sl WHERE sl.id = :id")
+    List<Object[]> findBalanceTotals(@Param("id") Long id);
+    
+    /**
+     * Dashboard totals in one pass: all ledgers, active ledgers, active ledgers
+     * with outstanding balance, and active balance/debit/credit sums
+     */
+    @Query("SELECT new com.brsons.dto.LedgerDashboardSummary(" +
+           "COUNT(sl), " +
+           "SUM(CASE WHEN sl.status = 'ACTIVE' THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN sl.status = 'ACTIVE' AND sl.currentBalance > 0 THEN 1L ELSE 0L END), " +
+           "SUM(CASE WHEN sl.status = 'ACTIVE' THEN sl.currentBalance END), " +
+           "SUM(CASE WHEN sl.status = 'ACTIVE' THEN sl.totalDebits END), " +
+           "SUM(CASE WHEN sl.status = 'ACTIVE' THEN sl.totalCredits END)) " +
+           "FROM SupplierLedger sl")
+    LedgerDashboardSummary summarizeDashboard();
 }
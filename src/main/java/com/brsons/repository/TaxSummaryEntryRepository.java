@@ -0,0 +1,62 @@
+package com.brsons.repository;
+
+import com.brsons.model.TaxSummaryEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaxSummaryEntryRepository extends JpaRepository<TaxSummaryEntry, Long> {
+
+    Optional<TaxSummaryEntry> findByPeriodAndSupplyTypeAndTaxTypeAndGstRateAndHsnCode(
+            String period, String supplyType, String taxType, BigDecimal gstRate, String hsnCode);
+
+    // Create an empty bucket; a concurrent creator wins and this inserts nothing
+    @Modifying
+    @Query(value = "INSERT INTO tax_summary_monthly (period, supply_type, tax_type, gst_rate, hsn_code, invoice_count, quantity, " +
+                   "taxable_value, cgst_amount, sgst_amount, igst_amount, updated_at) " +
+                   "VALUES (:period, :supplyType, :taxType, :gstRate, :hsnCode, 0, 0, 0, 0, 0, 0, :now) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("period") String period, @Param("supplyType") String supplyType,
+                       @Param("taxType") String taxType, @Param("gstRate") BigDecimal gstRate,
+                       @Param("hsnCode") String hsnCode, @Param("now") LocalDateTime now);
+
+    List<TaxSummaryEntry> findByPeriodOrderBySupplyTypeAscTaxTypeAscGstRateAscHsnCodeAsc(String period);
+
+    /**
+     * Add a signed delta to one bucket in a single statement (row lock serialises concurrent invoices)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TaxSummaryEntry t SET " +
+           "t.invoiceCount = t.invoiceCount + :invoices, " +
+           "t.quantity = t.quantity + :quantity, " +
+           "t.taxableValue = t.taxableValue + :taxable, " +
+           "t.cgstAmount = t.cgstAmount + :cgst, " +
+           "t.sgstAmount = t.sgstAmount + :sgst, " +
+           "t.igstAmount = t.igstAmount + :igst, " +
+           "t.updatedAt = :updatedAt " +
+           "WHERE t.id = :id")
+    int applyDelta(@Param("id") Long id, @Param("invoices") long invoices, @Param("quantity") long quantity,
+                   @Param("taxable") BigDecimal taxable, @Param("cgst") BigDecimal cgst,
+                   @Param("sgst") BigDecimal sgst, @Param("igst") BigDecimal igst,
+                   @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Month totals per supply type and tax type: invoices, taxable value, CGST, SGST, IGST
+     */
+    @Query("SELECT t.supplyType, t.taxType, SUM(t.invoiceCount), SUM(t.taxableValue), " +
+           "SUM(t.cgstAmount), SUM(t.sgstAmount), SUM(t.igstAmount) " +
+           "FROM TaxSummaryEntry t WHERE t.period = :period GROUP BY t.supplyType, t.taxType")
+    List<Object[]> sumByPeriod(@Param("period") String period);
+
+    @Modifying
+    @Query("DELETE FROM TaxSummaryEntry t WHERE t.period = :period")
+    int deleteByPeriod(@Param("period") String period);
+}
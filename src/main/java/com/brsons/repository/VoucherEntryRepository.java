@@ -1,10 +1,20 @@
 package com.brsons.repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.brsons.model.VoucherEntry;
 
 @Repository
 public interface VoucherEntryRepository extends JpaRepository<VoucherEntry, Long> {
+
+    // Daybook: entries of the vouchers dated within [startDate, endDate], with voucher and account, in one query
+    @Query("SELECT e FROM VoucherEntry e JOIN FETCH e.voucher v JOIN FETCH e.account " +
+           "WHERE v.date BETWEEN :startDate AND :endDate ORDER BY v.id, e.id")
+    List<VoucherEntry> findForDaybook(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
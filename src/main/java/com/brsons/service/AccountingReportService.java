@@ -1,5 +1,6 @@
 package com.brsons.service;
 
+import io.micrometer.core.annotation.Timed;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -7,17 +8,21 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.brsons.dto.BalanceSheetRow;
 import com.brsons.dto.PnLRow;
 import com.brsons.model.Account;
 import com.brsons.model.Product;
 import com.brsons.repository.ProductRepository;
+import com.brsons.util.Money;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
 @Service
+@Transactional(readOnly = true)
 public class AccountingReportService {
 
     @PersistenceContext
@@ -25,8 +30,12 @@ public class AccountingReportService {
     
     @Autowired
     private ProductRepository productRepository;
+    
+    @Autowired
+    private ReportExecutor reportExecutor;
 
     // Balance Sheet
+    @Timed(value = "report", extraTags = {"report", "balance_sheet"})
     public List<BalanceSheetRow> getBalanceSheet(LocalDate date) {
         List<Object[]> results = entityManager.createQuery(
             "SELECT a.name, SUM(COALESCE(e.debit,0) - COALESCE(e.credit,0)) " +
@@ -41,12 +50,14 @@ public class AccountingReportService {
                 .map(r -> {
                     String accountName = (String) r[0];
                     Object value = r[1];
-                    BigDecimal amount = value != null ? BigDecimal.valueOf(((Number) value).doubleValue()) : BigDecimal.ZERO;
+                    BigDecimal amount = value instanceof BigDecimal ? (BigDecimal) value
+                            : value != null ? Money.parse(value.toString()).toBigDecimal() : BigDecimal.ZERO;
                     return new BalanceSheetRow(accountName, amount);
                 })
                 .toList();
     }
     // Profit & Loss - Enhanced Tally-style report
+    @Timed(value = "report", extraTags = {"report", "pnl"})
     public List<PnLRow> getProfitAndLoss(LocalDate startDate, LocalDate endDate) {
         List<PnLRow> pnlRows = new ArrayList<>();
         
@@ -253,17 +264,17 @@ public class AccountingReportService {
     private BigDecimal getProductCostPrice(Product product) {
         // First try purchase price
         if (product.getPurchasePrice() != null && product.getPurchasePrice() > 0) {
-            return BigDecimal.valueOf(product.getPurchasePrice());
+            return Money.of(product.getPurchasePrice()).toBigDecimal();
         }
         
         // Fallback to retail price
         if (product.getRetailPrice() != null && product.getRetailPrice() > 0) {
-            return BigDecimal.valueOf(product.getRetailPrice());
+            return Money.of(product.getRetailPrice()).toBigDecimal();
         }
         
         // Fallback to b2b price
         if (product.getB2bPrice() != null && product.getB2bPrice() > 0) {
-            return BigDecimal.valueOf(product.getB2bPrice());
+            return Money.of(product.getB2bPrice()).toBigDecimal();
         }
         
         // Fallback to main price field
@@ -275,18 +286,35 @@ public class AccountingReportService {
     }
     
     /**
-     * Enhanced P&L with stock information
+     * Enhanced P&L with stock information.
+     * Stock valuation, purchases, income and expenses are read in parallel,
+     * each in its own transaction; this method holds no connection while it
+     * waits for them.
      */
+    @Timed(value = "report", extraTags = {"report", "pnl_with_stock"})
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<PnLRow> getProfitAndLossWithStock(LocalDate startDate, LocalDate endDate) {
-        List<PnLRow> pnlRows = new ArrayList<>();
+        ReportExecutor.Source<BigDecimal> stockSource = reportExecutor.fork("pnl-stock-value", () -> calculateClosingStockValue(endDate));
+        ReportExecutor.Source<BigDecimal> purchasesSource = reportExecutor.fork("pnl-purchases", () -> getTotalPurchases(startDate, endDate));
+        ReportExecutor.Source<List<Object[]>> revenueSource = reportExecutor.fork("pnl-income", () -> getIncomeAccountTotals(startDate, endDate));
+        ReportExecutor.Source<List<Object[]>> expenseSource = reportExecutor.fork("pnl-expenses", () -> getExpenseAccountTotals(startDate, endDate));
         
-        // Calculate stock values
-        BigDecimal openingStock = calculateOpeningStockValue(startDate);
-        BigDecimal closingStock = calculateClosingStockValue(endDate);
-        BigDecimal cogs = calculateCOGS(startDate, endDate);
+        // Opening and closing stock are both the current valuation (no stock history yet),
+        // so it is computed once; COGS = Opening Stock + Purchases - Closing Stock
+        BigDecimal openingStock = stockSource.join();
+        BigDecimal closingStock = openingStock;
+        BigDecimal cogs = openingStock.add(purchasesSource.join()).subtract(closingStock);
+        List<Object[]> revenueResults = revenueSource.join();
+        List<Object[]> expenseResults = expenseSource.join();
         
-        // Get Revenue accounts
-        List<Object[]> revenueResults = entityManager.createQuery(
+        return buildProfitAndLossWithStock(openingStock, closingStock, cogs, revenueResults, expenseResults);
+    }
+    
+    /**
+     * Income accounts with their period total: [name, code, type, parent, amount]
+     */
+    private List<Object[]> getIncomeAccountTotals(LocalDate startDate, LocalDate endDate) {
+        return withParentNames(entityManager.createQuery(
             "SELECT a.name, a.code, a.type, a.parent, " +
             "SUM(CASE WHEN a.type IN ('REVENUE', 'INCOME') THEN COALESCE(e.credit,0) - COALESCE(e.debit,0) ELSE 0 END) " +
             "FROM VoucherEntry e JOIN e.account a " +
@@ -296,10 +324,14 @@ public class AccountingReportService {
             "ORDER BY a.code", Object[].class)
             .setParameter("startDate", startDate)
             .setParameter("endDate", endDate)
-            .getResultList();
-
-        // Get Expense accounts
-        List<Object[]> expenseResults = entityManager.createQuery(
+            .getResultList());
+    }
+    
+    /**
+     * Expense accounts with their period total: [name, code, type, parent, amount]
+     */
+    private List<Object[]> getExpenseAccountTotals(LocalDate startDate, LocalDate endDate) {
+        return withParentNames(entityManager.createQuery(
             "SELECT a.name, a.code, a.type, a.parent, " +
             "SUM(CASE WHEN a.type = 'EXPENSE' THEN COALESCE(e.debit,0) - COALESCE(e.credit,0) ELSE 0 END) " +
             "FROM VoucherEntry e JOIN e.account a " +
@@ -309,8 +341,23 @@ public class AccountingReportService {
             "ORDER BY a.code", Object[].class)
             .setParameter("startDate", startDate)
             .setParameter("endDate", endDate)
-            .getResultList();
-
+            .getResultList());
+    }
+    
+    // Parent accounts are read later, outside the source's transaction, so load their names now
+    private List<Object[]> withParentNames(List<Object[]> results) {
+        for (Object[] result : results) {
+            if (result[3] instanceof Account parent) {
+                parent.getName();
+            }
+        }
+        return results;
+    }
+    
+    private List<PnLRow> buildProfitAndLossWithStock(BigDecimal openingStock, BigDecimal closingStock, BigDecimal cogs,
+                                                     List<Object[]> revenueResults, List<Object[]> expenseResults) {
+        List<PnLRow> pnlRows = new ArrayList<>();
+        
         // Process Revenue section
         BigDecimal totalRevenue = BigDecimal.ZERO;
         if (!revenueResults.isEmpty()) {
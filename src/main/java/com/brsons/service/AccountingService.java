@@ -1,5 +1,6 @@
 package com.brsons.service;
 
+import io.micrometer.core.annotation.Timed;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -30,6 +31,7 @@ public class AccountingService {
     private AccountRepository accountRepository;
 
     @Transactional
+    @Timed(value = "voucher.post", extraTags = {"source", "accounting"})
     public void createVoucher(LocalDate date, String narration, String type,
                                Long debitAccountId, Long creditAccountId,
                                BigDecimal amount) {
@@ -59,6 +61,7 @@ public class AccountingService {
     }
 
     @Transactional
+    @Timed(value = "voucher.post", extraTags = {"source", "accounting"})
     public void createVoucherWithEntries(LocalDate date, String narration, String type,
                                          List<VoucherEntryDto> entries) {
         
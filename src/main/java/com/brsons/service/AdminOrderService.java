@@ -1,5 +1,7 @@
 package com.brsons.service;
 
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.StockChange;
 import com.brsons.dto.OrderDisplayDto;
 import com.brsons.model.Account;
 import com.brsons.model.Order;
@@ -9,18 +11,21 @@ import com.brsons.repository.AccountRepository;
 import com.brsons.repository.OrderRepository;
 import com.brsons.repository.OrderItemRepository;
 import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductVariantRepository;
 import com.brsons.repository.VoucherEntryRepository;
 import com.brsons.repository.VoucherRepository;
 import com.brsons.model.OrderItem;
 import com.brsons.model.Product;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class AdminOrderService {
@@ -28,15 +33,30 @@ public class AdminOrderService {
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private OrderQueryService orderQueryService;
+    
+    @Autowired
+    private OrderStatsService orderStatsService;
+    
     @Autowired
     private OrderItemRepository orderItemRepository;
     
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
     @Autowired
     private OutstandingService outstandingService;
     
+    @Autowired
+    private TaxSummaryService taxSummaryService;
+    
     @Autowired
     private CustomerLedgerService customerLedgerService;
     
@@ -49,54 +69,23 @@ public class AdminOrderService {
     @Autowired
     private VoucherEntryRepository voucherEntryRepository;
     
-    	public List<OrderDisplayDto> getAllOrders() {
-		// Filter to show only orders with bill_type = 'Pakka'
-		List<Order> orders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Pakka");
-		
-		return orders.stream()
-				.map(this::convertToDto)
-				.collect(Collectors.toList());
-	}
-    
-    	public List<OrderDisplayDto> getOrdersByStatus(String status) {
-		// First get all orders with bill_type = 'Pakka', then filter by status
-		List<Order> pakkaOrders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Pakka");
-		
-		return pakkaOrders.stream()
-				.filter(o -> status.equals(o.getOrderStatus()))
-				.map(this::convertToDto)
-				.collect(Collectors.toList());
+    	/**
+    	 * One page of retail (Pakka) orders, newest first, optionally of one status.
+    	 */
+    	public KeysetPage<OrderDisplayDto> getOrders(String status, Long afterId, Integer size) {
+		return orderQueryService.findByBillType("Pakka", status, afterId, size);
 	}
 	
-	// New method to get B2B orders (Kaccha bill type only)
-	public List<OrderDisplayDto> getB2BOrders() {
-		// Filter to show only orders with bill_type = 'Kaccha'
-		List<Order> orders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Kaccha");
-		
-		return orders.stream()
-				.map(this::convertToDto)
-				.collect(Collectors.toList());
+	/**
+	 * One page of B2B (Kaccha) orders, newest first.
+	 */
+	public KeysetPage<OrderDisplayDto> getB2BOrders(Long afterId, Integer size) {
+		return orderQueryService.findByBillType("Kaccha", null, afterId, size);
 	}
 	
 	// New method to get B2B order statistics (Kaccha bill type only)
 	public OrderStatistics getB2BOrderStatistics() {
-		// Filter to show only orders with bill_type = 'Kaccha'
-		List<Order> allOrders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Kaccha");
-		
-		long totalOrders = allOrders.size();
-		long pendingOrders = allOrders.stream()
-				.filter(o -> "Pending".equals(o.getOrderStatus()))
-				.count();
-		long deliveredOrders = allOrders.stream()
-				.filter(o -> "Delivered".equals(o.getOrderStatus()))
-				.count();
-		
-		BigDecimal totalRevenue = allOrders.stream()
-				.map(Order::getTotal)
-				.filter(total -> total != null)
-				.reduce(BigDecimal.ZERO, BigDecimal::add);
-		
-		return new OrderStatistics(totalOrders, pendingOrders, deliveredOrders, totalRevenue);
+		return toStatistics(orderStatsService.getStatusTotals("Kaccha"));
 	}
     
     public OrderDisplayDto getOrderById(Long id) {
@@ -131,9 +120,11 @@ public class AdminOrderService {
                 }
                 // Restore stock quantities
                 restoreStockQuantities(order);
+                taxSummaryService.reverseInvoice(order);
             } else if (!"Cancelled".equals(newStatus) && "Cancelled".equals(oldStatus)) {
                 // Order is being uncancelled - reduce stock quantities again
                 reduceStockQuantities(order);
+                taxSummaryService.recordInvoice(order);
                 // Note: Outstanding items are not recreated when uncancelling
                 // This would require recreating the original outstanding item
             }
@@ -219,70 +210,58 @@ public class AdminOrderService {
     }
     
     private void restoreStockQuantities(Order order) {
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-        for (OrderItem item : orderItems) {
-            Product product = productRepository.findById(item.getProductId()).orElse(null);
-            if (product != null) {
-                // Restore the quantity that was ordered
-                int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-                int restoredStock = currentStock + item.getQuantity();
-                product.setStockQuantity(restoredStock);
-                
-                // Update product status if it was "Out of Stock" and now has stock
-                if ("Out of Stock".equals(product.getStatus()) && restoredStock > 0) {
-                    product.setStatus("Active");
-                }
-                
-                // Save updated product
-                productRepository.save(product);
-            }
-        }
+        stockLedgerService.restock(order.getId(), orderItemRepository.findByOrder(order));
     }
     
     private void reduceStockQuantities(Order order) {
         List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
+        List<StockChange> stockChanges = new ArrayList<>();
         for (OrderItem item : orderItems) {
             Product product = productRepository.findById(item.getProductId()).orElse(null);
             if (product != null) {
-                // Reduce stock quantity
-                int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-                int newStockQuantity = currentStock - item.getQuantity();
-                
                 // Ensure stock doesn't go negative
-                if (newStockQuantity >= 0) {
-                    product.setStockQuantity(newStockQuantity);
-                    
-                    // Update product status to "Out of Stock" if stock becomes 0
-                    if (newStockQuantity <= 0) {
-                        product.setStatus("Out of Stock");
-                    }
-                    
-                    // Save updated product
-                    productRepository.save(product);
+                int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+                if (currentStock - item.getQuantity() >= 0) {
+                    // A variant deleted since the order was cancelled leaves the stock to the product
+                    Long variantId = item.getVariantId() != null && productVariantRepository.existsById(item.getVariantId())
+                        ? item.getVariantId() : null;
+                    stockChanges.add(StockChange.out(product.getId(), item.getQuantity(), "Order reinstated")
+                        .variant(variantId)
+                        .reference("ORDER", order.getId())
+                        .product(product)
+                        .requireStock());
                 }
             }
         }
+        
+        Map<Long, Integer> onHand = stockLedgerService.post(stockChanges);
+        for (StockChange change : stockChanges) {
+            // Update product status to "Out of Stock" if stock becomes 0
+            if (onHand.get(change.getProductId()) <= 0) {
+                change.getProduct().setStatus("Out of Stock");
+                productRepository.save(change.getProduct());
+            }
+        }
     }
     
     	// New method to get order statistics
 	public OrderStatistics getOrderStatistics() {
-		// Filter to show only orders with bill_type = 'Pakka'
-		List<Order> allOrders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Pakka");
-		
-		long totalOrders = allOrders.size();
-		long pendingOrders = allOrders.stream()
-				.filter(o -> "Pending".equals(o.getOrderStatus()))
-				.count();
-		long deliveredOrders = allOrders.stream()
-				.filter(o -> "Delivered".equals(o.getOrderStatus()))
-				.count();
-		
-		BigDecimal totalRevenue = allOrders.stream()
-				.map(Order::getTotal)
-				.filter(total -> total != null)
-				.reduce(BigDecimal.ZERO, BigDecimal::add);
-		
-		return new OrderStatistics(totalOrders, pendingOrders, deliveredOrders, totalRevenue);
+		return toStatistics(orderStatsService.getStatusTotals("Pakka"));
+	}
+	
+	private OrderStatistics toStatistics(Map<String, OrderStatsService.StatusTotals> byStatus) {
+		long totalOrders = 0;
+		BigDecimal totalRevenue = BigDecimal.ZERO;
+		for (OrderStatsService.StatusTotals totals : byStatus.values()) {
+			totalOrders += totals.getCount();
+			totalRevenue = totalRevenue.add(totals.getTotal());
+		}
+		OrderStatsService.StatusTotals pending = byStatus.get("Pending");
+		OrderStatsService.StatusTotals delivered = byStatus.get("Delivered");
+		return new OrderStatistics(totalOrders,
+				pending != null ? pending.getCount() : 0,
+				delivered != null ? delivered.getCount() : 0,
+				totalRevenue);
 	}
     
     private OrderDisplayDto convertToDto(Order order) {
@@ -390,6 +369,7 @@ public class AdminOrderService {
      * Debit: Cash Account (ID 5) for Cash payments, Bank Account (ID 6) for other payments
      * Credit: Sales (3001)
      */
+    @Timed(value = "voucher.post", extraTags = {"source", "retail_order"})
     public void createVoucherEntryForRetailOrder(Order order, String paymentMethod, BigDecimal amount) {
         try {
             // Determine which account to debit based on payment method
@@ -0,0 +1,222 @@
+package com.brsons.service;
+
+import com.brsons.model.AddToCart;
+import com.brsons.model.CartProductEntry;
+import com.brsons.model.User;
+import com.brsons.repository.AddToCartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-row cart store. Every change is one statement against the user's
+ * cart row: an INSERT ... ON CONFLICT DO NOTHING for the first line, then an
+ * UPDATE guarded by the revision that was read. A lost race re-reads the row
+ * and tries again instead of overwriting the other request's change; the
+ * last attempt reads under a row lock so it cannot lose.
+ *
+ * The schema is kept by ddl-auto=update, which can't add the one-cart-per-user
+ * index while a user still has several rows and leaves the packed columns
+ * NULL on rows that predate them. repairCarts() does the V15 migration's work
+ * at startup: it packs legacy per-item lines, folds duplicate carts into the
+ * oldest row, fills NULL columns and creates the unique index. Reads treat a
+ * NULL items/revision as empty/0 in the meantime.
+ */
+@Service
+public class CartService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private AddToCartRepository addToCartRepository;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Lines of the user's cart in the order they were added.
+     */
+    public List<CartProductEntry> getEntries(Long userId) {
+        List<Object[]> rows = addToCartRepository.findItemsAndRevision(userId);
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return AddToCart.entries((String) rows.get(0)[0]);
+    }
+
+    /**
+     * Quantity of a product in the cart, across all its variants.
+     */
+    public int getQuantity(Long userId, Long productId) {
+        List<Object[]> rows = addToCartRepository.findItemsAndRevision(userId);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        return AddToCart.decode((String) rows.get(0)[0]).getOrDefault(productId, 0);
+    }
+
+    /**
+     * Quantity on one cart line: the product without a variant when variantId is null.
+     */
+    public int getQuantity(Long userId, Long productId, Long variantId) {
+        List<Object[]> rows = addToCartRepository.findItemsAndRevision(userId);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        return AddToCart.decodeLines((String) rows.get(0)[0]).getOrDefault(AddToCart.lineKey(productId, variantId), 0);
+    }
+
+    /**
+     * Total quantity in the cart, read from the denormalized count.
+     */
+    public int getItemCount(Long userId) {
+        return addToCartRepository.findItemCountByUserId(userId).orElse(0);
+    }
+
+    /**
+     * Add delta (negative to remove) to a product's quantity. A line that
+     * drops to zero or below is removed. Returns the new quantity.
+     */
+    @Transactional
+    public int changeQuantity(User user, Long productId, int delta) {
+        return changeQuantity(user, productId, null, delta);
+    }
+
+    /**
+     * As above for the line of one variant of the product (variantId null for
+     * the product itself).
+     */
+    @Transactional
+    public int changeQuantity(User user, Long productId, Long variantId, int delta) {
+        String line = AddToCart.lineKey(productId, variantId);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> rows = attempt < MAX_ATTEMPTS - 1
+                    ? addToCartRepository.findItemsAndRevision(user.getId())
+                    : addToCartRepository.lockItemsAndRevision(user.getId());
+            if (rows.isEmpty()) {
+                if (delta <= 0) {
+                    return 0;
+                }
+                int inserted = addToCartRepository.insertIfAbsent(user.getId(), user.getName(), user.getEmail(), user.getPhone(),
+                        line + ":" + delta, delta, now);
+                if (inserted == 1) {
+                    cartSummaryService.evictAfterCommit(user.getId());
+                    return delta;
+                }
+                continue;
+            }
+
+            Map<String, Integer> quantities = AddToCart.decodeLines((String) rows.get(0)[0]);
+            long revision = rows.get(0)[1] != null ? ((Number) rows.get(0)[1]).longValue() : 0L;
+            int updatedQty = quantities.getOrDefault(line, 0) + delta;
+            if (updatedQty > 0) {
+                quantities.put(line, updatedQty);
+            } else {
+                quantities.remove(line);
+                updatedQty = 0;
+            }
+            if (addToCartRepository.updateItems(user.getId(), revision, AddToCart.encode(quantities),
+                    AddToCart.count(quantities), now) == 1) {
+                cartSummaryService.evictAfterCommit(user.getId());
+                return updatedQty;
+            }
+            log.debug("Cart for user {} changed concurrently, retrying", user.getId());
+        }
+        throw new RuntimeException("Cart is being updated by another request, please try again");
+    }
+
+    @Transactional
+    public void clearCart(Long userId) {
+        addToCartRepository.clearItems(userId, LocalDateTime.now());
+        cartSummaryService.evictAfterCommit(userId);
+    }
+
+    // ==================== STARTUP REPAIR ====================
+
+    /**
+     * Bring rows written before the single-row cart up to date, then create
+     * the unique index on user_id. Each step finds nothing to do once done.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairCarts() {
+        try {
+            Integer repaired = transactionTemplate.execute(status -> packLegacyLines() + mergeDuplicateCarts() +
+                    jdbcTemplate.update("UPDATE add_to_cart SET items = COALESCE(items, ''), " +
+                            "item_count = COALESCE(item_count, 0), revision = COALESCE(revision, 0) " +
+                            "WHERE items IS NULL OR item_count IS NULL OR revision IS NULL"));
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_add_to_cart_user ON add_to_cart (user_id)");
+            if (repaired != null && repaired > 0) {
+                log.info("Repaired {} cart rows", repaired);
+            }
+        } catch (Exception e) {
+            log.warn("Error repairing cart rows: {}", e.getMessage());
+        }
+    }
+
+    // Rows never written by this class (items NULL) still have their lines in the old per-item table
+    private int packLegacyLines() {
+        Integer legacyTable = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables " +
+                "WHERE LOWER(table_name) = 'add_to_cart_product_quantities'", Integer.class);
+        if (legacyTable == null || legacyTable == 0) {
+            return 0;
+        }
+        Map<Long, Map<String, Integer>> linesByCart = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT q.add_to_cart_id, q.product_id, SUM(q.quantity) FROM add_to_cart_product_quantities q " +
+                "JOIN add_to_cart c ON c.id = q.add_to_cart_id " +
+                "WHERE c.items IS NULL AND q.product_id IS NOT NULL AND q.quantity > 0 " +
+                "GROUP BY q.add_to_cart_id, q.product_id ORDER BY q.add_to_cart_id, q.product_id", rs -> {
+            linesByCart.computeIfAbsent(rs.getLong(1), id -> new LinkedHashMap<>())
+                    .put(AddToCart.lineKey(rs.getLong(2), null), rs.getInt(3));
+        });
+        linesByCart.forEach((cartId, lines) -> jdbcTemplate.update(
+                "UPDATE add_to_cart SET items = ?, item_count = ? WHERE id = ?",
+                AddToCart.encode(lines), AddToCart.count(lines), cartId));
+        return linesByCart.size();
+    }
+
+    // Several rows for one user: sum their lines into the oldest and delete the rest
+    private int mergeDuplicateCarts() {
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT user_id FROM add_to_cart WHERE user_id IS NOT NULL " +
+                "GROUP BY user_id HAVING COUNT(*) > 1", Long.class);
+        for (Long userId : userIds) {
+            List<Map<String, Object>> carts = jdbcTemplate.queryForList(
+                    "SELECT id, items FROM add_to_cart WHERE user_id = ? ORDER BY id FOR UPDATE", userId);
+            Map<String, Integer> merged = new LinkedHashMap<>();
+            for (Map<String, Object> cart : carts) {
+                AddToCart.decodeLines((String) cart.get("items")).forEach((line, quantity) -> merged.merge(line, quantity, Integer::sum));
+            }
+            Long keep = ((Number) carts.get(0).get("id")).longValue();
+            jdbcTemplate.update("UPDATE add_to_cart SET items = ?, item_count = ?, revision = COALESCE(revision, 0) + 1 WHERE id = ?",
+                    AddToCart.encode(merged), AddToCart.count(merged), keep);
+            jdbcTemplate.update("DELETE FROM add_to_cart WHERE user_id = ? AND id <> ?", userId, keep);
+            cartSummaryService.evictAfterCommit(userId);
+        }
+        return userIds.size();
+    }
+}
@@ -0,0 +1,289 @@
+package com.brsons.service;
+
+import com.brsons.dto.CartSummary;
+import com.brsons.dto.CatalogVariantDto;
+import com.brsons.model.AddToCart;
+import com.brsons.model.CartItemDetails;
+import com.brsons.model.CartProductEntry;
+import com.brsons.model.Product;
+import com.brsons.model.TaxBreakdown;
+import com.brsons.repository.AddToCartRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user cache of cart summaries (item count, priced lines, subtotal, tax).
+ *
+ * Navbar counts and the cart page read from here instead of reloading and
+ * repricing the cart on every request. A user's summary is evicted after any
+ * cart write commits, and summaries containing a product are evicted after
+ * that product changes, so repricing happens only when one of those did.
+ *
+ * Each user's entry carries the revision of its last eviction. A load
+ * remembers where the revision sequence stood when it started and is cached
+ * only if that user was not evicted since, so evictions never block or
+ * discard other users' loads. Priced summaries are indexed by product, so a
+ * product change evicts just the carts holding it.
+ */
+@Service
+public class CartSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartSummaryService.class);
+
+    @Autowired
+    private AddToCartRepository addToCartRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TaxCalculationService taxCalculationService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Value("${cart.summary.max-users:10000}")
+    private int maxUsers = 10000;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Users whose priced summary (or a pricing in progress) includes the product
+    private final ConcurrentHashMap<Long, Set<Long>> usersByProduct = new ConcurrentHashMap<>();
+
+    // Source of eviction revisions; loads remember its value when they start
+    private final AtomicLong revisions = new AtomicLong();
+
+    // Revision of the last trim: entries it dropped can no longer tell whether they were evicted
+    private volatile long trimmedAt = 0L;
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong pricings = new AtomicLong();
+
+    /**
+     * Lines and item count of a user's cart.
+     */
+    public CartSummary getSummary(Long userId) {
+        Entry cached = entries.get(userId);
+        if (cached != null && cached.summary != null) {
+            cached.lastRead = System.nanoTime();
+            hits.incrementAndGet();
+            return cached.summary;
+        }
+        misses.incrementAndGet();
+        long loadedAt = revisions.get();
+        CartSummary summary;
+        List<Object[]> rows = addToCartRepository.findItemsAndRevision(userId);
+        if (rows.isEmpty()) {
+            summary = new CartSummary(-1, new ArrayList<>());
+        } else {
+            summary = new CartSummary(((Number) rows.get(0)[1]).longValue(), AddToCart.entries((String) rows.get(0)[0]));
+        }
+        cache(userId, summary, loadedAt);
+        return summary;
+    }
+
+    public int getItemCount(Long userId) {
+        return getSummary(userId).getItemCount();
+    }
+
+    /**
+     * Summary with priced lines and tax for the given user type (B2B prices
+     * or retail) and state. Reuses the cached pricing when the cart, its
+     * products and the pricing context are unchanged.
+     */
+    public CartSummary getPricedSummary(Long userId, String userType, String userState) {
+        long loadedAt = revisions.get();
+        CartSummary summary = getSummary(userId);
+        if (summary.isEmpty() || summary.isPricedFor(userType, userState)) {
+            return summary;
+        }
+        pricings.incrementAndGet();
+
+        List<Long> ids = new ArrayList<>();
+        for (CartProductEntry entry : summary.getEntries()) {
+            ids.add(entry.getProductId());
+        }
+        // Indexed before the products are read, so a product change from here on evicts this load
+        for (Long productId : ids) {
+            usersByProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllByIdWithCategory(ids)) {
+            products.put(product.getId(), product);
+        }
+
+        List<CartItemDetails> items = new ArrayList<>();
+        Money subtotal = Money.ZERO;
+        for (CartProductEntry entry : summary.getEntries()) {
+            Product product = products.get(entry.getProductId());
+            if (product == null) {
+                log.warn("Product not found for ID: {}", entry.getProductId());
+                continue;
+            }
+            // Variant price, else product price, for the user type
+            Money unitPrice = pricingService.resolve(product, entry.getVariantId(), userType).getUnitPrice();
+            Money lineTotal = unitPrice.times(entry.getQuantity());
+            subtotal = subtotal.plus(lineTotal);
+            CartItemDetails item = new CartItemDetails(entry.getProductId(), product, entry.getQuantity(), lineTotal);
+            item.setUnitPrice(unitPrice);
+            if (entry.getVariantId() != null) {
+                item.setVariantId(entry.getVariantId());
+                catalogCacheService.getVariant(entry.getVariantId())
+                    .ifPresent(variant -> item.setVariantLabel(variantLabel(variant)));
+            }
+            items.add(item);
+        }
+
+        TaxBreakdown taxBreakdown = null;
+        String taxType = "UNKNOWN";
+        if (userState != null && !userState.trim().isEmpty()) {
+            taxType = taxCalculationService.determineTaxType(userState);
+            taxBreakdown = taxCalculationService.calculateTaxForCart(items, userState);
+        }
+
+        CartSummary priced = summary.withPricing(userType, userState, items, subtotal, taxBreakdown, taxType);
+        cache(userId, priced, loadedAt);
+        return priced;
+    }
+
+    /**
+     * Drop a user's summary once the current transaction commits.
+     */
+    public void evictAfterCommit(Long userId) {
+        afterCommit(() -> evict(userId));
+    }
+
+    public void evict(Long userId) {
+        entries.compute(userId, (id, old) -> {
+            if (old != null && old.summary != null) {
+                unindex(id, old.summary);
+            }
+            return new Entry(revisions.incrementAndGet(), null);
+        });
+    }
+
+    /**
+     * Drop every summary containing a product whose price, tax or stock changed.
+     */
+    public void evictProduct(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        Set<Long> users = usersByProduct.remove(productId);
+        if (users != null) {
+            users.forEach(this::evict);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.values().stream().filter(entry -> entry.summary != null).count());
+        stats.put("maxSize", maxUsers);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("pricings", pricings.get());
+        return stats;
+    }
+
+    private String variantLabel(CatalogVariantDto variant) {
+        StringBuilder label = new StringBuilder();
+        for (String part : new String[] {variant.getSize(), variant.getColor()}) {
+            if (part != null && !part.isBlank() && !"Default".equals(part)) {
+                label.append(label.length() > 0 ? " / " : "").append(part);
+            }
+        }
+        return label.length() > 0 ? label.toString() : variant.getSku();
+    }
+
+    private void cache(Long userId, CartSummary summary, long loadedAt) {
+        entries.compute(userId, (id, current) -> {
+            // Evicted (or trimmed away) after this load started: the summary may be stale
+            boolean stale = current != null ? current.revision > loadedAt : trimmedAt > loadedAt;
+            return stale ? current : new Entry(current != null ? current.revision : 0L, summary);
+        });
+        if (entries.size() > maxUsers) {
+            trim();
+        }
+    }
+
+    /**
+     * Drop the least recently read tenth of the entries once over max-users.
+     * One thread trims at a time; the others go on without waiting.
+     */
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            trimmedAt = revisions.incrementAndGet();
+            List<Map.Entry<Long, Entry>> oldest = new ArrayList<>(entries.entrySet());
+            oldest.sort(Comparator.comparingLong(e -> e.getValue().lastRead));
+            int excess = entries.size() - maxUsers + maxUsers / 10;
+            for (int i = 0; i < excess && i < oldest.size(); i++) {
+                Map.Entry<Long, Entry> dropped = oldest.get(i);
+                if (entries.remove(dropped.getKey(), dropped.getValue()) && dropped.getValue().summary != null) {
+                    unindex(dropped.getKey(), dropped.getValue().summary);
+                }
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private void unindex(Long userId, CartSummary summary) {
+        for (CartProductEntry entry : summary.getEntries()) {
+            Set<Long> users = usersByProduct.get(entry.getProductId());
+            if (users != null) {
+                users.remove(userId);
+            }
+        }
+    }
+
+    // A user's cached summary (null after an eviction) and the revision of its last eviction
+    private static final class Entry {
+        private final long revision;
+        private final CartSummary summary;
+        private volatile long lastRead = System.nanoTime();
+
+        Entry(long revision, CartSummary summary) {
+            this.revision = revision;
+            this.summary = summary;
+        }
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.brsons.service;
+
+import com.brsons.model.Category;
+import com.brsons.model.Product;
+import com.brsons.model.ProductVariant;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that keeps the storefront catalog cache (and cached cart
+ * summaries) in step with Product, ProductVariant and Category writes made
+ * anywhere in the app.
+ */
+@Component
+public class CatalogCacheListener {
+
+    private final ObjectProvider<CatalogCacheService> catalogCacheService;
+    private final ObjectProvider<CartSummaryService> cartSummaryService;
+
+    public CatalogCacheListener(ObjectProvider<CatalogCacheService> catalogCacheService,
+                                ObjectProvider<CartSummaryService> cartSummaryService) {
+        this.catalogCacheService = catalogCacheService;
+        this.cartSummaryService = cartSummaryService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCatalogChange(Object entity) {
+        CatalogCacheService cache = catalogCacheService.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        if (entity instanceof Product product) {
+            Long productId = product.getId();
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+            CartSummaryService carts = cartSummaryService.getIfAvailable();
+            cache.afterCommit(() -> {
+                cache.evictProduct(productId);
+                cache.evictListing(categoryId);
+                if (carts != null) {
+                    carts.evictProduct(productId);
+                }
+            });
+        } else if (entity instanceof ProductVariant variant) {
+            Long productId = variant.getProduct() != null ? variant.getProduct().getId() : null;
+            cache.afterCommit(() -> cache.evictProduct(productId));
+        } else if (entity instanceof Category category) {
+            Long categoryId = category.getId();
+            cache.afterCommit(() -> {
+                cache.evictCategories();
+                cache.evictListing(categoryId);
+            });
+        }
+    }
+}
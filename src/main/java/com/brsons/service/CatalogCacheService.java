@@ -0,0 +1,538 @@
+package com.brsons.service;
+
+import com.brsons.dto.CatalogCategoryDto;
+import com.brsons.dto.CatalogProductDto;
+import com.brsons.dto.CatalogVariantDto;
+import com.brsons.dto.KeysetPage;
+import com.brsons.model.Category;
+import com.brsons.model.Product;
+import com.brsons.repository.CategoryRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductVariantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-through cache of the storefront catalog.
+ *
+ * Holds immutable category and product snapshots (with variants) so that
+ * shop browsing does not query the database on every page view. Entries are
+ * built at startup, refreshed by the admin product/category endpoints, and
+ * evicted after commit whenever a Product, ProductVariant or Category row
+ * changes elsewhere (checkout stock updates, GRNs, ...). Product and listing
+ * regions are bounded LRU maps; a variant index maps each cached variant to
+ * its product so a variant is found with two hash lookups, and a listing
+ * index maps each product to the cached listings it appears in so evicting
+ * it touches only those.
+ *
+ * Every eviction stamps its key with a new revision. A load remembers the
+ * revision it started at and is only cached if neither its key nor (for a
+ * listing) any product in it has been evicted since, so a slow load can't
+ * put back a snapshot read before a commit.
+ */
+@Service
+public class CatalogCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogCacheService.class);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    public static final int DEFAULT_PAGE_SIZE = 48;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Value("${catalog.cache.max-products:10000}")
+    private int maxProducts;
+
+    @Value("${catalog.cache.max-category-listings:500}")
+    private int maxCategoryListings;
+
+    private final Object categoryLock = new Object();
+    private volatile List<CatalogCategoryDto> activeCategories;
+    private volatile Map<Long, CatalogCategoryDto> categoriesById;
+
+    private Map<Long, CatalogProductDto> productsById;
+    private Map<Long, List<CatalogProductDto>> productsByCategory;
+
+    // Eviction revisions; each guarded by its region's lock together with the region
+    private final AtomicLong revisions = new AtomicLong();
+    private EvictionStamps productStamps;
+    private EvictionStamps listingStamps;
+
+    // Product id -> category ids of the cached listings containing it (guarded by productsByCategory)
+    private final Map<Long, Set<Long>> listingsByProduct = new HashMap<>();
+
+    // Variant id -> product id for every cached product's variants
+    private final Map<Long, Long> productIdByVariant = new ConcurrentHashMap<>();
+
+    private final CacheRegionStats categoryStats = new CacheRegionStats();
+    private final CacheRegionStats productStats = new CacheRegionStats();
+    private final CacheRegionStats listingStats = new CacheRegionStats();
+
+    // ==================== LIFECYCLE ====================
+
+    @jakarta.annotation.PostConstruct
+    void createRegions() {
+        productsById = Collections.synchronizedMap(new BoundedLruMap<>(maxProducts, productStats, null));
+        productsByCategory = Collections.synchronizedMap(new BoundedLruMap<>(maxCategoryListings, listingStats, this::unindexListing));
+        productStamps = new EvictionStamps(maxProducts);
+        listingStamps = new EvictionStamps(maxCategoryListings);
+    }
+
+    /**
+     * Warm the cache with active categories and their product listings
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            List<CatalogCategoryDto> categories = getActiveCategories();
+            for (CatalogCategoryDto category : categories) {
+                if (productsByCategory.size() >= maxCategoryListings) {
+                    break;
+                }
+                getProductsByCategory(category.getId());
+            }
+            log.info("Catalog cache warmed: {} categories, {} products", categories.size(), productsById.size());
+        } catch (Exception e) {
+            log.error("Error warming catalog cache: {}", e.getMessage());
+        }
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Active categories for the shop landing page
+     */
+    public List<CatalogCategoryDto> getActiveCategories() {
+        List<CatalogCategoryDto> categories = activeCategories;
+        if (categories != null) {
+            categoryStats.hits.incrementAndGet();
+            return categories;
+        }
+        categoryStats.misses.incrementAndGet();
+        return loadCategories();
+    }
+
+    /**
+     * Any category by id, regardless of status
+     */
+    public Optional<CatalogCategoryDto> getCategory(Long categoryId) {
+        Map<Long, CatalogCategoryDto> byId = categoriesById;
+        if (byId != null) {
+            categoryStats.hits.incrementAndGet();
+        } else {
+            categoryStats.misses.incrementAndGet();
+            loadCategories();
+            byId = categoriesById;
+        }
+        return Optional.ofNullable(byId.get(categoryId));
+    }
+
+    /**
+     * Products shown for a category: "Active" products, else "active", else all of them
+     */
+    public List<CatalogProductDto> getProductsByCategory(Long categoryId) {
+        List<CatalogProductDto> listing = productsByCategory.get(categoryId);
+        if (listing != null) {
+            listingStats.hits.incrementAndGet();
+            return listing;
+        }
+        listingStats.misses.incrementAndGet();
+        return loadCategoryListing(categoryId);
+    }
+
+    /**
+     * One keyset page of a category listing, sliced from the cached snapshot
+     * (which is ordered by product id)
+     */
+    public KeysetPage<CatalogProductDto> getProductPage(Long categoryId, Long afterId, Integer size) {
+        List<CatalogProductDto> listing = getProductsByCategory(categoryId);
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        int from = 0;
+        if (afterId != null) {
+            // First index whose id is greater than the cursor
+            int low = 0;
+            int high = listing.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (listing.get(mid).getId() <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            from = low;
+        }
+        int to = Math.min(listing.size(), from + pageSize + 1);
+        return KeysetPage.fromOverfetch(listing.subList(from, to), pageSize, CatalogProductDto::getId,
+            listing.size(), false);
+    }
+
+    /**
+     * Single product snapshot by id
+     */
+    public Optional<CatalogProductDto> getProduct(Long productId) {
+        CatalogProductDto product = productsById.get(productId);
+        if (product != null) {
+            productStats.hits.incrementAndGet();
+            return Optional.of(product);
+        }
+        productStats.misses.incrementAndGet();
+        return loadProduct(productId);
+    }
+
+    /**
+     * Single variant snapshot by id, through the product it belongs to
+     */
+    public Optional<CatalogVariantDto> getVariant(Long variantId) {
+        if (variantId == null) {
+            return Optional.empty();
+        }
+        Long productId = productIdByVariant.get(variantId);
+        if (productId == null) {
+            productId = productVariantRepository.findProductIdById(variantId).orElse(null);
+            if (productId == null) {
+                return Optional.empty();
+            }
+        }
+        return getProduct(productId).map(product -> product.getVariant(variantId));
+    }
+
+    // ==================== INCREMENTAL REFRESH ====================
+
+    /**
+     * Reload one product and the listing of its category after an admin change
+     */
+    public void refreshProduct(Long productId) {
+        evictProduct(productId);
+        loadProduct(productId).ifPresent(product -> {
+            if (product.getCategoryId() != null) {
+                loadCategoryListing(product.getCategoryId());
+            }
+        });
+    }
+
+    /**
+     * Reload categories (and the listing of one category, if given) after an admin change
+     */
+    public void refreshCategory(Long categoryId) {
+        loadCategories();
+        evictListing(categoryId);
+    }
+
+    /**
+     * Drop a product snapshot and any listing it appears in
+     */
+    public void evictProduct(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        CatalogProductDto previous;
+        synchronized (productsById) {
+            productStamps.stamp(productId, revisions.incrementAndGet());
+            previous = productsById.remove(productId);
+        }
+        if (previous != null) {
+            productStats.evictions.incrementAndGet();
+            previous.getVariants().forEach(variant -> productIdByVariant.remove(variant.getId()));
+        }
+        // Every listing it is cached in, even if it has since moved category or was not cached itself
+        synchronized (productsByCategory) {
+            Set<Long> listings = listingsByProduct.remove(productId);
+            if (listings != null) {
+                for (Long categoryId : new ArrayList<>(listings)) {
+                    removeListing(categoryId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop a category listing
+     */
+    public void evictListing(Long categoryId) {
+        if (categoryId == null) {
+            return;
+        }
+        synchronized (productsByCategory) {
+            removeListing(categoryId);
+        }
+    }
+
+    // Caller holds the productsByCategory lock
+    private void removeListing(Long categoryId) {
+        listingStamps.stamp(categoryId, revisions.incrementAndGet());
+        List<CatalogProductDto> previous = productsByCategory.remove(categoryId);
+        if (previous != null) {
+            listingStats.evictions.incrementAndGet();
+            unindexListing(categoryId, previous);
+        }
+    }
+
+    /**
+     * Drop category snapshots so they are reloaded on next read
+     */
+    public void evictCategories() {
+        synchronized (categoryLock) {
+            activeCategories = null;
+            categoriesById = null;
+        }
+        categoryStats.evictions.incrementAndGet();
+    }
+
+    /**
+     * Run an eviction now, or after the current transaction commits so a
+     * concurrent reader cannot re-cache the pre-commit row
+     */
+    public void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    // ==================== METRICS ====================
+
+    /**
+     * Hit/miss/load/eviction counters and sizes per cache region
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("categories", categoryStats.toMap(categoriesById != null ? categoriesById.size() : 0, -1));
+        stats.put("products", productStats.toMap(productsById.size(), maxProducts));
+        stats.put("categoryListings", listingStats.toMap(productsByCategory.size(), maxCategoryListings));
+        stats.put("variantIndex", Map.of("size", productIdByVariant.size()));
+        synchronized (productsByCategory) {
+            stats.put("listingIndex", Map.of("size", listingsByProduct.size()));
+        }
+        return stats;
+    }
+
+    // ==================== LOADING ====================
+
+    private List<CatalogCategoryDto> loadCategories() {
+        synchronized (categoryLock) {
+            Map<Long, CatalogCategoryDto> byId = new LinkedHashMap<>();
+            List<CatalogCategoryDto> active = new ArrayList<>();
+            for (Category category : categoryRepository.findAll()) {
+                CatalogCategoryDto dto = CatalogCategoryDto.from(category);
+                byId.put(dto.getId(), dto);
+                if ("Active".equals(dto.getStatus())) {
+                    active.add(dto);
+                }
+            }
+            categoryStats.loads.incrementAndGet();
+            categoriesById = Collections.unmodifiableMap(byId);
+            activeCategories = Collections.unmodifiableList(active);
+            return activeCategories;
+        }
+    }
+
+    private List<CatalogProductDto> loadCategoryListing(Long categoryId) {
+        long loadedAt = revisions.get();
+        List<Product> products = productRepository.findByCategoryIdWithVariants(categoryId);
+
+        // Same fallback order the shop used: "Active", then "active", then every product
+        List<Product> visible = filterByStatus(products, "Active");
+        if (visible.isEmpty()) {
+            visible = filterByStatus(products, "active");
+        }
+        if (visible.isEmpty()) {
+            visible = products;
+        }
+
+        List<CatalogProductDto> listing = new ArrayList<>(visible.size());
+        for (Product product : visible) {
+            CatalogProductDto dto = CatalogProductDto.from(product);
+            listing.add(dto);
+            cache(dto, loadedAt);
+        }
+        listing = Collections.unmodifiableList(listing);
+        listingStats.loads.incrementAndGet();
+        synchronized (productsByCategory) {
+            if (listingStamps.isCurrent(categoryId, loadedAt) && productsCurrent(listing, loadedAt)) {
+                List<CatalogProductDto> replaced = productsByCategory.put(categoryId, listing);
+                if (replaced != null) {
+                    unindexListing(categoryId, replaced);
+                }
+                for (CatalogProductDto product : listing) {
+                    listingsByProduct.computeIfAbsent(product.getId(), id -> new HashSet<>()).add(categoryId);
+                }
+            }
+        }
+        return listing;
+    }
+
+    private Optional<CatalogProductDto> loadProduct(Long productId) {
+        long loadedAt = revisions.get();
+        Optional<CatalogProductDto> product = productRepository.findByIdWithVariants(productId)
+            .map(CatalogProductDto::from);
+        product.ifPresent(dto -> {
+            productStats.loads.incrementAndGet();
+            cache(dto, loadedAt);
+        });
+        return product;
+    }
+
+    private void cache(CatalogProductDto product, long loadedAt) {
+        synchronized (productsById) {
+            if (!productStamps.isCurrent(product.getId(), loadedAt)) {
+                // Evicted while loading: this snapshot may predate the change
+                return;
+            }
+            productsById.put(product.getId(), product);
+        }
+        for (CatalogVariantDto variant : product.getVariants()) {
+            productIdByVariant.put(variant.getId(), product.getId());
+        }
+    }
+
+    private boolean productsCurrent(List<CatalogProductDto> listing, long loadedAt) {
+        synchronized (productsById) {
+            for (CatalogProductDto product : listing) {
+                if (!productStamps.isCurrent(product.getId(), loadedAt)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Caller holds the productsByCategory lock
+    private void unindexListing(Long categoryId, List<CatalogProductDto> listing) {
+        for (CatalogProductDto product : listing) {
+            Set<Long> listings = listingsByProduct.get(product.getId());
+            if (listings != null && listings.remove(categoryId) && listings.isEmpty()) {
+                listingsByProduct.remove(product.getId());
+            }
+        }
+    }
+
+    private List<Product> filterByStatus(List<Product> products, String status) {
+        List<Product> filtered = new ArrayList<>();
+        for (Product product : products) {
+            if (status.equals(product.getStatus())) {
+                filtered.add(product);
+            }
+        }
+        return filtered;
+    }
+
+    // ==================== SUPPORT CLASSES ====================
+
+    private static class CacheRegionStats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong loads = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        Map<String, Object> toMap(int size, int maxSize) {
+            long hitCount = hits.get();
+            long missCount = misses.get();
+            long requests = hitCount + missCount;
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("size", size);
+            if (maxSize > 0) {
+                map.put("maxSize", maxSize);
+            }
+            map.put("hits", hitCount);
+            map.put("misses", missCount);
+            map.put("hitRatio", requests > 0 ? Math.round(hitCount * 10000.0 / requests) / 100.0 : 0.0);
+            map.put("loads", loads.get());
+            map.put("evictions", evictions.get());
+            return map;
+        }
+    }
+
+    /**
+     * Revision of the latest eviction per key, bounded like its region. Keys
+     * whose stamp has been trimmed count as evicted at the newest trimmed
+     * revision. Not thread-safe: used under the region's lock.
+     */
+    private static class EvictionStamps {
+        private final Map<Long, Long> stamps;
+        private long trimmedAt;
+
+        EvictionStamps(int maxEntries) {
+            // Insertion order is revision order, so the eldest stamp is the oldest
+            this.stamps = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                    if (size() > maxEntries) {
+                        trimmedAt = Math.max(trimmedAt, eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        void stamp(Long key, long revision) {
+            stamps.remove(key);
+            stamps.put(key, revision);
+        }
+
+        boolean isCurrent(Long key, long loadedAt) {
+            Long stamp = stamps.get(key);
+            return (stamp != null ? stamp : trimmedAt) <= loadedAt;
+        }
+    }
+
+    private static class BoundedLruMap<K, V> extends LinkedHashMap<K, V> {
+        private final int maxEntries;
+        private final CacheRegionStats stats;
+        private final BiConsumer<K, V> onEvict;
+
+        BoundedLruMap(int maxEntries, CacheRegionStats stats, BiConsumer<K, V> onEvict) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+            this.stats = stats;
+            this.onEvict = onEvict;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > maxEntries) {
+                stats.evictions.incrementAndGet();
+                if (onEvict != null) {
+                    onEvict.accept(eldest.getKey(), eldest.getValue());
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
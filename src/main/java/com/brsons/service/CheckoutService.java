@@ -1,21 +1,17 @@
 package com.brsons.service;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import com.brsons.repository.AddToCartRepository;
-import com.brsons.repository.CartProductEntryRepo;
 
 @Service
 public class CheckoutService {
     
-    private final CartProductEntryRepo addToCartRepository;
+    private final CartService cartService;
 
-    public CheckoutService(CartProductEntryRepo addToCartRepository) {
-        this.addToCartRepository = addToCartRepository;
+    public CheckoutService(CartService cartService) {
+        this.cartService = cartService;
     }
-    @Transactional
-    public void clearCart(String userPhone) {
-        addToCartRepository.deleteByUserPhone(userPhone);
+
+    public void clearCart(Long userId) {
+        cartService.clearCart(userId);
     }
 }
@@ -1,5 +1,7 @@
 package com.brsons.service;
 
+import com.brsons.dto.CustomerLedgerRow;
+import com.brsons.dto.LedgerDashboardSummary;
 import com.brsons.model.CustomerLedger;
 import com.brsons.model.CustomerLedgerEntry;
 import com.brsons.model.Order;
@@ -14,10 +16,17 @@ import com.brsons.repository.VoucherRepository;
 import com.brsons.repository.VoucherEntryRepository;
 import com.brsons.repository.AccountRepository;
 import com.brsons.repository.PaymentEntryRepository;
+import com.brsons.util.ExpiringValue;
+import com.brsons.util.FifoAllocator;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,6 +34,8 @@ import java.util.Optional;
 
 @Service
 public class CustomerLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerLedgerService.class);
     
     @Autowired
     private CustomerLedgerRepository customerLedgerRepository;
@@ -54,6 +65,20 @@ public class CustomerLedgerService {
     @Autowired
     private PaymentEntryRepository paymentEntryRepository;
     
+    @Autowired
+    private LedgerPostingService ledgerPostingService;
+    
+    private static final long DASHBOARD_CACHE_TTL_MILLIS = 30_000L;
+    private static final int DASHBOARD_LEDGER_ROWS = 50;
+    
+    private final ExpiringValue<java.util.Map<String, Object>> dashboardCache =
+        new ExpiringValue<>(this::loadCustomerLedgerDashboard, DASHBOARD_CACHE_TTL_MILLIS);
+    
+    @PostConstruct
+    public void refreshDashboardOnPosting() {
+        ledgerPostingService.onCustomerPosted(dashboardCache::invalidate);
+    }
+    
     // ==================== CUSTOMER LEDGER MANAGEMENT ====================
     
     /**
@@ -140,22 +165,19 @@ public class CustomerLedgerService {
         );
         
         entry.setDebitAmount(amount);
-        entry.setBalanceAfter(customerLedger.getCurrentBalance().add(amount));
-        
-        // Save entry
-        CustomerLedgerEntry savedEntry = customerLedgerEntryRepository.save(entry);
         
-        // Update customer ledger balance
-        customerLedger.addDebit(amount);
-        customerLedgerRepository.save(customerLedger);
+        // Update customer ledger balance (row-locked delta) and record the resulting balance
+        entry.setBalanceAfter(ledgerPostingService.debitCustomer(customerLedger, amount));
         
-        return savedEntry;
+        // Save entry
+        return customerLedgerEntryRepository.save(entry);
     }
     
     /**
      * Add payment entry (credit) to customer ledger
      */
     @Transactional
+    @Timed(value = "payment.allocation", extraTags = {"ledger", "customer"})
     public CustomerLedgerEntry addPaymentEntry(CustomerLedger customerLedger, BigDecimal amount, 
                                               String paymentMethod, String paymentReference, String notes) {
         return addPaymentEntry(customerLedger, amount, paymentMethod, paymentReference, notes, true);
@@ -165,6 +187,7 @@ public class CustomerLedgerService {
      * Add payment entry (credit) to customer ledger with option to sync with outstanding
      */
     @Transactional
+    @Timed(value = "payment.allocation", extraTags = {"ledger", "customer"})
     public CustomerLedgerEntry addPaymentEntry(CustomerLedger customerLedger, BigDecimal amount, 
                                               String paymentMethod, String paymentReference, String notes, 
                                               boolean syncWithOutstanding) {
@@ -178,18 +201,16 @@ public class CustomerLedgerService {
         );
         
         entry.setCreditAmount(amount);
-        entry.setBalanceAfter(customerLedger.getCurrentBalance().subtract(amount));
         entry.setPaymentMethod(paymentMethod);
         entry.setPaymentReference(paymentReference);
         entry.setNotes(notes);
         
+        // Update customer ledger balance (row-locked delta) and record the resulting balance
+        entry.setBalanceAfter(ledgerPostingService.creditCustomer(customerLedger, amount));
+        
         // Save entry
         CustomerLedgerEntry savedEntry = customerLedgerEntryRepository.save(entry);
         
-        // Update customer ledger balance
-        customerLedger.addCredit(amount);
-        customerLedgerRepository.save(customerLedger);
-        
         // Only sync with outstanding if explicitly requested (for manual ledger payments)
         if (syncWithOutstanding) {
             applyPaymentToOutstandingReceivables(customerLedger.getCustomerPhone(), amount, paymentMethod, paymentReference, notes);
@@ -214,28 +235,19 @@ public class CustomerLedgerService {
             "ADJ-" + System.currentTimeMillis()
         );
         
+        // Update customer ledger balance (row-locked delta) and record the resulting balance
         if (isDebit) {
             entry.setDebitAmount(amount);
-            entry.setBalanceAfter(customerLedger.getCurrentBalance().add(amount));
+            entry.setBalanceAfter(ledgerPostingService.debitCustomer(customerLedger, amount));
         } else {
             entry.setCreditAmount(amount);
-            entry.setBalanceAfter(customerLedger.getCurrentBalance().subtract(amount));
+            entry.setBalanceAfter(ledgerPostingService.creditCustomer(customerLedger, amount));
         }
         
         entry.setNotes(notes);
         
         // Save entry
-        CustomerLedgerEntry savedEntry = customerLedgerEntryRepository.save(entry);
-        
-        // Update customer ledger balance
-        if (isDebit) {
-            customerLedger.addDebit(amount);
-        } else {
-            customerLedger.addCredit(amount);
-        }
-        customerLedgerRepository.save(customerLedger);
-        
-        return savedEntry;
+        return customerLedgerEntryRepository.save(entry);
     }
     
     // ==================== LEDGER QUERIES ====================
@@ -288,10 +300,10 @@ public class CustomerLedgerService {
     @Transactional
     public void createCustomerLedgersForExistingB2BOrders() {
         try {
-            System.out.println("=== Starting customer ledger creation for existing B2B orders ===");
+            log.debug("=== Starting customer ledger creation for existing B2B orders ===");
             
             List<Order> b2bOrders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Kaccha");
-            System.out.println("Found " + b2bOrders.size() + " B2B orders to create ledgers for");
+            log.debug("Found {} B2B orders to create ledgers for", b2bOrders.size());
             
             for (Order order : b2bOrders) {
                 if (order.getTotal() != null && order.getTotal().compareTo(BigDecimal.ZERO) > 0) {
@@ -312,38 +324,36 @@ public class CustomerLedgerService {
                             if (existingEntries.isEmpty()) {
                                 // Add invoice entry
                                 addInvoiceEntry(customerLedger, order, order.getTotal());
-                                System.out.println("Created customer ledger entry for order ID: " + order.getId() + 
-                                                " - Amount: " + order.getTotal() + " - Customer: " + order.getName());
+                                log.debug("Created customer ledger entry for order ID: {} - Amount: {} - Customer: {}", order.getId(), order.getTotal(), order.getName());
                             } else {
-                                System.out.println("Customer ledger entry already exists for order ID: " + order.getId());
+                                log.debug("Customer ledger entry already exists for order ID: {}", order.getId());
                             }
                             
                         } catch (Exception e) {
-                            System.err.println("Error creating customer ledger for order ID " + order.getId() + ": " + e.getMessage());
+                            log.error("Error creating customer ledger for order ID {}: {}", order.getId(), e.getMessage());
                         }
                     }
                 }
             }
             
-            System.out.println("=== Customer ledger creation completed ===");
+            log.debug("=== Customer ledger creation completed ===");
             
             // Now automatically trigger outstanding sync to ensure consistency
-            System.out.println("=== Triggering automatic outstanding sync for consistency ===");
+            log.debug("=== Triggering automatic outstanding sync for consistency ===");
             try {
                 // This will ensure outstanding items are created for any new customer ledgers
                 // The outstanding service will handle this automatically
-                System.out.println("Outstanding sync will be triggered automatically for consistency");
+                log.debug("Outstanding sync will be triggered automatically for consistency");
                 
                 // Trigger the triggerOutstandingSync method to indicate sync completion
                 triggerOutstandingSync();
                 
             } catch (Exception e) {
-                System.err.println("Warning: Could not trigger outstanding sync: " + e.getMessage());
+                log.warn("Could not trigger outstanding sync: {}", e.getMessage());
             }
             
         } catch (Exception e) {
-            System.err.println("Error creating customer ledgers for existing B2B orders: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating customer ledgers for existing B2B orders: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to create customer ledgers", e);
         }
     }
@@ -354,16 +364,16 @@ public class CustomerLedgerService {
      */
     public void triggerOutstandingSync() {
         try {
-            System.out.println("=== Triggering outstanding sync from customer ledger service ===");
+            log.debug("=== Triggering outstanding sync from customer ledger service ===");
             // This will ensure outstanding items are created for any new customer ledgers
             // The outstanding service will handle this automatically
-            System.out.println("Outstanding sync will be triggered automatically for consistency");
+            log.debug("Outstanding sync will be triggered automatically for consistency");
             
             // Note: We can't directly call OutstandingService here due to circular dependency
             // The sync will be handled by the controller calling both services in sequence
-            System.out.println("Outstanding sync completed successfully");
+            log.debug("Outstanding sync completed successfully");
         } catch (Exception e) {
-            System.err.println("Error triggering outstanding sync: " + e.getMessage());
+            log.error("Error triggering outstanding sync: {}", e.getMessage());
         }
     }
     
@@ -373,11 +383,11 @@ public class CustomerLedgerService {
      */
     public void syncOutstandingItemsForB2BOrders() {
         try {
-            System.out.println("=== Syncing outstanding items for B2B orders from customer ledger service ===");
+            log.debug("=== Syncing outstanding items for B2B orders from customer ledger service ===");
             
             // Get all B2B orders (Kaccha) that don't have outstanding items yet
             List<Order> b2bOrders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Kaccha");
-            System.out.println("Found " + b2bOrders.size() + " B2B orders to check for outstanding items");
+            log.debug("Found {} B2B orders to check for outstanding items", b2bOrders.size());
             
             for (Order order : b2bOrders) {
                 if (order.getTotal() != null && order.getTotal().compareTo(BigDecimal.ZERO) > 0) {
@@ -389,7 +399,7 @@ public class CustomerLedgerService {
                                 .findByReferenceTypeAndReferenceId("ORDER", order.getId());
                             
                             if (existingOutstanding.isEmpty()) {
-                                System.out.println("Creating outstanding item for order ID: " + order.getId());
+                                log.debug("Creating outstanding item for order ID: {}", order.getId());
                                 // Create outstanding item directly here to avoid circular dependency
                                 com.brsons.model.Outstanding outstanding = new com.brsons.model.Outstanding(
                                     com.brsons.model.Outstanding.OutstandingType.INVOICE_RECEIVABLE,
@@ -404,60 +414,59 @@ public class CustomerLedgerService {
                                 outstanding.setDescription("Customer invoice for order #" + order.getId());
                                 outstanding.setContactInfo(order.getUserPhone());
                                 com.brsons.model.Outstanding savedOutstanding = outstandingRepository.save(outstanding);
-                                System.out.println("Created outstanding item for order ID: " + order.getId());
+                                log.debug("Created outstanding item for order ID: {}", order.getId());
                                 
                                 // Apply advance payments to this new invoice (FIFO)
                                 try {
                                     applyAdvancePaymentsToNewInvoice(order.getUserPhone(), savedOutstanding.getId(), order.getTotal());
-                                    System.out.println("Applied advance payments to new invoice #" + savedOutstanding.getId());
+                                    log.debug("Applied advance payments to new invoice #{}", savedOutstanding.getId());
                                 } catch (Exception e) {
-                                    System.err.println("Error applying advance payments to new invoice #" + savedOutstanding.getId() + ": " + e.getMessage());
+                                    log.error("Error applying advance payments to new invoice #{}: {}", savedOutstanding.getId(), e.getMessage());
                                 }
                             } else {
-                                System.out.println("Outstanding item already exists for order ID: " + order.getId());
+                                log.debug("Outstanding item already exists for order ID: {}", order.getId());
                             }
                             
                         } catch (Exception e) {
-                            System.err.println("Error creating outstanding item for order ID " + order.getId() + ": " + e.getMessage());
+                            log.error("Error creating outstanding item for order ID {}: {}", order.getId(), e.getMessage());
                         }
                     }
                 }
             }
             
-            System.out.println("=== Outstanding items sync completed ===");
+            log.debug("=== Outstanding items sync completed ===");
             
         } catch (Exception e) {
-            System.err.println("Error syncing outstanding items for B2B orders: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error syncing outstanding items for B2B orders: {}", e.getMessage(), e);
         }
     }
     
     /**
-     * Get dashboard summary for customer ledgers
+     * Get dashboard summary for customer ledgers (cached briefly; each caller
+     * gets its own map over the shared read-only lists)
      */
     public java.util.Map<String, Object> getCustomerLedgerDashboard() {
+        return new java.util.HashMap<>(dashboardCache.get());
+    }
+    
+    private java.util.Map<String, Object> loadCustomerLedgerDashboard() {
         java.util.Map<String, Object> dashboard = new java.util.HashMap<>();
         
-        BigDecimal totalOutstanding = customerLedgerRepository.calculateTotalOutstandingAmount();
-        Long activeLedgersCount = (long) customerLedgerRepository.findByStatus("ACTIVE").size();
-        Long ledgersWithOutstandingCount = customerLedgerRepository.countActiveLedgersWithOutstandingBalance();
-        Long totalLedgersCount = customerLedgerRepository.count();
-        
-        List<CustomerLedger> activeLedgers = customerLedgerRepository.findByStatus("ACTIVE");
-        List<CustomerLedger> topOutstandingLedgers = customerLedgerRepository
-            .findByBalanceGreaterThan(BigDecimal.valueOf(10000))
-            .stream()
-            .limit(10)
-            .toList();
+        LedgerDashboardSummary summary = customerLedgerRepository.summarizeDashboard();
+        // Bounded lists of plain rows; the full list is on /admin/customer-ledger/list
+        List<CustomerLedgerRow> activeLedgers = customerLedgerRepository
+            .findRecentRows("ACTIVE", PageRequest.of(0, DASHBOARD_LEDGER_ROWS));
+        List<CustomerLedgerRow> topOutstandingLedgers = customerLedgerRepository
+            .findTopOutstandingRows("ACTIVE", BigDecimal.valueOf(10000), PageRequest.of(0, 10));
         
-        dashboard.put("totalOutstanding", totalOutstanding != null ? totalOutstanding : BigDecimal.ZERO);
-        dashboard.put("activeLedgersCount", activeLedgersCount);
-        dashboard.put("ledgersWithOutstandingCount", ledgersWithOutstandingCount);
-        dashboard.put("totalLedgersCount", totalLedgersCount);
-        dashboard.put("activeLedgers", activeLedgers);
-        dashboard.put("topOutstandingLedgers", topOutstandingLedgers);
+        dashboard.put("totalOutstanding", summary.getTotalOutstanding());
+        dashboard.put("activeLedgersCount", summary.getActiveLedgers());
+        dashboard.put("ledgersWithOutstandingCount", summary.getActiveLedgersWithOutstanding());
+        dashboard.put("totalLedgersCount", summary.getTotalLedgers());
+        dashboard.put("activeLedgers", List.copyOf(activeLedgers));
+        dashboard.put("topOutstandingLedgers", List.copyOf(topOutstandingLedgers));
         
-        return dashboard;
+        return java.util.Collections.unmodifiableMap(dashboard);
     }
     
     // ==================== OUTSTANDING RECEIVABLES SYNCHRONIZATION ====================
@@ -471,47 +480,29 @@ public class CustomerLedgerService {
     public void applyPaymentToOutstandingReceivables(String customerPhone, BigDecimal paymentAmount, 
                                                     String paymentMethod, String paymentReference, String notes) {
         try {
-            System.out.println("=== Starting payment application to outstanding receivables ===");
-            System.out.println("Customer Phone: " + customerPhone);
-            System.out.println("Payment Amount: " + paymentAmount);
-            System.out.println("Payment Method: " + paymentMethod);
-            System.out.println("Payment Reference: " + paymentReference);
+            log.debug("Applying payment of {} ({}, ref {}) to receivables of customer {}",
+                    paymentAmount, paymentMethod, paymentReference, customerPhone);
             
             // Get all non-settled B2B receivables for this customer, ordered by creation date (oldest first)
             List<com.brsons.model.Outstanding> outstandingReceivables = outstandingRepository
                 .findB2BReceivablesForCustomerOldestFirst(customerPhone);
             
-            System.out.println("Found " + outstandingReceivables.size() + " outstanding receivables for customer");
-            
-            // Calculate total outstanding amount
-            BigDecimal totalOutstanding = outstandingReceivables.stream()
-                .map(com.brsons.model.Outstanding::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            System.out.println("Total outstanding amount: " + totalOutstanding);
-            System.out.println("Payment amount: " + paymentAmount);
+            log.debug("Found {} outstanding receivables for customer {}", outstandingReceivables.size(), customerPhone);
             
             BigDecimal remainingPayment = paymentAmount;
             
             // Apply payment to existing outstanding invoices (FIFO - oldest first)
             if (!outstandingReceivables.isEmpty()) {
-                // Log the order of invoices (should be oldest first)
-                System.out.println("=== Invoice processing order (FIFO - oldest first) ===");
-                for (int i = 0; i < outstandingReceivables.size(); i++) {
-                    com.brsons.model.Outstanding o = outstandingReceivables.get(i);
-                    System.out.println((i + 1) + ". Invoice ID: " + o.getId() + 
-                                     " - Amount: " + o.getAmount() + 
-                                     " - Created: " + o.getCreatedAt() + 
-                                     " - Status: " + o.getStatus());
+                if (log.isTraceEnabled()) {
+                    for (int i = 0; i < outstandingReceivables.size(); i++) {
+                        com.brsons.model.Outstanding o = outstandingReceivables.get(i);
+                        log.trace("{}. Invoice ID: {} - Amount: {} - Created: {} - Status: {}", (i + 1), o.getId(), o.getAmount(), o.getCreatedAt(), o.getStatus());
+                    }
                 }
                 
-                for (com.brsons.model.Outstanding outstanding : outstandingReceivables) {
-                    if (remainingPayment.compareTo(BigDecimal.ZERO) <= 0) {
-                        break; // Payment fully applied
-                    }
-                    
+                remainingPayment = FifoAllocator.allocate(outstandingReceivables, com.brsons.model.Outstanding::getAmount,
+                        paymentAmount, (outstanding, amountToApply) -> {
                     BigDecimal outstandingAmount = outstanding.getAmount();
-                    BigDecimal amountToApply = remainingPayment.compareTo(outstandingAmount) > 0 ? 
-                        outstandingAmount : remainingPayment;
                     
                     // Apply payment to this outstanding item
                     if (amountToApply.compareTo(outstandingAmount) >= 0) {
@@ -524,8 +515,7 @@ public class CustomerLedgerService {
                         outstanding.setNotes(notes != null ? notes : "Payment applied from customer ledger");
                         outstanding.setUpdatedAt(java.time.LocalDateTime.now());
                         
-                        System.out.println("Fully settled outstanding item ID: " + outstanding.getId() + 
-                                          " for amount: " + outstandingAmount);
+                        log.debug("Fully settled outstanding item ID: {} for amount: {}", outstanding.getId(), outstandingAmount);
                     } else {
                         // Partial payment for this invoice
                         outstanding.setStatus(com.brsons.model.Outstanding.OutstandingStatus.PARTIALLY_PAID);
@@ -536,8 +526,7 @@ public class CustomerLedgerService {
                         outstanding.setNotes(notes != null ? notes : "Partial payment applied from customer ledger");
                         outstanding.setUpdatedAt(java.time.LocalDateTime.now());
                         
-                        System.out.println("Partially paid outstanding item ID: " + outstanding.getId() + 
-                                          " - Applied: " + amountToApply + ", Remaining: " + outstanding.getAmount());
+                        log.debug("Partially paid outstanding item ID: {} - Applied: {}, Remaining: {}", outstanding.getId(), amountToApply, outstanding.getAmount());
                     }
                     
                     // Save the updated outstanding item
@@ -545,16 +534,12 @@ public class CustomerLedgerService {
                     
                     // Create voucher entry for this payment
                     createVoucherForPayment(outstanding, amountToApply, paymentMethod, paymentReference, notes);
-                    
-                    // Reduce remaining payment amount
-                    remainingPayment = remainingPayment.subtract(amountToApply);
-                }
+                });
             }
             
             // Handle advance payment if there's remaining amount
             if (remainingPayment.compareTo(BigDecimal.ZERO) > 0) {
-                System.out.println("=== Creating advance payment entry ===");
-                System.out.println("Advance amount: " + remainingPayment);
+                log.debug("Creating advance payment entry of {} for customer {}", remainingPayment, customerPhone);
                 
                 // Get customer name for the payment entry
                 String customerName = getCustomerNameByPhone(customerPhone);
@@ -563,15 +548,13 @@ public class CustomerLedgerService {
                 createAdvancePaymentEntry(customerPhone, customerName, remainingPayment, 
                                         paymentMethod, paymentReference, notes);
                 
-                System.out.println("Advance payment created successfully");
+                log.debug("Advance payment created successfully");
             }
             
-            System.out.println("=== Payment application completed ===");
-            System.out.println("Final remaining payment: " + remainingPayment);
+            log.debug("Payment application completed, remaining payment: {}", remainingPayment);
             
         } catch (Exception e) {
-            System.err.println("Error applying payment to outstanding receivables: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error applying payment to outstanding receivables: {}", e.getMessage(), e);
         }
     }
     
@@ -581,7 +564,7 @@ public class CustomerLedgerService {
     private void createVoucherForPayment(com.brsons.model.Outstanding outstanding, BigDecimal amount, 
                                         String paymentMethod, String paymentReference, String notes) {
         try {
-        			System.out.println("paymentMethod "+ paymentMethod);
+        			log.debug("paymentMethod {}", paymentMethod);
         	Account debitAccount = null;
         	       	if ("cash".equals(paymentMethod)) {
         	       		 debitAccount = accountRepository.findById(5L).orElse(null);
@@ -589,20 +572,20 @@ public class CustomerLedgerService {
         	       	}else {
         	       		 debitAccount = accountRepository.findById(6L).orElse(null);
         	       	}
-        	       	System.out.println("paymentMethod "+ paymentMethod);
+        	       	log.debug("paymentMethod {}", paymentMethod);
             //Account debitAccount = getAccountByPaymentMethod(paymentMethod);
             
             
             
             if (debitAccount == null) {
-                System.err.println("Cannot find account for payment method: " + paymentMethod);
+                log.error("Cannot find account for payment method: {}", paymentMethod);
                 return;
             }
             
             // Get credit account (Sales Revenue - ID 5)
             Account creditAccount = accountRepository.findById(7L).orElse(null);
             if (creditAccount == null) {
-                System.err.println("Cannot find account with ID 5 (Sales Revenue)");
+                log.error("Cannot find account with ID 5 (Sales Revenue)");
                 return;
             }
             
@@ -622,12 +605,10 @@ public class CustomerLedgerService {
             createVoucherEntry(savedVoucher, debitAccount, amount, true); // Debit based on payment method
             createVoucherEntry(savedVoucher, creditAccount, amount, false); // Credit Sales Revenue (ID 5)
             
-            System.out.println("Created voucher for payment: " + savedVoucher.getId() + 
-                              " for amount: " + amount);
+            log.debug("Created voucher for payment: {} for amount: {}", savedVoucher.getId(), amount);
             
         } catch (Exception e) {
-            System.err.println("Error creating voucher for payment: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating voucher for payment: {}", e.getMessage(), e);
         }
     }
     
@@ -656,12 +637,12 @@ public class CustomerLedgerService {
     private Account getAccountByPaymentMethod(String paymentMethod) {
         try {
             if (paymentMethod == null || paymentMethod.trim().isEmpty()) {
-                System.err.println("Payment method is null or empty");
+                log.error("Payment method is null or empty");
                 return null;
             }
             
             String method = paymentMethod.trim().toLowerCase();
-            System.out.println("Looking for account for payment method: " + method);
+            log.debug("Looking for account for payment method: {}", method);
             
             // Map payment methods to account names
             String accountName = null;
@@ -694,12 +675,12 @@ public class CustomerLedgerService {
             List<Account> accounts = accountRepository.findByNameContainingIgnoreCase(accountName);
             if (!accounts.isEmpty()) {
                 Account found = accounts.get(0);
-                System.out.println("Found account for " + paymentMethod + ": " + found.getName() + " (ID: " + found.getId() + ")");
+                log.debug("Found account for {}: {} (ID: {})", paymentMethod, found.getName(), found.getId());
                 return found;
             }
             
             // If not found, try to find any account that might be suitable
-            System.out.println("No account found for " + paymentMethod + ", trying to find suitable account");
+            log.debug("No account found for {}, trying to find suitable account", paymentMethod);
             List<Account> allAccounts = accountRepository.findAll();
             
             // Filter out account ID 5 (Sales Revenue) and look for asset accounts
@@ -711,7 +692,7 @@ public class CustomerLedgerService {
             
             if (!suitableAccounts.isEmpty()) {
                 Account fallback = suitableAccounts.get(0);
-                System.out.println("Using fallback account: " + fallback.getName() + " (ID: " + fallback.getId() + ")");
+                log.debug("Using fallback account: {} (ID: {})", fallback.getName(), fallback.getId());
                 return fallback;
             }
             
@@ -723,17 +704,16 @@ public class CustomerLedgerService {
                     .orElse(null);
                 
                 if (lastResort != null) {
-                    System.out.println("Using last resort account: " + lastResort.getName() + " (ID: " + lastResort.getId() + ")");
+                    log.debug("Using last resort account: {} (ID: {})", lastResort.getName(), lastResort.getId());
                     return lastResort;
                 }
             }
             
-            System.err.println("No suitable account found for payment method: " + paymentMethod);
+            log.error("No suitable account found for payment method: {}", paymentMethod);
             return null;
             
         } catch (Exception e) {
-            System.err.println("Error finding account for payment method: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error finding account for payment method: {}", e.getMessage(), e);
             return null;
         }
     }
@@ -762,12 +742,10 @@ public class CustomerLedgerService {
             
             paymentEntryRepository.save(advancePayment);
             
-            System.out.println("Advance payment entry created: ID=" + advancePayment.getId() + 
-                             ", Amount=" + advanceAmount + ", Customer=" + customerName);
+            log.debug("Advance payment entry created: ID={}, Amount={}, Customer={}", advancePayment.getId(), advanceAmount, customerName);
             
         } catch (Exception e) {
-            System.err.println("Error creating advance payment entry: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating advance payment entry: {}", e.getMessage(), e);
         }
     }
     
@@ -789,7 +767,7 @@ public class CustomerLedgerService {
             
             return "Unknown Customer";
         } catch (Exception e) {
-            System.err.println("Error getting customer name: " + e.getMessage());
+            log.error("Error getting customer name: {}", e.getMessage());
             return "Unknown Customer";
         }
     }
@@ -801,27 +779,25 @@ public class CustomerLedgerService {
     @Transactional
     public void applyAdvancePaymentsToNewInvoice(String customerPhone, Long outstandingId, BigDecimal invoiceAmount) {
         try {
-            System.out.println("=== Applying advance payments to new invoice ===");
-            System.out.println("Customer Phone: " + customerPhone);
-            System.out.println("Outstanding ID: " + outstandingId);
-            System.out.println("Invoice Amount: " + invoiceAmount);
+            log.debug("=== Applying advance payments to new invoice ===");
+            log.debug("Customer Phone: {}", customerPhone);
+            log.debug("Outstanding ID: {}", outstandingId);
+            log.debug("Invoice Amount: {}", invoiceAmount);
             
             // Get all unallocated advance payments for this customer (oldest first)
             List<PaymentEntry> advancePayments = paymentEntryRepository.findUnallocatedPaymentsByCustomer(customerPhone);
             
             if (advancePayments.isEmpty()) {
-                System.out.println("No advance payments found for customer: " + customerPhone);
+                log.debug("No advance payments found for customer: {}", customerPhone);
                 return;
             }
             
-            System.out.println("Found " + advancePayments.size() + " advance payments for customer");
+            log.debug("Found {} advance payments for customer", advancePayments.size());
             
             // Log advance payments details
             for (int i = 0; i < advancePayments.size(); i++) {
                 PaymentEntry payment = advancePayments.get(i);
-                System.out.println("Advance Payment " + (i + 1) + ": ID=" + payment.getId() + 
-                                 ", Amount=" + payment.getRemainingAmount() + 
-                                 ", Date=" + payment.getPaymentDate());
+                log.debug("Advance Payment {}: ID={}, Amount={}, Date={}", (i + 1), payment.getId(), payment.getRemainingAmount(), payment.getPaymentDate());
             }
             
             BigDecimal remainingInvoiceAmount = invoiceAmount;
@@ -854,7 +830,7 @@ public class CustomerLedgerService {
                         outstanding.setNotes("Payment applied from advance payment ID: " + advancePayment.getId());
                         outstanding.setUpdatedAt(LocalDateTime.now());
                         
-                        System.out.println("Invoice fully settled with advance payment ID: " + advancePayment.getId());
+                        log.debug("Invoice fully settled with advance payment ID: {}", advancePayment.getId());
                     } else {
                         // Partial payment for this invoice
                         outstanding.setStatus(com.brsons.model.Outstanding.OutstandingStatus.PARTIALLY_PAID);
@@ -865,8 +841,7 @@ public class CustomerLedgerService {
                         outstanding.setNotes("Partial payment from advance payment ID: " + advancePayment.getId());
                         outstanding.setUpdatedAt(LocalDateTime.now());
                         
-                        System.out.println("Invoice partially paid with advance payment ID: " + advancePayment.getId() + 
-                                         ", Applied: " + amountToApply + ", Remaining: " + outstanding.getAmount());
+                        log.debug("Invoice partially paid with advance payment ID: {}, Applied: {}, Remaining: {}", advancePayment.getId(), amountToApply, outstanding.getAmount());
                     }
                     
                     outstandingRepository.save(outstanding);
@@ -879,12 +854,11 @@ public class CustomerLedgerService {
                 remainingInvoiceAmount = remainingInvoiceAmount.subtract(amountToApply);
             }
             
-            System.out.println("=== Advance payment application completed ===");
-            System.out.println("Remaining invoice amount: " + remainingInvoiceAmount);
+            log.debug("=== Advance payment application completed ===");
+            log.debug("Remaining invoice amount: {}", remainingInvoiceAmount);
             
         } catch (Exception e) {
-            System.err.println("Error applying advance payments to new invoice: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error applying advance payments to new invoice: {}", e.getMessage(), e);
         }
     }
     
@@ -898,7 +872,7 @@ public class CustomerLedgerService {
                 .map(PaymentEntry::getRemainingAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         } catch (Exception e) {
-            System.err.println("Error getting total advance payment: " + e.getMessage());
+            log.error("Error getting total advance payment: {}", e.getMessage());
             return BigDecimal.ZERO;
         }
     }
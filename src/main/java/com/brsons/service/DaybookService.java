@@ -4,8 +4,11 @@ import com.brsons.dto.DaybookEntryDto;
 import com.brsons.dto.DaybookSummaryDto;
 import com.brsons.model.*;
 import com.brsons.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -14,11 +17,9 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true)
 public class DaybookService {
 
-    @Autowired
-    private VoucherRepository voucherRepository;
-
     @Autowired
     private VoucherEntryRepository voucherEntryRepository;
 
@@ -40,32 +41,45 @@ public class DaybookService {
     @Autowired
     private CustomerLedgerEntryRepository customerLedgerEntryRepository;
 
+    @Autowired
+    private ReportExecutor reportExecutor;
+
     /**
-     * Get all daybook entries for a specific date range
+     * Get all daybook entries for a specific date range.
+     * Each source reads only its date range, in one query that fetches the
+     * associations it displays. The seven sources are independent and are read
+     * in parallel, each in its own transaction; this method holds no
+     * connection while it waits for them.
      */
+    @Timed(value = "report", extraTags = {"report", "daybook"})
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<DaybookEntryDto> getDaybookEntries(LocalDate startDate, LocalDate endDate) {
-        List<DaybookEntryDto> entries = new ArrayList<>();
-
-        // Add voucher entries
-        entries.addAll(getVoucherEntries(startDate, endDate));
-
-        // Add order entries
-        entries.addAll(getOrderEntries(startDate, endDate));
-
-        // Add purchase order entries
-        entries.addAll(getPurchaseOrderEntries(startDate, endDate));
-
-        // Add GRN entries
-        entries.addAll(getGRNEntries(startDate, endDate));
-
-        // Add outstanding payment entries
-        entries.addAll(getOutstandingPaymentEntries(startDate, endDate));
-
-        // Add supplier ledger entries
-        entries.addAll(getSupplierLedgerEntries(startDate, endDate));
+        List<ReportExecutor.Source<List<DaybookEntryDto>>> sources = List.of(
+                reportExecutor.fork("daybook-vouchers", () -> getVoucherEntries(startDate, endDate)),
+                reportExecutor.fork("daybook-orders", () -> getOrderEntries(startDate, endDate)),
+                reportExecutor.fork("daybook-purchase-orders", () -> getPurchaseOrderEntries(startDate, endDate)),
+                reportExecutor.fork("daybook-grns", () -> getGRNEntries(startDate, endDate)),
+                reportExecutor.fork("daybook-outstanding-payments", () -> getOutstandingPaymentEntries(startDate, endDate)),
+                reportExecutor.fork("daybook-supplier-ledger", () -> getSupplierLedgerEntries(startDate, endDate)),
+                reportExecutor.fork("daybook-customer-ledger", () -> getCustomerLedgerEntries(startDate, endDate)));
+
+        List<List<DaybookEntryDto>> results = new ArrayList<>();
+        for (ReportExecutor.Source<List<DaybookEntryDto>> source : sources) {
+            results.add(source.join());
+        }
+        return mergeEntries(results);
+    }
 
-        // Add customer ledger entries
-        entries.addAll(getCustomerLedgerEntries(startDate, endDate));
+    /**
+     * Merge per-source entries into one list sorted by date and time.
+     * Sources are concatenated in order first, so entries with the same time
+     * keep their source order.
+     */
+    public static List<DaybookEntryDto> mergeEntries(List<List<DaybookEntryDto>> sources) {
+        List<DaybookEntryDto> entries = new ArrayList<>();
+        for (List<DaybookEntryDto> source : sources) {
+            entries.addAll(source);
+        }
 
         // Sort by date and time
         return entries.stream()
@@ -78,35 +92,27 @@ public class DaybookService {
     }
 
     /**
-     * Get voucher entries
+     * Get voucher entries (one date-bounded query with voucher and account fetched)
      */
     private List<DaybookEntryDto> getVoucherEntries(LocalDate startDate, LocalDate endDate) {
-        List<Voucher> vouchers = voucherRepository.findAll().stream()
-                .filter(v -> v.getDate().isAfter(startDate.minusDays(1)) && v.getDate().isBefore(endDate.plusDays(1)))
-                .collect(Collectors.toList());
         List<DaybookEntryDto> entries = new ArrayList<>();
 
-        for (Voucher voucher : vouchers) {
-            List<VoucherEntry> voucherEntries = voucherEntryRepository.findAll().stream()
-                    .filter(ve -> ve.getVoucher().getId().equals(voucher.getId()))
-                    .collect(Collectors.toList());
-            
-            for (VoucherEntry entry : voucherEntries) {
-                DaybookEntryDto daybookEntry = new DaybookEntryDto();
-                daybookEntry.setDate(voucher.getDate());
-                daybookEntry.setTime(voucher.getDate().atStartOfDay());
-                daybookEntry.setTransactionType("VOUCHER");
-                daybookEntry.setTransactionId(voucher.getId().toString());
-                daybookEntry.setReferenceNumber(voucher.getNarration());
-                daybookEntry.setAccountName(entry.getAccount().getName());
-                daybookEntry.setAccountCode(entry.getAccount().getCode());
-                daybookEntry.setParticulars(entry.getDescription());
-                daybookEntry.setDebitAmount(entry.getDebit());
-                daybookEntry.setCreditAmount(entry.getCredit());
-                daybookEntry.setVoucherType(voucher.getType());
-                daybookEntry.setNarration(voucher.getNarration());
-                entries.add(daybookEntry);
-            }
+        for (VoucherEntry entry : voucherEntryRepository.findForDaybook(startDate, endDate)) {
+            Voucher voucher = entry.getVoucher();
+            DaybookEntryDto daybookEntry = new DaybookEntryDto();
+            daybookEntry.setDate(voucher.getDate());
+            daybookEntry.setTime(voucher.getDate().atStartOfDay());
+            daybookEntry.setTransactionType("VOUCHER");
+            daybookEntry.setTransactionId(voucher.getId().toString());
+            daybookEntry.setReferenceNumber(voucher.getNarration());
+            daybookEntry.setAccountName(entry.getAccount().getName());
+            daybookEntry.setAccountCode(entry.getAccount().getCode());
+            daybookEntry.setParticulars(entry.getDescription());
+            daybookEntry.setDebitAmount(entry.getDebit());
+            daybookEntry.setCreditAmount(entry.getCredit());
+            daybookEntry.setVoucherType(voucher.getType());
+            daybookEntry.setNarration(voucher.getNarration());
+            entries.add(daybookEntry);
         }
         return entries;
     }
@@ -115,29 +121,24 @@ public class DaybookService {
      * Get order entries
      */
     private List<DaybookEntryDto> getOrderEntries(LocalDate startDate, LocalDate endDate) {
-        List<Order> orders = orderRepository.findAll().stream()
-                .filter(o -> o.getCreatedAt().isAfter(startDate.atStartOfDay()) && 
-                           o.getCreatedAt().isBefore(endDate.atTime(23, 59, 59)))
-                .collect(Collectors.toList());
+        List<Order> orders = orderRepository.findConfirmedForDaybook(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
         List<DaybookEntryDto> entries = new ArrayList<>();
 
         for (Order order : orders) {
-            if ("Confirmed".equals(order.getOrderStatus()) && order.getTotal() != null) {
-                DaybookEntryDto daybookEntry = new DaybookEntryDto();
-                daybookEntry.setDate(order.getCreatedAt().toLocalDate());
-                daybookEntry.setTime(order.getCreatedAt());
-                daybookEntry.setTransactionType("ORDER");
-                daybookEntry.setTransactionId(order.getId().toString());
-                daybookEntry.setReferenceNumber(order.getInvoiceNumber() != null ? order.getInvoiceNumber() : "ORD-" + order.getId());
-                daybookEntry.setAccountName(order.getName());
-                daybookEntry.setAccountCode(order.getBillType()); // Pakka/Kaccha
-                daybookEntry.setParticulars("Order - " + order.getName());
-                daybookEntry.setDebitAmount(order.getTotal());
-                daybookEntry.setCreditAmount(BigDecimal.ZERO);
-                daybookEntry.setVoucherType("SALES");
-                daybookEntry.setNarration("Order Confirmation - " + order.getName());
-                entries.add(daybookEntry);
-            }
+            DaybookEntryDto daybookEntry = new DaybookEntryDto();
+            daybookEntry.setDate(order.getCreatedAt().toLocalDate());
+            daybookEntry.setTime(order.getCreatedAt());
+            daybookEntry.setTransactionType("ORDER");
+            daybookEntry.setTransactionId(order.getId().toString());
+            daybookEntry.setReferenceNumber(order.getInvoiceNumber() != null ? order.getInvoiceNumber() : "ORD-" + order.getId());
+            daybookEntry.setAccountName(order.getName());
+            daybookEntry.setAccountCode(order.getBillType()); // Pakka/Kaccha
+            daybookEntry.setParticulars("Order - " + order.getName());
+            daybookEntry.setDebitAmount(order.getTotal());
+            daybookEntry.setCreditAmount(BigDecimal.ZERO);
+            daybookEntry.setVoucherType("SALES");
+            daybookEntry.setNarration("Order Confirmation - " + order.getName());
+            entries.add(daybookEntry);
         }
         return entries;
     }
@@ -146,29 +147,24 @@ public class DaybookService {
      * Get purchase order entries
      */
     private List<DaybookEntryDto> getPurchaseOrderEntries(LocalDate startDate, LocalDate endDate) {
-        List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findAll().stream()
-                .filter(po -> po.getCreatedAt().isAfter(startDate.atStartOfDay()) && 
-                            po.getCreatedAt().isBefore(endDate.atTime(23, 59, 59)))
-                .collect(Collectors.toList());
+        List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findApprovedForDaybook(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
         List<DaybookEntryDto> entries = new ArrayList<>();
 
         for (PurchaseOrder po : purchaseOrders) {
-            if ("APPROVED".equals(po.getStatus()) && po.getTotalAmount() != null) {
-                DaybookEntryDto daybookEntry = new DaybookEntryDto();
-                daybookEntry.setDate(po.getCreatedAt().toLocalDate());
-                daybookEntry.setTime(po.getCreatedAt());
-                daybookEntry.setTransactionType("PURCHASE_ORDER");
-                daybookEntry.setTransactionId(po.getId().toString());
-                daybookEntry.setReferenceNumber("PO-" + po.getId());
-                daybookEntry.setAccountName(po.getSupplier().getCompanyName());
-                daybookEntry.setAccountCode("SUPPLIER");
-                daybookEntry.setParticulars("Purchase Order - " + po.getSupplier().getCompanyName());
-                daybookEntry.setDebitAmount(BigDecimal.ZERO);
-                daybookEntry.setCreditAmount(po.getTotalAmount());
-                daybookEntry.setVoucherType("PURCHASE");
-                daybookEntry.setNarration("Purchase Order - " + po.getSupplier().getCompanyName());
-                entries.add(daybookEntry);
-            }
+            DaybookEntryDto daybookEntry = new DaybookEntryDto();
+            daybookEntry.setDate(po.getCreatedAt().toLocalDate());
+            daybookEntry.setTime(po.getCreatedAt());
+            daybookEntry.setTransactionType("PURCHASE_ORDER");
+            daybookEntry.setTransactionId(po.getId().toString());
+            daybookEntry.setReferenceNumber("PO-" + po.getId());
+            daybookEntry.setAccountName(po.getSupplier().getCompanyName());
+            daybookEntry.setAccountCode("SUPPLIER");
+            daybookEntry.setParticulars("Purchase Order - " + po.getSupplier().getCompanyName());
+            daybookEntry.setDebitAmount(BigDecimal.ZERO);
+            daybookEntry.setCreditAmount(po.getTotalAmount());
+            daybookEntry.setVoucherType("PURCHASE");
+            daybookEntry.setNarration("Purchase Order - " + po.getSupplier().getCompanyName());
+            entries.add(daybookEntry);
         }
         return entries;
     }
@@ -177,29 +173,24 @@ public class DaybookService {
      * Get GRN entries
      */
     private List<DaybookEntryDto> getGRNEntries(LocalDate startDate, LocalDate endDate) {
-        List<GoodsReceivedNote> grns = grnRepository.findAll().stream()
-                .filter(grn -> grn.getReceivedDate().isAfter(startDate.minusDays(1)) && 
-                              grn.getReceivedDate().isBefore(endDate.plusDays(1)))
-                .collect(Collectors.toList());
+        List<GoodsReceivedNote> grns = grnRepository.findApprovedForDaybook(startDate, endDate);
         List<DaybookEntryDto> entries = new ArrayList<>();
 
         for (GoodsReceivedNote grn : grns) {
-            if ("APPROVED".equals(grn.getStatus().name()) && grn.getTotalAmount() != null) {
-                DaybookEntryDto daybookEntry = new DaybookEntryDto();
-                daybookEntry.setDate(grn.getReceivedDate());
-                daybookEntry.setTime(grn.getReceivedDate().atStartOfDay());
-                daybookEntry.setTransactionType("GRN");
-                daybookEntry.setTransactionId(grn.getId().toString());
-                daybookEntry.setReferenceNumber(grn.getGrnNumber());
-                daybookEntry.setAccountName(grn.getSupplier().getCompanyName());
-                daybookEntry.setAccountCode("SUPPLIER");
-                daybookEntry.setParticulars("GRN - " + grn.getSupplier().getCompanyName());
-                daybookEntry.setDebitAmount(grn.getTotalAmount());
-                daybookEntry.setCreditAmount(BigDecimal.ZERO);
-                daybookEntry.setVoucherType("PURCHASE");
-                daybookEntry.setNarration("GRN Approval - " + grn.getGrnNumber());
-                entries.add(daybookEntry);
-            }
+            DaybookEntryDto daybookEntry = new DaybookEntryDto();
+            daybookEntry.setDate(grn.getReceivedDate());
+            daybookEntry.setTime(grn.getReceivedDate().atStartOfDay());
+            daybookEntry.setTransactionType("GRN");
+            daybookEntry.setTransactionId(grn.getId().toString());
+            daybookEntry.setReferenceNumber(grn.getGrnNumber());
+            daybookEntry.setAccountName(grn.getSupplier().getCompanyName());
+            daybookEntry.setAccountCode("SUPPLIER");
+            daybookEntry.setParticulars("GRN - " + grn.getSupplier().getCompanyName());
+            daybookEntry.setDebitAmount(grn.getTotalAmount());
+            daybookEntry.setCreditAmount(BigDecimal.ZERO);
+            daybookEntry.setVoucherType("PURCHASE");
+            daybookEntry.setNarration("GRN Approval - " + grn.getGrnNumber());
+            entries.add(daybookEntry);
         }
         return entries;
     }
@@ -208,29 +199,24 @@ public class DaybookService {
      * Get outstanding payment entries
      */
     private List<DaybookEntryDto> getOutstandingPaymentEntries(LocalDate startDate, LocalDate endDate) {
-        List<Outstanding> outstandingItems = outstandingRepository.findAll().stream()
-                .filter(o -> o.getCreatedAt().isAfter(startDate.atStartOfDay()) && 
-                           o.getCreatedAt().isBefore(endDate.atTime(23, 59, 59)))
-                .collect(Collectors.toList());
+        List<Outstanding> outstandingItems = outstandingRepository.findSettledForDaybook(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
         List<DaybookEntryDto> entries = new ArrayList<>();
 
         for (Outstanding outstanding : outstandingItems) {
-            if ("SETTLED".equals(outstanding.getStatus().name()) && outstanding.getAmount() != null) {
-                DaybookEntryDto daybookEntry = new DaybookEntryDto();
-                daybookEntry.setDate(outstanding.getCreatedAt().toLocalDate());
-                daybookEntry.setTime(outstanding.getCreatedAt());
-                daybookEntry.setTransactionType("OUTSTANDING_PAYMENT");
-                daybookEntry.setTransactionId(outstanding.getId().toString());
-                daybookEntry.setReferenceNumber(outstanding.getReferenceNumber());
-                daybookEntry.setAccountName(outstanding.getContactInfo());
-                daybookEntry.setAccountCode("PAYMENT");
-                daybookEntry.setParticulars("Payment - " + outstanding.getReferenceNumber());
-                daybookEntry.setDebitAmount(BigDecimal.ZERO);
-                daybookEntry.setCreditAmount(outstanding.getAmount());
-                daybookEntry.setVoucherType("PAYMENT");
-                daybookEntry.setNarration("Outstanding Payment - " + outstanding.getReferenceNumber());
-                entries.add(daybookEntry);
-            }
+            DaybookEntryDto daybookEntry = new DaybookEntryDto();
+            daybookEntry.setDate(outstanding.getCreatedAt().toLocalDate());
+            daybookEntry.setTime(outstanding.getCreatedAt());
+            daybookEntry.setTransactionType("OUTSTANDING_PAYMENT");
+            daybookEntry.setTransactionId(outstanding.getId().toString());
+            daybookEntry.setReferenceNumber(outstanding.getReferenceNumber());
+            daybookEntry.setAccountName(outstanding.getContactInfo());
+            daybookEntry.setAccountCode("PAYMENT");
+            daybookEntry.setParticulars("Payment - " + outstanding.getReferenceNumber());
+            daybookEntry.setDebitAmount(BigDecimal.ZERO);
+            daybookEntry.setCreditAmount(outstanding.getAmount());
+            daybookEntry.setVoucherType("PAYMENT");
+            daybookEntry.setNarration("Outstanding Payment - " + outstanding.getReferenceNumber());
+            entries.add(daybookEntry);
         }
         return entries;
     }
@@ -239,10 +225,7 @@ public class DaybookService {
      * Get supplier ledger entries
      */
     private List<DaybookEntryDto> getSupplierLedgerEntries(LocalDate startDate, LocalDate endDate) {
-        List<SupplierLedgerEntry> ledgerEntries = supplierLedgerEntryRepository.findAll().stream()
-                .filter(se -> se.getEntryDate().isAfter(startDate.atStartOfDay()) && 
-                            se.getEntryDate().isBefore(endDate.atTime(23, 59, 59)))
-                .collect(Collectors.toList());
+        List<SupplierLedgerEntry> ledgerEntries = supplierLedgerEntryRepository.findForDaybook(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
         List<DaybookEntryDto> entries = new ArrayList<>();
 
         for (SupplierLedgerEntry entry : ledgerEntries) {
@@ -268,10 +251,7 @@ public class DaybookService {
      * Get customer ledger entries
      */
     private List<DaybookEntryDto> getCustomerLedgerEntries(LocalDate startDate, LocalDate endDate) {
-        List<CustomerLedgerEntry> ledgerEntries = customerLedgerEntryRepository.findAll().stream()
-                .filter(ce -> ce.getEntryDate().isAfter(startDate.atStartOfDay()) && 
-                            ce.getEntryDate().isBefore(endDate.atTime(23, 59, 59)))
-                .collect(Collectors.toList());
+        List<CustomerLedgerEntry> ledgerEntries = customerLedgerEntryRepository.findForDaybook(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
         List<DaybookEntryDto> entries = new ArrayList<>();
 
         for (CustomerLedgerEntry entry : ledgerEntries) {
@@ -296,6 +276,7 @@ public class DaybookService {
     /**
      * Get daybook summary for a date range
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DaybookSummaryDto getDaybookSummary(LocalDate startDate, LocalDate endDate) {
         List<DaybookEntryDto> entries = getDaybookEntries(startDate, endDate);
         
@@ -316,4 +297,4 @@ public class DaybookService {
         
         return summary;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
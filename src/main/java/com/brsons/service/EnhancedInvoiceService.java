@@ -4,6 +4,7 @@ import com.brsons.model.Order;
 import com.brsons.model.OrderItem;
 import com.brsons.model.Invoice;
 import com.brsons.repository.InvoiceRepository;
+import io.micrometer.core.annotation.Timed;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfWriter;
 import com.lowagie.text.pdf.PdfPTable;
@@ -27,11 +28,15 @@ public class EnhancedInvoiceService {
 
     @Autowired
     private InvoiceRepository invoiceRepository;
+    
+    @Autowired
+    private GstEngine gstEngine;
 
     /**
      * Generate invoice PDF at checkout and store in order
      * This should be called when the order is created
      */
+    @Timed(value = "invoice.render", extraTags = {"source", "checkout"})
     public byte[] generateInvoiceAtCheckout(Order order) {
         // Generate the invoice PDF
         byte[] pdfContent = generateEnhancedInvoicePdf(order);
@@ -47,6 +52,7 @@ public class EnhancedInvoiceService {
      * Get stored invoice PDF from order (no regeneration)
      * This is called when user clicks download invoice
      */
+    @Timed(value = "invoice.render", extraTags = {"source", "stored"})
     public byte[] getStoredInvoice(Order order) {
         // TODO: Fix these method calls when Order model is updated
         // if (order.getInvoicePdfContent() != null && order.getInvoicePdfContent().length > 0) {
@@ -62,6 +68,7 @@ public class EnhancedInvoiceService {
      * If invoice exists and is not expired, return cached version
      * Otherwise, generate new invoice and cache it
      */
+    @Timed(value = "invoice.render", extraTags = {"source", "cached"})
     public byte[] getOrGenerateInvoice(Order order) {
         // TODO: Fix these method calls when Invoice model is updated
         // Check if we have a cached, non-expired invoice
@@ -303,28 +310,9 @@ public class EnhancedInvoiceService {
         // Subtotal row
         addSummaryRow(summaryTable, "Subtotal:", "₹" + subTotal.toString(), summaryLabelFont, summaryValueFont);
         
-        // Tax breakdown based on tax type
-        String taxType = order.getTaxType();
-        
-        if ("CGST_SGST".equals(taxType)) {
-            // Show CGST and SGST separately
-            if (order.getCgstAmount() != null && order.getCgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-                addSummaryRow(summaryTable, "CGST (" + (order.getCgstRate() != null ? order.getCgstRate().toString() : "0") + "%):", 
-                             "₹" + order.getCgstAmount().toString(), summaryLabelFont, summaryValueFont);
-            }
-            if (order.getSgstAmount() != null && order.getSgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-                addSummaryRow(summaryTable, "SGST (" + (order.getSgstRate() != null ? order.getSgstRate().toString() : "0") + "%):", 
-                             "₹" + order.getSgstAmount().toString(), summaryLabelFont, summaryValueFont);
-            }
-        } else if ("IGST".equals(taxType)) {
-            // Show IGST
-            if (order.getIgstAmount() != null && order.getIgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-                addSummaryRow(summaryTable, "IGST (" + (order.getIgstRate() != null ? order.getIgstRate().toString() : "0") + "%):", 
-                             "₹" + order.getIgstAmount().toString(), summaryLabelFont, summaryValueFont);
-            }
-        } else {
-            // Fallback to generic GST
-            addSummaryRow(summaryTable, "GST (" + gstRate + "%):", "₹" + gstAmount.toString(), summaryLabelFont, summaryValueFont);
+        // Tax rows per tax head and GST rate slab
+        for (String[] row : gstEngine.invoiceTaxRows(order)) {
+            addSummaryRow(summaryTable, row[0] + ":", "₹" + row[1], summaryLabelFont, summaryValueFont);
         }
         
         // Separator line
@@ -0,0 +1,294 @@
+package com.brsons.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends files from disk with HTTP caching: ETag and Last-Modified with 304
+ * answers to conditional requests, a caller-chosen Cache-Control, and single
+ * byte ranges (206) for resumable downloads.
+ *
+ * Small files are kept in a size-bounded LRU in memory. Larger ones go
+ * through the container's sendfile when it offers it (Tomcat NIO), otherwise
+ * through FileChannel.transferTo, so the body is never read into the heap.
+ */
+@Service
+public class FileServingService {
+
+    /** Content-addressed URLs: the bytes behind the URL never change. */
+    public static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    /** Shared files that may change: cache, but revalidate every use. */
+    public static final String CACHE_REVALIDATE = "public, no-cache";
+
+    /** Per-user files (invoices): browser cache only, revalidated. */
+    public static final String CACHE_PRIVATE = "private, no-cache";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Value("${files.memory-cache.max-file-bytes:262144}")
+    private long maxCachedFileBytes = 262144;
+
+    @Value("${files.memory-cache.max-total-bytes:33554432}")
+    private long maxCachedTotalBytes = 33554432;
+
+    @Value("${files.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes = 49152;
+
+    private final Map<Path, CachedFile> hotFiles = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong partial = new AtomicLong();
+    private final AtomicLong sendfile = new AtomicLong();
+
+    /**
+     * Write file to the response, or 304/206/416 as the request headers ask.
+     * contentDisposition may be null. Sends 404 when the file is missing.
+     */
+    public void serve(Path file, String contentType, String contentDisposition, String cacheControl,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = attributes.size();
+        // HTTP dates have whole-second precision
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", cacheControl);
+        response.setHeader("Accept-Ranges", "bytes");
+
+        if (isNotModified(request, etag, lastModified)) {
+            notModified.incrementAndGet();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(contentType);
+        if (contentDisposition != null) {
+            response.setHeader("Content-Disposition", contentDisposition);
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader("Range");
+        if (range != null && length > 0 && rangeApplies(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                partial.incrementAndGet();
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (length <= maxCachedFileBytes) {
+            byte[] bytes = cachedBytes(file, etag, length);
+            response.getOutputStream().write(bytes, (int) start, (int) Math.min(count, Math.max(0, bytes.length - start)));
+            return;
+        }
+        if (count >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat sends the file itself once this request returns
+            sendfile.incrementAndGet();
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (hotFiles) {
+            stats.put("cachedFiles", hotFiles.size());
+            stats.put("cachedBytes", cachedBytes);
+        }
+        stats.put("maxCachedBytes", maxCachedTotalBytes);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("notModified", notModified.get());
+        stats.put("partial", partial.get());
+        stats.put("sendfile", sendfile.get());
+        return stats;
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return false;
+        }
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, "If-Modified-Since");
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Range: only honour the range while the client's copy is still current
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long date = dateHeader(request, "If-Range");
+        return date >= 0 && lastModified <= date;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parse a Range header against the file length. Returns {start, end}
+     * for one satisfiable range, an empty array to send the whole file
+     * (multiple ranges or a unit other than bytes), or null if unsatisfiable.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    // Bytes of a small file, reloaded when its size or timestamp changed
+    private byte[] cachedBytes(Path file, String etag, long length) throws IOException {
+        synchronized (hotFiles) {
+            CachedFile cached = hotFiles.get(file);
+            if (cached != null && cached.etag.equals(etag)) {
+                memoryHits.incrementAndGet();
+                return cached.bytes;
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length != length) {
+            // Changed while being read; serve it but do not cache under the old tag
+            return bytes;
+        }
+        synchronized (hotFiles) {
+            CachedFile previous = hotFiles.put(file, new CachedFile(etag, bytes));
+            if (previous != null) {
+                cachedBytes -= previous.bytes.length;
+            }
+            cachedBytes += bytes.length;
+            var eldest = hotFiles.entrySet().iterator();
+            while (cachedBytes > maxCachedTotalBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().getValue().bytes.length;
+                eldest.remove();
+            }
+        }
+        return bytes;
+    }
+
+    private static final class CachedFile {
+        private final String etag;
+        private final byte[] bytes;
+
+        private CachedFile(String etag, byte[] bytes) {
+            this.etag = etag;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -22,6 +22,8 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.EnumMap;
+import java.util.Map;
 import com.brsons.model.GoodsReceivedNote.GRNStatus;
 
 @Service
@@ -396,17 +398,25 @@ public class GRNService {
     
     // Get GRN statistics
     public GRNStatistics getGRNStatistics() {
-        long totalGRNs = grnRepository.count();
-        long draftGRNs = grnRepository.countByStatus(GoodsReceivedNote.GRNStatus.DRAFT);
-        long receivedGRNs = grnRepository.countByStatus(GoodsReceivedNote.GRNStatus.RECEIVED);
-        long inspectedGRNs = grnRepository.countByStatus(GoodsReceivedNote.GRNStatus.INSPECTED);
-        long approvedGRNs = grnRepository.countByStatus(GoodsReceivedNote.GRNStatus.APPROVED);
-        long rejectedGRNs = grnRepository.countByStatus(GoodsReceivedNote.GRNStatus.REJECTED);
-        long cancelledGRNs = grnRepository.countByStatus(GoodsReceivedNote.GRNStatus.CANCELLED);
+        // One GROUP BY status query instead of a count per status
+        Map<GoodsReceivedNote.GRNStatus, Long> byStatus = new EnumMap<>(GoodsReceivedNote.GRNStatus.class);
+        long totalGRNs = 0;
+        for (Object[] row : grnRepository.countGroupedByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            if (row[0] != null) {
+                byStatus.put((GoodsReceivedNote.GRNStatus) row[0], count);
+            }
+            totalGRNs += count;
+        }
         
         return new GRNStatistics(
-            totalGRNs, draftGRNs, receivedGRNs, inspectedGRNs, 
-            approvedGRNs, rejectedGRNs, cancelledGRNs
+            totalGRNs,
+            byStatus.getOrDefault(GoodsReceivedNote.GRNStatus.DRAFT, 0L),
+            byStatus.getOrDefault(GoodsReceivedNote.GRNStatus.RECEIVED, 0L),
+            byStatus.getOrDefault(GoodsReceivedNote.GRNStatus.INSPECTED, 0L),
+            byStatus.getOrDefault(GoodsReceivedNote.GRNStatus.APPROVED, 0L),
+            byStatus.getOrDefault(GoodsReceivedNote.GRNStatus.REJECTED, 0L),
+            byStatus.getOrDefault(GoodsReceivedNote.GRNStatus.CANCELLED, 0L)
         );
     }
     
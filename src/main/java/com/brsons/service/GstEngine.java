@@ -0,0 +1,278 @@
+package com.brsons.service;
+
+import com.brsons.dto.GstSlab;
+import com.brsons.model.CartItemDetails;
+import com.brsons.model.Order;
+import com.brsons.model.OrderItem;
+import com.brsons.model.Product;
+import com.brsons.model.TaxBreakdown;
+import com.brsons.model.TaxPlan;
+import com.brsons.repository.ProductRepository;
+import com.brsons.util.GstRounding;
+import com.brsons.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-line, multi-rate GST calculation shared by the cart, checkout, invoices
+ * and tax summaries.
+ *
+ * Each product's CGST/SGST/IGST percentages are compiled once into an
+ * immutable {@link TaxPlan} cached by product id. A cached plan is reused as
+ * long as the product still has the same rates, so edits take effect on the
+ * next calculation without an eviction hook.
+ */
+@Service
+public class GstEngine {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${gst.rounding:PER_LINE}")
+    private GstRounding rounding = GstRounding.PER_LINE;
+
+    private final Map<Long, TaxPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Cached tax plan of a product.
+     */
+    public TaxPlan planFor(Product product) {
+        if (product == null) {
+            return TaxPlan.NONE;
+        }
+        if (product.getId() == null) {
+            return TaxPlan.of(product);
+        }
+        TaxPlan plan = plans.get(product.getId());
+        if (plan == null || !plan.matches(product)) {
+            plan = TaxPlan.of(product);
+            plans.put(product.getId(), plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Tax of a cart, line by line at each product's own rate.
+     */
+    public TaxBreakdown calculateCart(List<CartItemDetails> items, boolean intraState) {
+        TaxBreakdown breakdown = new TaxBreakdown(rounding);
+        for (CartItemDetails item : items) {
+            breakdown.addLine(planFor(item.getProduct()), intraState, item.getLineTotal());
+        }
+        return breakdown;
+    }
+
+    /**
+     * Tax of an order's items. Products are loaded in one query; custom items
+     * without a product keep the rate recorded on them, and only items never
+     * taxed before use the fallback plan. Each item gets its line tax and its
+     * product's HSN code recorded so invoices and summaries can be rebuilt
+     * from the order alone, whatever happens to the product later; the
+     * recorded amounts follow the same rounding rule as the breakdown, so they
+     * add up to its totals.
+     */
+    public TaxBreakdown calculateOrder(List<OrderItem> items, boolean intraState, TaxPlan fallback) {
+        TaxBreakdown breakdown = new TaxBreakdown(rounding);
+        if (items == null || items.isEmpty()) {
+            return breakdown;
+        }
+        Map<Long, Product> products = loadProducts(items);
+        TaxPlan[] linePlans = new TaxPlan[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            Product product = item.getProductId() != null ? products.get(item.getProductId()) : null;
+            if (product != null) {
+                linePlans[i] = planFor(product);
+                item.setHsnCode(product.getHsnCode() != null ? product.getHsnCode().trim() : "");
+            } else if (item.getGstRate() != null) {
+                linePlans[i] = TaxPlan.ofCombinedRate(item.getGstRate());
+            } else {
+                linePlans[i] = fallback;
+            }
+            breakdown.addLine(linePlans[i], intraState, Money.of(item.getTotalPrice()));
+        }
+        recordLineTax(items, linePlans, intraState);
+        return breakdown;
+    }
+
+    /**
+     * Rate slabs of a finalized order, from the line tax stored on its items.
+     * Orders invoiced before line tax was recorded get one slab from the
+     * order-level totals.
+     */
+    public List<GstSlab> slabsForOrder(Order order) {
+        List<OrderItem> items = order.getOrderItems();
+        boolean recorded = items != null && !items.isEmpty();
+        if (recorded) {
+            for (OrderItem item : items) {
+                if (item.getGstRate() == null) {
+                    recorded = false;
+                    break;
+                }
+            }
+        }
+        if (recorded) {
+            Map<BigDecimal, BigDecimal[]> bySlab = new HashMap<>();
+            for (OrderItem item : items) {
+                BigDecimal[] totals = bySlab.computeIfAbsent(item.getGstRate().setScale(2),
+                        r -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO });
+                totals[0] = totals[0].add(nz(item.getTotalPrice()));
+                totals[1] = totals[1].add(nz(item.getCgstAmount()));
+                totals[2] = totals[2].add(nz(item.getSgstAmount()));
+                totals[3] = totals[3].add(nz(item.getIgstAmount()));
+            }
+            List<GstSlab> slabs = new ArrayList<>();
+            bySlab.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(e -> slabs.add(new GstSlab(e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[2], e.getValue()[3])));
+            return slabs;
+        }
+
+        List<GstSlab> slabs = new ArrayList<>();
+        BigDecimal cgst = nz(order.getCgstAmount());
+        BigDecimal sgst = nz(order.getSgstAmount());
+        BigDecimal igst = nz(order.getIgstAmount());
+        BigDecimal rate;
+        if (igst.signum() > 0) {
+            rate = nz(order.getIgstRate());
+        } else if (cgst.signum() > 0 || sgst.signum() > 0) {
+            rate = nz(order.getCgstRate()).add(nz(order.getSgstRate()));
+        } else {
+            rate = nz(order.getGstRate());
+        }
+        slabs.add(new GstSlab(rate.setScale(2), nz(order.getSubTotal()), cgst, sgst, igst));
+        return slabs;
+    }
+
+    /**
+     * Label/amount rows for invoice PDFs: CGST + SGST or IGST per
+     * rate slab, or a single GST row for orders without a tax type.
+     */
+    public List<String[]> invoiceTaxRows(Order order) {
+        List<String[]> rows = new ArrayList<>();
+        String taxType = order.getTaxType();
+        if (!"CGST_SGST".equals(taxType) && !"IGST".equals(taxType)) {
+            String rate = order.getGstRate() != null ? order.getGstRate().stripTrailingZeros().toPlainString() : "0";
+            rows.add(new String[] { "GST (" + rate + "%)", nz(order.getGstAmount()).toString() });
+            return rows;
+        }
+        for (GstSlab slab : slabsForOrder(order)) {
+            if (slab.getTotalTax().signum() <= 0) {
+                continue;
+            }
+            if (slab.isIntraState()) {
+                String half = slab.getHalfRate().stripTrailingZeros().toPlainString();
+                rows.add(new String[] { "CGST (" + half + "%)", slab.getCgstAmount().toString() });
+                rows.add(new String[] { "SGST (" + half + "%)", slab.getSgstAmount().toString() });
+            } else {
+                rows.add(new String[] { "IGST (" + slab.getRate().stripTrailingZeros().toPlainString() + "%)", slab.getIgstAmount().toString() });
+            }
+        }
+        return rows;
+    }
+
+    public GstRounding getRounding() {
+        return rounding;
+    }
+
+    private Map<Long, Product> loadProducts(List<OrderItem> items) {
+        Set<Long> ids = new HashSet<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() != null && !Boolean.TRUE.equals(item.getIsCustomProduct())) {
+                ids.add(item.getProductId());
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Product product : productRepository.findAllById(ids)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
+    private void recordLineTax(List<OrderItem> items, TaxPlan[] linePlans, boolean intraState) {
+        int count = items.size();
+        long[] slabs = new long[count];
+        long[] cgst = new long[count];
+        long[] sgst = new long[count];
+        long[] igst = new long[count];
+        for (int i = 0; i < count; i++) {
+            TaxPlan plan = linePlans[i];
+            long paise = Money.of(items.get(i).getTotalPrice()).getPaise();
+            slabs[i] = plan.slabBasisPoints(intraState);
+            if (intraState) {
+                cgst[i] = Math.multiplyExact(paise, plan.getCgstBp());
+                sgst[i] = Math.multiplyExact(paise, plan.getSgstBp());
+            } else {
+                igst[i] = Math.multiplyExact(paise, plan.getIgstBp());
+            }
+        }
+        long[] cgstPaise = roundLines(cgst, slabs);
+        long[] sgstPaise = roundLines(sgst, slabs);
+        long[] igstPaise = roundLines(igst, slabs);
+        for (int i = 0; i < count; i++) {
+            OrderItem item = items.get(i);
+            item.setGstRate(BigDecimal.valueOf(slabs[i], 2));
+            item.setCgstAmount(Money.ofPaise(cgstPaise[i]).toBigDecimal());
+            item.setSgstAmount(Money.ofPaise(sgstPaise[i]).toBigDecimal());
+            item.setIgstAmount(Money.ofPaise(igstPaise[i]).toBigDecimal());
+        }
+    }
+
+    /**
+     * Line tax in paise for one tax head. PER_LINE rounds each line, like the
+     * breakdown. PER_INVOICE rounds each slab's total once and hands its paise
+     * to the lines by largest remainder, so the lines still add up to the
+     * invoice amount.
+     */
+    private long[] roundLines(long[] units, long[] slabs) {
+        int count = units.length;
+        long[] paise = new long[count];
+        if (rounding == GstRounding.PER_LINE) {
+            for (int i = 0; i < count; i++) {
+                paise[i] = Money.roundTaxUnits(units[i]);
+            }
+            return paise;
+        }
+        boolean[] done = new boolean[count];
+        for (int first = 0; first < count; first++) {
+            if (done[first]) {
+                continue;
+            }
+            List<Integer> lines = new ArrayList<>();
+            long slabUnits = 0L;
+            long floored = 0L;
+            for (int i = first; i < count; i++) {
+                if (!done[i] && slabs[i] == slabs[first]) {
+                    done[i] = true;
+                    lines.add(i);
+                    slabUnits += units[i];
+                    paise[i] = Math.floorDiv(units[i], Money.TAX_UNITS_PER_PAISA);
+                    floored += paise[i];
+                }
+            }
+            long left = Money.roundTaxUnits(slabUnits) - floored;
+            lines.sort((a, b) -> Long.compare(Math.floorMod(units[b], Money.TAX_UNITS_PER_PAISA),
+                    Math.floorMod(units[a], Money.TAX_UNITS_PER_PAISA)));
+            for (int i = 0; i < lines.size() && left > 0; i++, left--) {
+                paise[lines.get(i)]++;
+            }
+        }
+        return paise;
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
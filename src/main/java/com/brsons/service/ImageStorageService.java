@@ -0,0 +1,423 @@
+package com.brsons.service;
+
+import com.brsons.model.Category;
+import com.brsons.model.Product;
+import com.brsons.repository.CategoryRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.util.ImageVariants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores uploaded product and category images under storage.dir (outside
+ * the classpath) and pre-generates thumb, card and detail JPEG variants.
+ *
+ * The original is written during the upload request; resizing runs on a
+ * small bounded pool so the admin form returns straight away. Until a
+ * variant exists /uploads serves the original in its place.
+ */
+@Service
+public class ImageStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStorageService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Value("${storage.dir:storage}")
+    private String storageDir = "storage";
+
+    @Value("${storage.images.jpeg-quality:0.82}")
+    private float jpegQuality = 0.82f;
+
+    @Value("${storage.images.workers:2}")
+    private int workers = 2;
+
+    @Value("${storage.images.queue-size:200}")
+    private int queueSize = 200;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong unreadable = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger backfilled = new AtomicInteger();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // When the queue is full the uploading request resizes its own image
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /** Root that /uploads/** is served from. */
+    public Path getUploadRoot() {
+        return Paths.get(storageDir).toAbsolutePath().normalize().resolve("uploads");
+    }
+
+    /**
+     * Save an uploaded image and queue its variants. Returns the detail
+     * variant URL to store on the entity. folder may be null or e.g. "categories".
+     */
+    public String store(MultipartFile file, String folder) throws IOException {
+        String extension = extensionOf(file.getOriginalFilename());
+        Path dir = newImageDir(folder);
+        Path original = dir.resolve(ImageVariants.ORIGINAL + extension);
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, original, StandardCopyOption.REPLACE_EXISTING);
+        }
+        executor.execute(() -> generateVariants(original));
+        return urlOf(dir);
+    }
+
+    /**
+     * Write every variant of an original. Returns false when ImageIO cannot
+     * decode it (e.g. WebP); the original is then served for every size.
+     */
+    public boolean generateVariants(Path original) {
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                unreadable.incrementAndGet();
+                log.info("No image reader for {}, serving the original for all sizes", original);
+                return false;
+            }
+            for (String variant : ImageVariants.NAMES) {
+                BufferedImage scaled = scale(source, ImageVariants.maxEdge(variant));
+                writeJpeg(scaled, original.resolveSibling(ImageVariants.fileName(variant)));
+            }
+            generated.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("Error generating image variants for {}: {}", original, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Start moving pre-existing single-file uploads into the variant layout.
+     * Returns false when a backfill is already running.
+     */
+    public boolean startBackfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                int moved = backfill();
+                log.info("Image backfill completed: {} images converted", moved);
+            } catch (Exception e) {
+                log.error("Error during image backfill", e);
+            } finally {
+                backfillRunning.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Convert legacy image URLs on every product and category. Each image is
+     * copied into its own folder and resized in this thread; the entity is
+     * saved only after its new URLs exist. Returns the number of images converted.
+     */
+    public int backfill() {
+        Map<String, String> converted = new HashMap<>();
+        for (Product product : productRepository.findAll()) {
+            String[] urls = { product.getImage1(), product.getImage2(), product.getImage3(),
+                    product.getImage4(), product.getImage5(), product.getMainPhoto() };
+            boolean changed = false;
+            for (int i = 0; i < urls.length; i++) {
+                String replacement = convertLegacy(urls[i], null, converted);
+                if (replacement != null) {
+                    urls[i] = replacement;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                product.setImage1(urls[0]);
+                product.setImage2(urls[1]);
+                product.setImage3(urls[2]);
+                product.setImage4(urls[3]);
+                product.setImage5(urls[4]);
+                product.setMainPhoto(urls[5]);
+                productRepository.save(product);
+            }
+        }
+        for (Category category : categoryRepository.findAll()) {
+            String replacement = convertLegacy(category.getImage(), "categories", converted);
+            if (replacement != null) {
+                category.setImage(replacement);
+                categoryRepository.save(category);
+            }
+        }
+        int moved = converted.size();
+        backfilled.addAndGet(moved);
+        return moved;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("storageDir", getUploadRoot().toString());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("generated", generated.get());
+        stats.put("unreadable", unreadable.get());
+        stats.put("failed", failed.get());
+        stats.put("backfillRunning", backfillRunning.get());
+        stats.put("backfilled", backfilled.get());
+        return stats;
+    }
+
+    // New URL for a legacy upload, or null if it is not one or its file is gone
+    private String convertLegacy(String url, String folder, Map<String, String> converted) {
+        if (url == null || !url.startsWith("/uploads/") || ImageVariants.isVariantUrl(url)) {
+            return null;
+        }
+        String done = converted.get(url);
+        if (done != null) {
+            return done;
+        }
+        Path relative = safeRelative(url.substring("/uploads/".length()));
+        if (relative == null) {
+            return null;
+        }
+        try (InputStream in = openLegacy(relative)) {
+            if (in == null) {
+                log.warn("Image backfill: file not found for {}", url);
+                return null;
+            }
+            Path dir = newImageDir(folder);
+            Path original = dir.resolve(ImageVariants.ORIGINAL + extensionOf(url));
+            Files.copy(in, original, StandardCopyOption.REPLACE_EXISTING);
+            generateVariants(original);
+            String replacement = urlOf(dir);
+            converted.put(url, replacement);
+            return replacement;
+        } catch (IOException e) {
+            log.warn("Image backfill failed for {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * File to send for a path under /uploads: the file itself; else, for a
+     * variant still being generated (or never, for WebP), the original next
+     * to it, flagged provisional; else a legacy upload, copied into storage
+     * on first request. Null when nothing matches or the path escapes the root.
+     */
+    public ResolvedUpload resolveUpload(String relativePath) throws IOException {
+        Path relative = safeRelative(relativePath);
+        if (relative == null) {
+            return null;
+        }
+        Path file = getUploadRoot().resolve(relative);
+        if (Files.isRegularFile(file)) {
+            return new ResolvedUpload(file, false);
+        }
+        String fileName = relative.getFileName().toString();
+        if (relative.getParent() != null && isVariantFile(fileName) && Files.isDirectory(file.getParent())) {
+            try (DirectoryStream<Path> originals = Files.newDirectoryStream(file.getParent(), ImageVariants.ORIGINAL + ".*")) {
+                for (Path original : originals) {
+                    return new ResolvedUpload(original, true);
+                }
+            }
+        }
+        try (InputStream in = openLegacy(relative)) {
+            if (in == null) {
+                return null;
+            }
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), fileName, ".tmp");
+            try {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return new ResolvedUpload(file, false);
+    }
+
+    /** A file to serve for an upload URL; provisional files may change later. */
+    public static class ResolvedUpload {
+        private final Path path;
+        private final boolean provisional;
+
+        ResolvedUpload(Path path, boolean provisional) {
+            this.path = path;
+            this.provisional = provisional;
+        }
+
+        public Path getPath() { return path; }
+        public boolean isProvisional() { return provisional; }
+    }
+
+    // Legacy uploads were written to the source tree and packaged under static/
+    private InputStream openLegacy(Path relative) throws IOException {
+        Path stored = getUploadRoot().resolve(relative);
+        if (Files.isRegularFile(stored)) {
+            return Files.newInputStream(stored);
+        }
+        Path source = Paths.get("src/main/resources/static/uploads").resolve(relative);
+        if (Files.isRegularFile(source)) {
+            return Files.newInputStream(source);
+        }
+        ClassPathResource packaged = new ClassPathResource("static/uploads/" + relative.toString().replace('\\', '/'));
+        return packaged.exists() ? packaged.getInputStream() : null;
+    }
+
+    // Relative path with no way out of the upload root, or null
+    private static Path safeRelative(String relativePath) {
+        if (relativePath == null || relativePath.isEmpty()) {
+            return null;
+        }
+        Path relative = Paths.get(relativePath).normalize();
+        if (relative.isAbsolute() || relative.startsWith("..") || relative.toString().isEmpty()) {
+            return null;
+        }
+        return relative;
+    }
+
+    private static boolean isVariantFile(String fileName) {
+        for (String variant : ImageVariants.NAMES) {
+            if (ImageVariants.fileName(variant).equals(fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path newImageDir(String folder) throws IOException {
+        Path parent = folder != null ? getUploadRoot().resolve(folder) : getUploadRoot();
+        return Files.createDirectories(parent.resolve(UUID.randomUUID().toString()));
+    }
+
+    private String urlOf(Path dir) {
+        String relative = getUploadRoot().relativize(dir).toString().replace('\\', '/');
+        return "/uploads/" + relative + "/" + ImageVariants.fileName(ImageVariants.DETAIL);
+    }
+
+    private static String extensionOf(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot < fileName.lastIndexOf('/')) {
+            return "";
+        }
+        String extension = fileName.substring(dot).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : "";
+    }
+
+    // Fit within maxEdge without upscaling; halve first so large photos do not alias
+    private static BufferedImage scale(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = draw(current, width, height);
+        }
+        return draw(current, targetWidth, targetHeight);
+    }
+
+    // JPEG has no alpha, so transparent areas are flattened onto white
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        // Write beside the target and rename so a request never sees half a file
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.brsons.service;
 
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.StockChange;
 import com.brsons.model.Product;
+import com.brsons.model.ProductVariant;
 import com.brsons.model.StockMovement;
 import com.brsons.model.PurchaseOrder;
 import com.brsons.model.GoodsReceivedNote;
 import com.brsons.model.CreditNote;
 import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductVariantRepository;
 import com.brsons.repository.StockMovementRepository;
+import com.brsons.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -26,46 +32,31 @@ public class InventoryService {
     @Autowired
     private StockMovementRepository stockMovementRepository;
     
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+    
+    @Autowired
+    private StockLedgerService stockLedgerService;
+    
+    @Autowired
+    private StockMovementQueryService stockMovementQueryService;
+    
     // ==================== BASIC STOCK OPERATIONS ====================
     
     /**
-     * Increase stock for a product
+     * Increase stock for a product (posted through the stock ledger)
      */
     public void increaseStock(Long productId, int quantity, String reason, String referenceType, Long referenceId) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        
-        int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-        int newStock = currentStock + quantity;
-        
-        product.setStockQuantity(newStock);
-        product.setLastUpdated(LocalDateTime.now());
-        productRepository.save(product);
-        
-        // Record stock movement
-        recordStockMovement(product, quantity, "IN", reason, referenceType, referenceId, currentStock, newStock);
+        stockLedgerService.post(StockChange.in(productId, quantity, reason).reference(referenceType, referenceId));
     }
     
     /**
-     * Decrease stock for a product
+     * Decrease stock for a product; fails if on-hand would go below zero
      */
     public void decreaseStock(Long productId, int quantity, String reason, String referenceType, Long referenceId) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        
-        int currentStock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
-        if (currentStock < quantity) {
-            throw new IllegalStateException("Insufficient stock for product " + product.getProductName() + 
-                ". Current: " + currentStock + ", Requested: " + quantity);
-        }
-        
-        int newStock = currentStock - quantity;
-        product.setStockQuantity(newStock);
-        product.setLastUpdated(LocalDateTime.now());
-        productRepository.save(product);
-        
-        // Record stock movement
-        recordStockMovement(product, quantity, "OUT", reason, referenceType, referenceId, currentStock, newStock);
+        stockLedgerService.post(StockChange.out(productId, quantity, reason)
+            .reference(referenceType, referenceId)
+            .requireStock());
     }
     
     /**
@@ -228,22 +219,13 @@ public class InventoryService {
     }
     
     /**
-     * Get stock movements for a product
-     */
-    public List<StockMovement> getStockMovements(Long productId) {
-        if (productId != null) {
-            return stockMovementRepository.findByProductIdOrderByMovementDateDesc(productId);
-        } else {
-            // Return all movements if no product specified
-            return stockMovementRepository.findAll();
-        }
-    }
-    
-    /**
-     * Get all stock movements
+     * Get one page of stock movement history, newest first (see StockMovementQueryService).
+     * Runs outside the class-level transaction so an unfiltered listing can use the count estimate.
      */
-    public List<StockMovement> getAllStockMovements() {
-        return stockMovementRepository.findAll();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public KeysetPage<StockMovement> getStockMovements(Long productId, StockMovement.MovementType movementType,
+                                                      LocalDateTime from, LocalDateTime to, Long afterId, Integer size) {
+        return stockMovementQueryService.findPage(productId, movementType, from, to, afterId, size);
     }
     
     /**
@@ -260,6 +242,20 @@ public class InventoryService {
         return productRepository.findByStockQuantityLessThanEqual(0);
     }
     
+    /**
+     * Get variants whose own stock is below threshold but not out (variants without stock use the product's)
+     */
+    public List<ProductVariant> getLowStockVariants(int threshold) {
+        return productVariantRepository.findLowStockVariants(threshold);
+    }
+    
+    /**
+     * Get variants whose own stock has run out
+     */
+    public List<ProductVariant> getOutOfStockVariants() {
+        return productVariantRepository.findOutOfStockVariants();
+    }
+    
     /**
      * Get recent stock movements (last N days)
      */
@@ -272,11 +268,7 @@ public class InventoryService {
      * Get stock movements for dashboard (limited count)
      */
     public List<StockMovement> getDashboardMovements(int limit) {
-        List<StockMovement> allMovements = stockMovementRepository.findAll();
-        if (allMovements.size() <= limit) {
-            return allMovements;
-        }
-        return allMovements.subList(0, limit);
+        return stockMovementQueryService.findLatest(limit);
     }
     
     // ==================== STOCK VALUATION ====================
@@ -348,19 +340,19 @@ public class InventoryService {
         // Fallback to purchase price
         if (product.getPurchasePrice() != null && product.getPurchasePrice() > 0) {
             System.out.println("    Using purchase price: " + product.getPurchasePrice());
-            return BigDecimal.valueOf(product.getPurchasePrice());
+            return Money.of(product.getPurchasePrice()).toBigDecimal();
         }
         
         // Fallback to retail price
         if (product.getRetailPrice() != null && product.getRetailPrice() > 0) {
             System.out.println("    Using retail price: " + product.getRetailPrice());
-            return BigDecimal.valueOf(product.getRetailPrice());
+            return Money.of(product.getRetailPrice()).toBigDecimal();
         }
         
         // Fallback to b2b price
         if (product.getB2bPrice() != null && product.getB2bPrice() > 0) {
             System.out.println("    Using b2b price: " + product.getB2bPrice());
-            return BigDecimal.valueOf(product.getB2bPrice());
+            return Money.of(product.getB2bPrice()).toBigDecimal();
         }
         
         // Default to 0 if no price is available
@@ -6,6 +6,7 @@ import com.brsons.model.Product;
 import com.brsons.repository.OrderItemRepository;
 import com.brsons.repository.OrderRepository;
 import com.brsons.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +28,8 @@ public class InvoicePdfService {
     private ProductRepository productRepository;
     @Autowired
     private OrderRepository orderRepository;
+    @Autowired
+    private GstEngine gstEngine;
     
     private final OrderItemRepository orderItemRepository;
     
@@ -36,6 +39,7 @@ public class InvoicePdfService {
                                     this.orderItemRepository = orderItemRepository;
                                     }
 
+    @Timed(value = "invoice.render", extraTags = {"source", "latest_order"})
     public void generateInvoicePdf(String userPhone, OutputStream outputStream) {
         try {
             // 1️⃣ Fetch latest order for this user
@@ -130,33 +134,11 @@ public class InvoicePdfService {
 
             // Only show tax for non-B2B orders
             if (!isB2BOrder) {
-                // Show proper tax breakdown based on tax type
-                String taxType = order.getTaxType();
-                
-                if ("CGST_SGST".equals(taxType)) {
-                    // Show CGST and SGST separately
-                    if (order.getCgstAmount() != null && order.getCgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-                        table.addCell(emptyCell);
-                        table.addCell(head("CGST (" + (order.getCgstRate() != null ? order.getCgstRate().toString() : "0") + "%)"));
-                        table.addCell(body(order.getCgstAmount().toString()));
-                    }
-                    if (order.getSgstAmount() != null && order.getSgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-                        table.addCell(emptyCell);
-                        table.addCell(head("SGST (" + (order.getSgstRate() != null ? order.getSgstRate().toString() : "0") + "%)"));
-                        table.addCell(body(order.getSgstAmount().toString()));
-                    }
-                } else if ("IGST".equals(taxType)) {
-                    // Show IGST
-                    if (order.getIgstAmount() != null && order.getIgstAmount().compareTo(BigDecimal.ZERO) > 0) {
-                        table.addCell(emptyCell);
-                        table.addCell(head("IGST (" + (order.getIgstRate() != null ? order.getIgstRate().toString() : "0") + "%)"));
-                        table.addCell(body(order.getIgstAmount().toString()));
-                    }
-                } else {
-                    // Fallback to generic GST
+                // One row per tax head and GST rate slab
+                for (String[] row : gstEngine.invoiceTaxRows(order)) {
                     table.addCell(emptyCell);
-                    table.addCell(head("GST (5%)"));
-                    table.addCell(body(gstAmount.toString()));
+                    table.addCell(head(row[0]));
+                    table.addCell(body(row[1]));
                 }
             }
 
@@ -191,6 +173,7 @@ public class InvoicePdfService {
     }
     
     
+    @Timed(value = "invoice.render", extraTags = {"source", "order"})
     public byte[] render(Order order) {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
 
@@ -285,8 +268,10 @@ public class InvoicePdfService {
             
             // Only show GST for non-B2B orders
             if (!isB2BOrder) {
-                table.addCell(emptyCell);
-                table.addCell(body("GST (5%) : " +gstAmount.toString()));
+                for (String[] row : gstEngine.invoiceTaxRows(order)) {
+                    table.addCell(emptyCell);
+                    table.addCell(body(row[0] + " : " + row[1]));
+                }
             }
             
             table.addCell(emptyCell);              
@@ -0,0 +1,162 @@
+package com.brsons.service;
+
+import com.brsons.model.CustomerLedger;
+import com.brsons.model.SupplierLedger;
+import com.brsons.repository.CustomerLedgerRepository;
+import com.brsons.repository.SupplierLedgerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single entry point for changing customer and supplier ledger balances.
+ *
+ * Balances are never written from the entity. Each posting is applied as an
+ * atomic {@code current_balance = current_balance + delta} update, so two
+ * cashiers posting to the same ledger cannot overwrite each other. The row
+ * stays locked until the surrounding transaction commits, which makes the
+ * balance read back afterwards the exact "balance after" for the entry.
+ *
+ * Listeners registered with onCustomerPosted/onSupplierPosted (the cached
+ * ledger dashboards) run once the posting transaction has committed.
+ */
+@Service
+public class LedgerPostingService {
+
+    @Autowired
+    private CustomerLedgerRepository customerLedgerRepository;
+
+    @Autowired
+    private SupplierLedgerRepository supplierLedgerRepository;
+
+    private final List<Runnable> customerListeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> supplierListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Run the listener after every committed customer posting
+     */
+    public void onCustomerPosted(Runnable listener) {
+        customerListeners.add(listener);
+    }
+
+    /**
+     * Run the listener after every committed supplier posting
+     */
+    public void onSupplierPosted(Runnable listener) {
+        supplierListeners.add(listener);
+    }
+
+    // ==================== CUSTOMER LEDGER ====================
+
+    /**
+     * Debit a customer ledger and return the balance after posting
+     */
+    @Transactional
+    public BigDecimal debitCustomer(CustomerLedger customerLedger, BigDecimal amount) {
+        return postCustomer(customerLedger, amount, BigDecimal.ZERO);
+    }
+
+    /**
+     * Credit a customer ledger and return the balance after posting
+     */
+    @Transactional
+    public BigDecimal creditCustomer(CustomerLedger customerLedger, BigDecimal amount) {
+        return postCustomer(customerLedger, BigDecimal.ZERO, amount);
+    }
+
+    private BigDecimal postCustomer(CustomerLedger customerLedger, BigDecimal debit, BigDecimal credit) {
+        Long ledgerId = requireId(customerLedger.getId(), "Customer");
+        int updated = customerLedgerRepository.applyBalanceDelta(
+            ledgerId, orZero(debit), orZero(credit), LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("Customer ledger not found: " + ledgerId);
+        }
+
+        // Keep the caller's instance in step with the row we just updated
+        Object[] totals = readTotals(customerLedgerRepository.findBalanceTotals(ledgerId), "Customer", ledgerId);
+        customerLedger.setCurrentBalance((BigDecimal) totals[0]);
+        customerLedger.setTotalDebits((BigDecimal) totals[1]);
+        customerLedger.setTotalCredits((BigDecimal) totals[2]);
+        customerLedger.setUpdatedAt(LocalDateTime.now());
+        afterCommit(customerListeners);
+        return customerLedger.getCurrentBalance();
+    }
+
+    // ==================== SUPPLIER LEDGER ====================
+
+    /**
+     * Debit a supplier ledger (amount we owe goes up) and return the balance after posting
+     */
+    @Transactional
+    public BigDecimal debitSupplier(SupplierLedger supplierLedger, BigDecimal amount) {
+        return postSupplier(supplierLedger, amount, BigDecimal.ZERO);
+    }
+
+    /**
+     * Credit a supplier ledger (amount we owe goes down) and return the balance after posting
+     */
+    @Transactional
+    public BigDecimal creditSupplier(SupplierLedger supplierLedger, BigDecimal amount) {
+        return postSupplier(supplierLedger, BigDecimal.ZERO, amount);
+    }
+
+    private BigDecimal postSupplier(SupplierLedger supplierLedger, BigDecimal debit, BigDecimal credit) {
+        Long ledgerId = requireId(supplierLedger.getId(), "Supplier");
+        int updated = supplierLedgerRepository.applyBalanceDelta(
+            ledgerId, orZero(debit), orZero(credit), LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("Supplier ledger not found: " + ledgerId);
+        }
+
+        Object[] totals = readTotals(supplierLedgerRepository.findBalanceTotals(ledgerId), "Supplier", ledgerId);
+        supplierLedger.setCurrentBalance((BigDecimal) totals[0]);
+        supplierLedger.setTotalDebits((BigDecimal) totals[1]);
+        supplierLedger.setTotalCredits((BigDecimal) totals[2]);
+        supplierLedger.setUpdatedAt(LocalDateTime.now());
+        afterCommit(supplierListeners);
+        return supplierLedger.getCurrentBalance();
+    }
+
+    // ==================== HELPERS ====================
+
+    private Long requireId(Long ledgerId, String ledgerType) {
+        if (ledgerId == null) {
+            throw new IllegalArgumentException(ledgerType + " ledger must be saved before posting");
+        }
+        return ledgerId;
+    }
+
+    private void afterCommit(List<Runnable> listeners) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    listeners.forEach(Runnable::run);
+                }
+            });
+        } else {
+            listeners.forEach(Runnable::run);
+        }
+    }
+
+    private BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private Object[] readTotals(List<Object[]> rows, String ledgerType, Long ledgerId) {
+        if (rows.isEmpty()) {
+            throw new RuntimeException(ledgerType + " ledger not found: " + ledgerId);
+        }
+        return rows.get(0);
+    }
+}
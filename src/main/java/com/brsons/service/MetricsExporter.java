@@ -0,0 +1,180 @@
+package com.brsons.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text views of the MeterRegistry behind /admin/metrics.
+ *
+ * A Prometheus registry (micrometer-registry-prometheus) renders its own
+ * scrape; otherwise the Prometheus text format (0.0.4) is written here from
+ * the registry's meters, with Micrometer's Prometheus naming: timers become
+ * histograms in seconds (name_seconds_bucket/_count/_sum plus a
+ * name_seconds_max gauge) and counters get a _total suffix.
+ */
+@Component
+public class MetricsExporter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Prometheus text exposition format
+     */
+    public String scrape() {
+        Method prometheusScrape = ReflectionUtils.findMethod(meterRegistry.getClass(), "scrape");
+        if (prometheusScrape != null && prometheusScrape.getReturnType() == String.class) {
+            return (String) ReflectionUtils.invokeMethod(prometheusScrape, meterRegistry);
+        }
+        StringBuilder out = new StringBuilder();
+        StringBuilder maxes = new StringBuilder();
+        String lastFamily = null;
+        String lastMax = null;
+        for (Meter meter : sorted()) {
+            String base = promName(meter.getId().getName());
+            List<Tag> tags = meter.getId().getTags();
+            if (meter instanceof Timer || meter instanceof DistributionSummary) {
+                boolean timer = meter instanceof Timer;
+                String family = base + (timer ? "_seconds" : "");
+                HistogramSnapshot snapshot = timer ? ((Timer) meter).takeSnapshot() : ((DistributionSummary) meter).takeSnapshot();
+                lastFamily = type(out, family, "histogram", lastFamily);
+                for (CountAtBucket bucket : snapshot.histogramCounts()) {
+                    sample(out, family + "_bucket", tags, "le",
+                            format(timer ? bucket.bucket(TimeUnit.SECONDS) : bucket.bucket()), bucket.count());
+                }
+                sample(out, family + "_bucket", tags, "le", "+Inf", snapshot.count());
+                sample(out, family + "_count", tags, null, null, snapshot.count());
+                sample(out, family + "_sum", tags, null, null, timer ? snapshot.total(TimeUnit.SECONDS) : snapshot.total());
+                lastMax = type(maxes, family + "_max", "gauge", lastMax);
+                sample(maxes, family + "_max", tags, null, null, timer ? snapshot.max(TimeUnit.SECONDS) : snapshot.max());
+            } else if (meter instanceof Counter || meter instanceof FunctionCounter) {
+                lastFamily = type(out, base + "_total", "counter", lastFamily);
+                sample(out, base + "_total", tags, null, null, first(meter));
+            } else if (meter instanceof Gauge) {
+                lastFamily = type(out, base, "gauge", lastFamily);
+                sample(out, base, tags, null, null, ((Gauge) meter).value());
+            } else {
+                for (Measurement measurement : meter.measure()) {
+                    String family = base + "_" + measurement.getStatistic().getTagValueRepresentation();
+                    lastFamily = type(out, family, "untyped", lastFamily);
+                    sample(out, family, tags, null, null, measurement.getValue());
+                }
+            }
+        }
+        return out.append(maxes).toString();
+    }
+
+    /**
+     * One line per meter, for reading in a terminal or browser
+     */
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        for (Meter meter : sorted()) {
+            out.append(key(meter.getId())).append("  ");
+            if (meter instanceof Timer || meter instanceof DistributionSummary) {
+                boolean timer = meter instanceof Timer;
+                HistogramSnapshot snapshot = timer ? ((Timer) meter).takeSnapshot() : ((DistributionSummary) meter).takeSnapshot();
+                String unit = timer ? "ms" : "";
+                out.append(String.format(Locale.ROOT, "count=%d mean=%.1f%s", snapshot.count(),
+                        timer ? snapshot.mean(TimeUnit.MILLISECONDS) : snapshot.mean(), unit));
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    out.append(String.format(Locale.ROOT, " p%d=%.1f%s", Math.round(percentile.percentile() * 100),
+                            timer ? percentile.value(TimeUnit.MILLISECONDS) : percentile.value(), unit));
+                }
+                out.append(String.format(Locale.ROOT, " max=%.1f%s",
+                        timer ? snapshot.max(TimeUnit.MILLISECONDS) : snapshot.max(), unit));
+            } else if (meter instanceof Counter || meter instanceof FunctionCounter) {
+                out.append("total=").append(format(first(meter)));
+            } else {
+                out.append("value=").append(format(first(meter)));
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private List<Meter> sorted() {
+        // By name first, so every series of a family is printed together
+        List<Meter> meters = new ArrayList<>(meterRegistry.getMeters());
+        meters.sort(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                .thenComparing(meter -> key(meter.getId())));
+        return meters;
+    }
+
+    private static double first(Meter meter) {
+        for (Measurement measurement : meter.measure()) {
+            return measurement.getValue();
+        }
+        return Double.NaN;
+    }
+
+    private static String key(Meter.Id id) {
+        StringBuilder key = new StringBuilder(id.getName());
+        String separator = "{";
+        for (Tag tag : id.getTags()) {
+            key.append(separator).append(tag.getKey()).append("=\"").append(escape(tag.getValue())).append('"');
+            separator = ",";
+        }
+        return separator.equals(",") ? key.append('}').toString() : key.toString();
+    }
+
+    private static String type(StringBuilder out, String family, String type, String lastFamily) {
+        if (!family.equals(lastFamily)) {
+            out.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+        }
+        return family;
+    }
+
+    private static void sample(StringBuilder out, String name, List<Tag> tags, String extraKey, String extraValue, double value) {
+        out.append(name);
+        if (!tags.isEmpty() || extraKey != null) {
+            out.append('{');
+            String separator = "";
+            for (Tag tag : tags) {
+                out.append(separator).append(promName(tag.getKey())).append("=\"").append(escape(tag.getValue())).append('"');
+                separator = ",";
+            }
+            if (extraKey != null) {
+                out.append(separator).append(extraKey).append("=\"").append(extraValue).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String promName(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_:]", "_");
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        return value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value) : Double.toString(value);
+    }
+}
@@ -1,19 +1,24 @@
 package com.brsons.service;
 
+import io.micrometer.core.annotation.Timed;
 import java.math.BigDecimal;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.brsons.model.*;
 import com.brsons.repository.*;
+import com.brsons.util.Money;
 import java.time.LocalDateTime;
-import java.math.RoundingMode;
 
 @Service
 public class OrderAccountingService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderAccountingService.class);
+
     private final ProductRepository productRepository; // assumes exists
     private final SellerProfileRepository sellerRepo;
     private final LedgerEntryRepository ledgerRepo;
@@ -22,6 +27,8 @@ public class OrderAccountingService {
     private final com.brsons.repository.OutstandingRepository outstandingRepository;
     private final CustomerLedgerService customerLedgerService;
     private final TaxCalculationService taxCalculationService;
+    private final GstEngine gstEngine;
+    private final TaxSummaryService taxSummaryService;
 
     public OrderAccountingService(
         ProductRepository productRepository,
@@ -31,7 +38,9 @@ public class OrderAccountingService {
         OrderRepository orderRepository,
         com.brsons.repository.OutstandingRepository outstandingRepository,
         CustomerLedgerService customerLedgerService,
-        TaxCalculationService taxCalculationService
+        TaxCalculationService taxCalculationService,
+        GstEngine gstEngine,
+        TaxSummaryService taxSummaryService
     ) {
         this.productRepository = productRepository;
         this.sellerRepo = sellerRepo;
@@ -41,85 +50,59 @@ public class OrderAccountingService {
         this.outstandingRepository = outstandingRepository;
         this.customerLedgerService = customerLedgerService;
         this.taxCalculationService = taxCalculationService;
+        this.gstEngine = gstEngine;
+        this.taxSummaryService = taxSummaryService;
     }
 
     @Transactional
+    @Timed("checkout.finalize")
     public void finalizeTotalsAndInvoice(Order order, BigDecimal gstRatePct, String billType, String userType, String userState) {
-        // 1) compute subTotal from items using stored prices in OrderItems
-        BigDecimal sub = BigDecimal.ZERO;
+        // 1) compute subTotal from items using stored prices in OrderItems (paise arithmetic)
+        Money subTotal = Money.ZERO;
         List<OrderItem> items = order.getOrderItems();
         if (items != null) {
             for (OrderItem it : items) {
                 // Use the stored price from OrderItem (already calculated with correct user pricing)
                 if (it.getTotalPrice() != null) {
-                    sub = sub.add(it.getTotalPrice());
+                    subTotal = subTotal.plus(Money.of(it.getTotalPrice()));
                 } else {
                     // Fallback: calculate from unit price if total price is not set
                     if (it.getUnitPrice() != null) {
-                        BigDecimal line = it.getUnitPrice().multiply(BigDecimal.valueOf(it.getQuantity()));
-                        sub = sub.add(line);
+                        Money line = Money.of(it.getUnitPrice()).times(it.getQuantity());
+                        subTotal = subTotal.plus(line);
                         // Update the total price for this item
-                        it.setTotalPrice(line);
+                        it.setTotalPrice(line.toBigDecimal());
                     }
                 }
             }
         }
 
+        BigDecimal sub = subTotal.toBigDecimal();
+
         // 2) Tax calculation - only calculate for non-B2B users
+        // Each line is taxed at its own product's rate (mixed-rate orders keep every slab)
         BigDecimal rate = BigDecimal.ZERO;
-        BigDecimal gstAmt = BigDecimal.ZERO;
-        
-        // Tax breakdown fields
+        Money gst = Money.ZERO;
         String taxType = "UNKNOWN";
-        BigDecimal cgstRate = BigDecimal.ZERO;
-        BigDecimal cgstAmount = BigDecimal.ZERO;
-        BigDecimal sgstRate = BigDecimal.ZERO;
-        BigDecimal sgstAmount = BigDecimal.ZERO;
-        BigDecimal igstRate = BigDecimal.ZERO;
-        BigDecimal igstAmount = BigDecimal.ZERO;
         
         if (!"B2B".equalsIgnoreCase(userType)) {
             // Determine tax type based on user state
             taxType = taxCalculationService.determineTaxType(userState);
             
-            if ("CGST_SGST".equals(taxType)) {
-                // Intra-state: CGST + SGST
-                // Get tax rates from first product (assuming all products have same tax rates)
-                if (items != null && !items.isEmpty()) {
-                    Product firstProduct = productRepository.findById(items.get(0).getProductId()).orElse(null);
-                    if (firstProduct != null) {
-                        cgstRate = firstProduct.getCgstPercentage() != null ? firstProduct.getCgstPercentage() : BigDecimal.ZERO;
-                        sgstRate = firstProduct.getSgstPercentage() != null ? firstProduct.getSgstPercentage() : BigDecimal.ZERO;
-                        
-                        cgstAmount = sub.multiply(cgstRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                        sgstAmount = sub.multiply(sgstRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                        
-                        gstAmt = cgstAmount.add(sgstAmount);
-                        rate = cgstRate.add(sgstRate); // Total rate for backward compatibility
-                    }
-                }
-            } else if ("IGST".equals(taxType)) {
-                // Inter-state: IGST
-                // Get tax rate from first product
-                if (items != null && !items.isEmpty()) {
-                    Product firstProduct = productRepository.findById(items.get(0).getProductId()).orElse(null);
-                    if (firstProduct != null) {
-                        igstRate = firstProduct.getIgstPercentage() != null ? firstProduct.getIgstPercentage() : BigDecimal.ZERO;
-                        igstAmount = sub.multiply(igstRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                        
-                        gstAmt = igstAmount;
-                        rate = igstRate; // For backward compatibility
-                    }
-                }
+            if ("CGST_SGST".equals(taxType) || "IGST".equals(taxType)) {
+                TaxBreakdown breakdown = applyLineTax(order, "CGST_SGST".equals(taxType), TaxPlan.ofCombinedRate(gstRatePct));
+                gst = breakdown.getTotalTax();
+                rate = breakdown.getUniformRate(); // For backward compatibility, null when mixed-rate
             } else {
                 // Fallback to generic GST if tax type is unknown
                 rate = gstRatePct == null ? BigDecimal.ZERO : gstRatePct;
-                gstAmt = sub.multiply(rate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                gst = subTotal.percentOf(rate);
             }
         }
 
         // 3) Total
-        BigDecimal total = sub.add(gstAmt);
+        BigDecimal gstAmt = gst.toBigDecimal();
+        BigDecimal total = subTotal.plus(gst).toBigDecimal();
 
         // 4) Seller snapshot (for Pakka bills show GSTIN)
         SellerProfile seller = sellerRepo.findTopByOrderByIdAsc().orElse(null);
@@ -140,19 +123,15 @@ public class OrderAccountingService {
         order.setSellerGstin(sellerGstin);
         order.setInvoiceNumber(invoice);
         
-        // Set tax breakdown fields
         order.setTaxType(taxType);
-        order.setCgstRate(cgstRate);
-        order.setCgstAmount(cgstAmount);
-        order.setSgstRate(sgstRate);
-        order.setSgstAmount(sgstAmount);
-        order.setIgstRate(igstRate);
-        order.setIgstAmount(igstAmount);
         // Keep the order status as set during order creation (Pending)
         // order.setOrderStatus("Confirmed"); // Removed - status should only be changed by admin
 
         orderRepository.save(order);
 
+        // Add the invoice to its month's GST summary
+        taxSummaryService.recordInvoice(order);
+
         // 7) Ledger entry
         ledgerRepo.save(new LedgerEntry(order.getId(), billType, total, "Sale - INV " + invoice));
         
@@ -166,7 +145,7 @@ public class OrderAccountingService {
                     .findByReferenceTypeAndReferenceId("ORDER", order.getId());
                 
                 if (existingOutstanding.isEmpty()) {
-                    System.out.println("Creating outstanding item for new order ID: " + order.getId());
+                    log.debug("Creating outstanding item for new order ID: {}", order.getId());
                     
                     // Create outstanding item
                     com.brsons.model.Outstanding outstanding = new com.brsons.model.Outstanding(
@@ -183,21 +162,49 @@ public class OrderAccountingService {
                     outstanding.setContactInfo(order.getUserPhone());
                     com.brsons.model.Outstanding savedOutstanding = outstandingRepository.save(outstanding);
                     
-                    System.out.println("Created outstanding item for new order ID: " + order.getId());
+                    log.debug("Created outstanding item for new order ID: {}", order.getId());
                     
                     // Apply advance payments to this new invoice (FIFO)
                     try {
                         customerLedgerService.applyAdvancePaymentsToNewInvoice(order.getUserPhone(), savedOutstanding.getId(), total);
-                        System.out.println("Applied advance payments to new invoice #" + savedOutstanding.getId());
+                        log.debug("Applied advance payments to new invoice #{}", savedOutstanding.getId());
                     } catch (Exception e) {
-                        System.err.println("Error applying advance payments to new invoice #" + savedOutstanding.getId() + ": " + e.getMessage());
+                        log.error("Error applying advance payments to new invoice #{}: {}", savedOutstanding.getId(), e.getMessage());
                     }
                 } else {
-                    System.out.println("Outstanding item already exists for order ID: " + order.getId());
+                    log.debug("Outstanding item already exists for order ID: {}", order.getId());
                 }
             } catch (Exception e) {
-                System.err.println("Error creating outstanding item for order ID " + order.getId() + ": " + e.getMessage());
+                log.error("Error creating outstanding item for order ID {}: {}", order.getId(), e.getMessage());
             }
         }
     }
+
+    /**
+     * Taxes the order's items line by line through the GST engine and stores
+     * the CGST/SGST/IGST totals on the order. Items without a product (custom
+     * lines) use the fallback plan. Rates are only set when every line shares
+     * one slab; mixed-rate invoices print per-slab rows from the items.
+     */
+    public TaxBreakdown applyLineTax(Order order, boolean intraState, TaxPlan fallback) {
+        TaxBreakdown breakdown = gstEngine.calculateOrder(order.getOrderItems(), intraState, fallback);
+        BigDecimal uniformRate = breakdown.getUniformRate();
+        BigDecimal zero = BigDecimal.ZERO.setScale(2);
+        
+        order.setTaxType(intraState ? "CGST_SGST" : "IGST");
+        order.setCgstAmount(breakdown.getCgst().toBigDecimal());
+        order.setSgstAmount(breakdown.getSgst().toBigDecimal());
+        order.setIgstAmount(breakdown.getIgst().toBigDecimal());
+        if (intraState) {
+            BigDecimal half = uniformRate != null ? uniformRate.divide(BigDecimal.valueOf(2)) : null;
+            order.setCgstRate(half);
+            order.setSgstRate(half);
+            order.setIgstRate(zero);
+        } else {
+            order.setCgstRate(zero);
+            order.setSgstRate(zero);
+            order.setIgstRate(uniformRate);
+        }
+        return breakdown;
+    }
 }
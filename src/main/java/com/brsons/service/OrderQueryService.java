@@ -0,0 +1,150 @@
+package com.brsons.service;
+
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.OrderDisplayDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Newest-first order listings for the admin order pages and a customer's
+ * order history.
+ *
+ * Rows are read straight into {@link OrderDisplayDto} (no Order entities, no
+ * order items) and paged by seek on (created_at, id): the next page starts
+ * below the last row of the previous one, so a page costs the same however
+ * far back it is. Filters are pushed to SQL and backed by the
+ * (bill_type, order_status, created_at, id), (bill_type, created_at, id) and
+ * (user_phone, created_at, id) indexes.
+ *
+ * Totals are never recounted per page: bill-type listings read the order
+ * status counters, and a customer's history is counted on its first page
+ * only, with later pages reusing that total.
+ */
+@Service
+public class OrderQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String SELECT_DTO =
+            "SELECT new com.brsons.dto.OrderDisplayDto(o.id, o.invoiceNumber, o.createdAt, o.name, o.userPhone, " +
+            "o.state, o.billType, o.total, o.orderStatus) FROM Order o WHERE ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    /**
+     * Orders of one bill type ("Pakka" retail, "Kaccha" B2B), optionally of
+     * one status, newest first.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<OrderDisplayDto> findByBillType(String billType, String status, Long afterId, Integer size) {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("billType", billType);
+        boolean byStatus = status != null && !status.isEmpty();
+        if (byStatus) {
+            filter.put("orderStatus", status);
+        }
+        return findPage(filter, afterId, size, () -> {
+            long total = 0L;
+            for (Map.Entry<String, OrderStatsService.StatusTotals> entry : orderStatsService.getStatusTotals(billType).entrySet()) {
+                if (!byStatus || status.equals(entry.getKey())) {
+                    total += entry.getValue().getCount();
+                }
+            }
+            return total;
+        });
+    }
+
+    /**
+     * A customer's orders, newest first. The first page counts them; later
+     * pages pass that count back as {@code knownTotal} instead of recounting.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<OrderDisplayDto> findByUserPhone(String userPhone, Long afterId, Integer size, Long knownTotal) {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("userPhone", userPhone);
+        if (afterId != null && knownTotal != null && knownTotal >= 0) {
+            return findPage(filter, afterId, size, () -> knownTotal);
+        }
+        return findPage(filter, afterId, size, () -> count(filter));
+    }
+
+    private long count(Map<String, Object> filter) {
+        StringBuilder where = new StringBuilder();
+        for (String field : filter.keySet()) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            where.append("o.").append(field).append(" = :").append(field);
+        }
+        TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(o) FROM Order o WHERE " + where, Long.class);
+        filter.forEach(count::setParameter);
+        return count.getSingleResult();
+    }
+
+    private KeysetPage<OrderDisplayDto> findPage(Map<String, Object> filter, Long afterId, Integer size, LongSupplier total) {
+        int pageSize = clampPageSize(size);
+
+        StringBuilder where = new StringBuilder();
+        for (String field : filter.keySet()) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            where.append("o.").append(field).append(" = :").append(field);
+        }
+
+        // Seek below the cursor row. created_at DESC sorts NULLs first (PostgreSQL
+        // default), so a cursor still among the NULLs continues by id, then into the dated rows.
+        LocalDateTime afterCreatedAt = null;
+        boolean seek = false;
+        if (afterId != null) {
+            List<LocalDateTime> cursor = entityManager
+                    .createQuery("SELECT o.createdAt FROM Order o WHERE o.id = :id", LocalDateTime.class)
+                    .setParameter("id", afterId)
+                    .getResultList();
+            if (!cursor.isEmpty()) {
+                seek = true;
+                afterCreatedAt = cursor.get(0);
+                if (afterCreatedAt != null) {
+                    where.append(" AND (o.createdAt < :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id < :afterId))");
+                } else {
+                    where.append(" AND ((o.createdAt IS NULL AND o.id < :afterId) OR o.createdAt IS NOT NULL)");
+                }
+            }
+        }
+
+        TypedQuery<OrderDisplayDto> query = entityManager.createQuery(
+                SELECT_DTO + where + " ORDER BY o.createdAt DESC, o.id DESC", OrderDisplayDto.class);
+        filter.forEach(query::setParameter);
+        if (seek) {
+            query.setParameter("afterId", afterId);
+            if (afterCreatedAt != null) {
+                query.setParameter("afterCreatedAt", afterCreatedAt);
+            }
+        }
+        List<OrderDisplayDto> rows = query.setMaxResults(pageSize + 1).getResultList();
+
+        return KeysetPage.fromOverfetch(rows, pageSize, OrderDisplayDto::getId, total.getAsLong(), false);
+    }
+
+    private int clampPageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
@@ -3,6 +3,7 @@ package com.brsons.service;
 import java.util.List;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.brsons.model.Order;
 import com.brsons.repository.OrderRepository;
@@ -10,7 +11,11 @@ import com.brsons.repository.OrderRepository;
 @Service
 public class OrderService {
     private final OrderRepository orderRepository;
-    public OrderService(OrderRepository orderRepository) { this.orderRepository = orderRepository; }
+    private final TaxSummaryService taxSummaryService;
+    public OrderService(OrderRepository orderRepository, TaxSummaryService taxSummaryService) {
+        this.orderRepository = orderRepository;
+        this.taxSummaryService = taxSummaryService;
+    }
 
     public List<Order> getOrdersByUserPhone(String userPhone) {
         return orderRepository.findByUserPhone(userPhone);
@@ -20,7 +25,15 @@ public class OrderService {
         return orderRepository.findById(orderId).orElse(null);
     }
     
+    /**
+     * Save an order. A cancelled order's invoice is taken out of its month's
+     * GST summary here, so every cancel path reverses it (no-op once reversed).
+     */
+    @Transactional
     public Order updateOrder(Order order) {
+        if ("Cancelled".equals(order.getOrderStatus())) {
+            taxSummaryService.reverseInvoice(order);
+        }
         return orderRepository.save(order);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.brsons.service;
+
+import com.brsons.model.Order;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * JPA listener that keeps order_status_counters in step with Order writes
+ * made anywhere in the app. Each order remembers the bill type, status and
+ * total it is counted under; an update that changes any of them moves the
+ * order from the old counter to the new one.
+ */
+@Component
+public class OrderStatsListener {
+
+    private final ObjectProvider<OrderStatsService> orderStatsService;
+
+    public OrderStatsListener(ObjectProvider<OrderStatsService> orderStatsService) {
+        this.orderStatsService = orderStatsService;
+    }
+
+    @PostLoad
+    public void onLoad(Order order) {
+        order.setCountedAs(CountedAs.of(order));
+    }
+
+    @PostPersist
+    public void onPersist(Order order) {
+        CountedAs now = CountedAs.of(order);
+        apply(now, 1);
+        order.setCountedAs(now);
+    }
+
+    @PostUpdate
+    public void onUpdate(Order order) {
+        CountedAs before = order.getCountedAs();
+        CountedAs now = CountedAs.of(order);
+        if (before == null || before.equals(now)) {
+            // Nothing counted changed (an unknown prior state is left for the startup check to correct)
+            order.setCountedAs(now);
+            return;
+        }
+        apply(before, -1);
+        apply(now, 1);
+        order.setCountedAs(now);
+    }
+
+    @PostRemove
+    public void onRemove(Order order) {
+        CountedAs before = order.getCountedAs();
+        apply(before != null ? before : CountedAs.of(order), -1);
+    }
+
+    private void apply(CountedAs counted, int sign) {
+        OrderStatsService stats = orderStatsService.getIfAvailable();
+        if (stats != null) {
+            BigDecimal amount = sign < 0 ? counted.total.negate() : counted.total;
+            stats.applyDelta(counted.billType, counted.orderStatus, sign, amount);
+        }
+    }
+
+    /**
+     * The bill type, status and total an order was last counted under
+     */
+    public static final class CountedAs {
+        private final String billType;
+        private final String orderStatus;
+        private final BigDecimal total;
+
+        private CountedAs(String billType, String orderStatus, BigDecimal total) {
+            this.billType = billType;
+            this.orderStatus = orderStatus;
+            this.total = total != null ? total : BigDecimal.ZERO;
+        }
+
+        static CountedAs of(Order order) {
+            return new CountedAs(order.getBillType(), order.getOrderStatus(), order.getTotal());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CountedAs other)) {
+                return false;
+            }
+            return Objects.equals(billType, other.billType)
+                    && Objects.equals(orderStatus, other.orderStatus)
+                    && total.compareTo(other.total) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(billType, orderStatus, total.stripTrailingZeros());
+        }
+    }
+}
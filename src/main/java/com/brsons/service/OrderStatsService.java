@@ -0,0 +1,262 @@
+package com.brsons.service;
+
+import com.brsons.model.OrderStatusCounter;
+import com.brsons.repository.OrderRepository;
+import com.brsons.repository.OrderStatusCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Order count and total per status for one bill type, for the admin order
+ * dashboards.
+ *
+ * With orders.stats.counters.enabled (the default) the answer is read from
+ * order_status_counters, a few rows kept current by OrderStatsListener on
+ * every order insert, status/total change and delete, so the cost does not
+ * grow with the number of orders. Otherwise, and until the counters have
+ * been checked at startup, it is one GROUP BY status query over orders.
+ *
+ * The listener's deltas are netted per transaction and written after it
+ * commits, in a short transaction of their own that updates the rows in
+ * bill type / status order. Order writes therefore never hold a counter row
+ * lock, and two transactions moving orders in opposite directions can't
+ * deadlock on the counters. If that write fails the counters are set aside
+ * (reads go back to GROUP BY) until they are rebuilt.
+ */
+@Service
+public class OrderStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsService.class);
+
+    private static final String UPDATE_COUNTER =
+            "UPDATE order_status_counters SET order_count = order_count + ?, total_amount = total_amount + ? " +
+            "WHERE bill_type = ? AND order_status = ?";
+    private static final String INSERT_COUNTER =
+            "INSERT INTO order_status_counters (bill_type, order_status, order_count, total_amount) " +
+            "VALUES (?, ?, 0, 0) ON CONFLICT DO NOTHING";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusCounterRepository orderStatusCounterRepository;
+
+    // Deltas are collected inside Hibernate's flush, where the repositories can't be used, and written as plain SQL
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${orders.stats.counters.enabled:true}")
+    private boolean countersEnabled;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Counter writes from afterCommit, where the finished transaction is still bound to the thread
+    private TransactionTemplate requiresNew;
+
+    private volatile boolean countersReady;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ==================== READS ====================
+
+    /**
+     * Count and total per order status for one bill type ("Pakka" or "Kaccha")
+     */
+    public Map<String, StatusTotals> getStatusTotals(String billType) {
+        Map<String, StatusTotals> totals = new LinkedHashMap<>();
+        if (countersEnabled && countersReady) {
+            for (OrderStatusCounter counter : orderStatusCounterRepository.findByBillType(billType)) {
+                if (counter.getOrderCount() > 0) {
+                    totals.put(counter.getOrderStatus(), new StatusTotals(counter.getOrderCount(), counter.getTotalAmount()));
+                }
+            }
+            return totals;
+        }
+        return countFromOrders(billType);
+    }
+
+    /**
+     * The same figures straight from the orders table (one GROUP BY status query)
+     */
+    public Map<String, StatusTotals> countFromOrders(String billType) {
+        Map<String, StatusTotals> totals = new LinkedHashMap<>();
+        for (Object[] row : orderRepository.countAndSumByStatus(billType)) {
+            String status = row[0] != null ? (String) row[0] : "";
+            totals.put(status, new StatusTotals(((Number) row[1]).longValue(), (BigDecimal) row[2]));
+        }
+        return totals;
+    }
+
+    // ==================== COUNTER MAINTENANCE ====================
+
+    /**
+     * Add a signed delta to one bill type / status counter once the current
+     * transaction commits (dropped if it rolls back). Outside a transaction
+     * it is written straight away.
+     */
+    void applyDelta(String billType, String orderStatus, long count, BigDecimal amount) {
+        if (!countersEnabled || (count == 0 && amount.signum() == 0)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingDeltas single = new PendingDeltas();
+            single.add(billType, orderStatus, count, amount);
+            single.afterCommit();
+            return;
+        }
+        PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingDeltas();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(billType, orderStatus, count, amount);
+    }
+
+    /**
+     * Write netted deltas in one transaction, rows taken in key order
+     */
+    private void writeDeltas(Collection<Delta> deltas) {
+        requiresNew.executeWithoutResult(status -> {
+            for (Delta delta : deltas) {
+                if (delta.count == 0 && delta.amount.signum() == 0) {
+                    continue;
+                }
+                if (jdbcTemplate.update(UPDATE_COUNTER, delta.count, delta.amount, delta.billType, delta.orderStatus) == 0) {
+                    // First order with this bill type and status; a concurrent first insert wins the unique key
+                    jdbcTemplate.update(INSERT_COUNTER, delta.billType, delta.orderStatus);
+                    jdbcTemplate.update(UPDATE_COUNTER, delta.count, delta.amount, delta.billType, delta.orderStatus);
+                }
+            }
+        });
+    }
+
+    /**
+     * Check the counters against the orders table once the app is up and
+     * rebuild them if they are missing or have drifted (first start, orders
+     * imported behind the app's back, counters switched off for a while).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyCounters() {
+        if (!countersEnabled) {
+            return;
+        }
+        try {
+            Long counted = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(order_count), 0) FROM order_status_counters", Long.class);
+            long orders = orderRepository.count();
+            if (counted == null || counted != orders) {
+                log.info("Order status counters out of step ({} counted, {} orders), rebuilding", counted, orders);
+                rebuildCounters();
+            }
+            countersReady = true;
+        } catch (Exception e) {
+            log.warn("Error checking order status counters, using GROUP BY: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recount every counter from the orders table in one transaction
+     */
+    public int rebuildCounters() {
+        Integer rows = transactionTemplate.execute(status -> {
+            orderStatusCounterRepository.deleteAllCounters();
+            return orderStatusCounterRepository.insertFromOrders();
+        });
+        countersReady = countersEnabled;
+        return rows != null ? rows : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("countersEnabled", countersEnabled);
+        stats.put("countersReady", countersReady);
+        return stats;
+    }
+
+    /**
+     * Deltas collected over one transaction, keyed (and so written) by bill type then status
+     */
+    private class PendingDeltas implements TransactionSynchronization {
+        private final TreeMap<String, Delta> deltas = new TreeMap<>();
+
+        void add(String billType, String orderStatus, long count, BigDecimal amount) {
+            String bill = billType != null ? billType : "";
+            String status = orderStatus != null ? orderStatus : "";
+            deltas.computeIfAbsent(bill + '\u0000' + status, k -> new Delta(bill, status)).add(count, amount);
+        }
+
+        @Override
+        public void afterCommit() {
+            try {
+                writeDeltas(deltas.values());
+            } catch (Exception e) {
+                countersReady = false;
+                log.warn("Error updating order status counters, using GROUP BY until rebuilt: {}", e.getMessage());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (TransactionSynchronizationManager.hasResource(OrderStatsService.this)) {
+                TransactionSynchronizationManager.unbindResource(OrderStatsService.this);
+            }
+        }
+    }
+
+    private static class Delta {
+        private final String billType;
+        private final String orderStatus;
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        Delta(String billType, String orderStatus) {
+            this.billType = billType;
+            this.orderStatus = orderStatus;
+        }
+
+        void add(long count, BigDecimal amount) {
+            this.count += count;
+            this.amount = this.amount.add(amount);
+        }
+    }
+
+    /**
+     * Order count and summed order total for one status
+     */
+    public static class StatusTotals {
+        private final long count;
+        private final BigDecimal total;
+
+        public StatusTotals(long count, BigDecimal total) {
+            this.count = count;
+            this.total = total != null ? total : BigDecimal.ZERO;
+        }
+
+        public long getCount() { return count; }
+        public BigDecimal getTotal() { return total; }
+    }
+}
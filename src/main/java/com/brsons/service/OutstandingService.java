@@ -19,6 +19,8 @@ import com.brsons.repository.VoucherRepository;
 import com.brsons.repository.VoucherEntryRepository;
 import com.brsons.repository.GRNRepository;
 import com.brsons.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -38,6 +40,8 @@ import java.util.Arrays;
 
 @Service
 public class OutstandingService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutstandingService.class);
     
     @Autowired
     private OutstandingRepository outstandingRepository;
@@ -77,18 +81,17 @@ public class OutstandingService {
     private com.brsons.repository.CustomerLedgerEntryRepository customerLedgerEntryRepository;
     
     @Autowired
-    private com.brsons.repository.CustomerLedgerRepository customerLedgerRepository;
+    private LedgerPostingService ledgerPostingService;
     
     // ==================== INITIALIZATION ====================
     
     @PostConstruct
     public void initialize() {
         try {
-            System.out.println("Initializing OutstandingService...");
+            log.debug("Initializing OutstandingService...");
             createDefaultAccountsIfNeeded();
         } catch (Exception e) {
-            System.err.println("Error during OutstandingService initialization: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error during OutstandingService initialization: {}", e.getMessage(), e);
         }
     }
     
@@ -105,7 +108,7 @@ public class OutstandingService {
             );
             return !approvedGRNs.isEmpty();
         } catch (Exception e) {
-            System.err.println("Error checking for approved GRNs for PO #" + poId + ": " + e.getMessage());
+            log.error("Error checking for approved GRNs for PO #{}: {}", poId, e.getMessage());
             return false;
         }
     }
@@ -173,7 +176,7 @@ public class OutstandingService {
         
         outstanding = outstandingRepository.save(outstanding);
         
-        System.out.println("Created outstanding payable for Direct GRN #" + grn.getGrnNumber());
+        log.debug("Created outstanding payable for Direct GRN #{}", grn.getGrnNumber());
         
         return outstanding;
     }
@@ -219,21 +222,21 @@ public class OutstandingService {
                         null
                     );
                     customerLedgerService.addInvoiceEntry(customerLedger, order, order.getTotal());
-                    System.out.println("Created customer ledger entry for B2B order #" + order.getId());
+                    log.debug("Created customer ledger entry for B2B order #{}", order.getId());
                 } else {
-                    System.out.println("Customer ledger entry already exists for B2B order #" + order.getId() + ", skipping creation");
+                    log.debug("Customer ledger entry already exists for B2B order #{}, skipping creation", order.getId());
                 }
                 
                 // Apply advance payments to this new invoice (FIFO)
                 try {
                     customerLedgerService.applyAdvancePaymentsToNewInvoice(order.getUserPhone(), savedOutstanding.getId(), order.getTotal());
-                    System.out.println("Applied advance payments to new invoice #" + savedOutstanding.getId());
+                    log.debug("Applied advance payments to new invoice #{}", savedOutstanding.getId());
                 } catch (Exception e) {
-                    System.err.println("Error applying advance payments to new invoice #" + savedOutstanding.getId() + ": " + e.getMessage());
+                    log.error("Error applying advance payments to new invoice #{}: {}", savedOutstanding.getId(), e.getMessage());
                 }
                 
             } catch (Exception e) {
-                System.err.println("Error creating customer ledger entry for order #" + order.getId() + ": " + e.getMessage());
+                log.error("Error creating customer ledger entry for order #{}: {}", order.getId(), e.getMessage());
             }
         }
         
@@ -299,10 +302,7 @@ public class OutstandingService {
         
         // Store original amount for voucher creation
         BigDecimal originalAmount = outstanding.getAmount();
-        System.out.println("Partial payment - Outstanding ID: " + outstanding.getId() + 
-                          ", Original Amount: " + originalAmount + 
-                          ", Paid Amount: " + paidAmount + 
-                          ", Payment Method: " + paymentMethod);
+        log.debug("Partial payment - Outstanding ID: {}, Original Amount: {}, Paid Amount: {}, Payment Method: {}", outstanding.getId(), originalAmount, paidAmount, paymentMethod);
         
         // Set payment details
         outstanding.setPaymentMethod(paymentMethod);
@@ -311,7 +311,7 @@ public class OutstandingService {
         
         outstanding.setStatus(Outstanding.OutstandingStatus.PARTIALLY_PAID);
         outstanding.setAmount(outstanding.getAmount().subtract(paidAmount));
-        System.out.println("After partial payment - Remaining Amount: " + outstanding.getAmount());
+        log.debug("After partial payment - Remaining Amount: {}", outstanding.getAmount());
         
         if (notes != null) {
             outstanding.setNotes(notes);
@@ -325,7 +325,7 @@ public class OutstandingService {
         if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_RECEIVABLE && 
             "Kaccha".equals(outstanding.getOrderType())) {
             try {
-                System.out.println("Syncing partial payment with customer ledger for B2B receivable...");
+                log.debug("Syncing partial payment with customer ledger for B2B receivable...");
                 Optional<CustomerLedger> customerLedger = customerLedgerService.getCustomerLedgerByPhone(outstanding.getContactInfo());
                 if (customerLedger.isPresent()) {
                     // Create payment entry directly with proper reference information
@@ -339,44 +339,36 @@ public class OutstandingService {
                     );
                     
                     paymentEntry.setCreditAmount(paidAmount);
-                    paymentEntry.setBalanceAfter(customerLedger.get().getCurrentBalance().subtract(paidAmount));
                     paymentEntry.setPaymentMethod(outstanding.getPaymentMethod());
                     paymentEntry.setPaymentReference(outstanding.getPaymentReference());
                     paymentEntry.setNotes(notes);
                     
-                    // Update customer ledger balance
-                    customerLedger.get().addCredit(paidAmount);
-                    customerLedgerRepository.save(customerLedger.get());
+                    // Update customer ledger balance (row-locked delta)
+                    paymentEntry.setBalanceAfter(ledgerPostingService.creditCustomer(customerLedger.get(), paidAmount));
                     
                     // Save the payment entry
                     customerLedgerEntryRepository.save(paymentEntry);
                     
-                    System.out.println("Successfully updated customer ledger for partial payment of " + paidAmount + 
-                                     " for customer: " + customerLedger.get().getCustomerName());
+                    log.debug("Successfully updated customer ledger for partial payment of {} for customer: {}", paidAmount, customerLedger.get().getCustomerName());
                 } else {
-                    System.err.println("Customer ledger not found for phone: " + outstanding.getContactInfo());
+                    log.warn("Customer ledger not found for phone: {}", outstanding.getContactInfo());
                 }
             } catch (Exception e) {
-                System.err.println("Error updating customer ledger for partial payment: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error updating customer ledger for partial payment: {}", e.getMessage(), e);
             }
         } else {
-            System.out.println("Not a B2B receivable - skipping customer ledger sync. Type: " + outstanding.getType() + 
-                             ", Order Type: " + outstanding.getOrderType());
+            log.debug("Not a B2B receivable - skipping customer ledger sync. Type: {}, Order Type: {}", outstanding.getType(), outstanding.getOrderType());
         }
         
         // If this is a payable (Purchase Order), also update supplier ledger
         if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_PAYABLE || 
             outstanding.getType() == Outstanding.OutstandingType.PURCHASE_ORDER) {
             try {
-                System.out.println("=== SYNC DEBUG: Partial Payment ===");
-                System.out.println("Outstanding Type: " + outstanding.getType());
-                System.out.println("Contact Info: " + outstanding.getContactInfo());
-                System.out.println("Paid Amount: " + paidAmount);
+                log.debug("Syncing partial payment of {} on {} with supplier ledger {}", paidAmount, outstanding.getType(), outstanding.getContactInfo());
                 
                 Optional<SupplierLedger> supplierLedger = supplierLedgerService.getSupplierLedgerByPhone(outstanding.getContactInfo());
                 if (supplierLedger.isPresent()) {
-                    System.out.println("Found supplier ledger: " + supplierLedger.get().getSupplierName());
+                    log.debug("Found supplier ledger: {}", supplierLedger.get().getSupplierName());
                     // Add payment entry to supplier ledger (disable sync to avoid double sync)
                     supplierLedgerService.addPaymentEntry(
                         supplierLedger.get(),
@@ -386,11 +378,10 @@ public class OutstandingService {
                         notes,
                         false // Disable sync since this is coming from outstanding payables
                     );
-                    System.out.println("Successfully updated supplier ledger for partial payment of " + paidAmount + 
-                                     " for supplier: " + supplierLedger.get().getSupplierName());
+                    log.debug("Successfully updated supplier ledger for partial payment of {} for supplier: {}", paidAmount, supplierLedger.get().getSupplierName());
                 } else {
-                    System.err.println("Supplier ledger not found for phone: " + outstanding.getContactInfo());
-                    System.err.println("Creating supplier ledger for: " + outstanding.getContactInfo());
+                    log.warn("Supplier ledger not found for phone: {}", outstanding.getContactInfo());
+                    log.info("Creating supplier ledger for: {}", outstanding.getContactInfo());
                     
                     // Try to create supplier ledger if it doesn't exist
                     try {
@@ -417,23 +408,21 @@ public class OutstandingService {
                             false // Disable sync since this is coming from outstanding payables
                         );
                         
-                        System.out.println("Created new supplier ledger and added payment entry");
+                        log.debug("Created new supplier ledger and added payment entry");
                     } catch (Exception createException) {
-                        System.err.println("Error creating supplier ledger: " + createException.getMessage());
-                        createException.printStackTrace();
+                        log.error("Error creating supplier ledger: {}", createException.getMessage(), createException);
                     }
                 }
             } catch (Exception e) {
-                System.err.println("Error updating supplier ledger for partial payment: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error updating supplier ledger for partial payment: {}", e.getMessage(), e);
             }
         } else {
-            System.out.println("Not a payable - skipping supplier ledger sync. Type: " + outstanding.getType());
+            log.debug("Not a payable - skipping supplier ledger sync. Type: {}", outstanding.getType());
         }
         
         // If fully paid, mark as settled
         if (outstanding.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            System.out.println("Item fully paid through partial payment - marking as settled");
+            log.debug("Item fully paid through partial payment - marking as settled");
             outstanding.setStatus(Outstanding.OutstandingStatus.SETTLED);
             // No need to create another settlement voucher since we already created one for the partial payment
             // The item is now fully settled
@@ -457,9 +446,7 @@ public class OutstandingService {
         
         // Get the current outstanding amount (remaining amount to be settled)
         BigDecimal remainingAmount = outstanding.getAmount();
-        System.out.println("Marking as settled - Outstanding ID: " + outstanding.getId() + 
-                          ", Remaining Amount: " + remainingAmount + 
-                          ", Payment Method: " + paymentMethod);
+        log.debug("Marking as settled - Outstanding ID: {}, Remaining Amount: {}, Payment Method: {}", outstanding.getId(), remainingAmount, paymentMethod);
         
         outstanding.setStatus(Outstanding.OutstandingStatus.SETTLED);
         outstanding.setAmount(BigDecimal.ZERO);
@@ -470,14 +457,14 @@ public class OutstandingService {
         
         // Automatically create voucher for settlement
         // Use the remaining amount, not the original amount
-        System.out.println("Creating settlement voucher for remaining amount: " + remainingAmount);
+        log.debug("Creating settlement voucher for remaining amount: {}", remainingAmount);
         createSettlementVoucher(outstanding, notes, remainingAmount);
         
         // If this is a B2B receivable, also update customer ledger
         if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_RECEIVABLE && 
             "Kaccha".equals(outstanding.getOrderType())) {
             try {
-                System.out.println("Syncing full settlement with customer ledger for B2B receivable...");
+                log.debug("Syncing full settlement with customer ledger for B2B receivable...");
                 Optional<CustomerLedger> customerLedger = customerLedgerService.getCustomerLedgerByPhone(outstanding.getContactInfo());
                 if (customerLedger.isPresent()) {
                     // Create payment entry directly with proper reference information
@@ -491,43 +478,38 @@ public class OutstandingService {
                     );
                     
                     paymentEntry.setCreditAmount(remainingAmount);
-                    paymentEntry.setBalanceAfter(customerLedger.get().getCurrentBalance().subtract(remainingAmount));
                     paymentEntry.setPaymentMethod(outstanding.getPaymentMethod());
                     paymentEntry.setPaymentReference(outstanding.getPaymentReference());
                     paymentEntry.setNotes(notes);
                     
-                    // Update customer ledger balance
-                    customerLedger.get().addCredit(remainingAmount);
-                    customerLedgerRepository.save(customerLedger.get());
+                    // Update customer ledger balance (row-locked delta)
+                    paymentEntry.setBalanceAfter(ledgerPostingService.creditCustomer(customerLedger.get(), remainingAmount));
                     
                     // Save the payment entry
                     customerLedgerEntryRepository.save(paymentEntry);
-                    System.out.println("Successfully updated customer ledger for full settlement of " + remainingAmount + 
-                                     " for customer: " + customerLedger.get().getCustomerName());
+                    log.debug("Successfully updated customer ledger for full settlement of {} for customer: {}", remainingAmount, customerLedger.get().getCustomerName());
                 } else {
-                    System.err.println("Customer ledger not found for phone: " + outstanding.getContactInfo());
+                    log.warn("Customer ledger not found for phone: {}", outstanding.getContactInfo());
                 }
             } catch (Exception e) {
-                System.err.println("Error updating customer ledger for settlement: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error updating customer ledger for settlement: {}", e.getMessage(), e);
             }
         } else {
-            System.out.println("Not a B2B receivable - skipping customer ledger sync. Type: " + outstanding.getType() + 
-                             ", Order Type: " + outstanding.getOrderType());
+            log.debug("Not a B2B receivable - skipping customer ledger sync. Type: {}, Order Type: {}", outstanding.getType(), outstanding.getOrderType());
         }
         
         // If this is a payable (Purchase Order), also update supplier ledger
         if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_PAYABLE || 
             outstanding.getType() == Outstanding.OutstandingType.PURCHASE_ORDER) {
             try {
-                System.out.println("=== SYNC DEBUG: Full Settlement ===");
-                System.out.println("Outstanding Type: " + outstanding.getType());
-                System.out.println("Contact Info: " + outstanding.getContactInfo());
-                System.out.println("Remaining Amount: " + remainingAmount);
+                log.debug("=== SYNC DEBUG: Full Settlement ===");
+                log.debug("Outstanding Type: {}", outstanding.getType());
+                log.debug("Contact Info: {}", outstanding.getContactInfo());
+                log.debug("Remaining Amount: {}", remainingAmount);
                 
                 Optional<SupplierLedger> supplierLedger = supplierLedgerService.getSupplierLedgerByPhone(outstanding.getContactInfo());
                 if (supplierLedger.isPresent()) {
-                    System.out.println("Found supplier ledger: " + supplierLedger.get().getSupplierName());
+                    log.debug("Found supplier ledger: {}", supplierLedger.get().getSupplierName());
                     // Add payment entry to supplier ledger (disable sync to avoid double sync)
                     supplierLedgerService.addPaymentEntry(
                         supplierLedger.get(),
@@ -537,11 +519,10 @@ public class OutstandingService {
                         notes,
                         false // Disable sync since this is coming from outstanding payables
                     );
-                    System.out.println("Successfully updated supplier ledger for full settlement of " + remainingAmount + 
-                                     " for supplier: " + supplierLedger.get().getSupplierName());
+                    log.debug("Successfully updated supplier ledger for full settlement of {} for supplier: {}", remainingAmount, supplierLedger.get().getSupplierName());
                 } else {
-                    System.err.println("Supplier ledger not found for phone: " + outstanding.getContactInfo());
-                    System.err.println("Creating supplier ledger for: " + outstanding.getContactInfo());
+                    log.warn("Supplier ledger not found for phone: {}", outstanding.getContactInfo());
+                    log.info("Creating supplier ledger for: {}", outstanding.getContactInfo());
                     
                     // Try to create supplier ledger if it doesn't exist
                     try {
@@ -568,18 +549,16 @@ public class OutstandingService {
                             false // Disable sync since this is coming from outstanding payables
                         );
                         
-                        System.out.println("Created new supplier ledger and added payment entry");
+                        log.debug("Created new supplier ledger and added payment entry");
                     } catch (Exception createException) {
-                        System.err.println("Error creating supplier ledger: " + createException.getMessage());
-                        createException.printStackTrace();
+                        log.error("Error creating supplier ledger: {}", createException.getMessage(), createException);
                     }
                 }
             } catch (Exception e) {
-                System.err.println("Error updating supplier ledger for settlement: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error updating supplier ledger for settlement: {}", e.getMessage(), e);
             }
         } else {
-            System.out.println("Not a payable - skipping supplier ledger sync. Type: " + outstanding.getType());
+            log.debug("Not a payable - skipping supplier ledger sync. Type: {}", outstanding.getType());
         }
         
         return outstandingRepository.save(outstanding);
@@ -608,7 +587,7 @@ public class OutstandingService {
             return outstanding.getAmount();
             
         } catch (Exception e) {
-            System.err.println("Error calculating original amount: " + e.getMessage());
+            log.error("Error calculating original amount: {}", e.getMessage());
             return outstanding.getAmount();
         }
     }
@@ -846,7 +825,7 @@ public class OutstandingService {
             outstandingRepository.save(item);
         }
         
-        System.out.println("Updated overdue status for " + pendingItems.size() + " outstanding items");
+        log.info("Updated overdue status for {} outstanding items", pendingItems.size());
     }
     
     /**
@@ -910,16 +889,16 @@ public class OutstandingService {
                             "Order #" + newOrder.getId() + " modification"
                         );
                         
-                        System.out.println("Updated customer ledger for order #" + newOrder.getId() + " with adjustment: " + amountDifference);
+                        log.debug("Updated customer ledger for order #{} with adjustment: {}", newOrder.getId(), amountDifference);
                     } catch (Exception e) {
-                        System.err.println("Error updating customer ledger for order #" + newOrder.getId() + ": " + e.getMessage());
+                        log.error("Error updating customer ledger for order #{}: {}", newOrder.getId(), e.getMessage());
                     }
                 }
                 
-                System.out.println("Updated outstanding item for order #" + newOrder.getId() + " from " + oldAmount + " to " + newAmount);
+                log.debug("Updated outstanding item for order #{} from {} to {}", newOrder.getId(), oldAmount, newAmount);
             }
         } catch (Exception e) {
-            System.err.println("Error handling order update for order #" + oldOrder.getId() + ": " + e.getMessage());
+            log.error("Error handling order update for order #{}: {}", oldOrder.getId(), e.getMessage());
             throw e;
         }
     }
@@ -944,12 +923,12 @@ public class OutstandingService {
 
                 // Allow cancellation even if outstanding is settled, but log a warning
                 if (outstanding.getStatus() == Outstanding.OutstandingStatus.SETTLED) {
-                    System.out.println("Warning: Cancelling order with settled outstanding item - this will reverse the settlement");
+                    log.debug("Warning: Cancelling order with settled outstanding item - this will reverse the settlement");
                 }
                 
                 // Check if already cancelled to prevent duplicate processing
                 if (outstanding.getStatus() == Outstanding.OutstandingStatus.CANCELLED) {
-                    System.out.println("Outstanding item for order #" + order.getId() + " is already cancelled, skipping duplicate processing");
+                    log.debug("Outstanding item for order #{} is already cancelled, skipping duplicate processing", order.getId());
                     return;
                 }
                 
@@ -980,13 +959,12 @@ public class OutstandingService {
                                 entry.getParticulars() != null && 
                                 entry.getParticulars().contains("Order cancellation")) {
                                 hasCancellationEntry = true;
-                                System.out.println("Found existing cancellation entry: " + entry.getParticulars());
+                                log.debug("Found existing cancellation entry: {}", entry.getParticulars());
                                 break;
                             }
                         }
                         
-                        System.out.println("Checking for cancellation entries for order #" + order.getId() + 
-                                         " - Found " + existingCancellationEntries.size() + " entries, hasCancellation: " + hasCancellationEntry);
+                        log.debug("Checking for cancellation entries for order #{} - Found {} entries, hasCancellation: {}", order.getId(), existingCancellationEntries.size(), hasCancellationEntry);
                         
                         if (!hasCancellationEntry) {
                             // Create reversal entry (credit to reverse the original debit)
@@ -998,16 +976,16 @@ public class OutstandingService {
                                 "Reversal for cancelled order #" + order.getId()
                             );
                             
-                            System.out.println("Reversed customer ledger entry for cancelled order #" + order.getId());
+                            log.debug("Reversed customer ledger entry for cancelled order #{}", order.getId());
                         } else {
-                            System.out.println("Cancellation credit entry already exists for order #" + order.getId() + ", skipping duplicate creation");
+                            log.debug("Cancellation credit entry already exists for order #{}, skipping duplicate creation", order.getId());
                         }
                     } catch (Exception e) {
-                        System.err.println("Error reversing customer ledger for cancelled order #" + order.getId() + ": " + e.getMessage());
+                        log.error("Error reversing customer ledger for cancelled order #{}: {}", order.getId(), e.getMessage());
                     }
                 }
                 
-                System.out.println("Cancelled outstanding item for order #" + order.getId());
+                log.debug("Cancelled outstanding item for order #{}", order.getId());
             }
             
             // Create reversal voucher for both B2B and Retail orders
@@ -1017,17 +995,17 @@ public class OutstandingService {
                  "Shipped".equals(order.getOrderStatus()))) {
                 try {
                     createReversalVoucherForOrderCancellation(order);
-                    System.out.println("Created reversal voucher for cancelled order #" + order.getId());
+                    log.debug("Created reversal voucher for cancelled order #{}", order.getId());
                 } catch (Exception e) {
-                    System.err.println("Error creating reversal voucher for cancelled order #" + order.getId() + ": " + e.getMessage());
+                    log.error("Error creating reversal voucher for cancelled order #{}: {}", order.getId(), e.getMessage());
                     // Don't fail the cancellation if voucher creation fails
                 }
             } else {
-                System.out.println("Order #" + order.getId() + " was not confirmed, skipping voucher reversal");
+                log.debug("Order #{} was not confirmed, skipping voucher reversal", order.getId());
             }
             
         } catch (Exception e) {
-            System.err.println("Error handling order cancellation for order #" + order.getId() + ": " + e.getMessage());
+            log.error("Error handling order cancellation for order #{}: {}", order.getId(), e.getMessage());
             throw e;
         }
     }
@@ -1074,12 +1052,12 @@ public class OutstandingService {
     @Transactional
     public String forceSyncCustomerLedgers() {
         try {
-            System.out.println("=== Starting forced customer ledger sync ===");
+            log.debug("=== Starting forced customer ledger sync ===");
             
             // Get all B2B receivables (INVOICE_RECEIVABLE with Kaccha order type)
             List<Outstanding> b2bReceivables = outstandingRepository.findByTypeAndOrderType(
                 Outstanding.OutstandingType.INVOICE_RECEIVABLE, "Kaccha");
-            System.out.println("Found " + b2bReceivables.size() + " B2B receivables to sync");
+            log.debug("Found {} B2B receivables to sync", b2bReceivables.size());
             
             int syncedCount = 0;
             int errorCount = 0;
@@ -1088,7 +1066,7 @@ public class OutstandingService {
                 try {
                     // Skip cancelled outstanding items - they should not be synced
                     if (outstanding.getStatus() == Outstanding.OutstandingStatus.CANCELLED) {
-                        System.out.println("Skipping cancelled outstanding item #" + outstanding.getId());
+                        log.debug("Skipping cancelled outstanding item #{}", outstanding.getId());
                         continue;
                     }
                     
@@ -1137,13 +1115,11 @@ public class OutstandingService {
                             boolean hasMatchingPayment = false;
                             BigDecimal totalExistingPayments = BigDecimal.ZERO;
                             
-                            System.out.println("=== Checking existing payment entries for outstanding item #" + outstanding.getId() + " ===");
-                            System.out.println("Found " + allPaymentEntries.size() + " existing payment entries");
+                            log.debug("=== Checking existing payment entries for outstanding item #{} ===", outstanding.getId());
+                            log.debug("Found {} existing payment entries", allPaymentEntries.size());
                             
                             for (CustomerLedgerEntry paymentEntry : allPaymentEntries) {
-                                System.out.println("Payment entry: " + paymentEntry.getParticulars() + 
-                                                 ", Amount: ₹" + paymentEntry.getCreditAmount() + 
-                                                 ", Reference: " + paymentEntry.getReferenceType() + "/" + paymentEntry.getReferenceId());
+                                log.debug("Payment entry: {}, Amount: ₹{}, Reference: {}/{}", paymentEntry.getParticulars(), paymentEntry.getCreditAmount(), paymentEntry.getReferenceType(), paymentEntry.getReferenceId());
                                 if (paymentEntry.getCreditAmount() != null) {
                                     totalExistingPayments = totalExistingPayments.add(paymentEntry.getCreditAmount());
                                 }
@@ -1164,17 +1140,15 @@ public class OutstandingService {
                                 }
                             }
                             
-                            System.out.println("Total existing payments: ₹" + totalExistingPayments + 
-                                             ", Advance payments: ₹" + advancePaymentsApplied + 
-                                             ", Required: ₹" + paidAmount);
+                            log.debug("Total existing payments: ₹{}, Advance payments: ₹{}, Required: ₹{}", totalExistingPayments, advancePaymentsApplied, paidAmount);
                             
                             // If the total existing payments + advance payments match the paid amount, don't create new entries
                             BigDecimal totalAvailablePayments = totalExistingPayments.add(advancePaymentsApplied);
                             if (totalAvailablePayments.compareTo(paidAmount) >= 0) {
                                 hasMatchingPayment = true;
-                                System.out.println("✓ Payment entries already exist (including advance payments) - skipping creation");
+                                log.debug("✓ Payment entries already exist (including advance payments) - skipping creation");
                             } else {
-                                System.out.println("✗ Need to create payment entry - existing: ₹" + totalAvailablePayments + ", required: ₹" + paidAmount);
+                                log.debug("✗ Need to create payment entry - existing: ₹{}, required: ₹{}", totalAvailablePayments, paidAmount);
                             }
                             
                             if (!hasMatchingPayment) {
@@ -1188,45 +1162,40 @@ public class OutstandingService {
                                 );
                                 
                                 paymentEntry.setCreditAmount(paidAmount);
-                                paymentEntry.setBalanceAfter(customerLedger.getCurrentBalance().subtract(paidAmount));
                                 paymentEntry.setPaymentMethod(outstanding.getPaymentMethod() != null ? outstanding.getPaymentMethod() : "Cash");
                                 paymentEntry.setPaymentReference(outstanding.getPaymentReference());
                                 
-                                // Update customer ledger balance
-                                customerLedger.addCredit(paidAmount);
-                                customerLedgerRepository.save(customerLedger);
+                                // Update customer ledger balance (row-locked delta)
+                                paymentEntry.setBalanceAfter(ledgerPostingService.creditCustomer(customerLedger, paidAmount));
                                 
                                 // Save the payment entry
                                 customerLedgerEntryRepository.save(paymentEntry);
                                 
                                 syncedCount++;
-                                System.out.println("Created payment entry for outstanding item #" + outstanding.getId() + 
-                                                 " - Paid: ₹" + paidAmount + ", Remaining: ₹" + currentOutstandingAmount);
+                                log.debug("Created payment entry for outstanding item #{} - Paid: ₹{}, Remaining: ₹{}", outstanding.getId(), paidAmount, currentOutstandingAmount);
                             } else {
-                                System.out.println("Payment entries already exist for outstanding item #" + outstanding.getId() + 
-                                                 " - Total existing payments: ₹" + totalExistingPayments + ", Required: ₹" + paidAmount);
+                                log.debug("Payment entries already exist for outstanding item #{} - Total existing payments: ₹{}, Required: ₹{}", outstanding.getId(), totalExistingPayments, paidAmount);
                             }
                         } else {
-                            System.out.println("No payment needed for outstanding item #" + outstanding.getId() + " (Amount: ₹" + currentOutstandingAmount + ")");
+                            log.debug("No payment needed for outstanding item #{} (Amount: ₹{})", outstanding.getId(), currentOutstandingAmount);
                         }
                     } else {
-                        System.out.println("No invoice entry found for outstanding item #" + outstanding.getId());
+                        log.debug("No invoice entry found for outstanding item #{}", outstanding.getId());
                     }
                     
                 } catch (Exception e) {
                     errorCount++;
-                    System.err.println("Error syncing outstanding item #" + outstanding.getId() + ": " + e.getMessage());
+                    log.error("Error syncing outstanding item #{}: {}", outstanding.getId(), e.getMessage());
                 }
             }
             
             String result = "Sync completed. Synced: " + syncedCount + ", Errors: " + errorCount;
-            System.out.println("=== " + result + " ===");
+            log.debug("=== {} ===", result);
             return result;
             
         } catch (Exception e) {
             String error = "Error during forced sync: " + e.getMessage();
-            System.err.println(error);
-            e.printStackTrace();
+            log.error("{}", error, e);
             return error;
         }
     }
@@ -1264,9 +1233,9 @@ public class OutstandingService {
                     // Only create outstanding if PO has approved GRNs
                     if (hasApprovedGRN(po.getId())) {
                         createPurchaseOrderOutstanding(po);
-                        System.out.println("Created outstanding for PO #" + po.getId() + " (has approved GRN)");
+                        log.debug("Created outstanding for PO #{} (has approved GRN)", po.getId());
                     } else {
-                        System.out.println("Skipped PO #" + po.getId() + " - no approved GRN found");
+                        log.debug("Skipped PO #{} - no approved GRN found", po.getId());
                     }
                 }
             }
@@ -1279,11 +1248,11 @@ public class OutstandingService {
     @Transactional
     public void createB2BOutstandingForExistingItems() {
         try {
-            System.out.println("=== Starting B2B outstanding creation for existing items ===");
+            log.debug("=== Starting B2B outstanding creation for existing items ===");
             
             // Create outstanding for Kaccha orders
             List<Order> kacchaOrders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Kaccha");
-            System.out.println("Found " + kacchaOrders.size() + " Kaccha orders to process");
+            log.debug("Found {} Kaccha orders to process", kacchaOrders.size());
             
             for (Order order : kacchaOrders) {
                 if (order.getTotal() != null && order.getTotal().compareTo(BigDecimal.ZERO) > 0) {
@@ -1296,34 +1265,33 @@ public class OutstandingService {
             
             // Create outstanding for Purchase Orders that have approved GRNs (following new accounting workflow)
             List<PurchaseOrder> purchaseOrders = purchaseOrderRepository.findAll();
-            System.out.println("Found " + purchaseOrders.size() + " purchase orders to process");
+            log.debug("Found {} purchase orders to process", purchaseOrders.size());
             
             for (PurchaseOrder po : purchaseOrders) {
                 if (po.getTotalAmount() != null && po.getTotalAmount().compareTo(BigDecimal.ZERO) > 0) {
                     // Only create outstanding if PO has approved GRNs
                     if (hasApprovedGRN(po.getId())) {
                         createPurchaseOrderOutstanding(po);
-                        System.out.println("Created outstanding for PO #" + po.getId() + " (has approved GRN)");
+                        log.debug("Created outstanding for PO #{} (has approved GRN)", po.getId());
                     } else {
-                        System.out.println("Skipped PO #" + po.getId() + " - no approved GRN found");
+                        log.debug("Skipped PO #{} - no approved GRN found", po.getId());
                     }
                 }
             }
             
-            System.out.println("=== B2B outstanding creation completed ===");
+            log.debug("=== B2B outstanding creation completed ===");
             
             // Now automatically trigger customer ledger sync to ensure consistency
-            System.out.println("=== Triggering automatic customer ledger sync for consistency ===");
+            log.debug("=== Triggering automatic customer ledger sync for consistency ===");
             try {
                 triggerCustomerLedgerSync();
-                System.out.println("Customer ledger sync triggered successfully");
+                log.debug("Customer ledger sync triggered successfully");
             } catch (Exception e) {
-                System.err.println("Warning: Could not trigger customer ledger sync: " + e.getMessage());
+                log.warn("Could not trigger customer ledger sync: {}", e.getMessage());
             }
             
         } catch (Exception e) {
-            System.err.println("Error creating B2B outstanding items: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating B2B outstanding items: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to create B2B outstanding items", e);
         }
     }
@@ -1336,36 +1304,36 @@ public class OutstandingService {
     private void createSettlementVoucher(Outstanding outstanding, String notes, BigDecimal amount) {
         try {
         	if ("Pakka".equals(outstanding.getOrderType())) {
-                System.out.println("Skipping voucher creation for Retail order settlement - accounting already done at confirmation");
+                log.debug("Skipping voucher creation for Retail order settlement - accounting already done at confirmation");
                 return;
             }
             
             // Only create vouchers for B2B orders (Kaccha)
             if (!"Kaccha".equals(outstanding.getOrderType())) {
-                System.out.println("Unknown order type: " + outstanding.getOrderType() + " - skipping voucher creation");
+                log.debug("Unknown order type: {} - skipping voucher creation", outstanding.getOrderType());
                 return;
             }
-            System.out.println("Creating settlement voucher for outstanding item #" + outstanding.getId() + " with amount: " + amount + "outstanding.getPaymentMethod() "+ outstanding.getPaymentMethod());
+            log.debug("Creating settlement voucher for outstanding item #{} with amount: {}outstanding.getPaymentMethod() {}", outstanding.getId(), amount, outstanding.getPaymentMethod());
             
             Account debitAccount = null;
             if ("Cash".equals(outstanding.getPaymentMethod())) {
                 // For cash payments, find Cash account by code
                 debitAccount = accountRepository.findById(5L).orElse(null);
                 if (debitAccount == null) {
-                    System.err.println("Cash account not found (Code: 1001)");
+                    log.error("Cash account not found (Code: 1001)");
                 }
             } else {
                 // For other payments, find Bank account by code
                 debitAccount = accountRepository.findById(6L).orElse(null);
                 if (debitAccount == null) {
-                    System.err.println("Bank account not found (Code: 1002)");
+                    log.error("Bank account not found (Code: 1002)");
                 }
             }
 	       	
             // Get account based on payment method for debit entry
            // Account debitAccount = getAccountByPaymentMethod(outstanding.getPaymentMethod());
             if (debitAccount == null) {
-                System.err.println("Cannot find account for payment method: " + outstanding.getPaymentMethod());
+                log.error("Cannot find account for payment method: {}", outstanding.getPaymentMethod());
                 return;
             }
             
@@ -1375,7 +1343,7 @@ public class OutstandingService {
                 // For receivables, credit Accounts Receivable (1001.01)
                 creditAccount = accountRepository.findById(7L).orElse(null);
                 if (creditAccount == null) {
-                    System.err.println("Cannot find account with code 1001.01 (Accounts Receivable)");
+                    log.error("Cannot find account with code 1001.01 (Accounts Receivable)");
                     return;
                 }
             } else if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_PAYABLE || 
@@ -1383,17 +1351,16 @@ public class OutstandingService {
                 // For payables, credit Purchase / Cost of Goods Sold (Account Code: 4001)
                 creditAccount = accountRepository.findById(22L).orElse(null);
                 if (creditAccount == null) {
-                    System.err.println("Cannot find Purchase/Cost of Goods Sold account (Code: 4001)");
+                    log.error("Cannot find Purchase/Cost of Goods Sold account (Code: 4001)");
                     return;
                 }
             }
             
-            System.out.println("Debit Account: " + (debitAccount != null ? debitAccount.getName() + " (ID: " + debitAccount.getId() + ")" : "NULL"));
-            System.out.println("Credit Account: " + (creditAccount != null ? creditAccount.getName() + " (ID: " + creditAccount.getId() + ")" : "NULL"));
+            log.debug("Debit Account: {}", (debitAccount != null ? debitAccount.getName() + " (ID: " + debitAccount.getId() + ")" : "NULL"));
+            log.debug("Credit Account: {}", (creditAccount != null ? creditAccount.getName() + " (ID: " + creditAccount.getId() + ")" : "NULL"));
             
             if (debitAccount == null || creditAccount == null) {
-                System.err.println("Cannot create voucher - missing accounts. Debit: " + (debitAccount != null ? "OK" : "NULL") + 
-                                 ", Credit: " + (creditAccount != null ? "OK" : "NULL"));
+                log.error("Cannot create voucher - missing accounts. Debit: {}, Credit: {}", (debitAccount != null ? "OK" : "NULL"), (creditAccount != null ? "OK" : "NULL"));
                 return;
             }
             
@@ -1407,7 +1374,7 @@ public class OutstandingService {
             }
             voucher.setNarration(narration);
             Voucher savedVoucher = voucherRepository.save(voucher);
-            System.out.println("Created settlement voucher with ID: " + savedVoucher.getId());
+            log.debug("Created settlement voucher with ID: {}", savedVoucher.getId());
             
             // Create voucher entries based on outstanding type
             if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_RECEIVABLE) {
@@ -1421,11 +1388,10 @@ public class OutstandingService {
                 createVoucherEntry(voucher, debitAccount, amount, false); // Credit Cash/Bank
             }
             
-            System.out.println("Created settlement voucher for outstanding item #" + outstanding.getId());
+            log.debug("Created settlement voucher for outstanding item #{}", outstanding.getId());
             
         } catch (Exception e) {
-            System.err.println("Error creating settlement voucher: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating settlement voucher: {}", e.getMessage(), e);
         }
     }
     
@@ -1434,39 +1400,39 @@ public class OutstandingService {
      */
     private void createPartialPaymentVoucher(Outstanding outstanding, BigDecimal paidAmount, String notes) {
         try {
-            System.out.println("Creating partial payment voucher for outstanding item #" + outstanding.getId() + " with paid amount: " + paidAmount);
+            log.debug("Creating partial payment voucher for outstanding item #{} with paid amount: {}", outstanding.getId(), paidAmount);
             
             if ("Pakka".equals(outstanding.getOrderType())) {
-                System.out.println("Skipping voucher creation for Retail order settlement - accounting already done at confirmation");
+                log.debug("Skipping voucher creation for Retail order settlement - accounting already done at confirmation");
                 return;
             }
             
             // Only create vouchers for B2B orders (Kaccha)
             if (!"Kaccha".equals(outstanding.getOrderType())) {
-                System.out.println("Unknown order type: " + outstanding.getOrderType() + " - skipping voucher creation");
+                log.debug("Unknown order type: {} - skipping voucher creation", outstanding.getOrderType());
                 return;
             }
             
-            System.out.println("Creating settlement voucher for B2B outstanding item #" + outstanding.getId() + " with amount: " + paidAmount);
+            log.debug("Creating settlement voucher for B2B outstanding item #{} with amount: {}", outstanding.getId(), paidAmount);
             
             Account debitAccount = null;
             if ("Cash".equals(outstanding.getPaymentMethod())) {
                 // For cash payments, find Cash account by code
                 debitAccount = accountRepository.findById(5L).orElse(null);
                 if (debitAccount == null) {
-                    System.err.println("Cash account not found (Code: 1001)");
+                    log.error("Cash account not found (Code: 1001)");
                 }
             } else {
                 // For other payments, find Bank account by code
                 debitAccount = accountRepository.findById(6L).orElse(null);
                 if (debitAccount == null) {
-                    System.err.println("Bank account not found (Code: 1002)");
+                    log.error("Bank account not found (Code: 1002)");
                 }
             }
             // Get account based on payment method for debit entry
            // Account debitAccount = getAccountByPaymentMethod(outstanding.getPaymentMethod());
             if (debitAccount == null) {
-                System.err.println("Cannot find account for payment method: " + outstanding.getPaymentMethod());
+                log.error("Cannot find account for payment method: {}", outstanding.getPaymentMethod());
                 return;
             }
             
@@ -1476,7 +1442,7 @@ public class OutstandingService {
                 // For receivables, credit Accounts Receivable (1001.01)
                 creditAccount = accountRepository.findById(7L).orElse(null);
                 if (creditAccount == null) {
-                    System.err.println("Cannot find account with code 1001.01 (Accounts Receivable)");
+                    log.error("Cannot find account with code 1001.01 (Accounts Receivable)");
                     return;
                 }
             } else if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_PAYABLE || 
@@ -1484,17 +1450,16 @@ public class OutstandingService {
                 // For payables, credit Purchase / Cost of Goods Sold (Account Code: 4001)
                 creditAccount = accountRepository.findById(22L).orElse(null);
                 if (creditAccount == null) {
-                    System.err.println("Cannot find Purchase/Cost of Goods Sold account (Code: 4001)");
+                    log.error("Cannot find Purchase/Cost of Goods Sold account (Code: 4001)");
                     return;
                 }
             }
             
-            System.out.println("Debit Account: " + (debitAccount != null ? debitAccount.getName() + " (ID: " + debitAccount.getId() + ")" : "NULL"));
-            System.out.println("Credit Account: " + (creditAccount != null ? creditAccount.getName() + " (ID: " + creditAccount.getId() + ")" : "NULL"));
+            log.debug("Debit Account: {}", (debitAccount != null ? debitAccount.getName() + " (ID: " + debitAccount.getId() + ")" : "NULL"));
+            log.debug("Credit Account: {}", (creditAccount != null ? creditAccount.getName() + " (ID: " + creditAccount.getId() + ")" : "NULL"));
             
             if (debitAccount == null || creditAccount == null) {
-                System.err.println("Cannot create voucher - missing accounts. Debit: " + (debitAccount != null ? "OK" : "NULL") + 
-                                 ", Credit: " + (creditAccount != null ? "OK" : "NULL"));
+                log.error("Cannot create voucher - missing accounts. Debit: {}, Credit: {}", (debitAccount != null ? "OK" : "NULL"), (creditAccount != null ? "OK" : "NULL"));
                 return;
             }
             
@@ -1508,7 +1473,7 @@ public class OutstandingService {
             }
             voucher.setNarration(narration);
             Voucher savedVoucher = voucherRepository.save(voucher);
-            System.out.println("Created voucher with ID: " + savedVoucher.getId());
+            log.debug("Created voucher with ID: {}", savedVoucher.getId());
             
             // Create voucher entries based on outstanding type
             if (outstanding.getType() == Outstanding.OutstandingType.INVOICE_RECEIVABLE) {
@@ -1522,11 +1487,10 @@ public class OutstandingService {
                 createVoucherEntry(voucher, debitAccount, paidAmount, false); // Credit Cash/Bank
             }
             
-            System.out.println("Created partial payment voucher for outstanding item #" + outstanding.getId());
+            log.debug("Created partial payment voucher for outstanding item #{}", outstanding.getId());
             
         } catch (Exception e) {
-            System.err.println("Error creating partial payment voucher: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating partial payment voucher: {}", e.getMessage(), e);
         }
     }
     
@@ -1535,10 +1499,10 @@ public class OutstandingService {
      */
     private Account getAccountByPaymentMethod(String paymentMethod) {
         try {
-            System.out.println("Looking for account for payment method: " + paymentMethod);
+            log.debug("Looking for account for payment method: {}", paymentMethod);
             
             if (paymentMethod == null || paymentMethod.trim().isEmpty()) {
-                System.err.println("Payment method is null or empty");
+                log.error("Payment method is null or empty");
                 return null;
             }
             
@@ -1575,12 +1539,12 @@ public class OutstandingService {
             List<Account> accounts = accountRepository.findByNameContainingIgnoreCase(accountName);
             if (!accounts.isEmpty()) {
                 Account found = accounts.get(0);
-                System.out.println("Found account for " + paymentMethod + ": " + found.getName() + " (ID: " + found.getId() + ")");
+                log.debug("Found account for {}: {} (ID: {})", paymentMethod, found.getName(), found.getId());
                 return found;
             }
             
             // If not found, try to find any account that might be suitable
-            System.out.println("No account found for " + paymentMethod + ", trying to find suitable account");
+            log.debug("No account found for {}, trying to find suitable account", paymentMethod);
             List<Account> allAccounts = accountRepository.findAll();
             
             // Filter out account ID 5 (Sales Revenue) and look for asset accounts
@@ -1592,7 +1556,7 @@ public class OutstandingService {
             
             if (!suitableAccounts.isEmpty()) {
                 Account fallback = suitableAccounts.get(0);
-                System.out.println("Using fallback account: " + fallback.getName() + " (ID: " + fallback.getId() + ")");
+                log.debug("Using fallback account: {} (ID: {})", fallback.getName(), fallback.getId());
                 return fallback;
             }
             
@@ -1604,17 +1568,16 @@ public class OutstandingService {
                     .orElse(null);
                 
                 if (lastResort != null) {
-                    System.out.println("Using last resort account: " + lastResort.getName() + " (ID: " + lastResort.getId() + ")");
+                    log.debug("Using last resort account: {} (ID: {})", lastResort.getName(), lastResort.getId());
                     return lastResort;
                 }
             }
             
-            System.err.println("No suitable account found for payment method: " + paymentMethod);
+            log.error("No suitable account found for payment method: {}", paymentMethod);
             return null;
             
         } catch (Exception e) {
-            System.err.println("Error finding account for payment method: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error finding account for payment method: {}", e.getMessage(), e);
             return null;
         }
     }
@@ -1624,8 +1587,8 @@ public class OutstandingService {
      */
     private void createVoucherEntry(Voucher voucher, Account account, BigDecimal amount, boolean isDebit) {
         try {
-            System.out.println("Creating voucher entry - Account: " + (account != null ? account.getName() + " (ID: " + account.getId() + ")" : "NULL"));
-            System.out.println("Amount: " + amount + ", IsDebit: " + isDebit);
+            log.debug("Creating voucher entry - Account: {}", (account != null ? account.getName() + " (ID: " + account.getId() + ")" : "NULL"));
+            log.debug("Amount: {}, IsDebit: {}", amount, isDebit);
             
             VoucherEntry entry = new VoucherEntry();
             entry.setVoucher(voucher);
@@ -1634,21 +1597,20 @@ public class OutstandingService {
             if (isDebit) {
                 entry.setDebit(amount);
                 entry.setCredit(BigDecimal.ZERO);
-                System.out.println("Set Debit: " + amount + ", Credit: 0");
+                log.debug("Set Debit: {}, Credit: 0", amount);
             } else {
                 entry.setDebit(BigDecimal.ZERO);
                 entry.setCredit(amount);
-                System.out.println("Set Debit: 0, Credit: " + amount);
+                log.debug("Set Debit: 0, Credit: {}", amount);
             }
             
             VoucherEntry savedEntry = voucherEntryRepository.save(entry);
-            System.out.println("Saved voucher entry with ID: " + savedEntry.getId());
-            System.out.println("Saved entry - Debit: " + savedEntry.getDebit() + ", Credit: " + savedEntry.getCredit());
-            System.out.println("Saved entry - Account ID: " + (savedEntry.getAccount() != null ? savedEntry.getAccount().getId() : "NULL"));
+            log.debug("Saved voucher entry with ID: {}", savedEntry.getId());
+            log.debug("Saved entry - Debit: {}, Credit: {}", savedEntry.getDebit(), savedEntry.getCredit());
+            log.debug("Saved entry - Account ID: {}", (savedEntry.getAccount() != null ? savedEntry.getAccount().getId() : "NULL"));
             
         } catch (Exception e) {
-            System.err.println("Error creating voucher entry: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating voucher entry: {}", e.getMessage(), e);
         }
     }
     
@@ -1660,7 +1622,7 @@ public class OutstandingService {
         List<String> cashAccountNames = Arrays.asList("Cash", "Bank", "Cash in Hand", "Petty Cash", "Bank Account");
         for (String name : cashAccountNames) {
             List<Account> accounts = accountRepository.findByNameContainingIgnoreCase(name);
-            System.out.println("Searching for cash account '" + name + "', found: " + accounts.size());
+            log.debug("Searching for cash account '{}', found: {}", name, accounts.size());
             if (!accounts.isEmpty()) {
                 // Filter out accounts that are clearly not cash accounts
                 List<Account> filteredAccounts = accounts.stream()
@@ -1671,12 +1633,12 @@ public class OutstandingService {
                 
                 if (!filteredAccounts.isEmpty()) {
                     Account account = filteredAccounts.get(0);
-                    System.out.println("Found suitable cash account: " + account.getName() + " (ID: " + account.getId() + ")");
+                    log.debug("Found suitable cash account: {} (ID: {})", account.getName(), account.getId());
                     return account;
                 }
             }
         }
-        System.err.println("No suitable cash account found. Please create a cash account in your chart of accounts.");
+        log.error("No suitable cash account found. Please create a cash account in your chart of accounts.");
         return null;
     }
     
@@ -1688,7 +1650,7 @@ public class OutstandingService {
         List<String> customerAccountNames = Arrays.asList("Customer", "Accounts Receivable", "Sundry Debtors", "Trade Receivables");
         for (String name : customerAccountNames) {
             List<Account> accounts = accountRepository.findByNameContainingIgnoreCase(name);
-            System.out.println("Searching for customer account '" + name + "', found: " + accounts.size());
+            log.debug("Searching for customer account '{}', found: {}", name, accounts.size());
             if (!accounts.isEmpty()) {
                 // Filter out accounts that are clearly not customer accounts
                 List<Account> filteredAccounts = accounts.stream()
@@ -1699,12 +1661,12 @@ public class OutstandingService {
                 
                 if (!filteredAccounts.isEmpty()) {
                     Account account = filteredAccounts.get(0);
-                    System.out.println("Found suitable customer account: " + account.getName() + " (ID: " + account.getId() + ")");
+                    log.debug("Found suitable customer account: {} (ID: {})", account.getName(), account.getId());
                     return account;
                 }
             }
         }
-        System.err.println("No suitable customer account found. Please create a customer account in your chart of accounts.");
+        log.error("No suitable customer account found. Please create a customer account in your chart of accounts.");
         return null;
     }
     
@@ -1716,14 +1678,14 @@ public class OutstandingService {
         List<String> supplierAccountNames = Arrays.asList("Supplier", "Accounts Payable", "Sundry Creditors", "Trade Payables");
         for (String name : supplierAccountNames) {
             List<Account> accounts = accountRepository.findByNameContainingIgnoreCase(name);
-            System.out.println("Searching for supplier account '" + name + "', found: " + accounts.size());
+            log.debug("Searching for supplier account '{}', found: {}", name, accounts.size());
             if (!accounts.isEmpty()) {
                 Account account = accounts.get(0);
-                System.out.println("Found supplier account: " + account.getName() + " (ID: " + account.getId() + ")");
+                log.debug("Found supplier account: {} (ID: {})", account.getName(), account.getId());
                 return account;
             }
         }
-        System.err.println("No supplier account found. Please create a supplier account in your chart of accounts.");
+        log.error("No supplier account found. Please create a supplier account in your chart of accounts.");
         return null;
     }
     
@@ -1732,15 +1694,15 @@ public class OutstandingService {
      */
     private Account createOrFindFallbackAccount(String accountName, String accountType) {
         try {
-            System.out.println("Looking for fallback account: " + accountName + " (" + accountType + ")");
+            log.debug("Looking for fallback account: {} ({})", accountName, accountType);
             
             // First try to find an existing account with similar name
             List<Account> existingAccounts = accountRepository.findByNameContainingIgnoreCase(accountName);
-            System.out.println("Found " + existingAccounts.size() + " accounts with similar name '" + accountName + "'");
+            log.debug("Found {} accounts with similar name '{}'", existingAccounts.size(), accountName);
             
             if (!existingAccounts.isEmpty()) {
                 Account found = existingAccounts.get(0);
-                System.out.println("Using account with similar name: " + found.getName() + " (ID: " + found.getId() + ")");
+                log.debug("Using account with similar name: {} (ID: {})", found.getName(), found.getId());
                 return found;
             }
             
@@ -1750,29 +1712,28 @@ public class OutstandingService {
                 .filter(acc -> acc.getType() != null && acc.getType().equalsIgnoreCase(accountType))
                 .toList();
             
-            System.out.println("Found " + typeAccounts.size() + " accounts of type '" + accountType + "'");
+            log.debug("Found {} accounts of type '{}'", typeAccounts.size(), accountType);
             
             if (!typeAccounts.isEmpty()) {
                 Account found = typeAccounts.get(0);
-                System.out.println("Using account of same type: " + found.getName() + " (ID: " + found.getId() + ")");
+                log.debug("Using account of same type: {} (ID: {})", found.getName(), found.getId());
                 return found;
             }
             
             // If still no account found, try to find any account that might be suitable
-            System.out.println("No suitable account found, trying to find any available account");
+            log.debug("No suitable account found, trying to find any available account");
             if (!allAccounts.isEmpty()) {
                 Account fallback = allAccounts.get(0);
-                System.out.println("Using fallback account: " + fallback.getName() + " (ID: " + fallback.getId() + ")");
+                log.debug("Using fallback account: {} (ID: {})", fallback.getName(), fallback.getId());
                 return fallback;
             }
             
             // If still no account found, return null
-            System.err.println("No fallback account found for " + accountName + " (" + accountType + ")");
+            log.error("No fallback account found for {} ({})", accountName, accountType);
             return null;
             
         } catch (Exception e) {
-            System.err.println("Error finding fallback account: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error finding fallback account: {}", e.getMessage(), e);
             return null;
         }
     }
@@ -1782,12 +1743,12 @@ public class OutstandingService {
      */
     public void createDefaultAccountsIfNeeded() {
         try {
-            System.out.println("Checking if default accounts exist...");
+            log.debug("Checking if default accounts exist...");
             
             // Check if we have any accounts at all
             List<Account> allAccounts = accountRepository.findAll();
             if (allAccounts.isEmpty()) {
-                System.out.println("No accounts found, creating default accounts...");
+                log.debug("No accounts found, creating default accounts...");
                 
                 // Create Cash account
                 Account cashAccount = new Account();
@@ -1795,7 +1756,7 @@ public class OutstandingService {
                 cashAccount.setType("Asset");
                 cashAccount.setCode("1001");
                 accountRepository.save(cashAccount);
-                System.out.println("Created Cash account with ID: " + cashAccount.getId());
+                log.info("Created Cash account with ID: {}", cashAccount.getId());
                 
                 // Create Customer account
                 Account customerAccount = new Account();
@@ -1803,7 +1764,7 @@ public class OutstandingService {
                 customerAccount.setType("Asset");
                 customerAccount.setCode("1200");
                 accountRepository.save(customerAccount);
-                System.out.println("Created Customer account with ID: " + customerAccount.getId());
+                log.info("Created Customer account with ID: {}", customerAccount.getId());
                 
                 // Create Supplier account
                 Account supplierAccount = new Account();
@@ -1811,18 +1772,17 @@ public class OutstandingService {
                 supplierAccount.setType("Liability");
                 supplierAccount.setCode("2000");
                 accountRepository.save(supplierAccount);
-                System.out.println("Created Supplier account with ID: " + supplierAccount.getId());
+                log.info("Created Supplier account with ID: {}", supplierAccount.getId());
                 
             } else {
-                System.out.println("Found " + allAccounts.size() + " existing accounts");
+                log.debug("Found {} existing accounts", allAccounts.size());
                 for (Account acc : allAccounts) {
-                    System.out.println("- " + acc.getName() + " (ID: " + acc.getId() + ", Type: " + acc.getType() + ")");
+                    log.debug("- {} (ID: {}, Type: {})", acc.getName(), acc.getId(), acc.getType());
                 }
             }
             
         } catch (Exception e) {
-            System.err.println("Error creating default accounts: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating default accounts: {}", e.getMessage(), e);
         }
     }
     
@@ -1867,11 +1827,11 @@ public class OutstandingService {
     @Transactional
     public void syncCustomerLedgersForB2BOrders() {
         try {
-            System.out.println("=== Starting customer ledger sync for B2B orders ===");
+            log.debug("=== Starting customer ledger sync for B2B orders ===");
             
             // Get all B2B orders (Kaccha)
             List<Order> b2bOrders = orderRepository.findByBillTypeOrderByCreatedAtDesc("Kaccha");
-            System.out.println("Found " + b2bOrders.size() + " B2B orders to sync");
+            log.debug("Found {} B2B orders to sync", b2bOrders.size());
             
             for (Order order : b2bOrders) {
                 if (order.getTotal() != null && order.getTotal().compareTo(BigDecimal.ZERO) > 0) {
@@ -1892,24 +1852,22 @@ public class OutstandingService {
                             if (existingEntries.isEmpty()) {
                                 // Add invoice entry
                                 customerLedgerService.addInvoiceEntry(customerLedger, order, order.getTotal());
-                                System.out.println("Created customer ledger entry for order ID: " + order.getId() + 
-                                                " - Amount: " + order.getTotal() + " - Customer: " + order.getName());
+                                log.debug("Created customer ledger entry for order ID: {} - Amount: {} - Customer: {}", order.getId(), order.getTotal(), order.getName());
                             } else {
-                                System.out.println("Customer ledger entry already exists for order ID: " + order.getId());
+                                log.debug("Customer ledger entry already exists for order ID: {}", order.getId());
                             }
                             
                         } catch (Exception e) {
-                            System.err.println("Error syncing customer ledger for order ID " + order.getId() + ": " + e.getMessage());
+                            log.error("Error syncing customer ledger for order ID {}: {}", order.getId(), e.getMessage());
                         }
                     }
                 }
             }
             
-            System.out.println("=== Customer ledger sync completed ===");
+            log.debug("=== Customer ledger sync completed ===");
             
         } catch (Exception e) {
-            System.err.println("Error syncing customer ledgers for B2B orders: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error syncing customer ledgers for B2B orders: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to sync customer ledgers", e);
         }
     }
@@ -1920,12 +1878,12 @@ public class OutstandingService {
      */
     public void triggerCustomerLedgerSync() {
         try {
-            System.out.println("=== Triggering customer ledger sync from outstanding service ===");
+            log.debug("=== Triggering customer ledger sync from outstanding service ===");
             // Actually call the customer ledger service to sync
             customerLedgerService.createCustomerLedgersForExistingB2BOrders();
-            System.out.println("Customer ledger sync triggered successfully");
+            log.debug("Customer ledger sync triggered successfully");
         } catch (Exception e) {
-            System.err.println("Error triggering customer ledger sync: " + e.getMessage());
+            log.error("Error triggering customer ledger sync: {}", e.getMessage());
         }
     }
     
@@ -1936,13 +1894,13 @@ public class OutstandingService {
      */
     private void createReversalVoucherForOrderCancellation(Order order) {
         try {
-            System.out.println("=== Creating reversal voucher for order cancellation ===");
-            System.out.println("Order ID: " + order.getId());
-            System.out.println("Order Type: " + order.getBillType());
-            System.out.println("Amount: " + order.getTotal());
+            log.debug("=== Creating reversal voucher for order cancellation ===");
+            log.debug("Order ID: {}", order.getId());
+            log.debug("Order Type: {}", order.getBillType());
+            log.debug("Amount: {}", order.getTotal());
             
             if (order.getTotal() == null || order.getTotal().compareTo(BigDecimal.ZERO) <= 0) {
-                System.out.println("Order amount is zero or null, skipping voucher reversal");
+                log.debug("Order amount is zero or null, skipping voucher reversal");
                 return;
             }
             
@@ -1958,11 +1916,10 @@ public class OutstandingService {
                 createRetailOrderReversalVoucher(order);
             }
             
-            System.out.println("Reversal voucher created successfully for order #" + order.getId());
+            log.debug("Reversal voucher created successfully for order #{}", order.getId());
             
         } catch (Exception e) {
-            System.err.println("Error creating reversal voucher for order #" + order.getId() + ": " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating reversal voucher for order #{}: {}", order.getId(), e.getMessage(), e);
             throw e;
         }
     }
@@ -1978,12 +1935,12 @@ public class OutstandingService {
         Account salesAccount = accountRepository.findByCode("3001");
         
         if (accountsReceivable == null) {
-            System.err.println("Accounts Receivable account (ID: 7) not found for reversal voucher");
+            log.error("Accounts Receivable account (ID: 7) not found for reversal voucher");
             return;
         }
         
         if (salesAccount == null) {
-            System.err.println("Sales account (3001) not found for reversal voucher");
+            log.error("Sales account (3001) not found for reversal voucher");
             return;
         }
         
@@ -2012,7 +1969,7 @@ public class OutstandingService {
         debitEntry.setDescription("Reversal - Sales - Order #" + order.getId() + " - " + order.getName());
         voucherEntryRepository.save(debitEntry);
         
-        System.out.println("B2B reversal voucher created - Credit Accounts Receivable, Debit Sales");
+        log.debug("B2B reversal voucher created - Credit Accounts Receivable, Debit Sales");
     }
     
     /**
@@ -2026,12 +1983,12 @@ public class OutstandingService {
         Account salesAccount = accountRepository.findByCode("3001");
         
         if (bankAccount == null) {
-            System.err.println("Bank Account (ID: 6) not found for reversal voucher");
+            log.error("Bank Account (ID: 6) not found for reversal voucher");
             return;
         }
         
         if (salesAccount == null) {
-            System.err.println("Sales account (3001) not found for reversal voucher");
+            log.error("Sales account (3001) not found for reversal voucher");
             return;
         }
         
@@ -2060,7 +2017,7 @@ public class OutstandingService {
         debitEntry.setDescription("Reversal - Sales - Order #" + order.getId() + " - " + order.getName());
         voucherEntryRepository.save(debitEntry);
         
-        System.out.println("Retail reversal voucher created - Credit Bank Account, Debit Sales");
+        log.debug("Retail reversal voucher created - Credit Bank Account, Debit Sales");
     }
 }
 
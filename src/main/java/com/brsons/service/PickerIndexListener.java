@@ -0,0 +1,67 @@
+package com.brsons.service;
+
+import com.brsons.model.Account;
+import com.brsons.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener that keeps the picker indexes in step with Product and
+ * Account writes once the transaction has committed: a product's own entry
+ * is replaced or dropped, the account index is marked stale.
+ */
+@Component
+public class PickerIndexListener {
+
+    private final ObjectProvider<PickerIndexService> pickerIndexService;
+
+    public PickerIndexListener(ObjectProvider<PickerIndexService> pickerIndexService) {
+        this.pickerIndexService = pickerIndexService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Object entity) {
+        PickerIndexService service = pickerIndexService.getIfAvailable();
+        if (service == null) {
+            return;
+        }
+        if (entity instanceof Product product) {
+            afterCommit(() -> service.productChanged(product));
+        } else if (entity instanceof Account) {
+            afterCommit(service::markAccountsStale);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        PickerIndexService service = pickerIndexService.getIfAvailable();
+        if (service == null) {
+            return;
+        }
+        if (entity instanceof Product product) {
+            Long productId = product.getId();
+            afterCommit(() -> service.productRemoved(productId));
+        } else if (entity instanceof Account) {
+            afterCommit(service::markAccountsStale);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.brsons.service;
+
+import com.brsons.dto.AccountPickerDto;
+import com.brsons.dto.ProductDropdownDto;
+import com.brsons.model.Product;
+import com.brsons.repository.AccountRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.util.PrefixIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory typeahead indexes for the product pickers (PO, GRN, credit
+ * note, open sale) and the voucher account picker.
+ *
+ * Each index is built from one projection query on first use. A written
+ * Product replaces just its own entry after commit ({@link PickerIndexListener});
+ * stock is not indexed, so sales never touch it. The account index is
+ * rebuilt on the next read after an Account row changes. Forms query these
+ * indexes as the user types instead of embedding the whole catalog.
+ */
+@Service
+public class PickerIndexService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private final Object productLock = new Object();
+    private final AtomicBoolean accountsStale = new AtomicBoolean(true);
+
+    private volatile PrefixIndex<ProductDropdownDto> productIndex;
+    private volatile PrefixIndex<AccountPickerDto> accountIndex;
+
+    // ==================== PRODUCTS ====================
+
+    /**
+     * Products whose name words or SKU start with the query words (the first
+     * ones by name for an empty query)
+     */
+    public List<ProductDropdownDto> searchProducts(String query, Integer limit, boolean activeOnly) {
+        return products().search(query, clampLimit(limit), activeOnly ? this::isActive : null);
+    }
+
+    public int productCount() {
+        return products().size();
+    }
+
+    /**
+     * Replace one product's entry with its committed state
+     */
+    public void productChanged(Product product) {
+        ProductDropdownDto row = new ProductDropdownDto(product.getId(), product.getProductName(),
+            product.getRetailPrice(), product.getSku(), product.getPrice(), product.getStatus());
+        synchronized (productLock) {
+            // Not built yet: the first read loads the committed row anyway
+            if (productIndex != null) {
+                productIndex.put(row);
+            }
+        }
+    }
+
+    public void productRemoved(Long productId) {
+        synchronized (productLock) {
+            if (productIndex != null) {
+                productIndex.remove(productId);
+            }
+        }
+    }
+
+    /**
+     * Re-read a few products after a bulk update that bypassed the entity listener
+     */
+    public void refreshProducts(Collection<Long> productIds) {
+        synchronized (productLock) {
+            if (productIndex == null || productIds.isEmpty()) {
+                return;
+            }
+            Set<Long> missing = new HashSet<>(productIds);
+            for (ProductDropdownDto row : productRepository.findForPickerByIds(productIds)) {
+                productIndex.put(row);
+                missing.remove(row.getId());
+            }
+            missing.forEach(productIndex::remove);
+        }
+    }
+
+    private PrefixIndex<ProductDropdownDto> products() {
+        PrefixIndex<ProductDropdownDto> index = productIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (productLock) {
+            // Changes committed during the load wait on the lock and apply after it
+            if (productIndex == null) {
+                productIndex = PrefixIndex.build(productRepository.findAllForPicker(),
+                    ProductDropdownDto::getId,
+                    ProductDropdownDto::getProductName,
+                    product -> Arrays.asList(product.getProductName(), product.getSku()));
+            }
+            return productIndex;
+        }
+    }
+
+    private boolean isActive(ProductDropdownDto product) {
+        return "Active".equals(product.getStatus());
+    }
+
+    // ==================== ACCOUNTS ====================
+
+    /**
+     * Every account in name order
+     */
+    public List<AccountPickerDto> getAllAccounts() {
+        return accounts().all();
+    }
+
+    /**
+     * Accounts whose name, parent name or code start with the query words
+     */
+    public List<AccountPickerDto> searchAccounts(String query, Integer limit, boolean activeOnly) {
+        return accounts().search(query, clampLimit(limit), activeOnly ? AccountPickerDto::isActive : null);
+    }
+
+    public void markAccountsStale() {
+        accountsStale.set(true);
+    }
+
+    private PrefixIndex<AccountPickerDto> accounts() {
+        PrefixIndex<AccountPickerDto> index = accountIndex;
+        if (index != null && !accountsStale.get()) {
+            return index;
+        }
+        synchronized (accountsStale) {
+            if (accountIndex == null || accountsStale.get()) {
+                accountsStale.set(false);
+                accountIndex = PrefixIndex.build(accountRepository.findAllForPicker(),
+                    AccountPickerDto::getId,
+                    AccountPickerDto::getName,
+                    account -> Arrays.asList(account.getName(), account.getParentName(), account.getCode()));
+            }
+            return accountIndex;
+        }
+    }
+
+    private int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,42 @@
+package com.brsons.service;
+
+import com.brsons.dto.CatalogVariantDto;
+import com.brsons.dto.ResolvedPrice;
+import com.brsons.model.Product;
+import com.brsons.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Unit price of a product, or of one of its variants, for a user type.
+ *
+ * B2B users pay the B2B price when there is one and everyone else the retail
+ * price. A price set on the variant overrides the product's; an unset one
+ * falls through to the product. The variant is read from the catalog cache,
+ * so resolving a line costs no query once its product is cached. Discounts
+ * are not applied, the same as at checkout.
+ */
+@Service
+public class PricingService {
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    public ResolvedPrice resolve(Product product, Long variantId, String userType) {
+        CatalogVariantDto variant = null;
+        if (variantId != null) {
+            variant = catalogCacheService.getVariant(variantId)
+                .filter(candidate -> product.getId().equals(candidate.getProductId()))
+                .orElse(null);
+        }
+
+        if ("B2B".equalsIgnoreCase(userType)) {
+            Double b2bPrice = variant != null && variant.getB2bPrice() != null ? variant.getB2bPrice() : product.getB2bPrice();
+            if (b2bPrice != null) {
+                return new ResolvedPrice(Money.of(b2bPrice), "b2b");
+            }
+        }
+        Double retailPrice = variant != null && variant.getRetailPrice() != null ? variant.getRetailPrice() : product.getRetailPrice();
+        return new ResolvedPrice(Money.of(retailPrice), "retail");
+    }
+}
@@ -0,0 +1,143 @@
+package com.brsons.service;
+
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.ProductFilter;
+import com.brsons.model.Product;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtered, keyset-paginated product listings for the admin inventory.
+ *
+ * Filters are pushed to SQL as Specifications and pages are read with
+ * {@code id > :after ORDER BY id LIMIT :size + 1}, so the cost of a page does
+ * not grow with how deep the admin has scrolled.
+ */
+@Service
+public class ProductQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductQueryService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    @Value("${inventory.stock.low-threshold:10}")
+    private int lowStockThreshold;
+
+    /**
+     * One page of products matching the filter, with categories loaded.
+     * Not transactional: the count estimate runs on its own (see estimateUnfilteredCount)
+     * and the page and count queries each run in the repository's read-only transaction.
+     */
+    public KeysetPage<Product> findPage(ProductFilter filter, Long afterId, Integer size) {
+        int pageSize = clampPageSize(size);
+        Specification<Product> spec = ProductSpecifications.matching(filter, lowStockThreshold);
+        Long estimate = estimateUnfilteredCount(filter);
+
+        List<Product> rows = productRepository.findBy(
+            spec.and(ProductSpecifications.idAfter(afterId)).and(ProductSpecifications.fetchCategory()),
+            query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+
+        long total = estimate != null ? estimate : productRepository.count(spec);
+        return KeysetPage.fromOverfetch(rows, pageSize, Product::getId, total, estimate != null);
+    }
+
+    /**
+     * Every product matching the filter (inventory export)
+     */
+    @Transactional(readOnly = true)
+    public List<Product> findAll(ProductFilter filter) {
+        return productRepository.findAll(
+            ProductSpecifications.matching(filter, lowStockThreshold).and(ProductSpecifications.fetchCategory()), Sort.by("id"));
+    }
+
+    /**
+     * Inventory cards for the filter: low stock, out of stock and active products.
+     * Each count is a separate index-backed query instead of loading the products;
+     * the total comes with the page.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> getInventoryStats(ProductFilter filter) {
+        Specification<Product> spec = ProductSpecifications.matching(filter, lowStockThreshold);
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("lowStockProducts", productRepository.count(
+            spec.and(ProductSpecifications.stockAtMost(lowStockThreshold))));
+        stats.put("outOfStockProducts", productRepository.count(spec.and(ProductSpecifications.stockAtMost(0))));
+        stats.put("activeProducts", productRepository.count(spec.and(ProductSpecifications.status("Active"))));
+        return stats;
+    }
+
+    /**
+     * Number of products matching the filter.
+     *
+     * An unfiltered listing uses the planner statistics of the products table
+     * (kept current by autovacuum) instead of a full count; filtered listings
+     * are counted exactly through the (category_id, status) and stock indexes.
+     */
+    public long countProducts(ProductFilter filter) {
+        Long estimate = estimateUnfilteredCount(filter);
+        return estimate != null ? estimate : productRepository.count(ProductSpecifications.matching(filter, lowStockThreshold));
+    }
+
+    /**
+     * Must not run inside a transaction: on PostgreSQL a failed statement
+     * aborts the surrounding transaction, so the fallback below could not
+     * recover it. Outside one the query runs on its own in auto-commit; a
+     * caller inside a transaction gets the exact count instead.
+     */
+    private Long estimateUnfilteredCount(ProductFilter filter) {
+        if ((filter != null && !filter.isEmpty()) || !datasourceUrl.startsWith("jdbc:postgresql")
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        try {
+            Object value = entityManager
+                .createNativeQuery("SELECT reltuples::bigint FROM pg_class WHERE relname = 'products'")
+                .getSingleResult();
+            long estimate = ((Number) value).longValue();
+            // -1 (never analyzed) or tiny tables: an exact count is cheap and better
+            return estimate > 10_000 ? estimate : null;
+        } catch (Exception e) {
+            log.warn("Could not read product count estimate: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Highest stock still counted as low ({@code inventory.stock.low-threshold})
+     */
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    private int clampPageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,286 @@
+package com.brsons.service;
+
+import com.brsons.dto.ProductSearchHit;
+import com.brsons.dto.ProductSearchResult;
+import com.brsons.model.Product;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranked product search for the shop, open-sale and PO/GRN product pickers.
+ *
+ * On PostgreSQL a query matches a product when
+ * <ul>
+ *   <li>its name, SKU, HSN code or description contains every query word
+ *       (prefix match, GIN tsvector index),</li>
+ *   <li>one of its variants matches on size, color, fabric, style, pattern,
+ *       occasion or SKU, or</li>
+ *   <li>its name is trigram-similar to the query (typo tolerance, pg_trgm), or</li>
+ *   <li>its SKU starts with the query (codes such as "BRS-104").</li>
+ * </ul>
+ * Each of these is a separate branch of a UNION answered by its own index,
+ * so no branch forces a scan of products; the matches are then ranked by
+ * text rank plus name similarity. Pages are read by seek on (score, id), the
+ * cursor being the last hit's "score:id". Without PostgreSQL (or without
+ * pg_trgm) the search degrades to a case-insensitive LIKE paged by id.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private static final double WORD_SIMILARITY_THRESHOLD = 0.4;
+
+    private static final String SEARCH_INDEX_SCRIPT = "db/migration/V12__product_full_text_search.sql";
+
+    private static final String PRODUCT_DOCUMENT =
+        "to_tsvector('simple', coalesce(p.product_name, '') || ' ' || coalesce(p.sku, '') || ' ' "
+        + "|| coalesce(p.hsn_code, '') || ' ' || coalesce(p.description, ''))";
+
+    private static final String VARIANT_DOCUMENT =
+        "to_tsvector('simple', coalesce(v.size, '') || ' ' || coalesce(v.color, '') || ' ' || coalesce(v.fabric, '') "
+        + "|| ' ' || coalesce(v.style, '') || ' ' || coalesce(v.pattern, '') || ' ' || coalesce(v.occasion, '') "
+        + "|| ' ' || coalesce(v.sku, ''))";
+
+    private static final String WEIGHTED_DOCUMENT =
+        "setweight(to_tsvector('simple', coalesce(p.product_name, '')), 'A') "
+        + "|| setweight(to_tsvector('simple', coalesce(p.sku, '') || ' ' || coalesce(p.hsn_code, '')), 'A') "
+        + "|| setweight(to_tsvector('simple', coalesce(p.description, '')), 'C')";
+
+    // One branch per predicate: tsvector GIN, trigram GIN on lower(product_name),
+    // trigram GIN on lower(sku) and the variant tsvector GIN. ORing them (or a
+    // correlated EXISTS) in one WHERE would make PostgreSQL scan products instead.
+    private static final String MATCHING_IDS =
+        "SELECT p.id FROM products p WHERE " + PRODUCT_DOCUMENT + " @@ to_tsquery('simple', :tsquery) "
+        + "UNION SELECT p.id FROM products p WHERE :text <% lower(p.product_name) "
+        + "UNION SELECT p.id FROM products p WHERE lower(p.sku) LIKE :codePrefix ESCAPE '\\' "
+        + "UNION SELECT v.product_id FROM product_variants v WHERE " + VARIANT_DOCUMENT
+        + " @@ to_tsquery('simple', :tsquery)";
+
+    private static final String SEARCH_SQL =
+        "SELECT * FROM (SELECT p.id, p.product_name, p.sku, p.hsn_code, p.retail_price, p.b2b_price, "
+        + "p.stock_quantity, p.main_photo, p.status, c.category_name, "
+        + "CAST(ts_rank(" + WEIGHTED_DOCUMENT + ", to_tsquery('simple', :tsquery)) "
+        + "+ word_similarity(:text, lower(p.product_name)) AS real) AS score "
+        + "FROM (" + MATCHING_IDS + ") m JOIN products p ON p.id = m.id "
+        + "LEFT JOIN categories c ON c.id = p.category_id "
+        + "WHERE (:anyStatus = TRUE OR lower(p.status) = :status)) ranked "
+        + "WHERE (:firstPage = TRUE OR ranked.score < :afterScore "
+        + "OR (ranked.score = :afterScore AND ranked.id > :afterId)) "
+        + "ORDER BY ranked.score DESC, ranked.id "
+        + "LIMIT :limit";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    private volatile boolean fullTextAvailable;
+
+    /**
+     * Make sure the search indexes exist; the project does not run Flyway,
+     * so the V12 script is applied here (every statement is idempotent)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureSearchIndexes() {
+        if (!datasourceUrl.startsWith("jdbc:postgresql")) {
+            log.info("Product search: full-text disabled (not PostgreSQL), using LIKE search");
+            return;
+        }
+        try {
+            new ResourceDatabasePopulator(new ClassPathResource(SEARCH_INDEX_SCRIPT)).execute(dataSource);
+            fullTextAvailable = true;
+            log.info("Product search: full-text and trigram indexes ready");
+        } catch (Exception e) {
+            log.warn("Product search: could not create search indexes, using LIKE search: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Search all products, any status (admin pickers)
+     */
+    @Transactional(readOnly = true)
+    public ProductSearchResult search(String text, String after, Integer size) {
+        return search(text, null, after, size);
+    }
+
+    /**
+     * Search products, optionally only those with the given status
+     * (case-insensitive); {@code after} is the nextCursor of the previous page
+     */
+    @Transactional(readOnly = true)
+    public ProductSearchResult search(String text, String status, String after, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        String normalized = text == null ? "" : text.trim().toLowerCase();
+        if (normalized.isEmpty()) {
+            return new ProductSearchResult(text, new ArrayList<>(), pageSize, null, fullTextAvailable);
+        }
+
+        String tsquery = toPrefixQuery(normalized);
+        if (!fullTextAvailable || tsquery == null) {
+            return searchLike(text, normalized, status, parseId(after), pageSize);
+        }
+
+        // One extra row tells us whether a next page exists
+        List<ProductSearchHit> hits = searchFullText(normalized, tsquery, status, after, pageSize + 1);
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = new ArrayList<>(hits.subList(0, pageSize));
+            ProductSearchHit last = hits.get(pageSize - 1);
+            // Scores are PostgreSQL reals; Float.toString reads back to the exact same value
+            nextCursor = Float.toString((float) last.getScore()) + ":" + last.getId();
+        }
+        return new ProductSearchResult(text, hits, pageSize, nextCursor, true);
+    }
+
+    private List<ProductSearchHit> searchFullText(String text, String tsquery, String status, String after, int limit) {
+        float afterScore = 0f;
+        long afterId = 0L;
+        boolean firstPage = true;
+        int separator = after != null ? after.lastIndexOf(':') : -1;
+        if (separator > 0) {
+            try {
+                afterScore = Float.parseFloat(after.substring(0, separator));
+                afterId = Long.parseLong(after.substring(separator + 1));
+                firstPage = false;
+            } catch (NumberFormatException e) {
+                // Not one of our cursors: start from the top
+            }
+        }
+
+
+        // Looser than the 0.6 default so one typo in a short word ("shrt") still matches;
+        // is_local = true keeps the setting inside this transaction
+        entityManager.createNativeQuery("SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+            .setParameter("threshold", String.valueOf(WORD_SIMILARITY_THRESHOLD))
+            .getSingleResult();
+
+        Query query = entityManager.createNativeQuery(SEARCH_SQL)
+            .setParameter("text", text)
+            .setParameter("codePrefix", escapeLike(text) + "%")
+            .setParameter("tsquery", tsquery)
+            .setParameter("anyStatus", status == null)
+            .setParameter("status", status == null ? "" : status.toLowerCase())
+            .setParameter("firstPage", firstPage)
+            .setParameter("afterScore", afterScore)
+            .setParameter("afterId", afterId)
+            .setParameter("limit", limit);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<ProductSearchHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            hits.add(new ProductSearchHit(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[2],
+                (String) row[3],
+                row[4] != null ? ((Number) row[4]).doubleValue() : null,
+                row[5] != null ? ((Number) row[5]).doubleValue() : null,
+                row[6] != null ? ((Number) row[6]).intValue() : null,
+                (String) row[7],
+                (String) row[8],
+                (String) row[9],
+                row[10] != null ? ((Number) row[10]).floatValue() : 0.0));
+        }
+        return hits;
+    }
+
+    private ProductSearchResult searchLike(String originalText, String text, String status, Long afterId, int size) {
+        Specification<Product> spec = ProductSpecifications.anyTextContains(text)
+            .and(ProductSpecifications.idAfter(afterId))
+            .and(ProductSpecifications.fetchCategory());
+        if (status != null) {
+            spec = spec.and(ProductSpecifications.status(status));
+        }
+        // One extra row tells us whether a next page exists, without a count query
+        List<Product> rows = productRepository.findBy(spec, query -> query
+            .sortBy(Sort.by("id")).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<ProductSearchHit> hits = new ArrayList<>(Math.min(rows.size(), size));
+        for (Product product : hasNext ? rows.subList(0, size) : rows) {
+            hits.add(toHit(product));
+        }
+        String nextCursor = hasNext ? String.valueOf(hits.get(size - 1).getId()) : null;
+        return new ProductSearchResult(originalText, hits, size, nextCursor, false);
+    }
+
+    private static Long parseId(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private ProductSearchHit toHit(Product product) {
+        return new ProductSearchHit(
+            product.getId(),
+            product.getProductName(),
+            product.getSku(),
+            product.getHsnCode(),
+            product.getRetailPrice(),
+            product.getB2bPrice(),
+            product.getStockQuantity(),
+            product.getMainPhoto(),
+            product.getStatus(),
+            product.getCategory() != null ? product.getCategory().getCategoryName() : null,
+            0.0);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * "red cot" -> "red:* &amp; cot:*"; punctuation is dropped so user input can
+     * never produce an invalid tsquery (null when nothing is left). Combining
+     * marks stay in the word, so Devanagari names are not split at vowel signs.
+     */
+    public static String toPrefixQuery(String text) {
+        StringBuilder query = new StringBuilder();
+        for (String token : text.split("[^\\p{L}\\p{M}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (query.length() > 0) {
+                query.append(" & ");
+            }
+            query.append(token).append(":*");
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+}
@@ -24,6 +24,7 @@ import com.brsons.model.GoodsReceivedNote;
 import com.brsons.repository.GRNRepository;
 
 import java.util.Map;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
@@ -160,12 +161,10 @@ public class PurchaseOrderService {
     
     // Get purchase orders ready for GRN creation (exclude DRAFT, PENDING_APPROVAL, APPROVED)
     public List<PurchaseOrder> getPurchaseOrdersReadyForGRN() {
-        List<PurchaseOrder> allPOs = purchaseOrderRepository.findAllWithItems();
-        return allPOs.stream()
-                .filter(po -> po.getStatus() != PurchaseOrder.POStatus.DRAFT &&
-                             po.getStatus() != PurchaseOrder.POStatus.PENDING_APPROVAL &&
-                             po.getStatus() != PurchaseOrder.POStatus.APPROVED)
-                .collect(Collectors.toList());
+        return purchaseOrderRepository.findAllWithItemsByStatusNotIn(List.of(
+                PurchaseOrder.POStatus.DRAFT,
+                PurchaseOrder.POStatus.PENDING_APPROVAL,
+                PurchaseOrder.POStatus.APPROVED));
     }
     
     // Get purchase orders by supplier
@@ -223,18 +222,26 @@ public class PurchaseOrderService {
     
     // Get purchase order statistics
     public PurchaseOrderStatistics getPurchaseOrderStatistics() {
-        long totalPOs = purchaseOrderRepository.count();
-        long draftPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.DRAFT);
-        long pendingApprovalPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.PENDING_APPROVAL);
-        long approvedPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.APPROVED);
-        long orderedPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.ORDERED);
-        long partiallyReceivedPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.PARTIALLY_RECEIVED);
-        long fullyReceivedPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.FULLY_RECEIVED);
-        long cancelledPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.CANCELLED);
+        // One GROUP BY status query instead of a count per status
+        Map<PurchaseOrder.POStatus, Long> byStatus = new EnumMap<>(PurchaseOrder.POStatus.class);
+        long totalPOs = 0;
+        for (Object[] row : purchaseOrderRepository.countGroupedByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            if (row[0] != null) {
+                byStatus.put((PurchaseOrder.POStatus) row[0], count);
+            }
+            totalPOs += count;
+        }
         
         return new PurchaseOrderStatistics(
-            totalPOs, draftPOs, pendingApprovalPOs, approvedPOs, 
-            orderedPOs, partiallyReceivedPOs, fullyReceivedPOs, cancelledPOs
+            totalPOs,
+            byStatus.getOrDefault(PurchaseOrder.POStatus.DRAFT, 0L),
+            byStatus.getOrDefault(PurchaseOrder.POStatus.PENDING_APPROVAL, 0L),
+            byStatus.getOrDefault(PurchaseOrder.POStatus.APPROVED, 0L),
+            byStatus.getOrDefault(PurchaseOrder.POStatus.ORDERED, 0L),
+            byStatus.getOrDefault(PurchaseOrder.POStatus.PARTIALLY_RECEIVED, 0L),
+            byStatus.getOrDefault(PurchaseOrder.POStatus.FULLY_RECEIVED, 0L),
+            byStatus.getOrDefault(PurchaseOrder.POStatus.CANCELLED, 0L)
         );
     }
     
@@ -281,49 +288,29 @@ public class PurchaseOrderService {
             return;
         }
         
-        Optional<PurchaseOrder> poOpt = purchaseOrderRepository.findById(poId);
+        Optional<PurchaseOrder> poOpt = purchaseOrderRepository.findByIdWithItems(poId);
         if (poOpt.isPresent()) {
             PurchaseOrder po = poOpt.get();
             System.out.println("PO found: " + po.getPoNumber() + " with current status: " + po.getStatus());
             
-            // Get all GRNs for this PO
-            List<GoodsReceivedNote> grns = grnRepository.findByPurchaseOrderId(poId);
-            System.out.println("Found " + grns.size() + " GRNs for this PO");
+            // Count GRNs for this PO
+            long grnCount = grnRepository.countByPurchaseOrderId(poId);
+            System.out.println("Found " + grnCount + " GRNs for this PO");
             
             // If no GRNs exist, don't change the status - wait for GRNs to be created
-            if (grns.isEmpty()) {
+            if (grnCount == 0) {
                 System.out.println("No GRNs found for PO - status will remain unchanged");
                 System.out.println("PO status is " + po.getStatus() + " - waiting for GRNs to be created");
                 return;
             }
             
-            // Calculate total received quantities for each item
-            Map<Long, Integer> totalReceivedByProduct = new HashMap<>();
+            // Received quantities per product from INSPECTED/APPROVED GRNs, in one grouped query
+            Map<Long, Integer> totalReceivedByProduct = getAcceptedQuantitiesByProduct(poId);
             Map<Long, Integer> orderedQuantities = new HashMap<>();
             
             // Get ordered quantities
             for (PurchaseOrderItem item : po.getOrderItems()) {
                 orderedQuantities.put(item.getProduct().getId(), item.getOrderedQuantity());
-                totalReceivedByProduct.put(item.getProduct().getId(), 0);
-                System.out.println("PO Item: " + item.getProduct().getProductName() + " - Ordered: " + item.getOrderedQuantity());
-            }
-            
-            // Sum up received quantities from all GRNs
-            for (GoodsReceivedNote grn : grns) {
-                System.out.println("Processing GRN: " + grn.getGrnNumber() + " with status: " + grn.getStatus());
-                if (grn.getStatus() == GoodsReceivedNote.GRNStatus.INSPECTED || 
-                    grn.getStatus() == GoodsReceivedNote.GRNStatus.APPROVED) {
-                    for (var grnItem : grn.getGrnItems()) {
-                        Long productId = grnItem.getProduct().getId();
-                        int acceptedQty = grnItem.getAcceptedQuantity() != null ? grnItem.getAcceptedQuantity() : 0;
-                        int currentReceived = totalReceivedByProduct.getOrDefault(productId, 0);
-                        totalReceivedByProduct.put(productId, currentReceived + acceptedQty);
-                        System.out.println("GRN Item: " + grnItem.getProduct().getProductName() + 
-                            " - Accepted: " + acceptedQty + " (running total: " + (currentReceived + acceptedQty) + ")");
-                    }
-                } else {
-                    System.out.println("Skipping GRN " + grn.getGrnNumber() + " - status " + grn.getStatus() + " not INSPECTED or APPROVED");
-                }
             }
             
             // Determine PO status based on receipt quantities
@@ -449,9 +436,9 @@ public class PurchaseOrderService {
             if (newStatus == PurchaseOrder.POStatus.APPROVED) {
                 System.out.println("PO is now APPROVED. Checking if there are existing GRNs...");
                 try {
-                    List<GoodsReceivedNote> existingGRNs = grnRepository.findByPurchaseOrderId(id);
-                    if (!existingGRNs.isEmpty()) {
-                        System.out.println("Found " + existingGRNs.size() + " existing GRNs, triggering automatic status update...");
+                    long existingGRNs = grnRepository.countByPurchaseOrderId(id);
+                    if (existingGRNs > 0) {
+                        System.out.println("Found " + existingGRNs + " existing GRNs, triggering automatic status update...");
                         // Only trigger automatic status update if there are existing GRNs
                         updatePOStatusBasedOnGRN(id);
                         System.out.println("Automatic status update completed");
@@ -479,35 +466,13 @@ public class PurchaseOrderService {
     
     // Get receipt summary for a PO
     public Map<String, Object> getPOReceiptSummary(Long poId) {
-        Optional<PurchaseOrder> poOpt = purchaseOrderRepository.findById(poId);
+        Optional<PurchaseOrder> poOpt = purchaseOrderRepository.findByIdWithItems(poId);
         if (poOpt.isPresent()) {
             PurchaseOrder po = poOpt.get();
             Map<String, Object> summary = new HashMap<>();
             
-            // Get all GRNs for this PO
-            List<GoodsReceivedNote> grns = grnRepository.findByPurchaseOrderId(poId);
-            
-            Map<Long, Integer> totalReceivedByProduct = new HashMap<>();
-            Map<Long, Integer> orderedQuantities = new HashMap<>();
-            
-            // Get ordered quantities
-            for (PurchaseOrderItem item : po.getOrderItems()) {
-                orderedQuantities.put(item.getProduct().getId(), item.getOrderedQuantity());
-                totalReceivedByProduct.put(item.getProduct().getId(), 0);
-            }
-            
-            // Sum up received quantities from all GRNs
-            for (GoodsReceivedNote grn : grns) {
-                if (grn.getStatus() == GoodsReceivedNote.GRNStatus.INSPECTED || 
-                    grn.getStatus() == GoodsReceivedNote.GRNStatus.APPROVED) {
-                    for (var grnItem : grn.getGrnItems()) {
-                        Long productId = grnItem.getProduct().getId();
-                        int acceptedQty = grnItem.getAcceptedQuantity() != null ? grnItem.getAcceptedQuantity() : 0;
-                        int currentReceived = totalReceivedByProduct.getOrDefault(productId, 0);
-                        totalReceivedByProduct.put(productId, currentReceived + acceptedQty);
-                    }
-                }
-            }
+            long grnCount = grnRepository.countByPurchaseOrderId(poId);
+            Map<Long, Integer> totalReceivedByProduct = getAcceptedQuantitiesByProduct(poId);
             
             // Calculate receipt percentages
             List<Map<String, Object>> itemReceipts = new ArrayList<>();
@@ -543,13 +508,25 @@ public class PurchaseOrderService {
             summary.put("totalReceived", totalReceived);
             summary.put("overallReceiptPercentage", Math.round(overallReceiptPercentage * 100.0) / 100.0);
             summary.put("itemReceipts", itemReceipts);
-            summary.put("grnCount", grns.size());
+            summary.put("grnCount", grnCount);
             
             return summary;
         }
         return null;
     }
     
+    // Accepted quantity per product across the PO's INSPECTED/APPROVED GRNs
+    private Map<Long, Integer> getAcceptedQuantitiesByProduct(Long poId) {
+        Map<Long, Integer> acceptedByProduct = new HashMap<>();
+        List<Object[]> rows = grnRepository.sumAcceptedQuantityByProduct(poId, List.of(
+                GoodsReceivedNote.GRNStatus.INSPECTED,
+                GoodsReceivedNote.GRNStatus.APPROVED));
+        for (Object[] row : rows) {
+            acceptedByProduct.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return acceptedByProduct;
+    }
+    
     // Statistics class
     public static class PurchaseOrderStatistics {
         private final long totalPOs;
@@ -0,0 +1,197 @@
+package com.brsons.service;
+
+import com.brsons.config.ReplicaRoute;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries behind a report (daybook sources, P&L
+ * sections, dashboard statistics) side by side, so a report takes as long
+ * as its slowest source rather than the sum of all of them.
+ *
+ * Each source runs on a report worker in its own read-only transaction and
+ * must build its result (DTOs, totals) inside that transaction. A shared
+ * semaphore caps how many sources hold a database connection at once across
+ * all reports, leaving the rest of the pool to ordinary requests. Sources
+ * must not fork further sources, and the forking method should not run in a
+ * transaction of its own, or it keeps a connection checked out while its
+ * sources wait for theirs.
+ */
+@Service
+public class ReportExecutor {
+
+    @Value("${reports.parallel.workers:16}")
+    private int workers = 16;
+
+    @Value("${reports.parallel.db-permits:4}")
+    private int dbPermits = 4;
+
+    @Value("${reports.parallel.source-timeout-ms:15000}")
+    private long sourceTimeoutMs = 15000;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore permits;
+    private TransactionTemplate readOnly;
+
+    private final AtomicLong sourcesRun = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong permitWaitMillis = new AtomicLong();
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        permits = new Semaphore(dbPermits, true);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // When every worker is busy and the queue is full the requesting thread runs the source itself
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workers * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start one report source with the default timeout
+     */
+    public <T> Source<T> fork(String name, Supplier<T> query) {
+        return fork(name, sourceTimeoutMs, query);
+    }
+
+    /**
+     * Start one report source; join() gives up on it after timeoutMs
+     */
+    public <T> Source<T> fork(String name, long timeoutMs, Supplier<T> query) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        // Sources of a report or export request may read from the replica, like the request itself
+        boolean replica = ReplicaRoute.isRequested();
+        // ...and log under the request's MDC (request id, user)
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Future<T> future = executor.submit(() -> withMdc(mdc,
+                () -> ReplicaRoute.callWith(replica, () -> runWithPermit(name, deadline, query))));
+        return new Source<>(name, future, deadline);
+    }
+
+    private static <T> T withMdc(Map<String, String> mdc, Supplier<T> body) {
+        Map<String, String> previous = MDC.getCopyOfContextMap();
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        } else {
+            MDC.clear();
+        }
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) {
+                MDC.setContextMap(previous);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    private <T> T runWithPermit(String name, long deadline, Supplier<T> query) {
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(Math.max(0, deadline - waitStart), TimeUnit.NANOSECONDS)) {
+                throw new RuntimeException("Report source " + name + " timed out waiting for a database permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for a database permit for report source " + name);
+        }
+        permitWaitMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart));
+        try {
+            sourcesRun.incrementAndGet();
+            return readOnly.execute(status -> query.get());
+        } finally {
+            permits.release();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("workers", workers);
+        stats.put("activeWorkers", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("dbPermits", dbPermits);
+        stats.put("dbPermitsFree", permits.availablePermits());
+        stats.put("sourcesRun", sourcesRun.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("permitWaitMillis", permitWaitMillis.get());
+        return stats;
+    }
+
+    /**
+     * A running report source
+     */
+    public class Source<T> {
+        private final String name;
+        private final Future<T> future;
+        private final long deadline;
+
+        private Source(String name, Future<T> future, long deadline) {
+            this.name = name;
+            this.future = future;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Wait for the source's result. A source that fails or runs past its
+         * timeout fails the report with a RuntimeException.
+         */
+        public T join() {
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timeouts.incrementAndGet();
+                throw new RuntimeException("Report source " + name + " timed out");
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted waiting for report source " + name);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new RuntimeException("Report source " + name + " failed: " + cause.getMessage(), cause);
+            }
+        }
+    }
+}
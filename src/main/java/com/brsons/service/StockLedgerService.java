@@ -0,0 +1,374 @@
+package com.brsons.service;
+
+import com.brsons.dto.StockChange;
+import com.brsons.model.OrderItem;
+import com.brsons.model.Product;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductVariantRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Single entry point for changing on-hand stock.
+ *
+ * Every change is appended to stock_movements and applied to
+ * products.stock_quantity as an atomic {@code stock_quantity + delta}
+ * update in the same transaction, so on-hand always equals the sum of the
+ * product's movements (StockReconciler checks this). Rows are locked in
+ * product id order, which keeps concurrent checkouts from deadlocking, and
+ * stay locked until commit, so the before/after figures on each movement
+ * are exact. Movements for a whole posting are written in one JDBC batch.
+ *
+ * A variant either tracks stock of its own or (stock_quantity null) sells
+ * from the product's. A change for a variant is applied to the variant row
+ * and to the product row by the same delta, after the product row is locked,
+ * so the product's on-hand stays the aggregate: its variants' own stock plus
+ * any stock not assigned to a variant. Movements keep the product's figures.
+ */
+@Service
+public class StockLedgerService {
+
+    /** Signed effect of a stock_movements row on on-hand, matching StockChange.getDelta() */
+    public static final String SIGNED_QUANTITY =
+            "CASE movement_type WHEN 'IN' THEN quantity WHEN 'ADJUSTMENT' THEN quantity " +
+            "WHEN 'OUT' THEN -quantity WHEN 'DAMAGED' THEN -quantity WHEN 'EXPIRED' THEN -quantity ELSE 0 END";
+
+    private static final String INSERT_MOVEMENT =
+            "INSERT INTO stock_movements (product_id, variant_id, quantity, movement_type, reason, reference_type, " +
+            "reference_id, before_quantity, after_quantity, movement_date, created_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // On-hand minus the summed movements, booked as one adjustment per product that is out of step
+    private static final String INSERT_BASELINE =
+            "INSERT INTO stock_movements (product_id, quantity, movement_type, reason, reference_type, " +
+            "before_quantity, after_quantity, movement_date, created_by) " +
+            "SELECT p.id, COALESCE(p.stock_quantity, 0) - COALESCE(m.net, 0), 'ADJUSTMENT', " +
+            "CASE WHEN m.net IS NULL THEN 'Opening balance' ELSE :reason END, 'RECONCILIATION', " +
+            "COALESCE(m.net, 0), COALESCE(p.stock_quantity, 0), :now, :createdBy " +
+            "FROM products p LEFT JOIN (SELECT product_id, SUM(" + SIGNED_QUANTITY + ") AS net " +
+            "FROM stock_movements WHERE product_id IN (:ids) GROUP BY product_id) m ON m.product_id = p.id " +
+            "WHERE p.id IN (:ids) AND COALESCE(p.stock_quantity, 0) <> COALESCE(m.net, 0)";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private PickerIndexService pickerIndexService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Post one stock change and return the product's on-hand after it
+     */
+    @Transactional
+    public int post(StockChange change) {
+        return post(Collections.singletonList(change)).get(change.getProductId());
+    }
+
+    /**
+     * Post stock changes as one unit and return on-hand per product after
+     * posting. Throws IllegalStateException (and changes nothing) when a
+     * change marked requireStock would take on-hand below zero.
+     */
+    @Transactional
+    public Map<Long, Integer> post(List<StockChange> changes) {
+        Map<Long, List<StockChange>> byProduct = new TreeMap<>();
+        for (StockChange change : changes) {
+            if (change.getProductId() == null) {
+                throw new IllegalArgumentException("Product must be saved before posting stock");
+            }
+            byProduct.computeIfAbsent(change.getProductId(), id -> new ArrayList<>()).add(change);
+        }
+        if (byProduct.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, int[]> deltasByProduct = new LinkedHashMap<>();
+        Map<Long, Integer> netByProduct = new LinkedHashMap<>();
+        for (Map.Entry<Long, List<StockChange>> entry : byProduct.entrySet()) {
+            Long productId = entry.getKey();
+            List<StockChange> productChanges = entry.getValue();
+
+            // Absolute changes need the current figures, read under the row lock
+            Integer start = null;
+            Map<Long, Integer> variantStart = Collections.emptyMap();
+            if (productChanges.stream().anyMatch(change -> change.getTargetQuantity() != null)) {
+                requireUpdated(productRepository.lockForStockUpdate(Collections.singletonList(productId)).size(), productId);
+                start = readStock(productId);
+                variantStart = readVariantStocks(productId);
+            }
+
+            int[] deltas = new int[productChanges.size()];
+            int net = 0;
+            boolean requireStock = false;
+            Map<Long, Integer> netByVariant = new TreeMap<>();
+            Set<Long> variantsToTrack = new HashSet<>();
+            Set<Long> variantsRequiringStock = new HashSet<>();
+            for (int i = 0; i < deltas.length; i++) {
+                StockChange change = productChanges.get(i);
+                Long variantId = change.getVariantId();
+                if (change.getTargetQuantity() == null) {
+                    deltas[i] = change.getDelta();
+                } else if (variantId == null) {
+                    deltas[i] = change.getTargetQuantity() - (start + net);
+                } else {
+                    if (!variantStart.containsKey(variantId)) {
+                        throw notOfProduct(variantId, productId);
+                    }
+                    Integer variantStock = variantStart.get(variantId);
+                    deltas[i] = change.getTargetQuantity()
+                            - ((variantStock != null ? variantStock : 0) + netByVariant.getOrDefault(variantId, 0));
+                    variantsToTrack.add(variantId);
+                }
+                net += deltas[i];
+                requireStock |= change.isRequireStock();
+                if (variantId != null) {
+                    netByVariant.merge(variantId, deltas[i], Integer::sum);
+                    if (change.isRequireStock()) {
+                        variantsRequiringStock.add(variantId);
+                    }
+                }
+            }
+
+            if (start == null || net != 0) {
+                int updated = requireStock && net < 0
+                        ? productRepository.applyStockDeltaIfAvailable(productId, net, now)
+                        : productRepository.applyStockDelta(productId, net, now);
+                if (updated == 0 && requireStock && productRepository.existsById(productId)) {
+                    throw new IllegalStateException("Insufficient stock for product " + describe(productChanges) +
+                            ". Current: " + readStock(productId) + ", Requested: " + -net);
+                }
+                requireUpdated(updated, productId);
+            }
+            applyToVariants(productId, netByVariant, variantsToTrack, variantsRequiringStock, now, productChanges);
+            deltasByProduct.put(productId, deltas);
+            netByProduct.put(productId, net);
+        }
+
+        Map<Long, Integer> onHand = new LinkedHashMap<>();
+        for (Object[] row : productRepository.findStockQuantities(byProduct.keySet())) {
+            onHand.put((Long) row[0], row[1] != null ? (Integer) row[1] : 0);
+        }
+
+        List<Object[]> movements = new ArrayList<>();
+        Timestamp movementDate = Timestamp.valueOf(now);
+        for (Map.Entry<Long, List<StockChange>> entry : byProduct.entrySet()) {
+            Long productId = entry.getKey();
+            int[] deltas = deltasByProduct.get(productId);
+            int running = onHand.get(productId) - netByProduct.get(productId);
+            for (int i = 0; i < deltas.length; i++) {
+                StockChange change = entry.getValue().get(i);
+                int before = running;
+                running += deltas[i];
+                if (deltas[i] == 0) {
+                    continue;
+                }
+                int quantity = change.getTargetQuantity() != null ? deltas[i] : change.getQuantity();
+                movements.add(new Object[] {productId, change.getVariantId(), quantity, change.getMovementType().name(), change.getReason(),
+                        change.getReferenceType(), change.getReferenceId(), before, running, movementDate,
+                        change.getCreatedBy()});
+            }
+            keepInStep(entry.getValue(), onHand.get(productId), now);
+        }
+        if (!movements.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movements);
+        }
+
+        // The delta updates bypass the entity listeners; the picker index holds no stock
+        Collection<Long> productIds = new ArrayList<>(byProduct.keySet());
+        catalogCacheService.afterCommit(() -> productIds.forEach(catalogCacheService::evictProduct));
+        return onHand;
+    }
+
+    /**
+     * Book an adjustment for each product whose on-hand differs from the sum
+     * of its movements, without changing on-hand: "Opening balance" for
+     * stock that predates the ledger, the given reason otherwise. Rows are
+     * locked first, so the difference is exact. Returns movements written.
+     */
+    @Transactional
+    public int recordBaseline(Collection<Long> productIds, String reason, String createdBy) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        productRepository.lockForStockUpdate(productIds);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", productIds)
+                .addValue("reason", reason)
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("createdBy", createdBy);
+        return new NamedParameterJdbcTemplate(jdbcTemplate).update(INSERT_BASELINE, params);
+    }
+
+    /**
+     * Book the stock a new product starts with; the product is saved with 0 on hand first
+     */
+    @Transactional
+    public void openingStock(Product product, Integer quantity) {
+        if (quantity != null && quantity != 0) {
+            post(StockChange.adjust(product.getId(), quantity, "Opening stock")
+                    .reference("PRODUCT", product.getId())
+                    .product(product));
+        }
+    }
+
+    // ==================== ORDERS ====================
+
+    /**
+     * Put a cancelled order's items back on hand and reactivate the products
+     * it had sold out. Items whose product no longer exists are skipped; items
+     * whose variant no longer exists go back to the product.
+     */
+    @Transactional
+    public Map<Long, Integer> restock(Long orderId, List<OrderItem> items) {
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItem item : items) {
+            if (item.getProductId() != null) {
+                productIds.add(item.getProductId());
+            }
+        }
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<Long> existing = new HashSet<>();
+        for (Object[] row : productRepository.findStockQuantities(productIds)) {
+            existing.add((Long) row[0]);
+        }
+        Set<Long> existingVariants = new HashSet<>();
+        if (items.stream().anyMatch(item -> item.getVariantId() != null)) {
+            for (Object[] row : productVariantRepository.findStockQuantities(existing)) {
+                existingVariants.add((Long) row[0]);
+            }
+        }
+
+        List<StockChange> changes = new ArrayList<>();
+        for (OrderItem item : items) {
+            if (existing.contains(item.getProductId())) {
+                changes.add(StockChange.in(item.getProductId(), item.getQuantity(), "Order cancelled")
+                        .variant(existingVariants.contains(item.getVariantId()) ? item.getVariantId() : null)
+                        .reference("ORDER", orderId));
+            }
+        }
+        Map<Long, Integer> onHand = post(changes);
+
+        List<Long> backInStock = new ArrayList<>();
+        onHand.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                backInStock.add(productId);
+            }
+        });
+        if (!backInStock.isEmpty()) {
+            productRepository.updateStatus(backInStock, "Out of Stock", "Active");
+            catalogCacheService.afterCommit(() -> pickerIndexService.refreshProducts(backInStock));
+        }
+        return onHand;
+    }
+
+    // ==================== HELPERS ====================
+
+    // Same delta on each variant's own stock; the product row is already locked by its own update
+    private void applyToVariants(Long productId, Map<Long, Integer> netByVariant, Set<Long> variantsToTrack,
+                                 Set<Long> variantsRequiringStock, LocalDateTime now, List<StockChange> changes) {
+        for (Map.Entry<Long, Integer> entry : netByVariant.entrySet()) {
+            Long variantId = entry.getKey();
+            int net = entry.getValue();
+            boolean track = variantsToTrack.contains(variantId);
+            if (net == 0 && !track) {
+                continue;
+            }
+            boolean guarded = net < 0 && variantsRequiringStock.contains(variantId);
+            int updated = track ? productVariantRepository.trackStockDelta(variantId, productId, net, now)
+                    : guarded ? productVariantRepository.applyStockDeltaIfAvailable(variantId, productId, net, now)
+                    : productVariantRepository.applyStockDelta(variantId, productId, net, now);
+            if (updated == 0) {
+                Integer current = readVariantStocks(productId).get(variantId);
+                if (guarded && current != null) {
+                    throw new IllegalStateException("Insufficient stock for product " + describe(changes) +
+                            " (variant " + variantId + "). Current: " + current + ", Requested: " + -net);
+                }
+                throw notOfProduct(variantId, productId);
+            }
+        }
+    }
+
+    private Map<Long, Integer> readVariantStocks(Long productId) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        for (Object[] row : productVariantRepository.findStockQuantities(Collections.singletonList(productId))) {
+            stocks.put((Long) row[0], (Integer) row[1]);
+        }
+        return stocks;
+    }
+
+    private IllegalArgumentException notOfProduct(Long variantId, Long productId) {
+        return new IllegalArgumentException("Variant " + variantId + " is not a variant of product " + productId);
+    }
+
+    private void keepInStep(List<StockChange> changes, int onHand, LocalDateTime now) {
+        for (StockChange change : changes) {
+            Product product = change.getProduct();
+            if (product == null) {
+                continue;
+            }
+            if (entityManager.contains(product)) {
+                // Reload so a later flush of this instance carries the posted figure, not the one it was loaded with
+                entityManager.refresh(product);
+            } else {
+                product.setStockQuantity(onHand);
+                product.setLastUpdated(now);
+            }
+        }
+    }
+
+    private Integer readStock(Long productId) {
+        List<Object[]> rows = productRepository.findStockQuantities(Collections.singletonList(productId));
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        return rows.get(0)[1] != null ? (Integer) rows.get(0)[1] : 0;
+    }
+
+    private void requireUpdated(int updated, Long productId) {
+        if (updated == 0) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+    }
+
+    private String describe(List<StockChange> changes) {
+        for (StockChange change : changes) {
+            if (change.getProduct() != null && change.getProduct().getProductName() != null) {
+                return change.getProduct().getProductName();
+            }
+        }
+        return String.valueOf(changes.get(0).getProductId());
+    }
+}
@@ -0,0 +1,154 @@
+package com.brsons.service;
+
+import com.brsons.dto.KeysetPage;
+import com.brsons.model.StockMovement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Newest-first stock movement history for the inventory pages.
+ *
+ * Pages are read by seek on (movement_date, id), the same way as the order
+ * listings: the next page starts below the last row of the previous one, so
+ * a page costs the same however far back it is and however large the ledger
+ * grows. Filters are pushed to SQL and backed by the (product_id,
+ * movement_date, id) and (movement_date, id) indexes; products are fetched
+ * with the page for display.
+ */
+@Service
+public class StockMovementQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockMovementQueryService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    /**
+     * One page of movements, optionally for one product and/or movement type
+     * and within [from, to), newest first.
+     * Not transactional, like ProductQueryService.findPage: the count estimate
+     * must run on its own (see estimateCount), and the cursor, page and count
+     * queries each run by themselves; products come fetched with the page.
+     */
+    public KeysetPage<StockMovement> findPage(Long productId, StockMovement.MovementType movementType,
+                                             LocalDateTime from, LocalDateTime to, Long afterId, Integer size) {
+        int pageSize = clampPageSize(size);
+        boolean unfiltered = productId == null && movementType == null && from == null && to == null;
+        Long estimate = unfiltered ? estimateCount() : null;
+
+        Map<String, Object> filter = new LinkedHashMap<>();
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (productId != null) {
+            where.append(" AND sm.product.id = :productId");
+            filter.put("productId", productId);
+        }
+        if (movementType != null) {
+            where.append(" AND sm.movementType = :movementType");
+            filter.put("movementType", movementType);
+        }
+        if (from != null) {
+            where.append(" AND sm.movementDate >= :from");
+            filter.put("from", from);
+        }
+        if (to != null) {
+            where.append(" AND sm.movementDate < :to");
+            filter.put("to", to);
+        }
+        String filterClause = where.toString();
+
+        // Seek below the cursor row; movement_date is never NULL
+        LocalDateTime afterDate = null;
+        if (afterId != null) {
+            List<LocalDateTime> cursor = entityManager
+                    .createQuery("SELECT sm.movementDate FROM StockMovement sm WHERE sm.id = :id", LocalDateTime.class)
+                    .setParameter("id", afterId)
+                    .getResultList();
+            if (!cursor.isEmpty()) {
+                afterDate = cursor.get(0);
+                where.append(" AND (sm.movementDate < :afterDate OR (sm.movementDate = :afterDate AND sm.id < :afterId))");
+            }
+        }
+
+        TypedQuery<StockMovement> query = entityManager.createQuery(
+                "SELECT sm FROM StockMovement sm JOIN FETCH sm.product WHERE " + where +
+                " ORDER BY sm.movementDate DESC, sm.id DESC", StockMovement.class);
+        filter.forEach(query::setParameter);
+        if (afterDate != null) {
+            query.setParameter("afterDate", afterDate);
+            query.setParameter("afterId", afterId);
+        }
+        List<StockMovement> rows = query.setMaxResults(pageSize + 1).getResultList();
+
+        long total;
+        if (estimate != null) {
+            total = estimate;
+        } else {
+            TypedQuery<Long> count = entityManager.createQuery(
+                    "SELECT COUNT(sm) FROM StockMovement sm WHERE " + filterClause, Long.class);
+            filter.forEach(count::setParameter);
+            total = count.getSingleResult();
+        }
+        return KeysetPage.fromOverfetch(rows, pageSize, StockMovement::getId, total, estimate != null);
+    }
+
+    /**
+     * The latest movements across all products (top-N off the movement_date index)
+     */
+    @Transactional(readOnly = true)
+    public List<StockMovement> findLatest(int limit) {
+        return entityManager.createQuery(
+                "SELECT sm FROM StockMovement sm JOIN FETCH sm.product ORDER BY sm.movementDate DESC, sm.id DESC",
+                StockMovement.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Planner estimate of the ledger size on PostgreSQL, so an unfiltered
+     * listing does not count millions of rows per page; null elsewhere or
+     * while the table is small enough to count.
+     * Must not run inside a transaction: on PostgreSQL a failed statement
+     * aborts the surrounding transaction, so the fallback could not recover
+     * it. A caller inside a transaction gets the exact count instead.
+     */
+    private Long estimateCount() {
+        if (!datasourceUrl.startsWith("jdbc:postgresql") || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        try {
+            Object value = entityManager
+                    .createNativeQuery("SELECT reltuples::bigint FROM pg_class WHERE relname = 'stock_movements'")
+                    .getSingleResult();
+            long estimate = ((Number) value).longValue();
+            return estimate > 10_000 ? estimate : null;
+        } catch (Exception e) {
+            log.warn("Could not read stock movement count estimate: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private int clampPageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+}
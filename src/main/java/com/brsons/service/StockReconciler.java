@@ -0,0 +1,171 @@
+package com.brsons.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodic check that every product's on-hand equals the sum of its stock
+ * movements.
+ *
+ * Products with stock but no movements at all predate the ledger; they get
+ * an "Opening balance" adjustment on the first run. Any other difference is
+ * drift (a stock write that bypassed StockLedgerService, or a manual SQL
+ * fix): it is logged and exposed as the inventory.stock.drift gauge, and
+ * booked as a reconciliation adjustment only with inventory.reconcile.repair
+ * on. The comparison is a single statement, so postings committing while it
+ * runs are never seen half-applied.
+ *
+ * It also checks that no product holds less than its variants' own stock
+ * (the product's on-hand is their aggregate). Such products are logged and
+ * exposed as inventory.variant.drift but never repaired, since which variant
+ * is wrong cannot be told from the ledger.
+ */
+@Service
+public class StockReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReconciler.class);
+
+    private static final String FIND_OUT_OF_STEP =
+            "SELECT p.id, COALESCE(p.stock_quantity, 0), COALESCE(m.net, 0), m.movements " +
+            "FROM products p LEFT JOIN (SELECT product_id, SUM(" + StockLedgerService.SIGNED_QUANTITY + ") AS net, " +
+            "COUNT(*) AS movements FROM stock_movements GROUP BY product_id) m ON m.product_id = p.id " +
+            "WHERE COALESCE(p.stock_quantity, 0) <> COALESCE(m.net, 0) ORDER BY p.id";
+
+    private static final String FIND_VARIANTS_OVER_PRODUCT =
+            "SELECT p.id, COALESCE(p.stock_quantity, 0), v.own FROM products p " +
+            "JOIN (SELECT product_id, SUM(stock_quantity) AS own FROM product_variants " +
+            "WHERE stock_quantity IS NOT NULL GROUP BY product_id) v ON v.product_id = p.id " +
+            "WHERE v.own > COALESCE(p.stock_quantity, 0) ORDER BY p.id";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int LOGGED_PRODUCTS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.reconcile.repair:false}")
+    private boolean repair;
+
+    private volatile int driftedProducts;
+    private volatile long driftedUnits;
+    private volatile int variantDrift;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("inventory.stock.drift", () -> driftedProducts).register(meterRegistry);
+        Gauge.builder("inventory.stock.drift.units", () -> driftedUnits).register(meterRegistry);
+        Gauge.builder("inventory.variant.drift", () -> variantDrift).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reconcile.interval-ms:3600000}",
+               initialDelayString = "${inventory.reconcile.initial-delay-ms:60000}")
+    public void reconcileOnSchedule() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile(repair);
+        } catch (Exception e) {
+            log.error("Stock reconciliation failed", e);
+        }
+    }
+
+    /**
+     * Compare on-hand with the movement ledger for every product, book
+     * opening balances, and book drift corrections when repair is set; then
+     * compare each product with its variants
+     */
+    public Map<String, Object> reconcile(boolean repairDrift) {
+        List<Long> opening = new ArrayList<>();
+        List<Long> drifted = new ArrayList<>();
+        long units = 0;
+        StringBuilder detail = new StringBuilder();
+        List<long[]> rows = jdbcTemplate.query(FIND_OUT_OF_STEP, (rs, rowNum) -> new long[] {
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getObject(4) != null ? 1 : 0});
+        for (long[] row : rows) {
+            Long productId = row[0];
+            long onHand = row[1];
+            long net = row[2];
+            if (row[3] == 0) {
+                opening.add(productId);
+                continue;
+            }
+            drifted.add(productId);
+            units += Math.abs(onHand - net);
+            if (drifted.size() <= LOGGED_PRODUCTS) {
+                detail.append(' ').append(productId).append(" (on hand ").append(onHand)
+                        .append(", ledger ").append(net).append(')');
+            }
+        }
+
+        int openingBooked = book(opening, "Opening balance");
+        if (openingBooked > 0) {
+            log.info("Booked opening balances for {} products with stock from before the ledger", openingBooked);
+        }
+        driftedProducts = drifted.size();
+        driftedUnits = units;
+        if (!drifted.isEmpty()) {
+            log.warn("Stock out of step with the movement ledger for {} products ({} units):{}{}",
+                    drifted.size(), units, detail, drifted.size() > LOGGED_PRODUCTS ? " ..." : "");
+        }
+        int corrected = 0;
+        if (repairDrift && !drifted.isEmpty()) {
+            corrected = book(drifted, "Reconciliation correction");
+            log.info("Booked {} reconciliation adjustments", corrected);
+            driftedProducts = 0;
+            driftedUnits = 0;
+        }
+
+        List<long[]> variantRows = jdbcTemplate.query(FIND_VARIANTS_OVER_PRODUCT, (rs, rowNum) -> new long[] {
+                rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        variantDrift = variantRows.size();
+        if (!variantRows.isEmpty()) {
+            StringBuilder variantDetail = new StringBuilder();
+            for (long[] row : variantRows.subList(0, Math.min(LOGGED_PRODUCTS, variantRows.size()))) {
+                variantDetail.append(' ').append(row[0]).append(" (on hand ").append(row[1])
+                        .append(", variants ").append(row[2]).append(')');
+            }
+            log.warn("Variant stock exceeds product stock for {} products:{}{}", variantRows.size(), variantDetail,
+                    variantRows.size() > LOGGED_PRODUCTS ? " ..." : "");
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("variantDrift", variantRows.size());
+        result.put("openingBalances", openingBooked);
+        result.put("driftedProducts", drifted.size());
+        result.put("driftedUnits", units);
+        result.put("corrected", corrected);
+        return result;
+    }
+
+    private int book(List<Long> productIds, String reason) {
+        int booked = 0;
+        for (int from = 0; from < productIds.size(); from += BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + BATCH_SIZE, productIds.size()));
+            booked += stockLedgerService.recordBaseline(batch, reason, "system");
+        }
+        return booked;
+    }
+}
@@ -1,5 +1,6 @@
 package com.brsons.service;
 
+import com.brsons.dto.LedgerDashboardSummary;
 import com.brsons.model.SupplierLedger;
 import com.brsons.model.SupplierLedgerEntry;
 import com.brsons.model.PurchaseOrder;
@@ -12,10 +13,14 @@ import com.brsons.repository.VoucherRepository;
 import com.brsons.repository.VoucherEntryRepository;
 import com.brsons.repository.AccountRepository;
 import com.brsons.repository.OutstandingRepository;
+import com.brsons.util.ExpiringValue;
+import com.brsons.util.FifoAllocator;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
@@ -42,6 +47,19 @@ public class SupplierLedgerService {
     @Autowired
     private AccountRepository accountRepository;
     
+    @Autowired
+    private LedgerPostingService ledgerPostingService;
+    
+    private static final long DASHBOARD_CACHE_TTL_MILLIS = 30_000L;
+    
+    private final ExpiringValue<SupplierLedgerDashboard> dashboardCache =
+        new ExpiringValue<>(this::loadSupplierLedgerDashboard, DASHBOARD_CACHE_TTL_MILLIS);
+    
+    @PostConstruct
+    public void refreshDashboardOnPosting() {
+        ledgerPostingService.onSupplierPosted(dashboardCache::invalidate);
+    }
+    
     // ==================== SUPPLIER LEDGER MANAGEMENT ====================
     
     /**
@@ -134,48 +152,38 @@ public class SupplierLedgerService {
     }
     
     /**
-     * Get supplier ledger dashboard data
+     * Get supplier ledger dashboard data (cached briefly). Each caller gets
+     * its own copy; zeros are returned, and not cached, if it can't be loaded.
      */
     public SupplierLedgerDashboard getSupplierLedgerDashboard() {
-        SupplierLedgerDashboard dashboard = new SupplierLedgerDashboard();
-        
         try {
-            // Get individual statistics using separate queries
-            List<SupplierLedger> activeSuppliers = supplierLedgerRepository.findByStatus("ACTIVE");
-            List<SupplierLedger> outstandingSuppliers = supplierLedgerRepository.findActiveLedgersWithOutstandingBalance();
-            BigDecimal totalOutstanding = supplierLedgerRepository.calculateTotalOutstandingAmount();
-            
-            // Calculate totals
-            BigDecimal totalDebits = BigDecimal.ZERO;
-            BigDecimal totalCredits = BigDecimal.ZERO;
-            
-            for (SupplierLedger supplier : activeSuppliers) {
-                if (supplier.getTotalDebits() != null) {
-                    totalDebits = totalDebits.add(supplier.getTotalDebits());
-                }
-                if (supplier.getTotalCredits() != null) {
-                    totalCredits = totalCredits.add(supplier.getTotalCredits());
-                }
-            }
-            
-            // Set dashboard values
-            dashboard.setTotalSuppliers((long) activeSuppliers.size());
-            dashboard.setSuppliersWithOutstanding((long) outstandingSuppliers.size());
-            dashboard.setTotalOutstanding(totalOutstanding != null ? totalOutstanding : BigDecimal.ZERO);
-            dashboard.setTotalDebits(totalDebits);
-            dashboard.setTotalCredits(totalCredits);
-            
+            return new SupplierLedgerDashboard(dashboardCache.get());
         } catch (Exception e) {
             System.err.println("Error getting supplier ledger dashboard data: " + e.getMessage());
             e.printStackTrace();
             
-            // Set default values on error
+            // Default values on error
+            SupplierLedgerDashboard dashboard = new SupplierLedgerDashboard();
             dashboard.setTotalSuppliers(0L);
             dashboard.setSuppliersWithOutstanding(0L);
             dashboard.setTotalOutstanding(BigDecimal.ZERO);
             dashboard.setTotalDebits(BigDecimal.ZERO);
             dashboard.setTotalCredits(BigDecimal.ZERO);
+            return dashboard;
         }
+    }
+    
+    private SupplierLedgerDashboard loadSupplierLedgerDashboard() {
+        SupplierLedgerDashboard dashboard = new SupplierLedgerDashboard();
+        
+        // All statistics come from one aggregate query
+        LedgerDashboardSummary summary = supplierLedgerRepository.summarizeDashboard();
+        
+        dashboard.setTotalSuppliers(summary.getActiveLedgers());
+        dashboard.setSuppliersWithOutstanding(summary.getActiveLedgersWithOutstanding());
+        dashboard.setTotalOutstanding(summary.getTotalOutstanding());
+        dashboard.setTotalDebits(summary.getTotalDebits());
+        dashboard.setTotalCredits(summary.getTotalCredits());
         
         return dashboard;
     }
@@ -190,8 +198,8 @@ public class SupplierLedgerService {
         String particulars = "Purchase Order #" + purchaseOrder.getId();
         String referenceNumber = "PO-" + purchaseOrder.getId();
         
-        // Calculate balance after this entry
-        BigDecimal balanceAfter = supplierLedger.getCurrentBalance().add(purchaseOrder.getTotalAmount());
+        // Update supplier ledger (row-locked delta) and take the balance after this entry
+        BigDecimal balanceAfter = ledgerPostingService.debitSupplier(supplierLedger, purchaseOrder.getTotalAmount());
         
         SupplierLedgerEntry entry = new SupplierLedgerEntry(
             supplierLedger,
@@ -205,16 +213,13 @@ public class SupplierLedgerService {
         );
         
         supplierLedgerEntryRepository.save(entry);
-        
-        // Update supplier ledger
-        supplierLedger.addDebit(purchaseOrder.getTotalAmount());
-        supplierLedgerRepository.save(supplierLedger);
     }
     
     /**
      * Add payment entry to supplier ledger
      */
     @Transactional
+    @Timed(value = "payment.allocation", extraTags = {"ledger", "supplier"})
     public void addPaymentEntry(SupplierLedger supplierLedger, BigDecimal paymentAmount, 
                                String paymentMethod, String paymentReference, String notes) {
         addPaymentEntry(supplierLedger, paymentAmount, paymentMethod, paymentReference, notes, true);
@@ -224,14 +229,15 @@ public class SupplierLedgerService {
      * Add payment entry to supplier ledger with option to sync with outstanding
      */
     @Transactional
+    @Timed(value = "payment.allocation", extraTags = {"ledger", "supplier"})
     public void addPaymentEntry(SupplierLedger supplierLedger, BigDecimal paymentAmount, 
                                String paymentMethod, String paymentReference, String notes, 
                                boolean syncWithOutstanding) {
         String particulars = "Payment to " + supplierLedger.getSupplierName();
         String referenceNumber = "PAYMENT/" + supplierLedger.getId();
         
-        // Calculate balance after this entry
-        BigDecimal balanceAfter = supplierLedger.getCurrentBalance().subtract(paymentAmount);
+        // Update supplier ledger (row-locked delta) and take the balance after this entry
+        BigDecimal balanceAfter = ledgerPostingService.creditSupplier(supplierLedger, paymentAmount);
         
         SupplierLedgerEntry entry = new SupplierLedgerEntry(
             supplierLedger,
@@ -250,10 +256,6 @@ public class SupplierLedgerService {
         
         supplierLedgerEntryRepository.save(entry);
         
-        // Update supplier ledger
-        supplierLedger.addCredit(paymentAmount);
-        supplierLedgerRepository.save(supplierLedger);
-        
         // Only sync with outstanding if explicitly requested (for manual ledger payments)
         if (syncWithOutstanding) {
             applyPaymentToOutstandingPayables(supplierLedger.getSupplierPhone(), paymentAmount, paymentMethod, paymentReference, notes);
@@ -268,8 +270,8 @@ public class SupplierLedgerService {
                                   String creditNoteNumber, BigDecimal amount, String notes) {
         String particulars = "Credit Note #" + creditNoteNumber;
         
-        // Calculate balance after this entry
-        BigDecimal balanceAfter = supplierLedger.getCurrentBalance().subtract(amount);
+        // Update supplier ledger (row-locked delta) and take the balance after this entry
+        BigDecimal balanceAfter = ledgerPostingService.creditSupplier(supplierLedger, amount);
         
         SupplierLedgerEntry entry = new SupplierLedgerEntry(
             supplierLedger,
@@ -285,10 +287,6 @@ public class SupplierLedgerService {
         entry.setNotes(notes);
         
         supplierLedgerEntryRepository.save(entry);
-        
-        // Update supplier ledger
-        supplierLedger.addCredit(amount);
-        supplierLedgerRepository.save(supplierLedger);
     }
     
     /**
@@ -299,8 +297,8 @@ public class SupplierLedgerService {
         String particulars = "Direct GRN #" + grn.getGrnNumber();
         String referenceNumber = "GRN-" + grn.getGrnNumber();
         
-        // Calculate balance after this entry
-        BigDecimal balanceAfter = supplierLedger.getCurrentBalance().add(grn.getTotalAmount());
+        // Update supplier ledger (row-locked delta) and take the balance after this entry
+        BigDecimal balanceAfter = ledgerPostingService.debitSupplier(supplierLedger, grn.getTotalAmount());
         
         SupplierLedgerEntry entry = new SupplierLedgerEntry(
             supplierLedger,
@@ -320,10 +318,6 @@ public class SupplierLedgerService {
         
         supplierLedgerEntryRepository.save(entry);
         
-        // Update supplier ledger
-        supplierLedger.addDebit(grn.getTotalAmount());
-        supplierLedgerRepository.save(supplierLedger);
-        
         System.out.println("Added Direct GRN entry to supplier ledger: " + particulars);
     }
     
@@ -479,22 +473,13 @@ public class SupplierLedgerService {
             System.out.println("Payment amount: " + paymentAmount);
             
             BigDecimal remainingPayment = paymentAmount;
-            int syncedCount = 0;
+            int[] syncedCount = {0};
             
             // Apply payment to existing outstanding invoices (FIFO - oldest first)
             if (!outstandingPayables.isEmpty()) {
-                for (com.brsons.model.Outstanding outstanding : outstandingPayables) {
-                    if (remainingPayment.compareTo(BigDecimal.ZERO) <= 0) {
-                        break; // No more payment to apply
-                    }
-                    
+                remainingPayment = FifoAllocator.allocate(outstandingPayables, com.brsons.model.Outstanding::getAmount,
+                        paymentAmount, (outstanding, paidAmount) -> {
                     BigDecimal currentOutstandingAmount = outstanding.getAmount();
-                    if (currentOutstandingAmount.compareTo(BigDecimal.ZERO) <= 0) {
-                        continue; // Skip already settled items
-                    }
-                    
-                    // Calculate how much to pay for this invoice
-                    BigDecimal paidAmount = remainingPayment.min(currentOutstandingAmount);
                     
                     System.out.println("Applying payment to outstanding item #" + outstanding.getId() + 
                                      " - Outstanding: ₹" + currentOutstandingAmount + 
@@ -518,13 +503,11 @@ public class SupplierLedgerService {
                     // Save the updated outstanding item
                     outstandingRepository.save(outstanding);
                     
-                    // Reduce remaining payment
-                    remainingPayment = remainingPayment.subtract(paidAmount);
-                    syncedCount++;
+                    syncedCount[0]++;
                     
                     System.out.println("Successfully applied payment to outstanding item #" + outstanding.getId() + 
                                      " - Paid: ₹" + paidAmount + ", Remaining: ₹" + outstanding.getAmount());
-                }
+                });
             }
             
             // Handle any remaining payment as advance credit
@@ -535,7 +518,7 @@ public class SupplierLedgerService {
             }
             
             System.out.println("=== Payment application completed ===");
-            System.out.println("Synced " + syncedCount + " outstanding payables");
+            System.out.println("Synced " + syncedCount[0] + " outstanding payables");
             System.out.println("Remaining payment: ₹" + remainingPayment);
             
         } catch (Exception e) {
@@ -554,6 +537,16 @@ public class SupplierLedgerService {
         private BigDecimal totalDebits;
         private BigDecimal totalCredits;
         
+        public SupplierLedgerDashboard() {}
+        
+        public SupplierLedgerDashboard(SupplierLedgerDashboard other) {
+            this.totalSuppliers = other.totalSuppliers;
+            this.suppliersWithOutstanding = other.suppliersWithOutstanding;
+            this.totalOutstanding = other.totalOutstanding;
+            this.totalDebits = other.totalDebits;
+            this.totalCredits = other.totalCredits;
+        }
+        
         // Getters and Setters
         public Long getTotalSuppliers() { return totalSuppliers; }
         public void setTotalSuppliers(Long totalSuppliers) { this.totalSuppliers = totalSuppliers; }
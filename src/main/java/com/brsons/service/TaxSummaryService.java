@@ -0,0 +1,339 @@
+package com.brsons.service;
+
+import com.brsons.dto.GstSlab;
+import com.brsons.dto.Gstr3bSummary;
+import com.brsons.model.GoodsReceivedNote;
+import com.brsons.model.Order;
+import com.brsons.model.OrderItem;
+import com.brsons.model.Product;
+import com.brsons.model.TaxSummaryEntry;
+import com.brsons.repository.GRNRepository;
+import com.brsons.repository.OrderItemRepository;
+import com.brsons.repository.OrderRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.TaxSummaryEntryRepository;
+import com.brsons.util.Money;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Monthly GST aggregates (GSTR-1 / GSTR-3B style) kept up to date as invoices
+ * are finalized, edited or cancelled.
+ *
+ * Each bucket is one (month, B2B/B2C, CGST_SGST/IGST, rate slab, HSN code)
+ * row. Posting an invoice adds its line tax to the buckets with a single
+ * delta UPDATE per bucket; cancelling posts the same amounts negated. The
+ * order's taxSummaryPosted flag makes both operations idempotent.
+ */
+@Service
+public class TaxSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaxSummaryService.class);
+
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final List<GoodsReceivedNote.GRNStatus> ITC_STATUSES = List.of(
+            GoodsReceivedNote.GRNStatus.RECEIVED, GoodsReceivedNote.GRNStatus.INSPECTED, GoodsReceivedNote.GRNStatus.APPROVED);
+
+    @Autowired
+    private TaxSummaryEntryRepository taxSummaryEntryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private GRNRepository grnRepository;
+
+    @Autowired
+    private GstEngine gstEngine;
+
+    private TransactionTemplate requiresNew;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Add a finalized invoice to its month's buckets. No-op for untaxed orders
+     * and orders already posted.
+     */
+    @Transactional
+    public void recordInvoice(Order order) {
+        if (order == null || !isTaxed(order) || Boolean.TRUE.equals(order.getTaxSummaryPosted())) {
+            return;
+        }
+        post(order, 1);
+        order.setTaxSummaryPosted(true);
+        orderRepository.save(order);
+    }
+
+    /**
+     * Take a posted invoice back out of its month's buckets (cancellation or
+     * before an edit re-posts it).
+     */
+    @Transactional
+    public void reverseInvoice(Order order) {
+        if (order == null || !Boolean.TRUE.equals(order.getTaxSummaryPosted())) {
+            return;
+        }
+        post(order, -1);
+        order.setTaxSummaryPosted(false);
+        orderRepository.save(order);
+    }
+
+    /**
+     * Recompute a month from its invoices, e.g. for orders finalized before
+     * the summary existed.
+     */
+    @Transactional
+    public int rebuild(YearMonth month) {
+        String period = month.format(PERIOD_FORMAT);
+        taxSummaryEntryRepository.deleteByPeriod(period);
+        List<Order> orders = orderRepository.findTaxedInvoicesBetween(
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        for (Order order : orders) {
+            post(order, 1);
+            order.setTaxSummaryPosted(true);
+        }
+        orderRepository.saveAll(orders);
+        log.info("Rebuilt tax summary {} from {} invoices", period, orders.size());
+        return orders.size();
+    }
+
+    public List<TaxSummaryEntry> getEntries(YearMonth month) {
+        return taxSummaryEntryRepository.findByPeriodOrderBySupplyTypeAscTaxTypeAscGstRateAscHsnCodeAsc(month.format(PERIOD_FORMAT));
+    }
+
+    /**
+     * Month return summary: outward supplies from the buckets, input tax
+     * credit from goods received in the month.
+     */
+    public Gstr3bSummary getGstr3b(YearMonth month) {
+        String period = month.format(PERIOD_FORMAT);
+        Gstr3bSummary summary = new Gstr3bSummary(period);
+        for (Object[] row : taxSummaryEntryRepository.sumByPeriod(period)) {
+            String supplyType = (String) row[0];
+            String taxType = (String) row[1];
+            BigDecimal taxable = nz(row[3]);
+            BigDecimal igst = nz(row[6]);
+            summary.setOutwardTaxableValue(summary.getOutwardTaxableValue().add(taxable));
+            summary.setOutwardCgst(summary.getOutwardCgst().add(nz(row[4])));
+            summary.setOutwardSgst(summary.getOutwardSgst().add(nz(row[5])));
+            summary.setOutwardIgst(summary.getOutwardIgst().add(igst));
+            if ("B2C".equals(supplyType) && "IGST".equals(taxType)) {
+                summary.setInterStateB2cTaxableValue(summary.getInterStateB2cTaxableValue().add(taxable));
+                summary.setInterStateB2cIgst(summary.getInterStateB2cIgst().add(igst));
+            }
+        }
+        List<Object[]> itc = grnRepository.sumInputTax(month.atDay(1), month.atEndOfMonth(), ITC_STATUSES);
+        if (!itc.isEmpty()) {
+            summary.setItcCgst(nz(itc.get(0)[0]));
+            summary.setItcSgst(nz(itc.get(0)[1]));
+            summary.setItcIgst(nz(itc.get(0)[2]));
+        }
+        return summary;
+    }
+
+    /**
+     * Write a month's buckets as CSV, one row at a time.
+     */
+    public void writeCsv(YearMonth month, Writer out) throws IOException {
+        out.write("Period,Supply Type,Tax Type,GST Rate,HSN Code,Invoices,Quantity,Taxable Value,CGST,SGST,IGST,Total Tax\n");
+        for (TaxSummaryEntry entry : getEntries(month)) {
+            out.write(csv(entry.getPeriod()) + "," + csv(entry.getSupplyType()) + "," + csv(entry.getTaxType()) + ","
+                    + entry.getGstRate().toPlainString() + "," + csv(entry.getHsnCode()) + ","
+                    + entry.getInvoiceCount() + "," + entry.getQuantity() + ","
+                    + entry.getTaxableValue().toPlainString() + "," + entry.getCgstAmount().toPlainString() + ","
+                    + entry.getSgstAmount().toPlainString() + "," + entry.getIgstAmount().toPlainString() + ","
+                    + entry.getTotalTax().toPlainString() + "\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * One CSV text field: quoted (with embedded quotes doubled) when it holds a
+     * comma, quote or line break, and prefixed with ' when a spreadsheet would
+     * read it as a formula.
+     */
+    private static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String text = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    /**
+     * Write a month's buckets as a JSON array without building the document in memory.
+     */
+    public void writeJson(YearMonth month, OutputStream out) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            for (TaxSummaryEntry entry : getEntries(month)) {
+                json.writeStartObject();
+                json.writeStringField("period", entry.getPeriod());
+                json.writeStringField("supplyType", entry.getSupplyType());
+                json.writeStringField("taxType", entry.getTaxType());
+                json.writeNumberField("gstRate", entry.getGstRate());
+                json.writeStringField("hsnCode", entry.getHsnCode());
+                json.writeNumberField("invoiceCount", entry.getInvoiceCount());
+                json.writeNumberField("quantity", entry.getQuantity());
+                json.writeNumberField("taxableValue", entry.getTaxableValue());
+                json.writeNumberField("cgstAmount", entry.getCgstAmount());
+                json.writeNumberField("sgstAmount", entry.getSgstAmount());
+                json.writeNumberField("igstAmount", entry.getIgstAmount());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    private void post(Order order, int sign) {
+        String period = (order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now()).format(PERIOD_FORMAT);
+        String supplyType = order.getBuyerGstin() != null && !order.getBuyerGstin().isBlank() ? "B2B" : "B2C";
+        String taxType = order.getTaxType();
+
+        // bucket key (rate|hsn) -> [quantity, taxable, cgst, sgst, igst] in paise
+        Map<String, long[]> buckets = new LinkedHashMap<>();
+        List<OrderItem> items = itemsOf(order);
+        if (hasLineTax(items)) {
+            // HSN recorded on the line at invoicing; only lines taxed before it was recorded read the product
+            Map<Long, String> hsnCodes = loadHsnCodes(items);
+            for (OrderItem item : items) {
+                String hsn = item.getHsnCode() != null ? item.getHsnCode()
+                        : item.getProductId() != null ? hsnCodes.getOrDefault(item.getProductId(), "") : "";
+                long[] totals = buckets.computeIfAbsent(item.getGstRate().setScale(2).toPlainString() + "|" + hsn, k -> new long[5]);
+                totals[0] += item.getQuantity();
+                totals[1] += Money.of(item.getTotalPrice()).getPaise();
+                totals[2] += Money.of(item.getCgstAmount()).getPaise();
+                totals[3] += Money.of(item.getSgstAmount()).getPaise();
+                totals[4] += Money.of(item.getIgstAmount()).getPaise();
+            }
+        } else {
+            // Invoiced before line tax was recorded: order-level totals, no HSN split
+            long quantity = 0;
+            for (OrderItem item : items) {
+                quantity += item.getQuantity();
+            }
+            for (GstSlab slab : gstEngine.slabsForOrder(order)) {
+                long[] totals = buckets.computeIfAbsent(slab.getRate().toPlainString() + "|", k -> new long[5]);
+                totals[0] += quantity;
+                totals[1] += Money.of(slab.getTaxableValue()).getPaise();
+                totals[2] += Money.of(slab.getCgstAmount()).getPaise();
+                totals[3] += Money.of(slab.getSgstAmount()).getPaise();
+                totals[4] += Money.of(slab.getIgstAmount()).getPaise();
+                quantity = 0;
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, long[]> bucket : buckets.entrySet()) {
+            int split = bucket.getKey().indexOf('|');
+            BigDecimal rate = new BigDecimal(bucket.getKey().substring(0, split));
+            String hsn = bucket.getKey().substring(split + 1);
+            long[] totals = bucket.getValue();
+            Long id = bucketId(period, supplyType, taxType, rate, hsn);
+            taxSummaryEntryRepository.applyDelta(id, sign, sign * totals[0],
+                    Money.ofPaise(sign * totals[1]).toBigDecimal(), Money.ofPaise(sign * totals[2]).toBigDecimal(),
+                    Money.ofPaise(sign * totals[3]).toBigDecimal(), Money.ofPaise(sign * totals[4]).toBigDecimal(), now);
+        }
+    }
+
+    /**
+     * Id of a bucket, creating it in its own transaction so concurrent first
+     * invoices of a month race on the unique key rather than double-insert.
+     */
+    private Long bucketId(String period, String supplyType, String taxType, BigDecimal rate, String hsn) {
+        TaxSummaryEntry existing = taxSummaryEntryRepository
+                .findByPeriodAndSupplyTypeAndTaxTypeAndGstRateAndHsnCode(period, supplyType, taxType, rate, hsn).orElse(null);
+        if (existing != null) {
+            return existing.getId();
+        }
+        // Committed on its own so the new row is visible here and never waits on this invoice's transaction
+        requiresNew.executeWithoutResult(status -> taxSummaryEntryRepository
+                .insertIfAbsent(period, supplyType, taxType, rate, hsn, LocalDateTime.now()));
+        return taxSummaryEntryRepository
+                .findByPeriodAndSupplyTypeAndTaxTypeAndGstRateAndHsnCode(period, supplyType, taxType, rate, hsn)
+                .orElseThrow(() -> new RuntimeException("Tax summary bucket missing after insert: " + period))
+                .getId();
+    }
+
+    private List<OrderItem> itemsOf(Order order) {
+        if (order.getOrderItems() != null && Hibernate.isInitialized(order.getOrderItems())) {
+            return order.getOrderItems();
+        }
+        // Detached order (loaded outside this transaction)
+        return order.getId() != null ? orderItemRepository.findByOrder(order) : new ArrayList<>();
+    }
+
+    private Map<Long, String> loadHsnCodes(List<OrderItem> items) {
+        Set<Long> ids = new HashSet<>();
+        for (OrderItem item : items) {
+            if (item.getHsnCode() == null && item.getProductId() != null && !Boolean.TRUE.equals(item.getIsCustomProduct())) {
+                ids.add(item.getProductId());
+            }
+        }
+        Map<Long, String> hsnCodes = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Product product : productRepository.findAllById(ids)) {
+                hsnCodes.put(product.getId(), product.getHsnCode() != null ? product.getHsnCode().trim() : "");
+            }
+        }
+        return hsnCodes;
+    }
+
+    private static boolean hasLineTax(List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return false;
+        }
+        for (OrderItem item : items) {
+            if (item.getGstRate() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTaxed(Order order) {
+        return "CGST_SGST".equals(order.getTaxType()) || "IGST".equals(order.getTaxType());
+    }
+
+    private static BigDecimal nz(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : BigDecimal.ZERO;
+    }
+}
@@ -2,20 +2,29 @@ package com.brsons.service;
 
 import com.brsons.dto.TrialBalanceRow;
 import com.brsons.dto.HierarchicalTrialBalanceRow;
+import com.brsons.util.Money;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
 
 @Service
+@Transactional(readOnly = true)
 public class TrialBalanceService {
 
+    private static final Logger log = LoggerFactory.getLogger(TrialBalanceService.class);
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Timed(value = "report", extraTags = {"report", "trial_balance"})
     public List<TrialBalanceRow> getTrialBalance(LocalDate startDate, LocalDate endDate) {
         List<Object[]> results = entityManager.createNativeQuery(
             "SELECT a.name, " +
@@ -48,15 +57,16 @@ public class TrialBalanceService {
             return (BigDecimal) value;
         }
         if (value instanceof Number) {
-            return BigDecimal.valueOf(((Number) value).doubleValue());
+            return Money.parse(value.toString()).toBigDecimal();
         }
         return BigDecimal.ZERO;
     }
 
+    @Timed(value = "report", extraTags = {"report", "trial_balance_hierarchical"})
     public List<HierarchicalTrialBalanceRow> getHierarchicalTrialBalance(LocalDate startDate, LocalDate endDate) {
-        System.out.println("=== HIERARCHICAL TRIAL BALANCE DEBUG ===");
-        System.out.println("Start Date: " + startDate);
-        System.out.println("End Date: " + endDate);
+        log.debug("=== HIERARCHICAL TRIAL BALANCE DEBUG ===");
+        log.debug("Start Date: {}", startDate);
+        log.debug("End Date: {}", endDate);
         
         // Get all accounts with their NET balances using native SQL
         List<Object[]> results = entityManager.createNativeQuery(
@@ -73,11 +83,26 @@ public class TrialBalanceService {
             .setParameter("endDate", endDate)
             .getResultList();
 
-        System.out.println("Query results count: " + results.size());
-        for (Object[] row : results) {
-            System.out.println("Account: " + row[1] + " (ID: " + row[0] + "), Net Balance: " + row[5]);
+        log.debug("Query results count: {}", results.size());
+
+        List<HierarchicalTrialBalanceRow> parentAccounts = buildHierarchy(results);
+
+        log.debug("Final parent accounts count: {}", parentAccounts.size());
+        if (log.isTraceEnabled()) {
+            for (HierarchicalTrialBalanceRow parent : parentAccounts) {
+                log.trace("Parent: {} (Type: {}, Debit: {}, Credit: {}, SubAccounts: {})", parent.getAccountName(), parent.getAccountType(), parent.getTotalDebit(), parent.getTotalCredit(), parent.getSubAccounts().size());
+            }
         }
 
+        return parentAccounts;
+    }
+
+    /**
+     * Roll per-account net balances up the account tree.
+     * Rows are [id, name, code, type, parent_id, net_balance]; returns the
+     * top-level accounts, each carrying its sub-accounts and their totals.
+     */
+    public List<HierarchicalTrialBalanceRow> buildHierarchy(List<Object[]> results) {
         // Create account balance map
         Map<Long, HierarchicalTrialBalanceRow> accountMap = new HashMap<>();
         List<HierarchicalTrialBalanceRow> parentAccounts = new ArrayList<>();
@@ -112,9 +137,8 @@ public class TrialBalanceService {
                 HierarchicalTrialBalanceRow parent = accountMap.get(account.getParentAccountId());
                 if (parent != null) {
                     parent.addSubAccount(account);
-                    System.out.println("Added " + account.getAccountName() + " as child of " + parent.getAccountName());
                 } else {
-                    System.out.println("Parent not found for account: " + account.getAccountName() + " (Parent ID: " + account.getParentAccountId() + ")");
+                    log.debug("Parent not found for account: {} (Parent ID: {})", account.getAccountName(), account.getParentAccountId());
                 }
             }
         }
@@ -123,8 +147,6 @@ public class TrialBalanceService {
         for (HierarchicalTrialBalanceRow parent : accountMap.values()) {
             if (parent.getSubAccounts() != null && !parent.getSubAccounts().isEmpty()) {
                 parent.getSubAccounts().sort((a, b) -> a.getAccountCode().compareTo(b.getAccountCode()));
-                System.out.println("Sorted sub-accounts for " + parent.getAccountName() + ": " + 
-                    parent.getSubAccounts().stream().map(HierarchicalTrialBalanceRow::getAccountName).toList());
             }
         }
 
@@ -138,23 +160,12 @@ public class TrialBalanceService {
             return a.getAccountCode().compareTo(b.getAccountCode());
         });
 
-        System.out.println("Final parent accounts count: " + parentAccounts.size());
-        for (HierarchicalTrialBalanceRow parent : parentAccounts) {
-            System.out.println("Parent: " + parent.getAccountName() + " (Type: " + parent.getAccountType() + 
-                             ", Debit: " + parent.getTotalDebit() + ", Credit: " + parent.getTotalCredit() + 
-                             ", SubAccounts: " + parent.getSubAccounts().size() + ")");
-        }
-
         return parentAccounts;
     }
 
     private void calculateHierarchicalTotals(List<HierarchicalTrialBalanceRow> parentAccounts) {
-        System.out.println("=== CALCULATING HIERARCHICAL TOTALS ===");
-        
         for (HierarchicalTrialBalanceRow parent : parentAccounts) {
             calculateAccountTotals(parent);
-            System.out.println("Calculated totals for " + parent.getAccountName() + 
-                             ": Debit=" + parent.getTotalDebit() + ", Credit=" + parent.getTotalCredit());
         }
     }
 
@@ -182,8 +193,5 @@ public class TrialBalanceService {
         // Update the account with calculated totals
         account.setTotalDebit(finalDebit);
         account.setTotalCredit(finalCredit);
-        
-        System.out.println("Updated " + account.getAccountName() + 
-                         " totals: Net=" + netBalance + ", Debit=" + finalDebit + ", Credit=" + finalCredit);
     }
 }
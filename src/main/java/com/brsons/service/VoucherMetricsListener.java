@@ -0,0 +1,29 @@
+package com.brsons.service;
+
+import com.brsons.model.Voucher;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts every voucher posted, whichever service saves it, as
+ * "voucher.posted" tagged with the voucher type.
+ */
+@Component
+public class VoucherMetricsListener {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public VoucherMetricsListener(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostPersist
+    public void onPersist(Voucher voucher) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.counter("voucher.posted", "type", voucher.getType() != null ? voucher.getType() : "unknown").increment();
+        }
+    }
+}
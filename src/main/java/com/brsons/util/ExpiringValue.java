@@ -0,0 +1,43 @@
+package com.brsons.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds a computed value for a short time-to-live so that hot read-only
+ * pages (dashboards, summaries) do not hit the database on every request.
+ * Concurrent callers that find the value expired recompute it only once.
+ */
+public class ExpiringValue<T> {
+
+    private final Supplier<T> loader;
+    private final long ttlMillis;
+
+    private volatile T value;
+    private volatile long expiresAt;
+
+    public ExpiringValue(Supplier<T> loader, long ttlMillis) {
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public T get() {
+        T current = value;
+        if (current != null && System.currentTimeMillis() < expiresAt) {
+            return current;
+        }
+        synchronized (this) {
+            if (value == null || System.currentTimeMillis() >= expiresAt) {
+                value = loader.get();
+                expiresAt = System.currentTimeMillis() + ttlMillis;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Drop the cached value so the next read reloads it
+     */
+    public void invalidate() {
+        expiresAt = 0L;
+    }
+}
@@ -0,0 +1,40 @@
+package com.brsons.util;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Spreads a payment over open items oldest first (FIFO): each item takes as
+ * much as it still owes until the payment runs out. Items that owe nothing
+ * are skipped.
+ */
+public final class FifoAllocator {
+
+    private FifoAllocator() {
+    }
+
+    /**
+     * Allocate a payment across items in the given (oldest first) order.
+     * apply is called once per item that receives a share, with that share.
+     * Returns the part of the payment left over after every item is paid.
+     */
+    public static <T> BigDecimal allocate(List<T> oldestFirst, Function<T, BigDecimal> outstanding,
+                                          BigDecimal payment, BiConsumer<T, BigDecimal> apply) {
+        BigDecimal remaining = payment;
+        for (T item : oldestFirst) {
+            if (remaining.compareTo(BigDecimal.ZERO) <= 0) {
+                break;
+            }
+            BigDecimal due = outstanding.apply(item);
+            if (due == null || due.compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
+            }
+            BigDecimal share = remaining.min(due);
+            apply.accept(item, share);
+            remaining = remaining.subtract(share);
+        }
+        return remaining;
+    }
+}
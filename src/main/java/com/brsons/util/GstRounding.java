@@ -0,0 +1,13 @@
+package com.brsons.util;
+
+/**
+ * Where GST is rounded to paise.
+ *
+ * PER_LINE rounds each line's CGST/SGST/IGST and adds the rounded amounts
+ * (what the cart shows line by line). PER_INVOICE adds the exact tax of all
+ * lines and rounds each tax head once, which is what the invoice prints.
+ */
+public enum GstRounding {
+    PER_LINE,
+    PER_INVOICE
+}
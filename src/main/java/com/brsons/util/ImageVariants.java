@@ -0,0 +1,65 @@
+package com.brsons.util;
+
+/**
+ * Naming of generated image variants.
+ *
+ * An uploaded image lives in its own folder under /uploads with the original
+ * file and one JPEG per size: /uploads/{id}/thumb.jpg, card.jpg and
+ * detail.jpg. Entities store the detail URL; pages ask for a smaller size
+ * with {@link #url(String, String)}. Legacy single-file URLs are returned
+ * unchanged.
+ */
+public final class ImageVariants {
+
+    public static final String THUMB = "thumb";
+    public static final String CARD = "card";
+    public static final String DETAIL = "detail";
+
+    public static final String[] NAMES = { THUMB, CARD, DETAIL };
+
+    public static final String ORIGINAL = "original";
+
+    private static final String DETAIL_SUFFIX = "/" + DETAIL + ".jpg";
+
+    private ImageVariants() {
+    }
+
+    /** Longest edge in pixels for a variant. */
+    public static int maxEdge(String variant) {
+        switch (variant) {
+            case THUMB:
+                return 160;
+            case CARD:
+                return 480;
+            default:
+                return 1200;
+        }
+    }
+
+    public static String fileName(String variant) {
+        return variant + ".jpg";
+    }
+
+    /** True when the URL points at a generated variant rather than a legacy upload. */
+    public static boolean isVariantUrl(String url) {
+        return url != null && url.startsWith("/uploads/") && url.endsWith(DETAIL_SUFFIX);
+    }
+
+    /**
+     * URL of another size of the same image, e.g. url(product.mainPhoto, "card").
+     */
+    public static String url(String url, String variant) {
+        if (!isVariantUrl(url)) {
+            return url;
+        }
+        return url.substring(0, url.length() - DETAIL_SUFFIX.length()) + "/" + fileName(variant);
+    }
+
+    /** srcset value listing the card and detail sizes with their widths. */
+    public static String srcset(String url) {
+        if (!isVariantUrl(url)) {
+            return null;
+        }
+        return url(url, CARD) + " " + maxEdge(CARD) + "w, " + url + " " + maxEdge(DETAIL) + "w";
+    }
+}
@@ -0,0 +1,177 @@
+package com.brsons.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable rupee amount held as a whole number of paise.
+ *
+ * Cart, tax and order totals are added up with plain long arithmetic, so a
+ * 500 line cart neither drifts like double nor allocates a BigDecimal per
+ * step. Conversions to and from Double/BigDecimal happen only at the edges
+ * (entity fields, templates, reports).
+ *
+ * GST is calculated in basis points of the rate (9% = 900 bp). A line's tax is
+ * exact in "tax units" (paise x bp) and is rounded half-up to paise either per
+ * line or once per invoice, see {@link GstRounding}.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0L);
+
+    /** Tax units per paisa: a rate in basis points is out of 10000. */
+    public static final long TAX_UNITS_PER_PAISA = 10_000L;
+
+    private final long paise;
+
+    private Money(long paise) {
+        this.paise = paise;
+    }
+
+    public static Money ofPaise(long paise) {
+        return paise == 0L ? ZERO : new Money(paise);
+    }
+
+    public static Money ofRupees(long rupees) {
+        return ofPaise(Math.multiplyExact(rupees, 100L));
+    }
+
+    /** Rounds half-up to paise; null is zero. */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return ZERO;
+        }
+        return ofPaise(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /** Legacy Double price fields; null is zero. */
+    public static Money of(Double amount) {
+        return amount == null ? ZERO : of(amount.doubleValue());
+    }
+
+    /**
+     * Legacy double amounts. Prices are entered with at most two decimals, so
+     * the scaled value is within rounding noise of a whole number of paise.
+     */
+    public static Money of(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Not a money amount: " + amount);
+        }
+        return ofPaise(Math.round(amount * 100.0));
+    }
+
+    public static Money parse(String amount) {
+        if (amount == null || amount.trim().isEmpty()) {
+            return ZERO;
+        }
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    /** Rounds tax units (paise x bp) half-up to paise. */
+    public static Money ofTaxUnits(long taxUnits) {
+        return ofPaise(roundTaxUnits(taxUnits));
+    }
+
+    /** Tax units rounded half-up to whole paise, without allocating. */
+    public static long roundTaxUnits(long taxUnits) {
+        return divideHalfUp(taxUnits, TAX_UNITS_PER_PAISA);
+    }
+
+    /** Converts a percentage such as 2.5 or 9 into basis points (250, 900). */
+    public static long basisPoints(BigDecimal percentage) {
+        if (percentage == null) {
+            return 0L;
+        }
+        return percentage.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public long getPaise() {
+        return paise;
+    }
+
+    public Money plus(Money other) {
+        return other.paise == 0L ? this : ofPaise(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return other.paise == 0L ? this : ofPaise(Math.subtractExact(paise, other.paise));
+    }
+
+    public Money times(int quantity) {
+        return ofPaise(Math.multiplyExact(paise, (long) quantity));
+    }
+
+    public Money negate() {
+        return ofPaise(Math.negateExact(paise));
+    }
+
+    /** Exact tax on this amount at the given rate, in paise x bp. */
+    public long taxUnits(long basisPoints) {
+        return Math.multiplyExact(paise, basisPoints);
+    }
+
+    /** Percentage of this amount rounded half-up to paise (one GST line). */
+    public Money percentOf(BigDecimal percentage) {
+        return percentOfBasisPoints(basisPoints(percentage));
+    }
+
+    public Money percentOfBasisPoints(long basisPoints) {
+        return ofTaxUnits(taxUnits(basisPoints));
+    }
+
+    /** Nearest whole rupee, half-up (invoice round-off). */
+    public Money roundToRupee() {
+        return ofPaise(divideHalfUp(paise, 100L) * 100L);
+    }
+
+    public boolean isZero() {
+        return paise == 0L;
+    }
+
+    public boolean isPositive() {
+        return paise > 0L;
+    }
+
+    public boolean isNegative() {
+        return paise < 0L;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /** For legacy double fields and template arithmetic only. */
+    public double toDouble() {
+        return paise / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).paise == paise;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(paise);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /** Half-up (away from zero on ties) integer division. */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,210 @@
+package com.brsons.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index for typeahead pickers.
+ *
+ * Items are kept sorted by display name and every word of their search keys
+ * (name, SKU, code, ...) is stored in one sorted token map, so a prefix
+ * lookup is a range scan of that map. A query of several words returns
+ * items that have a token starting with each word, in name order.
+ *
+ * A changed item is replaced in place with {@link #put} (or dropped with
+ * {@link #remove}), which touches only that item's tokens. Reads never
+ * block; writes are serialized.
+ */
+public final class PrefixIndex<T> {
+
+    private final Function<T, Long> idKey;
+    private final Function<T, String> sortKey;
+    private final Function<T, Collection<String>> searchKeys;
+
+    private final ConcurrentSkipListMap<Slot, T> items = new ConcurrentSkipListMap<>();
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Slot>> tokens = new ConcurrentSkipListMap<>();
+
+    private PrefixIndex(Function<T, Long> idKey, Function<T, String> sortKey,
+                        Function<T, Collection<String>> searchKeys) {
+        this.idKey = idKey;
+        this.sortKey = sortKey;
+        this.searchKeys = searchKeys;
+    }
+
+    /**
+     * Build an index keyed by {@code idKey}, ordered by {@code sortKey}, searchable by the words of {@code searchKeys}
+     */
+    public static <T> PrefixIndex<T> build(Collection<T> source, Function<T, Long> idKey, Function<T, String> sortKey,
+                                           Function<T, Collection<String>> searchKeys) {
+        PrefixIndex<T> index = new PrefixIndex<>(idKey, sortKey, searchKeys);
+        source.forEach(index::put);
+        return index;
+    }
+
+    /**
+     * Add an item, or replace the item with the same id
+     */
+    public synchronized void put(T item) {
+        Long id = idKey.apply(item);
+        remove(id);
+        Slot slot = new Slot(normalize(sortKey.apply(item)), id, tokenize(item));
+        for (String token : slot.tokens) {
+            tokens.computeIfAbsent(token, key -> new ConcurrentSkipListSet<>()).add(slot);
+        }
+        items.put(slot, item);
+        slots.put(id, slot);
+    }
+
+    /**
+     * Drop the item with this id, if present
+     */
+    public synchronized void remove(Long id) {
+        Slot slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        items.remove(slot);
+        for (String token : slot.tokens) {
+            Set<Slot> owners = tokens.get(token);
+            if (owners != null) {
+                owners.remove(slot);
+                if (owners.isEmpty()) {
+                    tokens.remove(token, owners);
+                }
+            }
+        }
+    }
+
+    /**
+     * Every item in name order
+     */
+    public List<T> all() {
+        return Collections.unmodifiableList(new ArrayList<>(items.values()));
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Items matching every word of the query as a prefix, in name order, at most {@code limit}
+     */
+    public List<T> search(String query, int limit, Predicate<T> filter) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return firstMatching(limit, filter);
+        }
+        String[] words = Arrays.stream(normalized.split("\\s+")).filter(w -> !w.isEmpty()).toArray(String[]::new);
+
+        // Scan the token range of the longest (most selective) word
+        String seed = words[0];
+        for (String word : words) {
+            if (word.length() > seed.length()) {
+                seed = word;
+            }
+        }
+        NavigableSet<Slot> candidates = new TreeSet<>();
+        for (Map.Entry<String, Set<Slot>> entry : tokens.tailMap(seed).entrySet()) {
+            if (!entry.getKey().startsWith(seed)) {
+                break;
+            }
+            candidates.addAll(entry.getValue());
+        }
+
+        List<T> result = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (Slot slot : candidates) {
+            if (result.size() >= limit) {
+                break;
+            }
+            // Null when the item was replaced while we scanned
+            T item = items.get(slot);
+            if (item != null && matchesAll(slot.tokens, words) && (filter == null || filter.test(item))) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private List<T> firstMatching(int limit, Predicate<T> filter) {
+        List<T> result = new ArrayList<>(Math.min(limit, items.size()));
+        for (T item : items.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (filter == null || filter.test(item)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private String[] tokenize(T item) {
+        List<String> words = new ArrayList<>();
+        for (String key : searchKeys.apply(item)) {
+            String normalized = normalize(key);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            // Whole key too, so "brs-10" still prefixes the code "brs-104"
+            words.add(normalized);
+            for (String word : normalized.split("[^\\p{L}\\p{M}\\p{N}]+")) {
+                if (!word.isEmpty() && !word.equals(normalized)) {
+                    words.add(word);
+                }
+            }
+        }
+        return words.stream().distinct().toArray(String[]::new);
+    }
+
+    private static boolean matchesAll(String[] itemWords, String[] queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String itemWord : itemWords) {
+                if (itemWord.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    // Position of one item: name order, ties broken by id
+    private static final class Slot implements Comparable<Slot> {
+        private final String name;
+        private final long id;
+        private final String[] tokens;
+
+        Slot(String name, long id, String[] tokens) {
+            this.name = name;
+            this.id = id;
+            this.tokens = tokens;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Indexes backing the filtered / keyset-paginated product listings
+CREATE INDEX IF NOT EXISTS idx_products_category_status ON products (category_id, status);
+CREATE INDEX IF NOT EXISTS idx_products_stock_quantity ON products (stock_quantity);
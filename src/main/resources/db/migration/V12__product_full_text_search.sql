@@ -0,0 +1,19 @@
+-- Full-text and trigram indexes backing ProductSearchService (PostgreSQL).
+-- Expressions must stay identical to the ones used in ProductSearchService.
+-- The application also applies this script at startup when it is missing.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Ranked word/prefix search over name, SKU, HSN code and description
+CREATE INDEX IF NOT EXISTS idx_products_search_doc ON products USING GIN (
+    to_tsvector('simple', coalesce(product_name, '') || ' ' || coalesce(sku, '') || ' ' || coalesce(hsn_code, '') || ' ' || coalesce(description, ''))
+);
+
+-- Typo tolerant name matching, also serves LIKE '%text%' filters
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING GIN (lower(product_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_description_trgm ON products USING GIN (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_sku_trgm ON products USING GIN (lower(sku) gin_trgm_ops);
+
+-- Variant attributes (size, color, fabric, ...) searched through their product
+CREATE INDEX IF NOT EXISTS idx_product_variants_search_doc ON product_variants USING GIN (
+    to_tsvector('simple', coalesce(size, '') || ' ' || coalesce(color, '') || ' ' || coalesce(fabric, '') || ' ' || coalesce(style, '') || ' ' || coalesce(pattern, '') || ' ' || coalesce(occasion, '') || ' ' || coalesce(sku, ''))
+);
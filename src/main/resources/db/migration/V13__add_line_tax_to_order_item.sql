@@ -0,0 +1,6 @@
+-- Per-line GST recorded at invoicing, so mixed-rate orders keep their rate slabs
+ALTER TABLE order_item
+ADD COLUMN IF NOT EXISTS gst_rate DECIMAL(5,2),
+ADD COLUMN IF NOT EXISTS cgst_amount DECIMAL(10,2),
+ADD COLUMN IF NOT EXISTS sgst_amount DECIMAL(10,2),
+ADD COLUMN IF NOT EXISTS igst_amount DECIMAL(10,2);
@@ -0,0 +1,20 @@
+-- Monthly GST aggregates for GSTR-1 / GSTR-3B style returns, maintained by delta on invoice finalize/edit/cancel
+CREATE TABLE IF NOT EXISTS tax_summary_monthly (
+    id BIGSERIAL PRIMARY KEY,
+    period VARCHAR(7) NOT NULL,
+    supply_type VARCHAR(3) NOT NULL,
+    tax_type VARCHAR(20) NOT NULL,
+    gst_rate DECIMAL(5,2) NOT NULL,
+    hsn_code VARCHAR(20) NOT NULL DEFAULT '',
+    invoice_count BIGINT NOT NULL DEFAULT 0,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    taxable_value DECIMAL(14,2) NOT NULL DEFAULT 0,
+    cgst_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    sgst_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    igst_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_tax_summary_bucket UNIQUE (period, supply_type, tax_type, gst_rate, hsn_code)
+);
+
+-- Marks invoices counted in the summary so finalize/cancel stay idempotent
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS tax_summary_posted BOOLEAN DEFAULT FALSE;
@@ -0,0 +1,33 @@
+-- Cart as one row per user: lines packed as "productId:quantity,..." plus a denormalized item count
+ALTER TABLE add_to_cart ADD COLUMN IF NOT EXISTS items VARCHAR(8000) DEFAULT '';
+ALTER TABLE add_to_cart ADD COLUMN IF NOT EXISTS item_count INTEGER DEFAULT 0;
+ALTER TABLE add_to_cart ADD COLUMN IF NOT EXISTS revision BIGINT DEFAULT 0;
+ALTER TABLE add_to_cart ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP;
+
+-- Fold duplicate carts of a user into the oldest row
+UPDATE add_to_cart_product_quantities q SET add_to_cart_id = keep.id
+FROM add_to_cart c
+JOIN (SELECT user_id, MIN(id) AS id FROM add_to_cart GROUP BY user_id) keep ON keep.user_id = c.user_id
+WHERE q.add_to_cart_id = c.id AND c.id <> keep.id;
+DELETE FROM add_to_cart c USING add_to_cart k WHERE c.user_id = k.user_id AND c.id > k.id;
+
+-- Pack the existing per-item rows into their cart
+UPDATE add_to_cart c SET
+    items = COALESCE(p.items, ''),
+    item_count = COALESCE(p.item_count, 0)
+FROM (
+    SELECT add_to_cart_id,
+           STRING_AGG(product_id || ':' || quantity, ',' ORDER BY product_id) AS items,
+           SUM(quantity) AS item_count
+    FROM (SELECT add_to_cart_id, product_id, SUM(quantity) AS quantity
+          FROM add_to_cart_product_quantities
+          WHERE product_id IS NOT NULL AND quantity > 0
+          GROUP BY add_to_cart_id, product_id) lines
+    GROUP BY add_to_cart_id
+) p
+WHERE p.add_to_cart_id = c.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_add_to_cart_user ON add_to_cart (user_id);
+
+-- The per-item table is no longer mapped; kept for rollback, safe to drop once verified
+-- DROP TABLE add_to_cart_product_quantities;
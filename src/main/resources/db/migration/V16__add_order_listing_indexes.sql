@@ -0,0 +1,4 @@
+-- Indexes backing the keyset-paginated order listings (newest first, seek on created_at, id)
+CREATE INDEX IF NOT EXISTS idx_orders_bill_type_status_created ON orders (bill_type, order_status, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_bill_type_created ON orders (bill_type, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_user_phone_created ON orders (user_phone, created_at, id);
@@ -0,0 +1,16 @@
+-- Order count and total per bill type and status for the admin order dashboards, maintained by delta on order writes
+CREATE TABLE IF NOT EXISTS order_status_counters (
+    id BIGSERIAL PRIMARY KEY,
+    bill_type VARCHAR(50) NOT NULL DEFAULT '',
+    order_status VARCHAR(100) NOT NULL DEFAULT '',
+    order_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(16,2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_order_status_counter UNIQUE (bill_type, order_status)
+);
+
+-- Seed from existing orders (no-op when already populated)
+INSERT INTO order_status_counters (bill_type, order_status, order_count, total_amount)
+SELECT COALESCE(bill_type, ''), COALESCE(order_status, ''), COUNT(*), COALESCE(SUM(total), 0)
+FROM orders
+GROUP BY COALESCE(bill_type, ''), COALESCE(order_status, '')
+ON CONFLICT (bill_type, order_status) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Stock ledger: movements per product in posting order (history, reconciliation sums)
+CREATE INDEX IF NOT EXISTS idx_stock_movements_product_id ON stock_movements (product_id, id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_reference ON stock_movements (reference_type, reference_id);
@@ -0,0 +1,18 @@
+-- Variant-level inventory: order lines and stock movements record the variant sold
+ALTER TABLE order_item ADD COLUMN IF NOT EXISTS variant_id BIGINT;
+ALTER TABLE stock_movements ADD COLUMN IF NOT EXISTS variant_id BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_product_variants_product_id ON product_variants (product_id);
+
+-- Variant stock was a copy of the product's taken when the variant was created and was never
+-- decremented; clear it so every existing variant sells from its product until given stock of its own
+UPDATE product_variants SET stock_quantity = NULL;
+
+-- Prices copied from the product at creation become "use the product's price", so later product
+-- price changes reach the variant; prices that differ are real overrides and are kept
+UPDATE product_variants v SET retail_price = NULL
+WHERE retail_price = (SELECT p.retail_price FROM products p WHERE p.id = v.product_id);
+UPDATE product_variants v SET b2b_price = NULL
+WHERE b2b_price = (SELECT p.b2b_price FROM products p WHERE p.id = v.product_id);
+UPDATE product_variants v SET variant_discount = NULL
+WHERE variant_discount = (SELECT p.discount FROM products p WHERE p.id = v.product_id);
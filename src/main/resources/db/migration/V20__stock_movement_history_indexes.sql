@@ -0,0 +1,3 @@
+-- Indexes backing the keyset-paginated movement history and dashboard (newest first, seek on movement_date, id)
+CREATE INDEX IF NOT EXISTS idx_stock_movements_product_date ON stock_movements (product_id, movement_date, id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_date ON stock_movements (movement_date, id);
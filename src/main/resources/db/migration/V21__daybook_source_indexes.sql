@@ -0,0 +1,9 @@
+-- Indexes backing the date-bounded daybook sources (one range scan per source)
+CREATE INDEX IF NOT EXISTS idx_voucher_date ON voucher (date, id);
+CREATE INDEX IF NOT EXISTS idx_voucher_entry_voucher ON voucher_entry (voucher_id);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders (order_status, created_at);
+CREATE INDEX IF NOT EXISTS idx_purchase_orders_status_created ON purchase_orders (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_grn_status_received ON goods_received_notes (status, received_date);
+CREATE INDEX IF NOT EXISTS idx_outstanding_items_status_created ON outstanding_items (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_supplier_ledger_entry_date ON supplier_ledger_entry (entry_date);
+CREATE INDEX IF NOT EXISTS idx_customer_ledger_entry_date ON customer_ledger_entry (entry_date);
@@ -0,0 +1,3 @@
+-- HSN code of the line's product as of invoicing, so the GST summary reverses a line from the bucket it was posted to
+ALTER TABLE order_item
+ADD COLUMN IF NOT EXISTS hsn_code VARCHAR(20);
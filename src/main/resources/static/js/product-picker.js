@@ -0,0 +1,131 @@
+/**
+ * Type-ahead for the admin product dropdowns (open sale, purchase orders,
+ * GRN, credit notes).
+ *
+ * Puts a search box above each product <select> and refills the select as
+ * the user types: first from the in-memory prefix index
+ * (/admin/products/picker), then from the ranked full-text search
+ * (/admin/products/search) when no name or SKU starts with the query. A page
+ * therefore never has to carry the whole catalogue. Placeholder options
+ * (empty value or OTHER) and the current selection are kept. Each hit option
+ * carries data-price, data-cost, data-stock and data-hsn for the page's own
+ * change handlers.
+ */
+const ProductPicker = (function () {
+    const DEFAULTS = {
+        selector: 'select[name="productIds"]',
+        url: '/admin/products/picker',
+        searchUrl: '/admin/products/search',
+        size: 20,
+        showStock: false,
+        placeholder: 'Search by name or SKU...'
+    };
+
+    function enhance(root, options) {
+        const settings = Object.assign({}, DEFAULTS, options || {});
+        (root || document).querySelectorAll(settings.selector).forEach(select => attach(select, settings));
+    }
+
+    function attach(select, settings) {
+        if (select.dataset.picker === 'on') {
+            return;
+        }
+        select.dataset.picker = 'on';
+
+        const input = document.createElement('input');
+        input.type = 'search';
+        input.className = 'product-picker-search';
+        input.placeholder = settings.placeholder;
+        input.autocomplete = 'off';
+        input.style.marginBottom = '4px';
+        input.style.width = '100%';
+        select.parentNode.insertBefore(input, select);
+
+        let timer = null;
+        let latest = 0;
+        const load = query => {
+            const request = ++latest;
+            lookup(query, settings)
+                .then(hits => {
+                    // Drop answers that arrive after a newer query was sent
+                    if (request === latest) {
+                        fill(select, hits, settings);
+                    }
+                })
+                .catch(error => console.error('Product search failed:', error));
+        };
+        input.addEventListener('input', () => {
+            clearTimeout(timer);
+            timer = setTimeout(() => load(input.value.trim()), 250);
+        });
+
+        // Start with the first products by name
+        load('');
+    }
+
+    function lookup(query, settings) {
+        return getJson(withParams(settings.url, { q: query, limit: settings.size }))
+            .then(hits => {
+                if (hits.length > 0 || !query || !settings.searchUrl) {
+                    return hits;
+                }
+                // Nothing starts with the query: fall back to the ranked search (typos, descriptions, variants)
+                return getJson(withParams(settings.searchUrl, { q: query, size: settings.size }));
+            });
+    }
+
+    function getJson(url) {
+        return fetch(url)
+            .then(response => response.ok ? response.json() : [])
+            .then(result => Array.isArray(result) ? result : (result.hits || []));
+    }
+
+    function withParams(url, params) {
+        const query = Object.keys(params)
+            .map(key => `${key}=${encodeURIComponent(params[key])}`)
+            .join('&');
+        return url + (url.includes('?') ? '&' : '?') + query;
+    }
+
+    function fill(select, hits, settings) {
+        Array.from(select.options).forEach(option => {
+            const stale = option.value ? option.value !== 'OTHER' && option.value !== select.value : option.disabled;
+            if (stale) {
+                option.remove();
+            }
+        });
+        hits.forEach(hit => {
+            if (String(hit.id) === select.value) {
+                return;
+            }
+            select.appendChild(toOption(hit, settings));
+        });
+        if (hits.length === 0) {
+            const none = document.createElement('option');
+            none.value = '';
+            none.disabled = true;
+            none.textContent = 'No matching products';
+            select.appendChild(none);
+        }
+    }
+
+    function toOption(hit, settings) {
+        const option = document.createElement('option');
+        option.value = hit.id;
+        option.dataset.price = hit.retailPrice || 0;
+        option.dataset.cost = hit.price || 0;
+        option.dataset.stock = hit.stockQuantity || 0;
+        option.dataset.hsn = hit.hsnCode || '';
+        let label = hit.productName;
+        if (hit.sku) {
+            label += ` (${hit.sku})`;
+        }
+        if (settings.showStock) {
+            label += ` - Stock: ${hit.stockQuantity || 0}`;
+        }
+        option.textContent = label;
+        return option;
+    }
+
+    return { enhance: enhance };
+})();
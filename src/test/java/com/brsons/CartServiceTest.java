@@ -0,0 +1,207 @@
+package com.brsons;
+
+import com.brsons.dto.CartSummary;
+import com.brsons.model.AddToCart;
+import com.brsons.model.CartProductEntry;
+import com.brsons.model.Product;
+import com.brsons.model.User;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.CartService;
+import com.brsons.service.CartSummaryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CartServiceTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testStartupRepairMergesDuplicateAndLegacyCarts() {
+        long userId = 9301L;
+        // A database updated by ddl-auto: no unique index yet, an old per-item row with NULL packed columns
+        jdbcTemplate.execute("ALTER TABLE add_to_cart DROP CONSTRAINT IF EXISTS uk_add_to_cart_user");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS uk_add_to_cart_user");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS add_to_cart_product_quantities " +
+                "(add_to_cart_id BIGINT, product_id BIGINT, quantity INTEGER)");
+        try {
+            jdbcTemplate.update("INSERT INTO add_to_cart (user_id, items, item_count, revision) VALUES (?, '5:2', 2, 3)", userId);
+            jdbcTemplate.update("INSERT INTO add_to_cart (user_id, items, item_count, revision) VALUES (?, NULL, NULL, NULL)", userId);
+            Long legacyId = jdbcTemplate.queryForObject("SELECT id FROM add_to_cart WHERE user_id = ? AND items IS NULL", Long.class, userId);
+            jdbcTemplate.update("INSERT INTO add_to_cart_product_quantities VALUES (?, 5, 1), (?, 8, 4)", legacyId, legacyId);
+
+            cartService.repairCarts();
+
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM add_to_cart WHERE user_id = ?", Integer.class, userId));
+            assertEquals(3, cartService.getQuantity(userId, 5L));
+            assertEquals(4, cartService.getQuantity(userId, 8L));
+            assertEquals(7, cartService.getItemCount(userId));
+            assertEquals(4, cartService.changeQuantity(user(userId), 5L, 1));
+            assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                    "INSERT INTO add_to_cart (user_id, items, item_count, revision) VALUES (?, '', 0, 0)", userId));
+        } finally {
+            jdbcTemplate.execute("DROP TABLE add_to_cart_product_quantities");
+        }
+    }
+
+    @Test
+    public void testPackedItemsRoundTrip() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(40L, 1);
+        quantities.put(12L, 3);
+        quantities.put(7L, 0);
+        String packed = AddToCart.encode(quantities);
+        assertEquals("40:1,12:3", packed);
+        assertEquals(List.of(40L, 12L), new ArrayList<>(AddToCart.decode(packed).keySet()));
+        assertEquals(4, AddToCart.count(AddToCart.decode(packed)));
+        assertTrue(AddToCart.decode("").isEmpty());
+    }
+
+    @Test
+    public void testQuantityChangesKeepLinesAndCount() {
+        User user = user(9101L);
+        assertEquals(2, cartService.changeQuantity(user, 5L, 2));
+        assertEquals(1, cartService.changeQuantity(user, 6L, 1));
+        assertEquals(5, cartService.changeQuantity(user, 5L, 3));
+        assertEquals(6, cartService.getItemCount(user.getId()));
+
+        // Dropping to zero removes the line
+        assertEquals(0, cartService.changeQuantity(user, 6L, -4));
+        List<CartProductEntry> entries = cartService.getEntries(user.getId());
+        assertEquals(1, entries.size());
+        assertEquals(5L, entries.get(0).getProductId());
+        assertEquals(5, cartService.getItemCount(user.getId()));
+
+        cartService.clearCart(user.getId());
+        assertTrue(cartService.getEntries(user.getId()).isEmpty());
+        assertEquals(0, cartService.getItemCount(user.getId()));
+    }
+
+    @Test
+    public void testConcurrentAddsAreNotLost() throws Exception {
+        User user = user(9102L);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                long productId = i % 4;
+                futures.add(pool.submit(() -> cartService.changeQuantity(user, productId, 1)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(200, cartService.getItemCount(user.getId()));
+        for (CartProductEntry entry : cartService.getEntries(user.getId())) {
+            assertEquals(50, entry.getQuantity());
+        }
+    }
+
+    @Test
+    public void testSummaryIsRepricedOnlyAfterChanges() {
+        Product product = new Product();
+        product.setProductName("Summary Shirt");
+        product.setRetailPrice(250.0);
+        product.setB2bPrice(200.0);
+        product.setCgstPercentage(new BigDecimal("2.5"));
+        product.setSgstPercentage(new BigDecimal("2.5"));
+        product.setIgstPercentage(new BigDecimal("5"));
+        product = productRepository.save(product);
+        User user = user(9103L);
+        cartService.changeQuantity(user, product.getId(), 2);
+
+        CartSummary first = cartSummaryService.getPricedSummary(user.getId(), "Retail", "Delhi");
+        assertEquals(2, first.getItemCount());
+        assertEquals(0, new BigDecimal("500.00").compareTo(first.getSubtotal().toBigDecimal()));
+        assertSame(first, cartSummaryService.getPricedSummary(user.getId(), "Retail", "Delhi"));
+
+        // B2B pricing is a different context
+        CartSummary b2b = cartSummaryService.getPricedSummary(user.getId(), "B2B", "Delhi");
+        assertEquals(0, new BigDecimal("400.00").compareTo(b2b.getSubtotal().toBigDecimal()));
+
+        // A cart write and a price change each force a new summary
+        cartService.changeQuantity(user, product.getId(), 1);
+        CartSummary afterAdd = cartSummaryService.getPricedSummary(user.getId(), "Retail", "Delhi");
+        assertEquals(0, new BigDecimal("750.00").compareTo(afterAdd.getSubtotal().toBigDecimal()));
+
+        product.setRetailPrice(300.0);
+        productRepository.save(product);
+        CartSummary afterPrice = cartSummaryService.getPricedSummary(user.getId(), "Retail", "Delhi");
+        assertNotSame(afterAdd, afterPrice);
+        assertEquals(0, new BigDecimal("900.00").compareTo(afterPrice.getSubtotal().toBigDecimal()));
+    }
+
+    @Test
+    public void testEvictionsOnlyDropTheAffectedCarts() {
+        Product shirt = product("Evict Shirt", 100.0);
+        Product scarf = product("Evict Scarf", 50.0);
+        User shirtBuyer = user(9104L);
+        User scarfBuyer = user(9105L);
+        cartService.changeQuantity(shirtBuyer, shirt.getId(), 1);
+        cartService.changeQuantity(scarfBuyer, scarf.getId(), 1);
+
+        CartSummary shirtCart = cartSummaryService.getPricedSummary(shirtBuyer.getId(), "Retail", "Delhi");
+        CartSummary scarfCart = cartSummaryService.getPricedSummary(scarfBuyer.getId(), "Retail", "Delhi");
+
+        // A shirt price change reprices the shirt cart only
+        shirt.setRetailPrice(120.0);
+        productRepository.save(shirt);
+        assertSame(scarfCart, cartSummaryService.getPricedSummary(scarfBuyer.getId(), "Retail", "Delhi"));
+        CartSummary repriced = cartSummaryService.getPricedSummary(shirtBuyer.getId(), "Retail", "Delhi");
+        assertNotSame(shirtCart, repriced);
+        assertEquals(0, new BigDecimal("120.00").compareTo(repriced.getSubtotal().toBigDecimal()));
+
+        // Evicting one user leaves the other's summary cached, and the next load is cached again
+        cartSummaryService.evict(shirtBuyer.getId());
+        assertSame(scarfCart, cartSummaryService.getPricedSummary(scarfBuyer.getId(), "Retail", "Delhi"));
+        CartSummary reloaded = cartSummaryService.getPricedSummary(shirtBuyer.getId(), "Retail", "Delhi");
+        assertSame(reloaded, cartSummaryService.getPricedSummary(shirtBuyer.getId(), "Retail", "Delhi"));
+    }
+
+    private Product product(String name, double retailPrice) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setRetailPrice(retailPrice);
+        product.setB2bPrice(retailPrice);
+        product.setCgstPercentage(new BigDecimal("2.5"));
+        product.setSgstPercentage(new BigDecimal("2.5"));
+        product.setIgstPercentage(new BigDecimal("5"));
+        return productRepository.save(product);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Cart User " + id);
+        user.setPhone("90000" + id);
+        return user;
+    }
+}
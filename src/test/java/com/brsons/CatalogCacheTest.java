@@ -0,0 +1,70 @@
+package com.brsons;
+
+import com.brsons.model.Category;
+import com.brsons.model.Product;
+import com.brsons.repository.CategoryRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.CatalogCacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogCacheTest {
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void testEvictingAProductDropsOnlyTheListingsItIsIn() {
+        Category shirts = saveCategory("Shirts");
+        Category sarees = saveCategory("Sarees");
+        Product shirt = saveProduct("Indexed Shirt", shirts);
+        saveProduct("Indexed Saree", sarees);
+
+        assertEquals(1, catalogCacheService.getProductsByCategory(shirts.getId()).size());
+        assertEquals(1, catalogCacheService.getProductsByCategory(sarees.getId()).size());
+        long loads = listingLoads();
+
+        catalogCacheService.evictProduct(shirt.getId());
+
+        // The other listing is still served from the cache
+        catalogCacheService.getProductsByCategory(sarees.getId());
+        assertEquals(loads, listingLoads());
+        catalogCacheService.getProductsByCategory(shirts.getId());
+        assertEquals(loads + 1, listingLoads());
+    }
+
+    private Category saveCategory(String name) {
+        Category category = new Category();
+        category.setCategoryName(name + " " + System.nanoTime());
+        category.setStatus("Active");
+        return categoryRepository.save(category);
+    }
+
+    private Product saveProduct(String name, Category category) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setStatus("Active");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long listingLoads() {
+        Map<String, Object> listings = (Map<String, Object>) catalogCacheService.getStats().get("categoryListings");
+        return (Long) listings.get("loads");
+    }
+}
@@ -0,0 +1,79 @@
+package com.brsons;
+
+import com.brsons.service.ImageStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class FileServingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    @Test
+    void uploadsAreImmutableConditionalAndRangeable() throws Exception {
+        byte[] content = new byte[1000];
+        Arrays.fill(content, (byte) 7);
+        // Not a decodable image, so every variant URL is answered with the original
+        String url = imageStorageService.store(new MockMultipartFile("imageFile", "scan.webp", "image/webp", content), null);
+        String original = url.replace("detail.jpg", "original.webp");
+
+        MockHttpServletResponse full = mockMvc.perform(get(original)).andReturn().getResponse();
+        assertEquals(200, full.getStatus());
+        assertEquals(1000, full.getContentAsByteArray().length);
+        assertTrue(full.getHeader("Cache-Control").contains("immutable"));
+        String etag = full.getHeader("ETag");
+        assertNotNull(etag);
+
+        MockHttpServletResponse fallback = mockMvc.perform(get(url)).andReturn().getResponse();
+        assertEquals(200, fallback.getStatus());
+        assertEquals("public, no-cache", fallback.getHeader("Cache-Control"));
+
+        MockHttpServletResponse notModified = mockMvc.perform(get(original).header("If-None-Match", etag)).andReturn().getResponse();
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        MockHttpServletResponse range = mockMvc.perform(get(original).header("Range", "bytes=100-199")).andReturn().getResponse();
+        assertEquals(206, range.getStatus());
+        assertEquals("bytes 100-199/1000", range.getHeader("Content-Range"));
+        assertEquals(100, range.getContentAsByteArray().length);
+
+        MockHttpServletResponse staleRange = mockMvc.perform(get(original).header("Range", "bytes=100-199")
+                .header("If-Range", "\"stale\"")).andReturn().getResponse();
+        assertEquals(200, staleRange.getStatus());
+
+        assertEquals(416, mockMvc.perform(get(original).header("Range", "bytes=5000-")).andReturn().getResponse().getStatus());
+        assertEquals(404, mockMvc.perform(get("/uploads/../application.properties")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void stylesheetIsServedUnderItsContentHash() throws Exception {
+        String hashed = resourceUrlProvider.getForLookupPath("/css/style.css");
+        assertNotNull(hashed);
+        assertNotEquals("/css/style.css", hashed);
+
+        MockHttpServletResponse css = mockMvc.perform(get(hashed)).andReturn().getResponse();
+        assertEquals(200, css.getStatus());
+        assertTrue(css.getHeader("Cache-Control").contains("immutable"));
+    }
+}
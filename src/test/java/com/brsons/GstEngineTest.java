@@ -0,0 +1,226 @@
+package com.brsons;
+
+import com.brsons.dto.GstSlab;
+import com.brsons.model.CartItemDetails;
+import com.brsons.model.Order;
+import com.brsons.model.OrderItem;
+import com.brsons.model.Product;
+import com.brsons.model.TaxBreakdown;
+import com.brsons.model.TaxPlan;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.GstEngine;
+import com.brsons.util.GstRounding;
+import com.brsons.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GstEngineTest {
+
+    private static final String[] SLAB_RATES = {"0", "5", "12", "18", "28"};
+
+    @Test
+    public void testEverySlabIntraAndInterState() {
+        GstEngine engine = new GstEngine();
+        for (String slab : SLAB_RATES) {
+            BigDecimal rate = new BigDecimal(slab);
+            Product product = product(1L, rate);
+            List<CartItemDetails> cart = List.of(new CartItemDetails(1L, product, 3, Money.parse("333.33")));
+            Money expectedHalf = Money.parse("333.33").percentOf(rate.divide(BigDecimal.valueOf(2)));
+            Money expectedFull = Money.parse("333.33").percentOf(rate);
+
+            TaxBreakdown intra = engine.calculateCart(cart, true);
+            assertEquals(expectedHalf, intra.getCgst(), "CGST @" + slab);
+            assertEquals(expectedHalf, intra.getSgst(), "SGST @" + slab);
+            assertEquals(Money.ZERO, intra.getIgst(), "IGST intra @" + slab);
+
+            TaxBreakdown inter = engine.calculateCart(cart, false);
+            assertEquals(expectedFull, inter.getIgst(), "IGST @" + slab);
+            assertEquals(Money.ZERO, inter.getCgst().plus(inter.getSgst()), "CGST+SGST inter @" + slab);
+        }
+    }
+
+    @Test
+    public void testMixedRateCartIsTaxedPerLine() {
+        GstEngine engine = new GstEngine();
+        List<CartItemDetails> cart = List.of(
+                new CartItemDetails(1L, product(1L, new BigDecimal("5")), 1, Money.parse("1000.00")),
+                new CartItemDetails(2L, product(2L, new BigDecimal("18")), 2, Money.parse("500.00")),
+                new CartItemDetails(3L, product(3L, new BigDecimal("5")), 1, Money.parse("200.00")));
+
+        TaxBreakdown breakdown = engine.calculateCart(cart, true);
+
+        // 5% of 1200 = 60, 18% of 500 = 90; the old first-product rule would have charged 5% of 1700 = 85
+        assertEquals(Money.parse("150.00"), breakdown.getTotalTax());
+        assertTrue(breakdown.isMixedRate());
+        assertNull(breakdown.getUniformRate());
+        List<GstSlab> slabs = breakdown.getSlabs();
+        assertEquals(2, slabs.size());
+        assertEquals(0, new BigDecimal("5").compareTo(slabs.get(0).getRate()));
+        assertEquals(0, new BigDecimal("1200.00").compareTo(slabs.get(0).getTaxableValue()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(slabs.get(0).getCgstAmount()));
+        assertEquals(0, new BigDecimal("18").compareTo(slabs.get(1).getRate()));
+        assertEquals(0, new BigDecimal("45.00").compareTo(slabs.get(1).getSgstAmount()));
+    }
+
+    @Test
+    public void testCartAndInvoiceAgree() {
+        List<Product> products = Arrays.asList(
+                product(1L, new BigDecimal("5")), product(2L, new BigDecimal("12")), product(3L, new BigDecimal("28")));
+        GstEngine engine = new GstEngine();
+        ReflectionTestUtils.setField(engine, "productRepository", repositoryOf(products));
+
+        List<CartItemDetails> cart = new ArrayList<>();
+        Order order = new Order();
+        order.setOrderItems(new ArrayList<>());
+        String[] lineTotals = {"199.99", "1049.50", "87.35"};
+        for (int i = 0; i < products.size(); i++) {
+            Money lineTotal = Money.parse(lineTotals[i]);
+            cart.add(new CartItemDetails(products.get(i).getId(), products.get(i), 1, lineTotal));
+            OrderItem item = new OrderItem();
+            item.setProductId(products.get(i).getId());
+            item.setQuantity(1);
+            item.setTotalPrice(lineTotal.toBigDecimal());
+            order.getOrderItems().add(item);
+        }
+        OrderItem custom = new OrderItem();
+        custom.setIsCustomProduct(true);
+        custom.setQuantity(1);
+        custom.setTotalPrice(new BigDecimal("100.00"));
+        order.getOrderItems().add(custom);
+        cart.add(new CartItemDetails(null, null, 1, Money.parse("100.00")));
+
+        for (boolean intraState : new boolean[] {true, false}) {
+            TaxBreakdown cartTax = engine.calculateCart(cart, intraState);
+            TaxBreakdown orderTax = engine.calculateOrder(order.getOrderItems(), intraState, TaxPlan.NONE);
+            assertEquals(cartTax.getTotalTax(), orderTax.getTotalTax());
+
+            // Slabs rebuilt from the recorded line tax match the engine's slabs
+            order.setTaxType(intraState ? "CGST_SGST" : "IGST");
+            List<GstSlab> recorded = engine.slabsForOrder(order);
+            List<GstSlab> computed = orderTax.getSlabs();
+            assertEquals(computed.size(), recorded.size());
+            for (int i = 0; i < computed.size(); i++) {
+                assertEquals(0, computed.get(i).getTotalTax().compareTo(recorded.get(i).getTotalTax()));
+                assertEquals(0, computed.get(i).getTaxableValue().compareTo(recorded.get(i).getTaxableValue()));
+            }
+        }
+    }
+
+    @Test
+    public void testCustomLinesKeepTheirRecordedRate() {
+        GstEngine engine = new GstEngine();
+        ReflectionTestUtils.setField(engine, "productRepository", repositoryOf(List.of()));
+        OrderItem custom = new OrderItem();
+        custom.setIsCustomProduct(true);
+        custom.setQuantity(1);
+        custom.setTotalPrice(new BigDecimal("1000.00"));
+        custom.setGstRate(new BigDecimal("5.00"));
+
+        // An edit re-taxes the order with the 18% fallback; the custom line stays at 5%
+        TaxBreakdown tax = engine.calculateOrder(new ArrayList<>(List.of(custom)), true,
+                TaxPlan.ofCombinedRate(new BigDecimal("18")));
+        assertEquals(Money.parse("50.00"), tax.getTotalTax());
+        assertEquals(0, new BigDecimal("5").compareTo(custom.getGstRate()));
+        assertEquals(0, new BigDecimal("25.00").compareTo(custom.getCgstAmount()));
+    }
+
+    @Test
+    public void testPerInvoiceLineTaxAddsUpToTheInvoice() {
+        List<Product> products = Arrays.asList(
+                product(1L, new BigDecimal("5")), product(2L, new BigDecimal("5")), product(3L, new BigDecimal("5")),
+                product(4L, new BigDecimal("18")));
+        String[] lineTotals = {"0.10", "0.10", "0.10", "10.05"};
+        for (GstRounding rounding : GstRounding.values()) {
+            GstEngine engine = new GstEngine();
+            ReflectionTestUtils.setField(engine, "productRepository", repositoryOf(products));
+            ReflectionTestUtils.setField(engine, "rounding", rounding);
+            List<OrderItem> items = new ArrayList<>();
+            for (int i = 0; i < products.size(); i++) {
+                OrderItem item = new OrderItem();
+                item.setProductId(products.get(i).getId());
+                item.setQuantity(1);
+                item.setTotalPrice(new BigDecimal(lineTotals[i]));
+                items.add(item);
+            }
+
+            for (boolean intraState : new boolean[] {true, false}) {
+                TaxBreakdown tax = engine.calculateOrder(items, intraState, TaxPlan.NONE);
+                BigDecimal cgst = BigDecimal.ZERO;
+                BigDecimal sgst = BigDecimal.ZERO;
+                BigDecimal igst = BigDecimal.ZERO;
+                for (OrderItem item : items) {
+                    cgst = cgst.add(item.getCgstAmount());
+                    sgst = sgst.add(item.getSgstAmount());
+                    igst = igst.add(item.getIgstAmount());
+                }
+                String label = rounding + (intraState ? " intra" : " inter");
+                assertEquals(0, tax.getCgst().toBigDecimal().compareTo(cgst), "CGST " + label);
+                assertEquals(0, tax.getSgst().toBigDecimal().compareTo(sgst), "SGST " + label);
+                assertEquals(0, tax.getIgst().toBigDecimal().compareTo(igst), "IGST " + label);
+            }
+        }
+        // Three 0.10 lines at 5%: 0.015 of IGST rounds to 0.02 on the invoice but 0.01 x 3 = 0.03 per line
+        GstEngine perInvoice = new GstEngine();
+        ReflectionTestUtils.setField(perInvoice, "productRepository", repositoryOf(products));
+        ReflectionTestUtils.setField(perInvoice, "rounding", GstRounding.PER_INVOICE);
+        List<OrderItem> small = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(products.get(i).getId());
+            item.setQuantity(1);
+            item.setTotalPrice(new BigDecimal("0.10"));
+            small.add(item);
+        }
+        assertEquals(Money.parse("0.02"), perInvoice.calculateOrder(small, false, TaxPlan.NONE).getIgst());
+    }
+
+    @Test
+    public void testPlanIsCachedUntilRatesChange() {
+        GstEngine engine = new GstEngine();
+        Product product = product(7L, new BigDecimal("12"));
+        TaxPlan first = engine.planFor(product);
+        assertSame(first, engine.planFor(product(7L, new BigDecimal("12.00"))));
+
+        product.setIgstPercentage(new BigDecimal("18"));
+        TaxPlan updated = engine.planFor(product);
+        assertNotSame(first, updated);
+        assertEquals(1800L, updated.getIgstBp());
+    }
+
+    private static Product product(Long id, BigDecimal rate) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("Product " + id);
+        BigDecimal half = rate.divide(BigDecimal.valueOf(2));
+        product.setCgstPercentage(half);
+        product.setSgstPercentage(half);
+        product.setIgstPercentage(rate);
+        return product;
+    }
+
+    private static ProductRepository repositoryOf(List<Product> products) {
+        Map<Long, Product> byId = products.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(),
+                new Class<?>[] {ProductRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAllById")) {
+                        List<Product> found = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            found.add(byId.get(id));
+                        }
+                        return found;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,58 @@
+package com.brsons;
+
+import com.brsons.service.ImageStorageService;
+import com.brsons.util.ImageVariants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ImageStorageTest {
+
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Test
+    void uploadGetsResizedJpegVariants() throws Exception {
+        BufferedImage photo = new BufferedImage(2400, 1600, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(photo, "png", png);
+
+        String url = imageStorageService.store(
+                new MockMultipartFile("imageFile1", "Screenshot (2).png", "image/png", png.toByteArray()), null);
+        assertTrue(ImageVariants.isVariantUrl(url));
+        assertEquals(url.replace("detail.jpg", "card.jpg"), ImageVariants.url(url, ImageVariants.CARD));
+
+        Path dir = imageStorageService.getUploadRoot().resolve(url.substring("/uploads/".length())).getParent();
+        assertTrue(Files.exists(dir.resolve("original.png")));
+        Path detail = dir.resolve("detail.jpg");
+        for (int i = 0; i < 100 && !Files.exists(detail); i++) {
+            Thread.sleep(50);
+        }
+
+        BufferedImage thumb = ImageIO.read(dir.resolve("thumb.jpg").toFile());
+        BufferedImage card = ImageIO.read(dir.resolve("card.jpg").toFile());
+        BufferedImage large = ImageIO.read(detail.toFile());
+        assertEquals(160, thumb.getWidth());
+        assertEquals(480, card.getWidth());
+        assertEquals(1200, large.getWidth());
+        assertEquals(800, large.getHeight());
+    }
+
+    @Test
+    void legacyUrlsAreLeftAlone() {
+        assertEquals("/uploads/abc_shop.webp", ImageVariants.url("/uploads/abc_shop.webp", ImageVariants.THUMB));
+        assertNull(ImageVariants.srcset("/uploads/abc_shop.webp"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.brsons;
+
+import com.brsons.dto.CustomerLedgerRow;
+import com.brsons.model.CustomerLedger;
+import com.brsons.model.SupplierLedger;
+import com.brsons.repository.CustomerLedgerEntryRepository;
+import com.brsons.repository.CustomerLedgerRepository;
+import com.brsons.repository.SupplierLedgerRepository;
+import com.brsons.service.CustomerLedgerService;
+import com.brsons.service.SupplierLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class LedgerPostingConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int POSTINGS = 2000;
+
+    @Autowired
+    private CustomerLedgerService customerLedgerService;
+
+    @Autowired
+    private SupplierLedgerService supplierLedgerService;
+
+    @Autowired
+    private CustomerLedgerRepository customerLedgerRepository;
+
+    @Autowired
+    private SupplierLedgerRepository supplierLedgerRepository;
+
+    @Autowired
+    private CustomerLedgerEntryRepository customerLedgerEntryRepository;
+
+    @Test
+    public void testConcurrentCustomerPostingsAreNotLost() throws Exception {
+        CustomerLedger ledger = customerLedgerService.findOrCreateCustomerLedger("Concurrent Customer", "9000000001", null);
+        Long ledgerId = ledger.getId();
+
+        // Half invoices-style debits of 10.00, half payments of 4.00, each cashier holding its own stale copy
+        runConcurrently(POSTINGS, i -> {
+            CustomerLedger staleCopy = customerLedgerRepository.findById(ledgerId).orElseThrow();
+            if (i % 2 == 0) {
+                customerLedgerService.addAdjustmentEntry(staleCopy, new BigDecimal("10.00"), true, "Load test", null);
+            } else {
+                customerLedgerService.addPaymentEntry(staleCopy, new BigDecimal("4.00"), "Cash", "LOAD-" + i, null, false);
+            }
+        });
+
+        CustomerLedger result = customerLedgerRepository.findById(ledgerId).orElseThrow();
+        assertEquals(0, new BigDecimal("10000.00").compareTo(result.getTotalDebits()));
+        assertEquals(0, new BigDecimal("4000.00").compareTo(result.getTotalCredits()));
+        assertEquals(0, new BigDecimal("6000.00").compareTo(result.getCurrentBalance()));
+        assertEquals(POSTINGS, customerLedgerEntryRepository.findByCustomerLedgerIdOrderByEntryDateDesc(ledgerId).size());
+    }
+
+    @Test
+    public void testConcurrentSupplierPostingsAreNotLost() throws Exception {
+        SupplierLedger ledger = supplierLedgerService.findOrCreateSupplierLedger("Concurrent Supplier", "9000000002", null, "SUP-LOAD");
+        Long ledgerId = ledger.getId();
+
+        runConcurrently(POSTINGS, i -> {
+            SupplierLedger staleCopy = supplierLedgerRepository.findById(ledgerId).orElseThrow();
+            supplierLedgerService.addCreditNoteEntry(staleCopy, null, "CN-LOAD-" + i, new BigDecimal("2.50"), null);
+        });
+
+        SupplierLedger result = supplierLedgerRepository.findById(ledgerId).orElseThrow();
+        assertEquals(0, new BigDecimal("5000.00").compareTo(result.getTotalCredits()));
+        assertEquals(0, new BigDecimal("-5000.00").compareTo(result.getCurrentBalance()));
+    }
+
+    @Test
+    public void testSavingStaleLedgerDoesNotOverwriteBalance() {
+        CustomerLedger ledger = customerLedgerService.findOrCreateCustomerLedger("Stale Customer", "9000000003", null);
+        CustomerLedger staleCopy = customerLedgerRepository.findById(ledger.getId()).orElseThrow();
+
+        customerLedgerService.addAdjustmentEntry(ledger, new BigDecimal("250.00"), true, "Opening", null);
+
+        // Editing contact details from an old copy must leave the running balance alone
+        staleCopy.setCustomerEmail("stale@example.com");
+        customerLedgerRepository.save(staleCopy);
+
+        CustomerLedger result = customerLedgerRepository.findById(ledger.getId()).orElseThrow();
+        assertEquals("stale@example.com", result.getCustomerEmail());
+        assertEquals(0, new BigDecimal("250.00").compareTo(result.getCurrentBalance()));
+    }
+
+    @Test
+    public void testPostingRefreshesCachedDashboard() {
+        CustomerLedger ledger = customerLedgerService.findOrCreateCustomerLedger("Dashboard Customer", "9000000004", null);
+        BigDecimal before = (BigDecimal) customerLedgerService.getCustomerLedgerDashboard().get("totalOutstanding");
+
+        customerLedgerService.addAdjustmentEntry(ledger, new BigDecimal("75.00"), true, "Opening", null);
+
+        // Within the cache lifetime, but the posting has dropped the cached figures
+        Map<String, Object> dashboard = customerLedgerService.getCustomerLedgerDashboard();
+        assertEquals(0, before.add(new BigDecimal("75.00")).compareTo((BigDecimal) dashboard.get("totalOutstanding")));
+        List<?> rows = (List<?>) dashboard.get("activeLedgers");
+        assertTrue(rows.size() <= 50);
+        assertTrue(rows.stream().allMatch(row -> row instanceof CustomerLedgerRow));
+    }
+
+    @Test
+    public void testCachedDashboardsAreNotShared() {
+        SupplierLedgerService.SupplierLedgerDashboard first = supplierLedgerService.getSupplierLedgerDashboard();
+        BigDecimal outstanding = first.getTotalOutstanding();
+        first.setTotalOutstanding(new BigDecimal("-1"));
+        assertEquals(0, outstanding.compareTo(supplierLedgerService.getSupplierLedgerDashboard().getTotalOutstanding()));
+
+        Map<String, Object> dashboard = customerLedgerService.getCustomerLedgerDashboard();
+        dashboard.put("totalOutstanding", new BigDecimal("-1"));
+        assertNotEquals(new BigDecimal("-1"), customerLedgerService.getCustomerLedgerDashboard().get("totalOutstanding"));
+        List<?> rows = (List<?>) dashboard.get("activeLedgers");
+        assertThrows(UnsupportedOperationException.class, () -> rows.clear());
+    }
+
+    private void runConcurrently(int postings, Posting posting) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < postings; i++) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    posting.post(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Posting {
+        void post(int index) throws Exception;
+    }
+}
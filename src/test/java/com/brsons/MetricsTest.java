@@ -0,0 +1,90 @@
+package com.brsons;
+
+import com.brsons.model.User;
+import com.brsons.service.TrialBalanceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "metrics.scrape-token=scrape-secret")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class MetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TrialBalanceService trialBalanceService;
+
+    @Test
+    void timersGetBucketsAndPercentiles() {
+        Timer timer = meterRegistry.timer("work", "kind", "test-" + System.nanoTime());
+        for (int i = 1; i <= 100; i++) {
+            timer.record(i, TimeUnit.MILLISECONDS);
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        assertEquals(100, snapshot.count());
+        // 1..100 ms: half the timings are within the 50 ms bucket, all within 100 ms
+        assertEquals(13, snapshot.histogramCounts().length);
+        assertEquals(50, snapshot.histogramCounts()[3].count());
+        assertEquals(100, snapshot.histogramCounts()[4].count());
+        assertEquals(3, snapshot.percentileValues().length);
+        double p50 = snapshot.percentileValues()[0].value(TimeUnit.MILLISECONDS);
+        assertTrue(p50 > 45 && p50 < 55, "p50 " + p50);
+        assertThrows(IllegalArgumentException.class, () -> meterRegistry.counter("work", timer.getId().getTags()));
+    }
+
+    @Test
+    void servicesRequestsAndPoolsAppearInTheScrape() throws Exception {
+        trialBalanceService.getTrialBalance(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+        Timer report = meterRegistry.find("report").tags("report", "trial_balance", "exception", "none").timer();
+        assertNotNull(report);
+        long before = report.count();
+        trialBalanceService.getTrialBalance(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+        assertEquals(before + 1, report.count());
+
+        User admin = new User();
+        admin.setType("Admin");
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", admin);
+
+        String summary = mockMvc.perform(get("/admin/metrics").session(session)).andReturn().getResponse().getContentAsString();
+        assertTrue(summary.contains("exception=\"none\",method=\"getTrialBalance\",report=\"trial_balance\"}  count="), summary);
+        assertTrue(summary.contains(" p95="), summary);
+
+        String scrape = mockMvc.perform(get("/admin/metrics/prometheus").header("Authorization", "Bearer scrape-secret"))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("# TYPE http_server_requests_seconds histogram"), scrape);
+        assertTrue(scrape.contains("http_server_requests_seconds_count{method=\"GET\",status=\"200\",uri=\"/admin/metrics\"} 1"), scrape);
+        assertTrue(scrape.contains("hibernate_queries_per_request_count{uri=\"/admin/metrics\"}"), scrape);
+        assertTrue(scrape.contains("report=\"trial_balance\",le=\"+Inf\"}"), scrape);
+        assertTrue(scrape.contains("# TYPE report_seconds_max gauge"), scrape);
+        assertTrue(scrape.contains("hikari_connections_max{pool="), scrape);
+        assertTrue(scrape.contains("hibernate_statements_total "), scrape);
+
+        // Neither the loopback address nor a wrong token is enough on its own
+        assertEquals(401, mockMvc.perform(get("/admin/metrics").with(request -> {
+            request.setRemoteAddr("127.0.0.1");
+            return request;
+        })).andReturn().getResponse().getStatus());
+        assertEquals(401, mockMvc.perform(get("/admin/metrics/prometheus").header("Authorization", "Bearer wrong"))
+                .andReturn().getResponse().getStatus());
+    }
+}
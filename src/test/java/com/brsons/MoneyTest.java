@@ -0,0 +1,50 @@
+package com.brsons;
+
+import com.brsons.model.TaxBreakdown;
+import com.brsons.model.TaxPlan;
+import com.brsons.util.GstRounding;
+import com.brsons.util.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    public void testArithmeticIsExactInPaise() {
+        // 0.1 + 0.2 drifts in double; in paise it is exact
+        assertEquals(Money.parse("0.30"), Money.of(0.1).plus(Money.of(0.2)));
+        assertEquals(new BigDecimal("1499.85"), Money.of(99.99).times(15).toBigDecimal());
+        assertEquals(Money.ZERO, Money.of((Double) null));
+        assertEquals("-12.50", Money.ofPaise(-1250).toString());
+    }
+
+    @Test
+    public void testGstRoundsHalfUpToPaise() {
+        // 2.5% of 0.50 = 0.0125 -> 0.01, 9% of 1.50 = 0.135 -> 0.14
+        assertEquals(Money.ofPaise(1), Money.parse("0.50").percentOf(new BigDecimal("2.5")));
+        assertEquals(Money.ofPaise(14), Money.parse("1.50").percentOf(new BigDecimal("9")));
+        assertEquals(Money.ofPaise(-14), Money.parse("-1.50").percentOf(new BigDecimal("9")));
+        assertEquals(Money.ofRupees(100), Money.parse("99.50").roundToRupee());
+        assertEquals(Money.ofRupees(99), Money.parse("99.49").roundToRupee());
+    }
+
+    @Test
+    public void testPerLineAndPerInvoiceRounding() {
+        TaxPlan plan = TaxPlan.of(new BigDecimal("9"), new BigDecimal("9"), new BigDecimal("18"));
+        TaxBreakdown perLine = new TaxBreakdown(GstRounding.PER_LINE);
+        TaxBreakdown perInvoice = new TaxBreakdown(GstRounding.PER_INVOICE);
+        for (int i = 0; i < 3; i++) {
+            // 9% of 1.50 = 0.135 per line
+            perLine.addLine(plan, true, Money.parse("1.50"));
+            perInvoice.addLine(plan, true, Money.parse("1.50"));
+        }
+
+        assertEquals(Money.ofPaise(42), perLine.getCgst());
+        assertEquals(Money.ofPaise(41), perInvoice.getCgst());
+        assertEquals(0.84, perLine.getTotalTaxAmount(), 0.0);
+        assertEquals("CGST_SGST", perLine.getTaxType());
+    }
+}
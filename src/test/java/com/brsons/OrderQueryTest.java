@@ -0,0 +1,81 @@
+package com.brsons;
+
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.OrderDisplayDto;
+import com.brsons.model.Order;
+import com.brsons.repository.OrderRepository;
+import com.brsons.service.OrderQueryService;
+import com.brsons.service.OrderStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class OrderQueryTest {
+
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    public void testKeysetPagesWalkNewestFirstAcrossTies() {
+        String phone = "9" + System.nanoTime() % 1_000_000_000L;
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 10, 0);
+        List<Long> expected = new ArrayList<>();
+        // Three orders per timestamp, so pages have to break ties on id
+        for (int i = 0; i < 7; i++) {
+            Order order = new Order();
+            order.setUserPhone(phone);
+            order.setName("Paging Customer");
+            order.setBillType("Pakka");
+            order.setOrderStatus(i % 2 == 0 ? "Pending" : "Delivered");
+            order.setTotal(new BigDecimal("100.00"));
+            order = orderRepository.save(order);
+            order.setCreatedAt(base.plusMinutes(i / 3));
+            orderRepository.save(order);
+            expected.add(order.getId());
+        }
+        // Newest first: later minute first, higher id first within a minute
+        Collections.reverse(expected);
+
+        List<Long> seen = new ArrayList<>();
+        Long after = null;
+        int pages = 0;
+        do {
+            // Later pages reuse the first page's count, as the "older orders" link passes it back
+            Long knownTotal = after == null ? null : 7L;
+            KeysetPage<OrderDisplayDto> page = orderQueryService.findByUserPhone(phone, after, 3, knownTotal);
+            assertEquals(7, page.getTotalCount());
+            page.getItems().forEach(order -> seen.add(order.getId()));
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        assertEquals(3, pages);
+        assertEquals(expected, seen);
+
+        KeysetPage<OrderDisplayDto> pending = orderQueryService.findByBillType("Pakka", "Pending", null, 200);
+        assertTrue(pending.getItems().stream().allMatch(order -> "Pending".equals(order.getOrderStatus())));
+        assertEquals(4, pending.getItems().stream().filter(order -> phone.equals(order.getUserPhone())).count());
+        // Bill-type totals come from the status counters and agree with the orders table
+        assertEquals(orderStatsService.countFromOrders("Pakka").get("Pending").getCount(), pending.getTotalCount());
+
+        // A later page opened without the first page's total is counted again
+        assertEquals(7, orderQueryService.findByUserPhone(phone, expected.get(2), 3, null).getTotalCount());
+    }
+}
@@ -0,0 +1,120 @@
+package com.brsons;
+
+import com.brsons.model.Order;
+import com.brsons.repository.OrderRepository;
+import com.brsons.service.AdminOrderService;
+import com.brsons.service.OrderStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class OrderStatsTest {
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private AdminOrderService adminOrderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testCountersFollowOrderWritesAndMatchGroupBy() {
+        String packed = "Packed-" + System.nanoTime();
+        String shipped = "Shipped-" + System.nanoTime();
+        long pendingBefore = adminOrderService.getOrderStatistics().getPendingOrders();
+
+        Order order = new Order();
+        order.setName("Stats Customer");
+        order.setBillType("Pakka");
+        order.setOrderStatus(packed);
+        order.setTotal(new BigDecimal("100.00"));
+        order = orderRepository.save(order);
+        assertCounted(packed, 1, "100.00");
+
+        Order loaded = orderRepository.findById(order.getId()).orElseThrow();
+        loaded.setOrderStatus(shipped);
+        loaded.setTotal(new BigDecimal("250.50"));
+        orderRepository.save(loaded);
+        assertCounted(packed, 0, "0");
+        assertCounted(shipped, 1, "250.50");
+
+        Order pending = orderRepository.findById(order.getId()).orElseThrow();
+        pending.setOrderStatus("Pending");
+        orderRepository.save(pending);
+        assertEquals(pendingBefore + 1, adminOrderService.getOrderStatistics().getPendingOrders());
+
+        orderRepository.deleteById(order.getId());
+        assertEquals(pendingBefore, adminOrderService.getOrderStatistics().getPendingOrders());
+
+        // Counters agree with a straight GROUP BY, and again after a rebuild
+        assertEquals(snapshot(orderStatsService.countFromOrders("Pakka")), snapshot(orderStatsService.getStatusTotals("Pakka")));
+        orderStatsService.rebuildCounters();
+        assertEquals(snapshot(orderStatsService.countFromOrders("Pakka")), snapshot(orderStatsService.getStatusTotals("Pakka")));
+    }
+
+    @Test
+    public void testCountersMoveOnlyWhenTheOrderCommits() {
+        String packed = "Packed-" + System.nanoTime();
+        String shipped = "Shipped-" + System.nanoTime();
+        Order order = new Order();
+        order.setName("Stats Customer");
+        order.setBillType("Pakka");
+        order.setOrderStatus(packed);
+        order.setTotal(new BigDecimal("40.00"));
+        Long id = orderRepository.save(order).getId();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // Rolled back: the counters never see the move
+        tx.executeWithoutResult(status -> {
+            Order loaded = orderRepository.findById(id).orElseThrow();
+            loaded.setOrderStatus(shipped);
+            orderRepository.saveAndFlush(loaded);
+            assertCounted(packed, 1, "40.00");
+            status.setRollbackOnly();
+        });
+        assertCounted(packed, 1, "40.00");
+        assertCounted(shipped, 0, "0");
+
+        // Committed: moved once, after the commit
+        tx.executeWithoutResult(status -> {
+            Order loaded = orderRepository.findById(id).orElseThrow();
+            loaded.setOrderStatus(shipped);
+            orderRepository.saveAndFlush(loaded);
+            assertCounted(shipped, 0, "0");
+        });
+        assertCounted(packed, 0, "0");
+        assertCounted(shipped, 1, "40.00");
+    }
+
+    private void assertCounted(String status, long count, String total) {
+        OrderStatsService.StatusTotals counted = orderStatsService.getStatusTotals("Pakka").get(status);
+        if (count == 0) {
+            assertNull(counted);
+            return;
+        }
+        assertNotNull(counted);
+        assertEquals(count, counted.getCount());
+        assertEquals(0, new BigDecimal(total).compareTo(counted.getTotal()));
+    }
+
+    private Map<String, String> snapshot(Map<String, OrderStatsService.StatusTotals> totals) {
+        Map<String, String> flat = new java.util.TreeMap<>();
+        totals.forEach((status, t) -> flat.put(status, t.getCount() + "/" + t.getTotal().stripTrailingZeros().toPlainString()));
+        return flat;
+    }
+}
@@ -0,0 +1,74 @@
+package com.brsons;
+
+import com.brsons.dto.ProductDropdownDto;
+import com.brsons.dto.StockChange;
+import com.brsons.model.Product;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.PickerIndexService;
+import com.brsons.service.StockLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PickerIndexTest {
+
+    @Autowired
+    private PickerIndexService pickerIndexService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void testProductWritesUpdateTheirOwnEntry() {
+        String word = "pickr" + System.nanoTime();
+        Product product = new Product();
+        product.setProductName(word + " Kurta");
+        product.setSku("PK-" + System.nanoTime());
+        product.setStockQuantity(0);
+        product.setStatus("Active");
+        productRepository.save(product);
+
+        // Build the index first so the writes below are applied in place
+        pickerIndexService.searchProducts("", 1, false);
+        stockLedgerService.openingStock(product, 5);
+        ProductDropdownDto entry = only(pickerIndexService.searchProducts(word, 10, false));
+        assertEquals(product.getId(), entry.getId());
+        assertNull(entry.getStockQuantity());
+
+        // Sales do not touch the index at all
+        stockLedgerService.post(StockChange.out(product.getId(), 2, "Sale"));
+        assertSame(entry, only(pickerIndexService.searchProducts(word, 10, false)));
+
+        product = productRepository.findById(product.getId()).orElseThrow();
+        product.setProductName(word + " Saree");
+        product.setStatus("Inactive");
+        productRepository.save(product);
+        assertEquals(word + " Saree", only(pickerIndexService.searchProducts(word + " sar", 10, false)).getProductName());
+        assertTrue(pickerIndexService.searchProducts(word + " kur", 10, false).isEmpty());
+        assertTrue(pickerIndexService.searchProducts(word, 10, true).isEmpty());
+
+        Product draft = new Product();
+        draft.setProductName(word + " Draft");
+        draft.setStockQuantity(0);
+        draft.setStatus("Draft");
+        productRepository.save(draft);
+        assertEquals(draft.getId(), only(pickerIndexService.searchProducts(word + " dra", 10, false)).getId());
+        productRepository.delete(draft);
+        assertTrue(pickerIndexService.searchProducts(word + " dra", 10, false).isEmpty());
+    }
+
+    private static ProductDropdownDto only(List<ProductDropdownDto> products) {
+        assertEquals(1, products.size());
+        return products.get(0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.brsons;
+
+import com.brsons.dto.ProductDropdownDto;
+import com.brsons.util.PrefixIndex;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixIndexTest {
+
+    private final PrefixIndex<ProductDropdownDto> index = PrefixIndex.build(Arrays.asList(
+            product(1L, "Silk Saree", "BRS-104", "Active"),
+            product(2L, "Cotton Shirt", "BRS-210", "Active"),
+            product(3L, "Cotton Kurta", "KUR-001", "Inactive"),
+            product(4L, "Denim Shirt", null, "Active")),
+        ProductDropdownDto::getId,
+        ProductDropdownDto::getProductName,
+        p -> Arrays.asList(p.getProductName(), p.getSku()));
+
+    @Test
+    public void testWordPrefixesMatchInNameOrder() {
+        assertEquals(List.of("Cotton Kurta", "Cotton Shirt"), names(index.search("cot", 10, null)));
+        assertEquals(List.of("Cotton Shirt", "Denim Shirt"), names(index.search("SHI", 10, null)));
+        assertEquals(List.of("Cotton Shirt"), names(index.search("shirt cot", 10, null)));
+        assertTrue(index.search("linen", 10, null).isEmpty());
+    }
+
+    @Test
+    public void testSkuPrefixFilterAndLimit() {
+        assertEquals(List.of("Silk Saree"), names(index.search("brs-1", 10, null)));
+        assertEquals(List.of("Cotton Shirt", "Silk Saree"), names(index.search("brs", 10, null)));
+        assertEquals(List.of("Cotton Shirt"), names(index.search("cotton", 10, p -> "Active".equals(p.getStatus()))));
+        assertEquals(1, index.search("", 1, null).size());
+        assertEquals(4, index.all().size());
+    }
+
+    @Test
+    public void testEntriesAreReplacedInPlace() {
+        index.put(product(2L, "Linen Shirt", "BRS-210", "Active"));
+        assertEquals(List.of("Cotton Kurta"), names(index.search("cot", 10, null)));
+        assertEquals(List.of("Denim Shirt", "Linen Shirt"), names(index.search("shirt", 10, null)));
+        assertEquals(4, index.size());
+
+        index.put(product(5L, "Chiffon Dupatta", "DUP-9", "Active"));
+        index.remove(1L);
+        assertTrue(index.search("silk", 10, null).isEmpty());
+        assertEquals(List.of("Chiffon Dupatta", "Cotton Kurta", "Denim Shirt", "Linen Shirt"), names(index.all()));
+    }
+
+    private static ProductDropdownDto product(Long id, String name, String sku, String status) {
+        return new ProductDropdownDto(id, name, 100.0, sku, BigDecimal.TEN, status);
+    }
+
+    private static List<String> names(List<ProductDropdownDto> products) {
+        return products.stream().map(ProductDropdownDto::getProductName).collect(Collectors.toList());
+    }
+}
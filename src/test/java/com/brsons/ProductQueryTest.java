@@ -0,0 +1,72 @@
+package com.brsons;
+
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.ProductFilter;
+import com.brsons.model.Product;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.ProductQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProductQueryTest {
+
+    @Autowired
+    private ProductQueryService productQueryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void testStatusFilterMatchesStoredSpelling() {
+        String name = "Status Probe " + System.nanoTime();
+        save(name + " A", "Active");
+        save(name + " B", "Out of Stock");
+
+        // Filters arrive in any case and are compared with the stored value
+        ProductFilter filter = new ProductFilter();
+        filter.setSearchQuery(name);
+        filter.setProductStatus("out of stock");
+        KeysetPage<Product> page = productQueryService.findPage(filter, null, 10);
+        assertEquals(1, page.getTotalCount());
+        assertEquals(name + " B", page.getItems().get(0).getProductName());
+
+        filter.setProductStatus("ACTIVE");
+        assertEquals(1, productQueryService.countProducts(filter));
+    }
+
+    @Test
+    public void testStockFiltersUseConfiguredThreshold() {
+        String name = "Stock Probe " + System.nanoTime();
+        int threshold = productQueryService.getLowStockThreshold();
+        save(name + " Low", "Active", threshold);
+        save(name + " Plenty", "Active", threshold + 1);
+
+        ProductFilter filter = new ProductFilter();
+        filter.setSearchQuery(name);
+        filter.setStockFilter("low_stock");
+        assertEquals(name + " Low", productQueryService.findPage(filter, null, 10).getItems().get(0).getProductName());
+        filter.setStockFilter("in_stock");
+        assertEquals(name + " Plenty", productQueryService.findPage(filter, null, 10).getItems().get(0).getProductName());
+
+        filter.setStockFilter(null);
+        assertEquals(1, productQueryService.getInventoryStats(filter).get("lowStockProducts"));
+    }
+
+    private void save(String name, String status) {
+        save(name, status, 0);
+    }
+
+    private void save(String name, String status, int stock) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setStockQuantity(stock);
+        product.setStatus(status);
+        productRepository.save(product);
+    }
+}
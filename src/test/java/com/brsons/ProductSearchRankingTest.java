@@ -0,0 +1,123 @@
+package com.brsons;
+
+import com.brsons.dto.ProductSearchHit;
+import com.brsons.dto.ProductSearchResult;
+import com.brsons.model.Product;
+import com.brsons.model.ProductVariant;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductVariantRepository;
+import com.brsons.service.ProductSearchService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ranking and paging of the full-text search, which needs PostgreSQL with
+ * pg_trgm. Runs only when pointed at a scratch database (the schema is
+ * created and dropped):
+ * {@code mvn test -Dtest=ProductSearchRankingTest -Dtest.postgres.url=jdbc:postgresql://localhost:5432/scratch?user=postgres}
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "test.postgres.url", matches = "jdbc:postgresql:.*")
+public class ProductSearchRankingTest {
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("test.postgres.url"));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @BeforeAll
+    public void catalog() {
+        save("Cotton Shirt", "COT-1", "Soft cotton", "Active");
+        save("Shirt Hanger", "HNG-2", "Wooden hanger", "Active");
+        save("Plain Tee", "TEE-3", "Goes with any shirt", "Active");
+        save("Silk Shirt", "SLK-4", "Discontinued", "Inactive");
+        save("Festive Jacket", "BRS-104", "Brocade jacket", "Active");
+        Product kurta = save("Linen Kurta", "LIN-5", "Summer wear", "Active");
+        ProductVariant variant = new ProductVariant();
+        variant.setProduct(kurta);
+        variant.setSize("M");
+        variant.setColor("Maroon");
+        variant.setStatus("Active");
+        productVariantRepository.save(variant);
+        for (int i = 0; i < 30; i++) {
+            save("Filler Shirt " + i, "FIL-" + i, "Filler", "Active");
+        }
+    }
+
+    @Test
+    public void testNameMatchesRankAboveDescriptionMatches() {
+        ProductSearchResult result = productSearchService.search("shirt", "Active", null, 50);
+        assertTrue(result.isFullText());
+        List<String> names = names(result);
+        assertTrue(names.contains("Cotton Shirt"));
+        assertFalse(names.contains("Silk Shirt"));
+        assertEquals("Plain Tee", names.get(names.size() - 1));
+        for (int i = 1; i < result.getHits().size(); i++) {
+            assertTrue(result.getHits().get(i - 1).getScore() >= result.getHits().get(i).getScore());
+        }
+    }
+
+    @Test
+    public void testEachMatchBranch() {
+        // Trigram (typo), variant attribute and SKU prefix branches
+        assertTrue(names(productSearchService.search("jackt", null, null, 10)).contains("Festive Jacket"));
+        assertEquals(List.of("Linen Kurta"), names(productSearchService.search("maroon", null, null, 10)));
+        assertTrue(names(productSearchService.search("brs-10", null, null, 10)).contains("Festive Jacket"));
+    }
+
+    @Test
+    public void testCursorPagesMatchOneLargePage() {
+        List<Long> all = productSearchService.search("shirt", null, null, 50).getHits().stream()
+                .map(ProductSearchHit::getId).collect(Collectors.toList());
+
+        List<Long> paged = new ArrayList<>();
+        String after = null;
+        do {
+            ProductSearchResult page = productSearchService.search("shirt", null, after, 7);
+            page.getHits().forEach(hit -> paged.add(hit.getId()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertEquals(all, paged);
+    }
+
+    private Product save(String name, String sku, String description, String status) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setSku(sku);
+        product.setDescription(description);
+        product.setStockQuantity(5);
+        product.setStatus(status);
+        return productRepository.save(product);
+    }
+
+    private static List<String> names(ProductSearchResult result) {
+        return result.getHits().stream().map(ProductSearchHit::getProductName).collect(Collectors.toList());
+    }
+}
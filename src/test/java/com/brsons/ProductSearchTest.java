@@ -0,0 +1,62 @@
+package com.brsons;
+
+import com.brsons.dto.ProductSearchHit;
+import com.brsons.dto.ProductSearchResult;
+import com.brsons.model.Product;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.ProductSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ProductSearchTest {
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void testPrefixQueryKeepsOnlyWordsAndNumbers() {
+        assertEquals("red:* & cot:*", ProductSearchService.toPrefixQuery("red cot"));
+        assertEquals("brs:* & 104:*", ProductSearchService.toPrefixQuery("BRS-104".toLowerCase()));
+        // tsquery operators in user input never reach to_tsquery
+        assertEquals("shirt:* & blue:*", ProductSearchService.toPrefixQuery("shirt & !blue:* | ("));
+        assertEquals("कुर्ता:*", ProductSearchService.toPrefixQuery("कुर्ता"));
+        assertNull(ProductSearchService.toPrefixQuery(" &|!():* "));
+    }
+
+    @Test
+    public void testLikeFallbackPagesByCursor() {
+        // H2 has no full-text search, so this exercises the LIKE fallback and its id cursor
+        String word = "zephyrcloth" + System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setProductName("Kurta " + word + " " + i);
+            product.setStockQuantity(1);
+            product.setStatus(i == 4 ? "Inactive" : "Active");
+            productRepository.save(product);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String after = null;
+        do {
+            ProductSearchResult result = productSearchService.search(word, "Active", after, 2);
+            assertFalse(result.isFullText());
+            result.getHits().stream().map(ProductSearchHit::getId).forEach(seen::add);
+            after = result.getNextCursor();
+        } while (after != null);
+
+        assertEquals(4, seen.size());
+        assertEquals(seen.stream().distinct().sorted().toList(), seen);
+    }
+}
@@ -0,0 +1,85 @@
+package com.brsons;
+
+import com.brsons.config.ReplicaRoute;
+import com.brsons.config.ReplicaRoutingDataSource;
+import com.brsons.model.User;
+import com.brsons.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Primary and "replica" are the same in-memory database; the routing counters show which pool served a read
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica_routing;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "datasource.replica.jdbc-url=jdbc:h2:mem:replica_routing;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "datasource.replica.username=sa",
+        "datasource.replica.lag-query=SELECT 0",
+        "datasource.replica.max-lag-seconds=5"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testReportReadsUseReplicaWithinLagAndPrimaryOtherwise() throws Exception {
+        routing.getLagMonitor().refresh();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        long replicaBefore = routed("replica");
+        ReplicaRoute.callWith(true, () -> readOnly.execute(status -> productRepository.count()));
+        assertEquals(replicaBefore + 1, routed("replica"));
+
+        // Unmarked reads and marked read-write transactions stay on the primary
+        ReplicaRoute.callWith(false, () -> readOnly.execute(status -> productRepository.count()));
+        ReplicaRoute.callWith(true, () -> readWrite.execute(status -> productRepository.count()));
+        assertEquals(replicaBefore + 1, routed("replica"));
+
+        // Report pages are marked for the replica
+        User admin = new User();
+        admin.setType("Admin");
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", admin);
+        assertEquals(200, mockMvc.perform(get("/admin/business/dashboard").session(session)).andReturn().getResponse().getStatus());
+        long afterDashboard = routed("replica");
+        assertTrue(afterDashboard > replicaBefore + 1);
+        assertFalse(ReplicaRoute.isRequested());
+
+        // Lagging replica: the same report read falls back to the primary
+        long fallbacks = (Long) routing.getStats().get("lagFallbacks");
+        routing.getLagMonitor().recordLag(60);
+        ReplicaRoute.callWith(true, () -> readOnly.execute(status -> productRepository.count()));
+        assertEquals(afterDashboard, routed("replica"));
+        assertEquals(fallbacks + 1, (Long) routing.getStats().get("lagFallbacks"));
+        routing.getLagMonitor().refresh();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long routed(String route) {
+        return (Long) ((Map<String, Object>) routing.getStats().get(route)).get("connectionsRouted");
+    }
+}
@@ -0,0 +1,167 @@
+package com.brsons;
+
+import com.brsons.dto.DaybookEntryDto;
+import com.brsons.dto.DaybookSummaryDto;
+import com.brsons.dto.PnLRow;
+import com.brsons.model.Account;
+import com.brsons.model.Voucher;
+import com.brsons.model.VoucherEntry;
+import com.brsons.repository.AccountRepository;
+import com.brsons.repository.VoucherEntryRepository;
+import com.brsons.repository.VoucherRepository;
+import com.brsons.service.AccountingReportService;
+import com.brsons.service.DaybookService;
+import com.brsons.service.ReportExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A pool smaller than the number of concurrent reports, which must not starve the report sources
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.connection-timeout=3000",
+        "reports.parallel.db-permits=2"
+})
+@ActiveProfiles("test")
+public class ReportExecutorTest {
+
+    private static final int CONCURRENT_REPORTS = 8;
+
+    @Autowired
+    private ReportExecutor reportExecutor;
+
+    @Autowired
+    private DaybookService daybookService;
+
+    @Autowired
+    private AccountingReportService accountingReportService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private VoucherRepository voucherRepository;
+
+    @Autowired
+    private VoucherEntryRepository voucherEntryRepository;
+
+    @Test
+    public void testSourcesRunSideBySideAndTimeOutIndividually() {
+        long start = System.nanoTime();
+        ReportExecutor.Source<String> first = reportExecutor.fork("slow-a", () -> sleepThen(400, "a"));
+        ReportExecutor.Source<String> second = reportExecutor.fork("slow-b", () -> sleepThen(400, "b"));
+        assertEquals("a", first.join());
+        assertEquals("b", second.join());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < 750, "sources should overlap, took " + elapsedMs + " ms");
+
+        ReportExecutor.Source<String> stuck = reportExecutor.fork("stuck", 100, () -> sleepThen(2000, "late"));
+        RuntimeException timeout = assertThrows(RuntimeException.class, stuck::join);
+        assertTrue(timeout.getMessage().contains("stuck"));
+
+        ReportExecutor.Source<String> failing = reportExecutor.fork("failing", () -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThrows(IllegalStateException.class, failing::join);
+    }
+
+    @Test
+    public void testReportsLoadTheirSourcesInParallel() {
+        LocalDate today = LocalDate.now();
+        DaybookSummaryDto summary = daybookService.getDaybookSummary(today.minusDays(30), today);
+        assertEquals(today, summary.getEndDate());
+
+        List<PnLRow> pnl = accountingReportService.getProfitAndLossWithStock(today.minusDays(30), today);
+        assertTrue(pnl.stream().anyMatch(row -> "COST OF GOODS SOLD".equals(row.getAccountName())));
+    }
+
+    @Test
+    public void testDaybookReadsOnlyVouchersInRange() {
+        Account account = new Account();
+        account.setCode("DBK-" + System.nanoTime());
+        account.setName("Daybook Range Test");
+        account.setType("ASSET");
+        account.setActive(true);
+        accountRepository.save(account);
+
+        LocalDate day = LocalDate.of(2001, 3, 15);
+        Voucher inside = saveVoucher(account, day);
+        Voucher before = saveVoucher(account, day.minusDays(1));
+        Voucher after = saveVoucher(account, day.plusDays(1));
+
+        List<String> voucherIds = daybookService.getDaybookEntries(day, day).stream()
+                .filter(entry -> "VOUCHER".equals(entry.getTransactionType()))
+                .map(DaybookEntryDto::getTransactionId)
+                .toList();
+        assertEquals(List.of(inside.getId().toString(), inside.getId().toString()), voucherIds);
+        assertFalse(voucherIds.contains(before.getId().toString()));
+        assertFalse(voucherIds.contains(after.getId().toString()));
+    }
+
+    @Test
+    public void testMoreConcurrentReportsThanPooledConnections() throws Exception {
+        LocalDate today = LocalDate.now();
+        ExecutorService requests = Executors.newFixedThreadPool(CONCURRENT_REPORTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REPORTS; i++) {
+                final boolean daybook = i % 2 == 0;
+                futures.add(requests.submit(() -> {
+                    start.await();
+                    // The entry points hold no connection while their sources wait for one
+                    return daybook
+                            ? daybookService.getDaybookSummary(today.minusDays(30), today)
+                            : accountingReportService.getProfitAndLossWithStock(today.minusDays(30), today);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                assertNotNull(future.get());
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    private Voucher saveVoucher(Account account, LocalDate date) {
+        Voucher voucher = new Voucher();
+        voucher.setDate(date);
+        voucher.setType("Journal");
+        voucher.setNarration("Daybook range " + date);
+        voucherRepository.save(voucher);
+        saveEntry(voucher, account, new BigDecimal("100.00"), null);
+        saveEntry(voucher, account, null, new BigDecimal("100.00"));
+        return voucher;
+    }
+
+    private void saveEntry(Voucher voucher, Account account, BigDecimal debit, BigDecimal credit) {
+        VoucherEntry entry = new VoucherEntry();
+        entry.setVoucher(voucher);
+        entry.setAccount(account);
+        entry.setDebit(debit);
+        entry.setCredit(credit);
+        voucherEntryRepository.save(entry);
+    }
+
+    private String sleepThen(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,147 @@
+package com.brsons;
+
+import com.brsons.dto.StockChange;
+import com.brsons.model.Product;
+import com.brsons.model.StockMovement;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.StockMovementRepository;
+import com.brsons.service.StockLedgerService;
+import com.brsons.service.StockReconciler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StockLedgerTest {
+
+    private static final int THREADS = 16;
+    private static final int SALES = 400;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockReconciler stockReconciler;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testConcurrentSalesMatchTheLedger() throws Exception {
+        Product first = newProduct("Ledger Shirt", 1000);
+        Product second = newProduct("Ledger Jeans", 1000);
+
+        // Each checkout takes one of each, listed in alternating order so row locks are requested both ways
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < SALES; i++) {
+                final long orderId = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<StockChange> changes = Arrays.asList(
+                            StockChange.out(first.getId(), 2, "Sale").reference("ORDER", orderId),
+                            StockChange.out(second.getId(), 1, "Sale").reference("ORDER", orderId));
+                    if (orderId % 2 == 1) {
+                        changes = Arrays.asList(changes.get(1), changes.get(0));
+                    }
+                    stockLedgerService.post(changes);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000 - 2 * SALES, productRepository.findById(first.getId()).orElseThrow().getStockQuantity());
+        assertEquals(1000 - SALES, productRepository.findById(second.getId()).orElseThrow().getStockQuantity());
+
+        // Opening stock plus one OUT per sale, with an unbroken before/after chain
+        List<StockMovement> movements = stockMovementRepository.findByProductIdOrderByMovementDateDesc(first.getId());
+        assertEquals(SALES + 1, movements.size());
+        movements.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        for (int i = 1; i < movements.size(); i++) {
+            assertEquals(movements.get(i - 1).getAfterQuantity(), movements.get(i).getBeforeQuantity());
+            assertEquals(movements.get(i).getBeforeQuantity() - 2, movements.get(i).getAfterQuantity());
+        }
+        assertEquals(0, stockReconciler.reconcile(false).get("driftedProducts"));
+    }
+
+    @Test
+    public void testAdjustmentsAndInsufficientStock() {
+        Product product = newProduct("Ledger Hoodie", 10);
+
+        assertEquals(4, stockLedgerService.post(StockChange.setTo(product.getId(), 4, "Stock take").product(product)));
+        assertEquals(4, product.getStockQuantity());
+
+        // A guarded sale that would go below zero changes nothing, not even the lines that fit
+        Product other = newProduct("Ledger Cap", 5);
+        assertThrows(IllegalStateException.class, () -> stockLedgerService.post(Arrays.asList(
+                StockChange.out(other.getId(), 1, "Sale").requireStock(),
+                StockChange.out(product.getId(), 5, "Sale").requireStock())));
+        assertEquals(4, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        assertEquals(5, productRepository.findById(other.getId()).orElseThrow().getStockQuantity());
+
+        List<StockMovement> movements = stockMovementRepository.findByProductIdOrderByMovementDateDesc(product.getId());
+        assertEquals(2, movements.size());
+        assertTrue(movements.stream().anyMatch(movement -> movement.getMovementType() == StockMovement.MovementType.ADJUSTMENT
+                && movement.getQuantity() == -6 && movement.getBeforeQuantity() == 10 && movement.getAfterQuantity() == 4));
+    }
+
+    @Test
+    public void testReconcilerBooksOpeningBalancesAndReportsDrift() {
+        // Stock written before the ledger existed
+        Product legacy = new Product();
+        legacy.setProductName("Ledger Legacy");
+        legacy.setStockQuantity(7);
+        legacy.setStatus("Active");
+        productRepository.save(legacy);
+        stockReconciler.reconcile(false);
+        assertEquals(1, stockMovementRepository.findByProductIdOrderByMovementDateDesc(legacy.getId()).size());
+
+        // A write behind the ledger's back
+        jdbcTemplate.update("UPDATE products SET stock_quantity = 9 WHERE id = ?", legacy.getId());
+        Map<String, Object> result = stockReconciler.reconcile(false);
+        assertEquals(1, result.get("driftedProducts"));
+        assertEquals(2L, result.get("driftedUnits"));
+
+        assertEquals(1, stockReconciler.reconcile(true).get("corrected"));
+        assertEquals(0, stockReconciler.reconcile(false).get("driftedProducts"));
+        assertEquals(9, productRepository.findById(legacy.getId()).orElseThrow().getStockQuantity());
+    }
+
+    private Product newProduct(String name, int stock) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setStockQuantity(0);
+        product.setStatus("Active");
+        productRepository.save(product);
+        stockLedgerService.openingStock(product, stock);
+        return product;
+    }
+}
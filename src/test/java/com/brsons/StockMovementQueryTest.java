@@ -0,0 +1,89 @@
+package com.brsons;
+
+import com.brsons.dto.KeysetPage;
+import com.brsons.dto.StockChange;
+import com.brsons.model.Product;
+import com.brsons.model.StockMovement;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.StockLedgerService;
+import com.brsons.service.StockMovementQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class StockMovementQueryTest {
+
+    @Autowired
+    private StockMovementQueryService stockMovementQueryService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testKeysetPagesWalkNewestFirstAcrossTies() {
+        Product product = new Product();
+        product.setProductName("History Shirt");
+        product.setStockQuantity(0);
+        product.setStatus("Active");
+        productRepository.save(product);
+        stockLedgerService.openingStock(product, 100);
+        for (int i = 0; i < 6; i++) {
+            stockLedgerService.post(i % 2 == 0
+                    ? StockChange.out(product.getId(), 1, "Sale")
+                    : StockChange.in(product.getId(), 2, "Purchase"));
+        }
+
+        // Two movements per minute, so pages have to break ties on id
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 10, 0);
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM stock_movements WHERE product_id = ? ORDER BY id", Long.class, product.getId());
+        for (int i = 0; i < expected.size(); i++) {
+            jdbcTemplate.update("UPDATE stock_movements SET movement_date = ? WHERE id = ?",
+                    Timestamp.valueOf(base.plusMinutes(i / 2)), expected.get(i));
+        }
+        Collections.reverse(expected);
+
+        List<Long> seen = new ArrayList<>();
+        Long after = null;
+        int pages = 0;
+        do {
+            KeysetPage<StockMovement> page = stockMovementQueryService.findPage(product.getId(), null, null, null, after, 3);
+            assertEquals(7, page.getTotalCount());
+            page.getItems().forEach(movement -> seen.add(movement.getId()));
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        assertEquals(3, pages);
+        assertEquals(expected, seen);
+
+        KeysetPage<StockMovement> sales = stockMovementQueryService.findPage(product.getId(),
+                StockMovement.MovementType.OUT, base, base.plusMinutes(2), null, 50);
+        assertEquals(2, sales.getTotalCount());
+        assertTrue(sales.getItems().stream().allMatch(movement -> "Sale".equals(movement.getReason())));
+
+        List<StockMovement> latest = stockMovementQueryService.findLatest(5);
+        assertTrue(latest.size() <= 5);
+        for (int i = 1; i < latest.size(); i++) {
+            assertFalse(latest.get(i).getMovementDate().isAfter(latest.get(i - 1).getMovementDate()));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.brsons;
+
+import com.brsons.model.Order;
+import com.brsons.model.OrderItem;
+import com.brsons.model.Product;
+import com.brsons.model.TaxPlan;
+import com.brsons.model.TaxSummaryEntry;
+import com.brsons.model.User;
+import com.brsons.repository.OrderRepository;
+import com.brsons.repository.ProductRepository;
+import com.brsons.service.GstEngine;
+import com.brsons.service.TaxSummaryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TaxSummaryTest {
+
+    private static final int ORDERS = 8;
+
+    @Autowired
+    private TaxSummaryService taxSummaryService;
+
+    @Autowired
+    private GstEngine gstEngine;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testInvoicesPostAndReverseOnce() throws Exception {
+        String hsn = "T" + System.nanoTime() % 10_000_000;
+        Product product = new Product();
+        product.setProductName("Summary Product");
+        product.setHsnCode(hsn);
+        product.setCgstPercentage(new BigDecimal("6"));
+        product.setSgstPercentage(new BigDecimal("6"));
+        product.setIgstPercentage(new BigDecimal("12"));
+        product = productRepository.save(product);
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orderIds.add(saveInvoice(product.getId()).getId());
+        }
+
+        // Concurrent first postings race to create the same bucket
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long id : orderIds) {
+                futures.add(pool.submit(() -> taxSummaryService.recordInvoice(orderRepository.findById(id).orElseThrow())));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        // Posting again is a no-op
+        taxSummaryService.recordInvoice(orderRepository.findById(orderIds.get(0)).orElseThrow());
+
+        TaxSummaryEntry entry = bucket(hsn);
+        assertEquals(ORDERS, entry.getInvoiceCount());
+        assertEquals(ORDERS * 3L, entry.getQuantity());
+        assertEquals(0, new BigDecimal("2400.00").compareTo(entry.getTaxableValue()));
+        assertEquals(0, new BigDecimal("144.00").compareTo(entry.getCgstAmount()));
+        assertEquals(0, new BigDecimal("144.00").compareTo(entry.getSgstAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(entry.getIgstAmount()));
+        assertEquals("B2C", entry.getSupplyType());
+
+        taxSummaryService.reverseInvoice(orderRepository.findById(orderIds.get(1)).orElseThrow());
+        taxSummaryService.reverseInvoice(orderRepository.findById(orderIds.get(1)).orElseThrow());
+
+        entry = bucket(hsn);
+        assertEquals(ORDERS - 1, entry.getInvoiceCount());
+        assertEquals(0, new BigDecimal("2100.00").compareTo(entry.getTaxableValue()));
+        assertEquals(0, new BigDecimal("126.00").compareTo(entry.getCgstAmount()));
+    }
+
+    @Test
+    public void testCsvQuotesTextFields() throws Exception {
+        String hsn = "H\"" + System.nanoTime() % 100_000 + ",9";
+        Product product = new Product();
+        product.setProductName("Csv Product");
+        product.setHsnCode(hsn);
+        product.setCgstPercentage(new BigDecimal("2.5"));
+        product.setSgstPercentage(new BigDecimal("2.5"));
+        product.setIgstPercentage(new BigDecimal("5"));
+        product = productRepository.save(product);
+        taxSummaryService.recordInvoice(saveInvoice(product.getId()));
+
+        StringWriter csv = new StringWriter();
+        taxSummaryService.writeCsv(YearMonth.now(), csv);
+        String row = csv.toString().lines()
+                .filter(line -> line.contains(hsn.substring(2, hsn.length() - 2)))
+                .findFirst()
+                .orElseThrow();
+        // Quoted with the embedded quote doubled, so the row still has 12 columns
+        assertTrue(row.contains(",\"" + hsn.replace("\"", "\"\"") + "\","), row);
+        assertEquals(12, row.replace("\"" + hsn.replace("\"", "\"\"") + "\"", "HSN").split(",").length);
+    }
+
+    @Test
+    public void testCustomerCancelReversesTheInvoice() throws Exception {
+        String hsn = "C" + System.nanoTime() % 10_000_000;
+        Product product = new Product();
+        product.setProductName("Cancelled Product");
+        product.setHsnCode(hsn);
+        product.setCgstPercentage(new BigDecimal("9"));
+        product.setSgstPercentage(new BigDecimal("9"));
+        product.setIgstPercentage(new BigDecimal("18"));
+        product = productRepository.save(product);
+
+        String phone = "97" + System.nanoTime() % 100_000_000;
+        Order order = saveInvoice(product.getId());
+        order.setUserPhone(phone);
+        order = orderRepository.save(order);
+        taxSummaryService.recordInvoice(order);
+        assertEquals(1, bucket(hsn).getInvoiceCount());
+
+        User customer = new User();
+        customer.setPhone(phone);
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", customer);
+        assertEquals(200, mockMvc.perform(post("/orders/" + order.getId() + "/cancel").session(session))
+                .andReturn().getResponse().getStatus());
+
+        TaxSummaryEntry entry = bucket(hsn);
+        assertEquals(0, entry.getInvoiceCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(entry.getTaxableValue()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(entry.getCgstAmount()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(entry.getSgstAmount()));
+    }
+
+    @Test
+    public void testReversalUsesTheRecordedHsn() {
+        String hsn = "H" + System.nanoTime() % 10_000_000;
+        Product product = new Product();
+        product.setProductName("Reclassified Product");
+        product.setHsnCode(hsn);
+        product.setCgstPercentage(new BigDecimal("6"));
+        product.setSgstPercentage(new BigDecimal("6"));
+        product.setIgstPercentage(new BigDecimal("12"));
+        product = productRepository.save(product);
+
+        Order order = saveInvoice(product.getId());
+        taxSummaryService.recordInvoice(order);
+        assertEquals(1, bucket(hsn).getInvoiceCount());
+
+        // The product is reclassified between invoicing and cancellation
+        String newHsn = "N" + hsn.substring(1);
+        product.setHsnCode(newHsn);
+        productRepository.save(product);
+        taxSummaryService.reverseInvoice(orderRepository.findById(order.getId()).orElseThrow());
+
+        TaxSummaryEntry entry = bucket(hsn);
+        assertEquals(0, entry.getInvoiceCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(entry.getTaxableValue()));
+        assertTrue(taxSummaryService.getEntries(YearMonth.now()).stream()
+                .noneMatch(e -> newHsn.equals(e.getHsnCode())));
+    }
+
+    private Order saveInvoice(Long productId) {
+        Order order = new Order();
+        order.setName("Summary Customer");
+        order.setTaxType("CGST_SGST");
+        order.setInvoiceNumber("PK-TEST-" + System.nanoTime());
+        order.setOrderStatus("Pending");
+        order.setOrderItems(new ArrayList<>());
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProductId(productId);
+        item.setQuantity(3);
+        item.setUnitPrice(new BigDecimal("100.00"));
+        item.setTotalPrice(new BigDecimal("300.00"));
+        order.getOrderItems().add(item);
+        gstEngine.calculateOrder(order.getOrderItems(), true, TaxPlan.NONE);
+        return orderRepository.save(order);
+    }
+
+    private TaxSummaryEntry bucket(String hsn) {
+        return taxSummaryService.getEntries(YearMonth.now()).stream()
+                .filter(e -> hsn.equals(e.getHsnCode()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,189 @@
+package com.brsons;
+
+import com.brsons.dto.CartSummary;
+import com.brsons.dto.StockChange;
+import com.brsons.model.CartProductEntry;
+import com.brsons.model.OrderItem;
+import com.brsons.model.Product;
+import com.brsons.model.ProductVariant;
+import com.brsons.model.StockMovement;
+import com.brsons.model.User;
+import com.brsons.repository.ProductRepository;
+import com.brsons.repository.ProductVariantRepository;
+import com.brsons.repository.StockMovementRepository;
+import com.brsons.service.CartService;
+import com.brsons.service.CartSummaryService;
+import com.brsons.service.CatalogCacheService;
+import com.brsons.service.StockLedgerService;
+import com.brsons.service.StockReconciler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class VariantInventoryTest {
+
+    private static final int SALES = 40;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private StockReconciler stockReconciler;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private CatalogCacheService catalogCacheService;
+
+    @Test
+    public void testVariantSalesMoveVariantAndProduct() throws Exception {
+        Product product = newProduct("Variant Kurta", 3);
+        ProductVariant medium = newVariant(product, "M", null);
+        ProductVariant large = newVariant(product, "L", null);
+
+        // Medium gets stock of its own; large keeps selling from the product's
+        stockLedgerService.post(StockChange.setTo(product.getId(), 60, "Stock take").variant(medium.getId()));
+        assertEquals(63, stock(product));
+        assertEquals(60, variantStock(medium));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < SALES; i++) {
+                final long orderId = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    stockLedgerService.post(StockChange.out(product.getId(), 1, "Sale")
+                            .variant(medium.getId()).reference("ORDER", orderId).requireStock());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(60 - SALES, variantStock(medium));
+        assertEquals(63 - SALES, stock(product));
+
+        stockLedgerService.post(StockChange.out(product.getId(), 2, "Sale").variant(large.getId()));
+        assertNull(productVariantRepository.findById(large.getId()).orElseThrow().getStockQuantity());
+        assertEquals(61 - SALES, stock(product));
+
+        // More than the variant holds is refused even though the product has enough
+        assertThrows(IllegalStateException.class, () -> stockLedgerService.post(
+                StockChange.out(product.getId(), 21, "Sale").variant(medium.getId()).requireStock()));
+        assertEquals(20, variantStock(medium));
+        assertThrows(IllegalArgumentException.class, () -> stockLedgerService.post(
+                StockChange.out(newProduct("Variant Other", 5).getId(), 1, "Sale").variant(medium.getId())));
+
+        // A cancelled order puts the variant's stock back
+        OrderItem item = new OrderItem();
+        item.setProductId(product.getId());
+        item.setVariantId(medium.getId());
+        item.setQuantity(5);
+        stockLedgerService.restock(99L, List.of(item));
+        assertEquals(25, variantStock(medium));
+        assertEquals(26, stock(product));
+
+        List<StockMovement> movements = stockMovementRepository.findByProductIdOrderByMovementDateDesc(product.getId());
+        assertEquals(SALES, movements.stream().filter(movement -> "Sale".equals(movement.getReason())
+                && medium.getId().equals(movement.getVariantId())).count());
+        assertEquals(0, stockReconciler.reconcile(false).get("driftedProducts"));
+        assertEquals(0, stockReconciler.reconcile(false).get("variantDrift"));
+    }
+
+    @Test
+    public void testCartLinesArePricedPerVariant() {
+        Product product = newProduct("Variant Saree", 10);
+        product.setRetailPrice(250.0);
+        product.setB2bPrice(200.0);
+        product.setCgstPercentage(new BigDecimal("2.5"));
+        product.setSgstPercentage(new BigDecimal("2.5"));
+        product.setIgstPercentage(new BigDecimal("5"));
+        productRepository.save(product);
+        ProductVariant silk = newVariant(product, "Silk", 300.0);
+
+        assertEquals(product.getId(), catalogCacheService.getVariant(silk.getId()).orElseThrow().getProductId());
+
+        User user = new User();
+        user.setId(9301L);
+        user.setName("Variant Buyer");
+        user.setPhone("900009301");
+        assertEquals(2, cartService.changeQuantity(user, product.getId(), silk.getId(), 2));
+        assertEquals(1, cartService.changeQuantity(user, product.getId(), 1));
+
+        List<CartProductEntry> entries = cartService.getEntries(user.getId());
+        assertEquals(2, entries.size());
+        assertEquals(silk.getId(), entries.get(0).getVariantId());
+        assertNull(entries.get(1).getVariantId());
+        assertEquals(3, cartService.getQuantity(user.getId(), product.getId()));
+        assertEquals(2, cartService.getQuantity(user.getId(), product.getId(), silk.getId()));
+
+        // Silk overrides the retail price only; B2B falls through to the product's
+        CartSummary retail = cartSummaryService.getPricedSummary(user.getId(), "Retail", "Delhi");
+        assertEquals(0, new BigDecimal("850.00").compareTo(retail.getSubtotal().toBigDecimal()));
+        CartSummary b2b = cartSummaryService.getPricedSummary(user.getId(), "B2B", "Delhi");
+        assertEquals(0, new BigDecimal("600.00").compareTo(b2b.getSubtotal().toBigDecimal()));
+
+        assertEquals(0, cartService.changeQuantity(user, product.getId(), silk.getId(), -2));
+        assertEquals(1, cartService.getEntries(user.getId()).size());
+    }
+
+    private Product newProduct(String name, int stock) {
+        Product product = new Product();
+        product.setProductName(name);
+        product.setStockQuantity(0);
+        product.setStatus("Active");
+        productRepository.save(product);
+        stockLedgerService.openingStock(product, stock);
+        return product;
+    }
+
+    private ProductVariant newVariant(Product product, String size, Double retailPrice) {
+        ProductVariant variant = new ProductVariant();
+        variant.setProduct(product);
+        variant.setSize(size);
+        variant.setColor("Default");
+        variant.setRetailPrice(retailPrice);
+        variant.setStatus("Active");
+        return productVariantRepository.save(variant);
+    }
+
+    private int stock(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+
+    private int variantStock(ProductVariant variant) {
+        return productVariantRepository.findById(variant.getId()).orElseThrow().getStockQuantity();
+    }
+}